@@ -0,0 +1,122 @@
+package com.irshad.placesautocomplete.benchmarks;
+
+import com.irshad.placesautocomplete.history.BinaryHistoryCodec;
+import com.irshad.placesautocomplete.history.HistoryCodec;
+import com.irshad.placesautocomplete.json.JsonParserResolver;
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.model.Place;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The file read and write done by DefaultAutocompleteHistoryManager when loading and saving the
+ * history, in the binary format and in the JSON format of earlier versions. The AtomicFile backup
+ * rename is left out as it needs the Android framework.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HistoryFileBenchmark {
+    @Param({"5", "50", "500"})
+    public int historySize;
+
+    private PlacesApiJsonParser parser;
+
+    private HistoryCodec binaryCodec;
+
+    private List<Place> history;
+
+    private File readFile;
+
+    private File writeFile;
+
+    private File binaryReadFile;
+
+    @Setup
+    public void setUp() throws Exception {
+        parser = JsonParserResolver.JSON_PARSER;
+        binaryCodec = new BinaryHistoryCodec();
+        history = Payloads.places(historySize);
+
+        readFile = File.createTempFile("history-read", ".json");
+        writeFile = File.createTempFile("history-write", ".json");
+        binaryReadFile = File.createTempFile("history-read", ".bin");
+
+        final OutputStream os = new FileOutputStream(readFile);
+        try {
+            parser.writeHistoryJson(os, history);
+        } finally {
+            os.close();
+        }
+
+        final OutputStream binaryOs = new FileOutputStream(binaryReadFile);
+        try {
+            binaryCodec.write(binaryOs, history);
+        } finally {
+            binaryOs.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        readFile.delete();
+        writeFile.delete();
+        binaryReadFile.delete();
+    }
+
+    @Benchmark
+    public List<Place> readHistory() throws Exception {
+        final InputStream is = new FileInputStream(readFile);
+        try {
+            return parser.readHistoryJson(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    @Benchmark
+    public void writeHistory() throws Exception {
+        final OutputStream os = new FileOutputStream(writeFile);
+        try {
+            parser.writeHistoryJson(os, history);
+        } finally {
+            os.close();
+        }
+    }
+
+    @Benchmark
+    public List<Place> readBinaryHistory() throws Exception {
+        final InputStream is = new FileInputStream(binaryReadFile);
+        try {
+            return binaryCodec.read(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    @Benchmark
+    public void writeBinaryHistory() throws Exception {
+        final OutputStream os = new FileOutputStream(writeFile);
+        try {
+            binaryCodec.write(os, history);
+        } finally {
+            os.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.irshad.placesautocomplete.benchmarks;
+
+import com.irshad.placesautocomplete.history.HistoryPrefixIndex;
+import com.irshad.placesautocomplete.history.HistoryRanking;
+import com.irshad.placesautocomplete.model.Place;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The history paths of PlacesApiFilter: sorting the past selections for an empty or history
+ * constraint, and merging them into fresh predictions. Both operations sort in place, so every
+ * invocation works on copies, as the filter does with the predictions. The indexed variants query
+ * a prefix index built once, as a history manager keeping one does after every change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HistoryRankingBenchmark {
+    private static final String CONSTRAINT = "Ma";
+
+    private static final int MAX_HISTORY_RESULTS = 5;
+
+    @Param({"5", "50", "500", "5000"})
+    public int historySize;
+
+    private List<Place> history;
+
+    private List<Place> predictions;
+
+    private HistoryPrefixIndex index;
+
+    @Setup
+    public void setUp() {
+        history = Payloads.places(historySize);
+        // the api returns five predictions, some of them already in the history
+        predictions = new ArrayList<>(history.subList(0, Math.min(5, historySize)));
+
+        index = new HistoryPrefixIndex(history);
+        index.query(CONSTRAINT, 1);
+    }
+
+    @Benchmark
+    public List<Place> sortHistory() {
+        final List<Place> pastSelections = new ArrayList<>(history);
+        HistoryRanking.sortHistory(CONSTRAINT, pastSelections, false);
+        return pastSelections;
+    }
+
+    @Benchmark
+    public List<Place> mergeHistory() {
+        final List<Place> pastSelections = new ArrayList<>(history);
+        final List<Place> merged = new ArrayList<>(predictions);
+        HistoryRanking.mergeHistory(CONSTRAINT, merged, pastSelections);
+        return merged;
+    }
+
+    @Benchmark
+    public List<Place> rankHistoryIndexed() {
+        return HistoryRanking.rankHistory(CONSTRAINT, index, MAX_HISTORY_RESULTS);
+    }
+
+    @Benchmark
+    public List<Place> mergeHistoryIndexed() {
+        final List<Place> merged = new ArrayList<>(predictions);
+        HistoryRanking.mergeHistory(CONSTRAINT, merged, index, MAX_HISTORY_RESULTS);
+        return merged;
+    }
+
+    @Benchmark
+    public List<Place> buildIndex() {
+        return new HistoryPrefixIndex(history).query(CONSTRAINT, MAX_HISTORY_RESULTS);
+    }
+}
@@ -0,0 +1,77 @@
+package com.irshad.placesautocomplete.benchmarks;
+
+import com.google.gson.Gson;
+import com.irshad.placesautocomplete.json.BufferedSourceJsonParser;
+import com.irshad.placesautocomplete.json.JsonParserResolver;
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import okio.Buffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses recorded autocomplete and details payloads with the parser the library resolves on the
+ * JVM, which is the Gson parser, and autocomplete payloads with the okio parser. The okio parser
+ * reads from a buffer like the body source of an OkHttp response. The reflective benchmarks parse
+ * with a plain Gson instance as the baseline for the type adapters of the Gson parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonParserBenchmark {
+    private PlacesApiJsonParser parser;
+
+    private BufferedSourceJsonParser okioParser;
+
+    private Gson reflectiveGson;
+
+    private byte[] autocompletePayload;
+
+    private byte[] detailsPayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        parser = JsonParserResolver.JSON_PARSER;
+        okioParser = (BufferedSourceJsonParser) JsonParserResolver.newOkioParser();
+        reflectiveGson = new Gson();
+        autocompletePayload = Payloads.readResource(Payloads.AUTOCOMPLETE_JSON);
+        detailsPayload = Payloads.readResource(Payloads.DETAILS_JSON);
+    }
+
+    @Benchmark
+    public PlacesAutocompleteResponse autocomplete() throws Exception {
+        return parser.autocompleteFromStream(new ByteArrayInputStream(autocompletePayload));
+    }
+
+    @Benchmark
+    public PlacesAutocompleteResponse autocompleteOkio() throws Exception {
+        return okioParser.autocompleteFromSource(new Buffer().write(autocompletePayload));
+    }
+
+    @Benchmark
+    public PlacesDetailsResponse details() throws Exception {
+        return parser.detailsFromStream(new ByteArrayInputStream(detailsPayload));
+    }
+
+    @Benchmark
+    public PlacesAutocompleteResponse autocompleteReflective() throws Exception {
+        return reflectiveGson.fromJson(new InputStreamReader(new ByteArrayInputStream(autocompletePayload), "UTF-8"), PlacesAutocompleteResponse.class);
+    }
+
+    @Benchmark
+    public PlacesDetailsResponse detailsReflective() throws Exception {
+        return reflectiveGson.fromJson(new InputStreamReader(new ByteArrayInputStream(detailsPayload), "UTF-8"), PlacesDetailsResponse.class);
+    }
+}
@@ -0,0 +1,74 @@
+package com.irshad.placesautocomplete.benchmarks;
+
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixtures shared by the benchmarks
+ */
+final class Payloads {
+    static final String AUTOCOMPLETE_JSON = "/autocomplete.json";
+    static final String DETAILS_JSON = "/details.json";
+
+    private static final String[] CITIES = {
+            "Boston", "Cambridge", "Worcester", "Springfield", "Somerville", "Lowell", "Quincy", "Newton"
+    };
+
+    private static final String[] STREETS = {
+            "Main Street", "Maple Avenue", "Market Street", "Mass Avenue", "Elm Street", "Oak Street"
+    };
+
+    static byte[] readResource(final String name) throws IOException {
+        final InputStream is = Payloads.class.getResourceAsStream(name);
+        if (is == null) {
+            throw new IOException("Missing benchmark resource " + name);
+        }
+
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * @return count distinct places shaped like autocomplete predictions
+     */
+    static List<Place> places(final int count) {
+        final List<Place> places = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String street = STREETS[i % STREETS.length];
+            final String city = CITIES[(i / STREETS.length) % CITIES.length];
+            final String description = street + ", " + city + ", MA, United States";
+            places.add(new Place(
+                    description,
+                    "place-" + i,
+                    Arrays.asList(new MatchedSubstring(2, 0)),
+                    Arrays.asList(
+                            new DescriptionTerm(0, street),
+                            new DescriptionTerm(street.length() + 2, city),
+                            new DescriptionTerm(description.length() - 17, "MA"),
+                            new DescriptionTerm(description.length() - 13, "United States")),
+                    Arrays.asList(PlaceType.ROUTE, PlaceType.GEOCODE)));
+        }
+        return places;
+    }
+
+    private Payloads() {
+    }
+}
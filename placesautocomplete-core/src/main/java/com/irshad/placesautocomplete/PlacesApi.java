@@ -0,0 +1,803 @@
+package com.irshad.placesautocomplete;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.DirectExecutor;
+import com.irshad.placesautocomplete.async.LaneExecutor;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.async.PlacesFuture;
+import com.irshad.placesautocomplete.async.RequestCoalescer;
+import com.irshad.placesautocomplete.cache.AutocompleteCacheKey;
+import com.irshad.placesautocomplete.cache.DetailsCacheKey;
+import com.irshad.placesautocomplete.cache.ResponseCache;
+import com.irshad.placesautocomplete.cache.TieredResponseCache;
+import com.irshad.placesautocomplete.metrics.CacheOutcome;
+import com.irshad.placesautocomplete.metrics.PlacesMetricsListener;
+import com.irshad.placesautocomplete.metrics.Stage;
+import com.irshad.placesautocomplete.model.AutocompleteResultType;
+import com.irshad.placesautocomplete.model.LazyPlaceDetails;
+import com.irshad.placesautocomplete.model.LazyPlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlaceLocation;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.network.PlacesHttpClient;
+import com.irshad.placesautocomplete.network.PlacesRateLimiter;
+import com.irshad.placesautocomplete.session.AutocompleteSessionManager;
+import com.irshad.placesautocomplete.util.UrlBuilder;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An Abstraction for the Google Maps Places API. Manages the building of requests to the API and
+ * executing them using the provided {@link PlacesHttpClient}. Identical autocomplete or details
+ * requests made while one is in flight share its network call and response.
+ */
+public class PlacesApi {
+    public static final AutocompleteResultType DEFAULT_RESULT_TYPE = AutocompleteResultType.ADDRESS;
+
+    private static final String PLACES_API_BASE = "https://maps.googleapis.com/maps/api/place";
+    private static final String PATH_AUTOCOMPLETE = "autocomplete";
+    private static final String PATH_DETAILS = "details";
+    private static final String PATH_JSON = "json";
+    private static final String PARAMETER_LOCATION = "location";
+    private static final String PARAMETER_RADIUS = "radius";
+    private static final String PARAMETER_INPUT = "input";
+    private static final String PARAMETER_KEY = "key";
+    private static final String PARAMETER_TYPE = "types";
+    private static final String PARAMETER_PLACE_ID = "placeid";
+    private static final String PARAMETER_LANGUAGE = "language";
+    private static final String PARAMETER_FIELDS = "fields";
+    private static final String PARAMETER_SESSION_TOKEN = "sessiontoken";
+
+    private static final Long NO_BIAS_RADIUS = 20000000L;
+    private static final PlaceLocation NO_BIAS_LOCATION = new PlaceLocation(0.0d, 0.0d);
+
+    @NonNull
+    private final PlacesHttpClient httpClient;
+
+    @NonNull
+    private final String googleApiKey;
+
+    @Nullable
+    private final ResponseCache<AutocompleteCacheKey, PlacesAutocompleteResponse> autocompleteCache;
+
+    @Nullable
+    private final ResponseCache<DetailsCacheKey, PlacesDetailsResponse> detailsCache;
+
+    @NonNull
+    private final Executor callbackExecutor;
+
+    @NonNull
+    private final LaneExecutor executor;
+
+    @Nullable
+    private final PlacesMetricsListener metricsListener;
+
+    @Nullable
+    private final AutocompleteSessionManager sessionManager;
+
+    @Nullable
+    private final PlacesRateLimiter rateLimiter;
+
+    // identical requests in flight at the same time share one network call
+    @NonNull
+    private final RequestCoalescer<PlacesAutocompleteResponse> autocompleteRequests = new RequestCoalescer<>();
+
+    @NonNull
+    private final RequestCoalescer<PlacesDetailsResponse> detailsRequests = new RequestCoalescer<>();
+
+    @Nullable
+    private PlaceLocation currentLocation;
+
+    @Nullable
+    private Long radiusM;
+
+    @Nullable
+    private String languageCode;
+
+    private boolean locationBiasEnabled = true;
+
+    public PlacesApi(@NonNull final PlacesHttpClient httpClient, @NonNull final String googleApiKey) {
+        this.httpClient = httpClient;
+        this.googleApiKey = googleApiKey;
+        this.autocompleteCache = null;
+        this.detailsCache = null;
+        this.callbackExecutor = DirectExecutor.INSTANCE;
+        this.executor = LaneExecutor.getDefault();
+        this.metricsListener = null;
+        this.sessionManager = new AutocompleteSessionManager();
+        this.rateLimiter = null;
+    }
+
+    PlacesApi(@NonNull final PlacesApiBuilder builder,
+              @NonNull final PlacesHttpClient httpClient,
+              @Nullable final ResponseCache<AutocompleteCacheKey, PlacesAutocompleteResponse> autocompleteCache,
+              @Nullable final ResponseCache<DetailsCacheKey, PlacesDetailsResponse> detailsCache,
+              @Nullable final AutocompleteSessionManager sessionManager,
+              @Nullable final PlacesRateLimiter rateLimiter) {
+        this.httpClient = httpClient;
+        this.googleApiKey = builder.googleApiKey;
+        this.autocompleteCache = autocompleteCache;
+        this.detailsCache = detailsCache;
+        this.callbackExecutor = builder.callbackExecutor;
+        this.executor = builder.executor;
+        this.metricsListener = builder.metricsListener;
+        this.sessionManager = sessionManager;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * @return the cache used to serve repeated autocomplete requests, or null if caching is disabled
+     */
+    @Nullable
+    public ResponseCache<AutocompleteCacheKey, PlacesAutocompleteResponse> getAutocompleteCache() {
+        return autocompleteCache;
+    }
+
+    /**
+     * @return the cache serving details requests, e.g. after a prefetch, or null if disabled
+     */
+    @Nullable
+    public ResponseCache<DetailsCacheKey, PlacesDetailsResponse> getDetailsCache() {
+        return detailsCache;
+    }
+
+    /**
+     * @return the executor running the background work of this api, e.g. prefetches
+     */
+    @NonNull
+    public LaneExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the limiter guarding the quota of the api key, or null if requests are not limited
+     */
+    @Nullable
+    public PlacesRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * @return the number of requests that joined an identical request in flight instead of making
+     * their own network call
+     */
+    public long getCoalescedRequestCount() {
+        return autocompleteRequests.getCoalescedCount() + detailsRequests.getCoalescedCount();
+    }
+
+    /**
+     * @return the number of network calls made for autocomplete and details requests, lazy details
+     * excluded
+     */
+    public long getNetworkRequestCount() {
+        return autocompleteRequests.getStartedCount() + detailsRequests.getStartedCount();
+    }
+
+    /**
+     * @return the listener receiving the request metrics, or null if none was registered
+     */
+    @Nullable
+    public PlacesMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * @return the manager of the session tokens attached to autocomplete requests, or null if
+     * requests are not grouped into sessions
+     */
+    @Nullable
+    public AutocompleteSessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    /**
+     * @return if the Places API is currently going to return results biased to the device's current
+     * location
+     */
+    public boolean isLocationBiasEnabled() {
+        return locationBiasEnabled;
+    }
+
+    /**
+     * Allows for enabling and disabling location biasing in the Places api.
+     *
+     * @param enabled is biasing should be enabled. true by default.
+     */
+    public void setLocationBiasEnabled(boolean enabled) {
+        locationBiasEnabled = enabled;
+    }
+
+    /**
+     * @return the radius, in meters.
+     */
+    public Long getRadiusMeters() {
+        return radiusM;
+    }
+
+    /**
+     * @param radiusM The radius from the provided location to bias results with. By default,
+     *                     the Places API biases with x meters. To disable
+     *                     the bias radius but maintain the biasing, use the
+     *                     {@link PlacesApi#NO_BIAS_RADIUS}
+     */
+    public void setRadiusMeters(final Long radiusM) {
+        this.radiusM = radiusM;
+    }
+
+    /**
+     * @return the current location in use for location biasing. By default, biasing uses geoip
+     */
+    @Nullable
+    public PlaceLocation getCurrentLocation() {
+        return currentLocation;
+    }
+
+    /**
+     * Sets the location that will be used for biasing the Place results. The API will favor Places
+     * close to the set location when producing results
+     *
+     * @param currentLocation the location to bias results towards
+     */
+    public void setCurrentLocation(@Nullable final PlaceLocation currentLocation) {
+        this.currentLocation = currentLocation;
+    }
+
+
+    /**
+     *
+     * @return the languageCode code
+     */
+    @Nullable
+    public String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * Sets the languageCode code used for autocomplete and place details calls.
+     * List of supportable codes can be seen in <a href="https://developers.google.com/maps/faq#languagesupport">documentation</a>
+     *
+     * @param language the languageCode code
+     */
+    public void setLanguageCode(@Nullable String language) {
+        this.languageCode = language;
+    }
+
+    /**
+     * Performs autocompletion for the given input text and the type of response desired. This is a
+     * synchronous call, use {@link #autocompleteAsync} if you need it asynchronous. If an
+     * autocomplete cache is set, a fresh cached response for the same parameters is returned
+     * without a network request.
+     * @param input the textual input that will be autocompleted
+     * @param type the response type from the api
+     * @throws IOException
+     */
+    public PlacesAutocompleteResponse autocomplete(final String input, final AutocompleteResultType type) throws IOException {
+        return autocomplete(input, type, null);
+    }
+
+    /**
+     * Performs autocompletion like {@link #autocomplete(String, AutocompleteResultType)}, aborting
+     * the network request when the given signal is canceled
+     * @param input the textual input that will be autocompleted
+     * @param type the response type from the api
+     * @param signal a signal used to cancel the request, may be null
+     * @throws com.irshad.placesautocomplete.async.CanceledException if the signal was canceled
+     * @throws IOException
+     */
+    public PlacesAutocompleteResponse autocomplete(final String input, final AutocompleteResultType type, @Nullable final CancellationSignal signal) throws IOException {
+        final long start = System.nanoTime();
+        final AutocompleteRequest request = buildAutocompleteRequest(input, type);
+        reportStage(Stage.BUILD_REQUEST, start);
+
+        final PlacesAutocompleteResponse cached = getCachedResponse(request);
+        if (cached != null) {
+            reportStage(Stage.REQUEST, start);
+            return cached;
+        }
+        prepareNetworkRequest(request);
+
+        final AtomicBoolean madeRequest = new AtomicBoolean();
+        try {
+            final PlacesAutocompleteResponse response = autocompleteRequests.execute(request.requestKey, signal, new RequestCoalescer.SyncCall<PlacesAutocompleteResponse>() {
+                @Override
+                public PlacesAutocompleteResponse execute(@NonNull final CancellationSignal signal) throws IOException {
+                    madeRequest.set(true);
+                    final PlacesAutocompleteResponse response = httpClient.executeAutocompleteRequest(request.url, signal);
+                    cacheResponse(request, response);
+                    return response;
+                }
+            });
+            reportStage(Stage.REQUEST, start);
+            return response;
+        } finally {
+            reportCacheLookup(madeRequest.get() ? CacheOutcome.MISS : CacheOutcome.COALESCED);
+        }
+    }
+
+    /**
+     * Performs autocompletion asynchronously, delivering the result on the default callback executor
+     * of this api
+     * @see #autocompleteAsync(String, AutocompleteResultType, PlacesCallback, Executor)
+     */
+    @NonNull
+    public PlacesFuture<PlacesAutocompleteResponse> autocompleteAsync(final String input,
+                                                                      final AutocompleteResultType type,
+                                                                      @Nullable final PlacesCallback<PlacesAutocompleteResponse> callback) {
+        return autocompleteAsync(input, type, callback, callbackExecutor);
+    }
+
+    /**
+     * Performs autocompletion without blocking the calling thread. A cached response completes the
+     * returned future immediately.
+     * @param input the textual input that will be autocompleted
+     * @param type the response type from the api
+     * @param callback notified when the request completes, may be null if only the future is used
+     * @param callbackExecutor the executor the callback is invoked on
+     * @return a future for the response, canceling it aborts the network request
+     */
+    @NonNull
+    public PlacesFuture<PlacesAutocompleteResponse> autocompleteAsync(final String input,
+                                                                      final AutocompleteResultType type,
+                                                                      @Nullable final PlacesCallback<PlacesAutocompleteResponse> callback,
+                                                                      @NonNull final Executor callbackExecutor) {
+        final PlacesFuture<PlacesAutocompleteResponse> future = new PlacesFuture<>(callback, callbackExecutor);
+
+        final long start = System.nanoTime();
+        final AutocompleteRequest request = buildAutocompleteRequest(input, type);
+        reportStage(Stage.BUILD_REQUEST, start);
+
+        final PlacesAutocompleteResponse cached = getCachedResponse(request);
+        if (cached != null) {
+            reportStage(Stage.REQUEST, start);
+            future.set(cached);
+            return future;
+        }
+        prepareNetworkRequest(request);
+
+        final boolean coalesced = autocompleteRequests.enqueue(request.requestKey, future, new RequestCoalescer.AsyncCall<PlacesAutocompleteResponse>() {
+            @Override
+            public void enqueue(@NonNull final CancellationSignal signal, @NonNull final PlacesCallback<PlacesAutocompleteResponse> callback) {
+                httpClient.enqueueAutocompleteRequest(request.url, signal, new PlacesCallback<PlacesAutocompleteResponse>() {
+                    @Override
+                    public void onSuccess(final PlacesAutocompleteResponse response) {
+                        cacheResponse(request, response);
+                        reportStage(Stage.REQUEST, start);
+                        callback.onSuccess(response);
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable error) {
+                        callback.onFailure(error);
+                    }
+                });
+            }
+        });
+        reportCacheLookup(coalesced ? CacheOutcome.COALESCED : CacheOutcome.MISS);
+
+        return future;
+    }
+
+    /**
+     * Fetches the PlaceDetails for the given place_id. This is a
+     * synchronous call, use {@link #detailsAsync} if you need it asynchronous. If a details cache
+     * is set, a fresh cached response is returned without a network request.
+     * @param placeId the Google Maps Places API Place ID for the place you desire details of
+     * @return the details for the place id
+     * @throws IOException
+     */
+    public PlacesDetailsResponse details(final String placeId) throws IOException {
+        return details(placeId, null, null);
+    }
+
+    /**
+     * Fetches the PlaceDetails like {@link #details(String)}, aborting the network request when
+     * the given signal is canceled
+     * @param placeId the Google Maps Places API Place ID for the place you desire details of
+     * @param signal a signal used to cancel the request, may be null
+     * @return the details for the place id
+     * @throws com.irshad.placesautocomplete.async.CanceledException if the signal was canceled
+     * @throws IOException
+     */
+    public PlacesDetailsResponse details(final String placeId, @Nullable final CancellationSignal signal) throws IOException {
+        return details(placeId, null, signal);
+    }
+
+    /**
+     * Fetches only the given fields of the PlaceDetails. The api sends just those fields and the
+     * parser skips anything else, so the other fields of the result are left unset. A cached
+     * response with all fields also serves the request.
+     * @param placeId the Google Maps Places API Place ID for the place you desire details of
+     * @param fields the fields needed, e.g. {@link PlaceDetailsField#ADDRESS}. Null for all fields.
+     * @param signal a signal used to cancel the request, may be null
+     * @return the details for the place id
+     * @throws com.irshad.placesautocomplete.async.CanceledException if the signal was canceled
+     * @throws IOException
+     */
+    public PlacesDetailsResponse details(final String placeId,
+                                         @Nullable final Set<PlaceDetailsField> fields,
+                                         @Nullable final CancellationSignal signal) throws IOException {
+        return details(placeId, fields, null, signal);
+    }
+
+    /**
+     * Fetches the PlaceDetails of a place selected in an autocomplete session, closing the session
+     * so its autocomplete requests are billed together with this request
+     * @param placeId the Google Maps Places API Place ID for the place you desire details of
+     * @param fields the fields needed, null for all fields
+     * @param sessionToken the token returned by {@link AutocompleteSessionManager#completeSession()},
+     *                     may be null
+     * @param signal a signal used to cancel the request, may be null
+     * @return the details for the place id
+     * @throws com.irshad.placesautocomplete.async.CanceledException if the signal was canceled
+     * @throws IOException
+     */
+    public PlacesDetailsResponse details(final String placeId,
+                                         @Nullable final Set<PlaceDetailsField> fields,
+                                         @Nullable final String sessionToken,
+                                         @Nullable final CancellationSignal signal) throws IOException {
+        final DetailsCacheKey cacheKey = buildDetailsCacheKey(placeId, fields);
+
+        final PlacesDetailsResponse cached = getCachedDetails(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        final DetailsRequest request = buildDetailsRequest(placeId, fields, sessionToken);
+        return detailsRequests.execute(request.requestKey, signal, new RequestCoalescer.SyncCall<PlacesDetailsResponse>() {
+            @Override
+            public PlacesDetailsResponse execute(@NonNull final CancellationSignal signal) throws IOException {
+                final PlacesDetailsResponse response = httpClient.executeDetailsRequest(request.url, fields, signal);
+                cacheDetails(cacheKey, response);
+                return response;
+            }
+        });
+    }
+
+    /**
+     * Fetches the PlaceDetails, only decoding the fields of the result as they are accessed. Meant
+     * for callers that read a few fields of a large result. Lazy responses are not cached, but a
+     * cached response serves the request.
+     * @param placeId the Google Maps Places API Place ID for the place you desire details of
+     * @param fields the fields to request from the api, null for all fields
+     * @param sessionToken the token of the autocomplete session the place was selected in, may be null
+     * @param signal a signal used to cancel the request, may be null
+     * @return the lazily decoded details for the place id
+     * @throws com.irshad.placesautocomplete.async.CanceledException if the signal was canceled
+     * @throws IOException
+     */
+    public LazyPlacesDetailsResponse lazyDetails(final String placeId,
+                                                 @Nullable final Set<PlaceDetailsField> fields,
+                                                 @Nullable final String sessionToken,
+                                                 @Nullable final CancellationSignal signal) throws IOException {
+        final PlacesDetailsResponse cached = getCachedDetails(buildDetailsCacheKey(placeId, fields));
+        if (cached != null) {
+            return new LazyPlacesDetailsResponse(cached.status, cached.error_message,
+                    cached.result != null ? new LazyPlaceDetails(cached.result) : null);
+        }
+
+        return httpClient.executeLazyDetailsRequest(buildDetailsRequest(placeId, fields, sessionToken).url, signal);
+    }
+
+    /**
+     * Fetches the PlaceDetails asynchronously, delivering the result on the default callback
+     * executor of this api
+     * @see #detailsAsync(String, Set, String, PlacesCallback, Executor)
+     */
+    @NonNull
+    public PlacesFuture<PlacesDetailsResponse> detailsAsync(final String placeId,
+                                                            @Nullable final PlacesCallback<PlacesDetailsResponse> callback) {
+        return detailsAsync(placeId, null, null, callback, callbackExecutor);
+    }
+
+    /**
+     * Fetches all fields of the PlaceDetails without blocking the calling thread
+     * @see #detailsAsync(String, Set, String, PlacesCallback, Executor)
+     */
+    @NonNull
+    public PlacesFuture<PlacesDetailsResponse> detailsAsync(final String placeId,
+                                                            @Nullable final PlacesCallback<PlacesDetailsResponse> callback,
+                                                            @NonNull final Executor callbackExecutor) {
+        return detailsAsync(placeId, null, null, callback, callbackExecutor);
+    }
+
+    /**
+     * Fetches the PlaceDetails for the given place_id without blocking the calling thread
+     * @param placeId the Google Maps Places API Place ID for the place you desire details of
+     * @param fields the fields needed, the others are left unset. Null for all fields.
+     * @param sessionToken the token of the autocomplete session the place was selected in, may be null
+     * @param callback notified when the request completes, may be null if only the future is used
+     * @param callbackExecutor the executor the callback is invoked on
+     * @return a future for the response, canceling it aborts the network request
+     */
+    @NonNull
+    public PlacesFuture<PlacesDetailsResponse> detailsAsync(final String placeId,
+                                                            @Nullable final Set<PlaceDetailsField> fields,
+                                                            @Nullable final String sessionToken,
+                                                            @Nullable final PlacesCallback<PlacesDetailsResponse> callback,
+                                                            @NonNull final Executor callbackExecutor) {
+        final PlacesFuture<PlacesDetailsResponse> future = new PlacesFuture<>(callback, callbackExecutor);
+        final DetailsCacheKey cacheKey = buildDetailsCacheKey(placeId, fields);
+
+        // only the in-memory tier on the calling thread, which may be the main thread
+        final PlacesDetailsResponse cached = getCachedDetails(getFirstTier(detailsCache), cacheKey);
+        if (cached != null) {
+            future.set(cached);
+            return future;
+        }
+
+        final DetailsRequest request = buildDetailsRequest(placeId, fields, sessionToken);
+        if (!(detailsCache instanceof TieredResponseCache)) {
+            enqueueDetailsRequest(request, fields, cacheKey, future);
+            return future;
+        }
+
+        // the slower tier, e.g. a disk cache, is looked up in the background before the network
+        try {
+            executor.execute(LaneExecutor.Lane.INTERACTIVE, new Runnable() {
+                @Override
+                public void run() {
+                    if (future.isDone()) {
+                        return;
+                    }
+
+                    final PlacesDetailsResponse stored = getCachedDetails(detailsCache, cacheKey);
+                    if (stored != null) {
+                        future.set(stored);
+                    } else {
+                        enqueueDetailsRequest(request, fields, cacheKey, future);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enqueueDetailsRequest(request, fields, cacheKey, future);
+        }
+        return future;
+    }
+
+    private void enqueueDetailsRequest(@NonNull final DetailsRequest request,
+                                       @Nullable final Set<PlaceDetailsField> fields,
+                                       @Nullable final DetailsCacheKey cacheKey,
+                                       @NonNull final PlacesFuture<PlacesDetailsResponse> future) {
+        detailsRequests.enqueue(request.requestKey, future, new RequestCoalescer.AsyncCall<PlacesDetailsResponse>() {
+            @Override
+            public void enqueue(@NonNull final CancellationSignal signal, @NonNull final PlacesCallback<PlacesDetailsResponse> callback) {
+                httpClient.enqueueDetailsRequest(request.url, fields, signal, new PlacesCallback<PlacesDetailsResponse>() {
+                    @Override
+                    public void onSuccess(final PlacesDetailsResponse response) {
+                        cacheDetails(cacheKey, response);
+                        callback.onSuccess(response);
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable error) {
+                        callback.onFailure(error);
+                    }
+                });
+            }
+        });
+    }
+
+    @NonNull
+    private AutocompleteRequest buildAutocompleteRequest(final String input, final AutocompleteResultType type) {
+        final String finalInput = input == null ? "" : input;
+
+        final AutocompleteResultType finalType = type == null ? DEFAULT_RESULT_TYPE : type;
+
+        final String location;
+        final Long radius;
+        if (locationBiasEnabled) {
+            location = currentLocation != null ? toLatLngString(currentLocation) : null;
+            radius = radiusM;
+        } else {
+            location = toLatLngString(NO_BIAS_LOCATION);
+            radius = NO_BIAS_RADIUS;
+        }
+
+        UrlBuilder urlBuilder = new UrlBuilder(PLACES_API_BASE)
+                .appendPath(PATH_AUTOCOMPLETE)
+                .appendPath(PATH_JSON)
+                .appendQueryParameter(PARAMETER_INPUT, finalInput);
+
+        if (finalType != AutocompleteResultType.NO_TYPE) {
+            urlBuilder.appendQueryParameter(PARAMETER_TYPE, finalType.getQueryParam());
+        }
+
+        if (location != null) {
+            urlBuilder.appendQueryParameter(PARAMETER_LOCATION, location);
+        }
+
+        if (radius != null) {
+            urlBuilder.appendQueryParameter(PARAMETER_RADIUS, radius.toString());
+        }
+
+        if (languageCode != null) {
+            urlBuilder.appendQueryParameter(PARAMETER_LANGUAGE, languageCode);
+        }
+
+        final AutocompleteCacheKey cacheKey = autocompleteCache != null
+                ? new AutocompleteCacheKey(finalInput, finalType, location, radius, languageCode)
+                : null;
+
+        return new AutocompleteRequest(urlBuilder, cacheKey);
+    }
+
+    /**
+     * Completes the url of a request that missed the cache, so a cached response neither starts a
+     * session nor counts as one of its requests
+     */
+    private void prepareNetworkRequest(@NonNull final AutocompleteRequest request) {
+        final UrlBuilder urlBuilder = request.urlBuilder;
+        // not part of the cache key, a cached response is valid in any session
+        if (sessionManager != null) {
+            urlBuilder.appendQueryParameter(PARAMETER_SESSION_TOKEN, sessionManager.acquireToken());
+        }
+
+        // the key goes last, identical requests are those with the same url up to it
+        request.requestKey = urlBuilder.build();
+        request.url = urlBuilder.appendQueryParameter(PARAMETER_KEY, googleApiKey).build();
+    }
+
+    @NonNull
+    private DetailsRequest buildDetailsRequest(final String placeId, @Nullable final Set<PlaceDetailsField> fields, @Nullable final String sessionToken) {
+        UrlBuilder urlBuilder = new UrlBuilder(PLACES_API_BASE)
+                .appendPath(PATH_DETAILS)
+                .appendPath(PATH_JSON)
+                .appendQueryParameter(PARAMETER_PLACE_ID, placeId);
+
+        final String fieldsParam = fields != null ? PlaceDetailsField.toQueryParam(fields) : null;
+        if (fieldsParam != null && !fieldsParam.isEmpty()) {
+            urlBuilder.appendQueryParameter(PARAMETER_FIELDS, fieldsParam);
+        }
+
+        if (sessionToken != null) {
+            urlBuilder.appendQueryParameter(PARAMETER_SESSION_TOKEN, sessionToken);
+        }
+
+        if (languageCode != null) {
+            urlBuilder.appendQueryParameter(PARAMETER_LANGUAGE, languageCode);
+        }
+
+        final String requestKey = urlBuilder.build();
+        return new DetailsRequest(urlBuilder.appendQueryParameter(PARAMETER_KEY, googleApiKey).build(), requestKey);
+    }
+
+    @Nullable
+    private DetailsCacheKey buildDetailsCacheKey(@Nullable final String placeId, @Nullable final Set<PlaceDetailsField> fields) {
+        if (detailsCache == null || placeId == null) {
+            return null;
+        }
+
+        // the json names, as some fields cannot be sent in the fields parameter
+        String fieldsKey = null;
+        if (fields != null) {
+            final StringBuilder sb = new StringBuilder();
+            for (PlaceDetailsField field : PlaceDetailsField.values()) {
+                if (fields.contains(field)) {
+                    sb.append(field.getJsonName()).append(',');
+                }
+            }
+            fieldsKey = sb.toString();
+        }
+
+        return new DetailsCacheKey(placeId, languageCode, fieldsKey);
+    }
+
+    /**
+     * Looks up the response for the requested fields, falling back to a response with all fields
+     */
+    @Nullable
+    private PlacesDetailsResponse getCachedDetails(@Nullable final DetailsCacheKey cacheKey) {
+        return getCachedDetails(detailsCache, cacheKey);
+    }
+
+    @Nullable
+    private static PlacesDetailsResponse getCachedDetails(@Nullable final ResponseCache<DetailsCacheKey, PlacesDetailsResponse> cache,
+                                                          @Nullable final DetailsCacheKey cacheKey) {
+        if (cache == null || cacheKey == null) {
+            return null;
+        }
+
+        PlacesDetailsResponse cached = cache.get(cacheKey);
+        if (cached == null && cacheKey.fields != null) {
+            cached = cache.get(new DetailsCacheKey(cacheKey.placeId, cacheKey.languageCode));
+        }
+        return cached;
+    }
+
+    /**
+     * @return the fast tier of a tiered cache, which is safe to query on the main thread
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static ResponseCache<DetailsCacheKey, PlacesDetailsResponse> getFirstTier(@Nullable final ResponseCache<DetailsCacheKey, PlacesDetailsResponse> cache) {
+        return cache instanceof TieredResponseCache
+                ? ((TieredResponseCache<DetailsCacheKey, PlacesDetailsResponse>) cache).getFirstTier()
+                : cache;
+    }
+
+    private void cacheDetails(@Nullable final DetailsCacheKey cacheKey, @Nullable final PlacesDetailsResponse response) {
+        if (cacheKey != null && response != null && response.status != null && response.status.isSuccessful()) {
+            detailsCache.put(cacheKey, response);
+        }
+    }
+
+    @NonNull
+    private static String toLatLngString(@NonNull final PlaceLocation location) {
+        return location.lat + "," + location.lng;
+    }
+
+    @Nullable
+    private PlacesAutocompleteResponse getCachedResponse(@NonNull final AutocompleteRequest request) {
+        final PlacesAutocompleteResponse cached = request.cacheKey != null ? autocompleteCache.get(request.cacheKey) : null;
+        if (cached != null) {
+            reportCacheLookup(CacheOutcome.HIT);
+        }
+        return cached;
+    }
+
+    private void reportCacheLookup(@NonNull final CacheOutcome outcome) {
+        if (metricsListener != null) {
+            metricsListener.onCacheLookup(outcome);
+        }
+    }
+
+    private void reportStage(@NonNull final Stage stage, final long startNanos) {
+        if (metricsListener != null) {
+            metricsListener.onStageCompleted(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void cacheResponse(@NonNull final AutocompleteRequest request, @Nullable final PlacesAutocompleteResponse response) {
+        if (request.cacheKey != null && response != null && response.status != null && response.status.isSuccessful()) {
+            autocompleteCache.put(request.cacheKey, response);
+        }
+    }
+
+    /**
+     * A built autocomplete request along with the keys it is coalesced and cached under
+     */
+    private static final class AutocompleteRequest {
+        // the url without the session token and the api key
+        @NonNull
+        final UrlBuilder urlBuilder;
+
+        @Nullable
+        final AutocompleteCacheKey cacheKey;
+
+        // set by prepareNetworkRequest once the request missed the cache
+        String url;
+
+        // the url without the api key
+        String requestKey;
+
+        AutocompleteRequest(@NonNull final UrlBuilder urlBuilder, @Nullable final AutocompleteCacheKey cacheKey) {
+            this.urlBuilder = urlBuilder;
+            this.cacheKey = cacheKey;
+        }
+    }
+
+    /**
+     * A built details request along with the key it is coalesced under
+     */
+    private static final class DetailsRequest {
+        @NonNull
+        final String url;
+
+        // the url without the api key
+        @NonNull
+        final String requestKey;
+
+        DetailsRequest(@NonNull final String url, @NonNull final String requestKey) {
+            this.url = url;
+            this.requestKey = requestKey;
+        }
+    }
+}
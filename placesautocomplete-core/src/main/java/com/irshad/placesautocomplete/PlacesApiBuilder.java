@@ -0,0 +1,238 @@
+package com.irshad.placesautocomplete;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.DirectExecutor;
+import com.irshad.placesautocomplete.async.LaneExecutor;
+import com.irshad.placesautocomplete.cache.AutocompleteCacheKey;
+import com.irshad.placesautocomplete.cache.DetailsCacheKey;
+import com.irshad.placesautocomplete.cache.LruResponseCache;
+import com.irshad.placesautocomplete.cache.ResponseCache;
+import com.irshad.placesautocomplete.cache.SizeEstimators;
+import com.irshad.placesautocomplete.json.JsonParserResolver;
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.metrics.PlacesMetricsListener;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.network.AdaptiveTimeoutPolicy;
+import com.irshad.placesautocomplete.network.PlacesHttpClient;
+import com.irshad.placesautocomplete.network.PlacesHttpClientResolver;
+import com.irshad.placesautocomplete.network.PlacesRateLimiter;
+import com.irshad.placesautocomplete.session.AutocompleteSessionManager;
+
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.Executor;
+
+public class PlacesApiBuilder {
+
+    @Nullable
+    PlacesHttpClient apiClient;
+
+    @Nullable
+    String googleApiKey;
+
+    @Nullable
+    private ResponseCache<AutocompleteCacheKey, PlacesAutocompleteResponse> autocompleteCache;
+
+    private boolean autocompleteCacheSet;
+
+    @Nullable
+    private ResponseCache<DetailsCacheKey, PlacesDetailsResponse> detailsCache;
+
+    private boolean detailsCacheSet;
+
+    @NonNull
+    Executor callbackExecutor = DirectExecutor.INSTANCE;
+
+    @Nullable
+    PlacesMetricsListener metricsListener;
+
+    @Nullable
+    private AutocompleteSessionManager sessionManager;
+
+    private boolean sessionManagerSet;
+
+    @Nullable
+    private OkHttpClient okHttpClient;
+
+    @Nullable
+    private PlacesApiJsonParser jsonParser;
+
+    @NonNull
+    LaneExecutor executor = LaneExecutor.getDefault();
+
+    @Nullable
+    private AdaptiveTimeoutPolicy timeoutPolicy = AdaptiveTimeoutPolicy.getDefault();
+
+    private boolean timeoutPolicySet;
+
+    @Nullable
+    private PlacesRateLimiter rateLimiter;
+
+    /**
+     * @param apiClient the client executing the requests. Replaces any client passed to
+     *                  {@link #setOkHttpClient(OkHttpClient)}. Network and parse metrics are only
+     *                  reported by the built-in clients.
+     */
+    public PlacesApiBuilder setApiClient(@NonNull final PlacesHttpClient apiClient) {
+        this.apiClient = apiClient;
+        this.okHttpClient = null;
+        return this;
+    }
+
+    /**
+     * Executes the requests with an existing OkHttpClient of the app, sharing its connection pool,
+     * dispatcher and cache. Replaces any client passed to {@link #setApiClient(PlacesHttpClient)}.
+     * OkHttp is an optional dependency, the app must add it to use this method.
+     */
+    public PlacesApiBuilder setOkHttpClient(@NonNull final OkHttpClient okHttpClient) {
+        this.okHttpClient = okHttpClient;
+        this.apiClient = null;
+        return this;
+    }
+
+    /**
+     * @param jsonParser the parser of the responses, e.g. {@link JsonParserResolver#newOkioParser()}.
+     *                   Only used by the built-in clients, not by a client passed to
+     *                   {@link #setApiClient(PlacesHttpClient)}. By default {@link JsonParserResolver#JSON_PARSER}.
+     */
+    public PlacesApiBuilder setJsonParser(@Nullable final PlacesApiJsonParser jsonParser) {
+        this.jsonParser = jsonParser;
+        return this;
+    }
+
+    /**
+     * @param metricsListener receives per stage timings, cache outcomes and response sizes of the
+     *                        requests, e.g. a {@link com.irshad.placesautocomplete.metrics.LatencyAggregator}.
+     *                        Null by default.
+     */
+    public PlacesApiBuilder setMetricsListener(@Nullable final PlacesMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
+
+    public PlacesApiBuilder setGoogleApiKey(@NonNull final String googleApiKey) {
+        if (googleApiKey == null || googleApiKey.length() == 0) {
+            throw new IllegalArgumentException("googleApiKey cannot be null or empty!");
+        }
+
+        this.googleApiKey = googleApiKey;
+        return this;
+    }
+
+    /**
+     * @param autocompleteCache the cache used to serve repeated autocomplete requests. By default an
+     *                          in-memory {@link LruResponseCache} is used, pass null to disable caching
+     */
+    public PlacesApiBuilder setAutocompleteCache(@Nullable final ResponseCache<AutocompleteCacheKey, PlacesAutocompleteResponse> autocompleteCache) {
+        this.autocompleteCache = autocompleteCache;
+        this.autocompleteCacheSet = true;
+        return this;
+    }
+
+    /**
+     * @param detailsCache the cache used to serve repeated and prefetched details requests. By
+     *                     default an in-memory {@link LruResponseCache} is used, pass null to disable
+     *                     caching
+     */
+    public PlacesApiBuilder setDetailsCache(@Nullable final ResponseCache<DetailsCacheKey, PlacesDetailsResponse> detailsCache) {
+        this.detailsCache = detailsCache;
+        this.detailsCacheSet = true;
+        return this;
+    }
+
+    /**
+     * @param callbackExecutor the default executor for callbacks of asynchronous requests. By
+     *                         default callbacks run on the thread that completed the request.
+     */
+    public PlacesApiBuilder setCallbackExecutor(@NonNull final Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        return this;
+    }
+
+    /**
+     * @param executor runs the background work of the api in prioritized lanes: async requests of
+     *                 the built-in HttpURLConnection client on its interactive lane, and details
+     *                 prefetches on its prefetch lane. By default {@link LaneExecutor#getDefault()}.
+     *                 The history and disk details cache files of the Android library are read
+     *                 and written on the history I/O lane of the default executor whatever is set
+     *                 here, as they are shared by every api of the app.
+     */
+    public PlacesApiBuilder setExecutor(@NonNull final LaneExecutor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param timeoutPolicy derives the timeouts of the built-in clients from recent latencies and,
+     *                      if enabled, hedges slow autocomplete requests. By default
+     *                      {@link AdaptiveTimeoutPolicy#getDefault()}, which does not hedge. Pass
+     *                      null for fixed timeouts. Applies to a client passed to
+     *                      {@link #setOkHttpClient(OkHttpClient)} only if set.
+     */
+    public PlacesApiBuilder setTimeoutPolicy(@Nullable final AdaptiveTimeoutPolicy timeoutPolicy) {
+        this.timeoutPolicy = timeoutPolicy;
+        this.timeoutPolicySet = true;
+        return this;
+    }
+
+    /**
+     * @param rateLimiter limits the requests sent, whatever the client, and backs off after
+     *                    OVER_QUERY_LIMIT responses. Requests over the limit fail with a
+     *                    {@link com.irshad.placesautocomplete.model.RateLimitedException}, e.g.
+     *                    {@code new PlacesRateLimiter()} for
+     *                    {@link PlacesRateLimiter#DEFAULT_PERMITS_PER_SECOND} requests per second
+     *                    without a daily budget. Null by default, every request is sent.
+     */
+    public PlacesApiBuilder setRateLimiter(@Nullable final PlacesRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * @param sessionManager groups the autocomplete requests for one selection into a billing
+     *                       session. By default a manager with the default timeout is used, pass
+     *                       null to send requests without session tokens.
+     */
+    public PlacesApiBuilder setSessionManager(@Nullable final AutocompleteSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+        this.sessionManagerSet = true;
+        return this;
+    }
+
+    @NonNull
+    public PlacesApi build() {
+        // kept out of the builder's fields, so building again does not wrap the limited client twice
+        PlacesHttpClient client = apiClient;
+        if (client == null) {
+            final PlacesApiJsonParser parser = jsonParser != null ? jsonParser : JsonParserResolver.JSON_PARSER;
+            client = okHttpClient != null
+                    ? PlacesHttpClientResolver.fromOkHttpClient(okHttpClient, parser, metricsListener, timeoutPolicySet ? timeoutPolicy : null)
+                    : PlacesHttpClientResolver.newHttpClient(parser, metricsListener, executor, timeoutPolicy);
+        }
+
+        final PlacesRateLimiter limiter = rateLimiter;
+        if (limiter != null) {
+            client = PlacesHttpClientResolver.rateLimited(client, limiter);
+        }
+
+        if (googleApiKey == null) {
+            throw new IllegalArgumentException("googleApiKey cannot be null when building " + PlacesApi.class.getSimpleName());
+        }
+
+        // the defaults too, so every api built gets caches and sessions of its own
+        final ResponseCache<AutocompleteCacheKey, PlacesAutocompleteResponse> autocompleteCache = autocompleteCacheSet
+                ? this.autocompleteCache
+                : new LruResponseCache<>(LruResponseCache.DEFAULT_MAX_BYTES, LruResponseCache.DEFAULT_TTL_MILLIS, SizeEstimators.AUTOCOMPLETE_RESPONSE);
+
+        final ResponseCache<DetailsCacheKey, PlacesDetailsResponse> detailsCache = detailsCacheSet
+                ? this.detailsCache
+                : new LruResponseCache<>(LruResponseCache.DEFAULT_MAX_BYTES, LruResponseCache.DEFAULT_TTL_MILLIS, SizeEstimators.DETAILS_RESPONSE);
+
+        final AutocompleteSessionManager sessionManager = sessionManagerSet ? this.sessionManager : new AutocompleteSessionManager();
+
+        return new PlacesApi(this, client, autocompleteCache, detailsCache, sessionManager, limiter);
+    }
+}
@@ -0,0 +1,19 @@
+package com.irshad.placesautocomplete.async;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a request is abandoned because its {@link CancellationSignal} was canceled
+ */
+public class CanceledException extends InterruptedIOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CanceledException() {
+        super("Request was canceled");
+    }
+
+    public CanceledException(final String detailMessage) {
+        super(detailMessage);
+    }
+}
@@ -0,0 +1,77 @@
+package com.irshad.placesautocomplete.async;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Provides the ability to cancel a request that is in progress, modelled after
+ * android.os.CancellationSignal which is not available on all supported api levels. The request
+ * registers an {@link OnCancelListener} that aborts the underlying network call.
+ */
+public final class CancellationSignal {
+
+    /**
+     * Listens for cancellation
+     */
+    public interface OnCancelListener {
+        /**
+         * Called when {@link CancellationSignal#cancel()} is invoked. May be called from any thread.
+         */
+        void onCancel();
+    }
+
+    private boolean canceled;
+
+    @Nullable
+    private OnCancelListener listener;
+
+    /**
+     * @return true if the signal has been canceled
+     */
+    public synchronized boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * @throws CanceledException if the signal has been canceled
+     */
+    public void throwIfCanceled() throws CanceledException {
+        if (isCanceled()) {
+            throw new CanceledException();
+        }
+    }
+
+    /**
+     * Cancels the operation and signals the cancellation listener. Does nothing if already canceled.
+     */
+    public void cancel() {
+        final OnCancelListener toNotify;
+        synchronized (this) {
+            if (canceled) {
+                return;
+            }
+            canceled = true;
+            toNotify = listener;
+        }
+
+        if (toNotify != null) {
+            toNotify.onCancel();
+        }
+    }
+
+    /**
+     * Sets the listener to be called when canceled. If already canceled, the listener is called
+     * immediately.
+     *
+     * @param listener the listener, or null to remove the current one
+     */
+    public void setOnCancelListener(@Nullable final OnCancelListener listener) {
+        synchronized (this) {
+            this.listener = listener;
+            if (!canceled || listener == null) {
+                return;
+            }
+        }
+
+        listener.onCancel();
+    }
+}
@@ -0,0 +1,18 @@
+package com.irshad.placesautocomplete.async;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An Executor that runs tasks immediately on the calling thread. Used to deliver callbacks on the
+ * thread that completed the request.
+ */
+public enum DirectExecutor implements Executor {
+    INSTANCE;
+
+    @Override
+    public void execute(@NonNull final Runnable command) {
+        command.run();
+    }
+}
@@ -0,0 +1,230 @@
+package com.irshad.placesautocomplete.async;
+
+import android.support.annotation.NonNull;
+
+import com.irshad.placesautocomplete.Constants;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the background work of the library in separate lanes, so that work the user is waiting on
+ * never queues behind speculative or housekeeping work. Every lane has its own threads, at its own
+ * priority, and its own bounded queue with a policy for when the queue is full.
+ *
+ * Lane threads are started on demand and stop after a few idle seconds.
+ */
+public final class LaneExecutor {
+
+    public enum Lane {
+        /**
+         * Requests the user is waiting on, e.g. the details of a selected place
+         */
+        INTERACTIVE(Thread.NORM_PRIORITY),
+
+        /**
+         * Reading and writing the history and the disk caches. Single threaded, so the writes to a
+         * file happen in the order they were submitted.
+         */
+        HISTORY_IO(Thread.NORM_PRIORITY - 1),
+
+        /**
+         * Speculative requests, e.g. prefetching details, which can be dropped when they fall behind
+         */
+        PREFETCH(Thread.MIN_PRIORITY);
+
+        final int threadPriority;
+
+        Lane(final int threadPriority) {
+            this.threadPriority = threadPriority;
+        }
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * A task submitted to a full lane is rejected with a {@link RejectedExecutionException}
+         */
+        REJECT,
+
+        /**
+         * A task submitted to a full lane drops the longest waiting task of the lane, which never runs
+         */
+        DROP_OLDEST
+    }
+
+    private static final long KEEP_ALIVE_SECONDS = 10L;
+
+    @NonNull
+    public static LaneExecutor getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+
+    private LaneExecutor(@NonNull final Builder builder) {
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneState(lane, builder.threads.get(lane), builder.capacities.get(lane), builder.policies.get(lane)));
+        }
+    }
+
+    /**
+     * @throws RejectedExecutionException if the lane is full and rejects new tasks
+     */
+    public void execute(@NonNull final Lane lane, @NonNull final Runnable task) {
+        lanes.get(lane).pool.execute(task);
+    }
+
+    /**
+     * Runs the task before the tasks already waiting in the lane
+     * @throws RejectedExecutionException if the lane is full and rejects new tasks
+     */
+    public void executeFirst(@NonNull final Lane lane, @NonNull final Runnable task) {
+        final LaneState state = lanes.get(lane);
+        final LinkedBlockingDeque<Runnable> queue = state.queue;
+
+        if (!queue.offerFirst(task)) {
+            if (state.policy == OverflowPolicy.REJECT) {
+                state.rejected.incrementAndGet();
+                throw new RejectedExecutionException("The " + lane + " lane is full");
+            }
+            if (queue.pollFirst() != null) {
+                state.dropped.incrementAndGet();
+            }
+            queue.offerFirst(task);
+        }
+        // the threads stop when idle, and queueing directly does not start one
+        state.pool.prestartCoreThread();
+    }
+
+    /**
+     * @return an executor submitting to the lane
+     */
+    @NonNull
+    public Executor asExecutor(@NonNull final Lane lane) {
+        return new Executor() {
+            @Override
+            public void execute(@NonNull final Runnable command) {
+                LaneExecutor.this.execute(lane, command);
+            }
+        };
+    }
+
+    /**
+     * @return the number of tasks waiting in the lane
+     */
+    public int getQueuedCount(@NonNull final Lane lane) {
+        return lanes.get(lane).queue.size();
+    }
+
+    /**
+     * @return the number of tasks the lane dropped since it was created
+     */
+    public long getDroppedCount(@NonNull final Lane lane) {
+        return lanes.get(lane).dropped.get();
+    }
+
+    /**
+     * @return the number of tasks the lane rejected since it was created
+     */
+    public long getRejectedCount(@NonNull final Lane lane) {
+        return lanes.get(lane).rejected.get();
+    }
+
+    public static final class Builder {
+        private final Map<Lane, Integer> threads = new EnumMap<>(Lane.class);
+
+        private final Map<Lane, Integer> capacities = new EnumMap<>(Lane.class);
+
+        private final Map<Lane, OverflowPolicy> policies = new EnumMap<>(Lane.class);
+
+        public Builder() {
+            setLane(Lane.INTERACTIVE, 2, 64, OverflowPolicy.REJECT);
+            setLane(Lane.HISTORY_IO, 1, 256, OverflowPolicy.REJECT);
+            setLane(Lane.PREFETCH, 1, 8, OverflowPolicy.DROP_OLDEST);
+        }
+
+        /**
+         * @param threads the number of threads of the lane, must be 1 for {@link Lane#HISTORY_IO}
+         * @param capacity the number of tasks that can wait in the lane
+         * @param policy what happens to a task submitted when capacity tasks are waiting
+         */
+        public Builder setLane(@NonNull final Lane lane, final int threads, final int capacity, @NonNull final OverflowPolicy policy) {
+            if (threads < 1 || capacity < 1) {
+                throw new IllegalArgumentException("A lane needs at least one thread and a capacity of one");
+            }
+            if (lane == Lane.HISTORY_IO && threads != 1) {
+                throw new IllegalArgumentException("The history lane must run its tasks in order on a single thread");
+            }
+
+            this.threads.put(lane, threads);
+            this.capacities.put(lane, capacity);
+            this.policies.put(lane, policy);
+            return this;
+        }
+
+        @NonNull
+        public LaneExecutor build() {
+            return new LaneExecutor(this);
+        }
+    }
+
+    private static final class LaneState {
+        final OverflowPolicy policy;
+
+        final LinkedBlockingDeque<Runnable> queue;
+
+        final ThreadPoolExecutor pool;
+
+        final AtomicLong dropped = new AtomicLong();
+
+        final AtomicLong rejected = new AtomicLong();
+
+        LaneState(@NonNull final Lane lane, final int threads, final int capacity, @NonNull final OverflowPolicy policy) {
+            this.policy = policy;
+            this.queue = new LinkedBlockingDeque<>(capacity);
+            this.pool = new ThreadPoolExecutor(threads, threads,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    queue,
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(@NonNull final Runnable r) {
+                            final Thread thread = new Thread(r, Constants.LOG_TAG + lane + "Thread");
+                            thread.setDaemon(true);
+                            thread.setPriority(lane.threadPriority);
+                            return thread;
+                        }
+                    },
+                    new RejectedExecutionHandler() {
+                        @Override
+                        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) {
+                            onOverflow(r, executor);
+                        }
+                    });
+            pool.allowCoreThreadTimeOut(true);
+        }
+
+        private void onOverflow(@NonNull final Runnable task, @NonNull final ThreadPoolExecutor executor) {
+            if (policy == OverflowPolicy.REJECT || executor.isShutdown()) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("The lane is full");
+            }
+
+            if (queue.pollFirst() != null) {
+                dropped.incrementAndGet();
+            }
+            executor.execute(task);
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final LaneExecutor INSTANCE = new Builder().build();
+    }
+}
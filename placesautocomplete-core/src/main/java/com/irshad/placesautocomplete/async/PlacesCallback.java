@@ -0,0 +1,20 @@
+package com.irshad.placesautocomplete.async;
+
+/**
+ * A callback for asynchronous requests to the Places API
+ *
+ * @param <T> the type of the response
+ */
+public interface PlacesCallback<T> {
+
+    /**
+     * Called with the response once the request has successfully completed
+     */
+    void onSuccess(T response);
+
+    /**
+     * Called when the request failed, either on the network, while parsing or with an
+     * unsuccessful {@link com.irshad.placesautocomplete.model.Status}
+     */
+    void onFailure(Throwable error);
+}
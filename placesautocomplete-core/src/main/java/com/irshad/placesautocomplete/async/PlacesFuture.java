@@ -0,0 +1,229 @@
+package com.irshad.placesautocomplete.async;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The pending result of an asynchronous Places API request. Canceling the future aborts the
+ * underlying network request through its {@link CancellationSignal}; the callback is not invoked
+ * for a canceled request. Canceling a future that completed but whose callback still waits on the
+ * callback executor drops the callback as well, e.g. a result posted to the main thread for a
+ * screen that has gone away.
+ *
+ * The result is set by the {@link com.irshad.placesautocomplete.PlacesApi} through
+ * {@link #set(Object)} or {@link #setException(Throwable)}, only the first of which has an effect.
+ *
+ * @param <T> the type of the response
+ */
+public final class PlacesFuture<T> implements Future<T> {
+    private static final int PENDING = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELED = 3;
+
+    @NonNull
+    private final CancellationSignal signal = new CancellationSignal();
+
+    @NonNull
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    @Nullable
+    private final PlacesCallback<T> callback;
+
+    @NonNull
+    private final Executor callbackExecutor;
+
+    private int state = PENDING;
+
+    private volatile boolean callbackDropped;
+
+    private T result;
+
+    private Throwable error;
+
+    /**
+     * @param callback the callback to notify when the request completes, may be null
+     * @param callbackExecutor the executor the callback is invoked on
+     */
+    public PlacesFuture(@Nullable final PlacesCallback<T> callback, @NonNull final Executor callbackExecutor) {
+        this.callback = callback;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @return the signal that is canceled when this future is canceled
+     */
+    @NonNull
+    public CancellationSignal getCancellationSignal() {
+        return signal;
+    }
+
+    /**
+     * Completes the future successfully
+     * @return false if the future was already completed or canceled
+     */
+    public boolean set(final T value) {
+        synchronized (this) {
+            if (state != PENDING) {
+                return false;
+            }
+            state = SUCCEEDED;
+            result = value;
+        }
+        latch.countDown();
+
+        if (callback != null) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!callbackDropped) {
+                        callback.onSuccess(value);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Completes the future with a failure
+     * @return false if the future was already completed or canceled
+     */
+    public boolean setException(@NonNull final Throwable failure) {
+        synchronized (this) {
+            if (state != PENDING) {
+                return false;
+            }
+            state = FAILED;
+            error = failure;
+        }
+        latch.countDown();
+
+        if (callback != null) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!callbackDropped) {
+                        callback.onFailure(failure);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * @return a callback that completes this future, for handing to the http client
+     */
+    @NonNull
+    public PlacesCallback<T> asCallback() {
+        return new PlacesCallback<T>() {
+            @Override
+            public void onSuccess(final T response) {
+                set(response);
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                setException(error);
+            }
+        };
+    }
+
+    /**
+     * Cancels the request. The network call is aborted regardless of mayInterruptIfRunning. If the
+     * request already completed, the callback is dropped unless it has already run.
+     */
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        callbackDropped = true;
+        synchronized (this) {
+            if (state != PENDING) {
+                return false;
+            }
+            state = CANCELED;
+        }
+        latch.countDown();
+        signal.cancel();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == CANCELED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != PENDING;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return report();
+    }
+
+    @Override
+    public T get(final long timeout, @NonNull final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return report();
+    }
+
+    /**
+     * Waits for the response like a blocking request would, rethrowing the failure of the request
+     * instead of wrapping it. Interrupts are deferred until the request completes.
+     * @throws CanceledException if the future was canceled
+     */
+    public T await() throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (CancellationException e) {
+            throw new CanceledException();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized T report() throws ExecutionException {
+        switch (state) {
+            case SUCCEEDED:
+                return result;
+            case FAILED:
+                throw new ExecutionException(error);
+            case CANCELED:
+                throw new CancellationException();
+            default:
+                throw new IllegalStateException("Future is not done");
+        }
+    }
+}
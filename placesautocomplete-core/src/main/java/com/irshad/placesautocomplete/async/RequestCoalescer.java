@@ -0,0 +1,215 @@
+package com.irshad.placesautocomplete.async;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares one underlying request between identical requests made while it is in flight, so that
+ * several views, the prefetcher and manual calls asking for the same thing at the same time cost
+ * a single network call and a single parse. Every caller gets the same response object.
+ *
+ * A caller canceling only leaves the request; the request itself is canceled once every caller
+ * waiting on it has canceled. A request that completed is forgotten, later identical requests
+ * start a new one.
+ *
+ * @param <T> the type of the response
+ */
+public final class RequestCoalescer<T> {
+
+    /**
+     * Starts the shared request
+     */
+    public interface AsyncCall<T> {
+        void enqueue(@NonNull CancellationSignal signal, @NonNull PlacesCallback<T> callback);
+    }
+
+    /**
+     * Runs the shared request on the calling thread
+     */
+    public interface SyncCall<T> {
+        T execute(@NonNull CancellationSignal signal) throws IOException;
+    }
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    private final AtomicLong startedCount = new AtomicLong();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * Completes the future with the response of the request in flight for the key, starting the
+     * request if there is none. The future's callback runs on its own executor.
+     * @param key identifies identical requests
+     * @return true if the future joined a request already in flight
+     */
+    public boolean enqueue(@NonNull final String key, @NonNull final PlacesFuture<T> future, @NonNull final AsyncCall<T> call) {
+        final Flight flight = join(key, future);
+        if (flight == null) {
+            coalescedCount.incrementAndGet();
+            return true;
+        }
+
+        startedCount.incrementAndGet();
+        call.enqueue(flight.signal, new PlacesCallback<T>() {
+            @Override
+            public void onSuccess(final T response) {
+                flight.complete(response, null);
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                flight.complete(null, error);
+            }
+        });
+        return false;
+    }
+
+    /**
+     * Returns the response of the request in flight for the key, or runs the request on the calling
+     * thread if there is none. A caller running the request for others returns when the request
+     * completes, even if its own signal was canceled.
+     * @param key identifies identical requests
+     * @param signal cancels the wait of this caller, may be null
+     * @throws CanceledException if the signal was canceled
+     */
+    public T execute(@NonNull final String key, @Nullable final CancellationSignal signal, @NonNull final SyncCall<T> call) throws IOException {
+        final PlacesFuture<T> future = new PlacesFuture<>(null, DirectExecutor.INSTANCE);
+        if (signal != null) {
+            signal.setOnCancelListener(new CancellationSignal.OnCancelListener() {
+                @Override
+                public void onCancel() {
+                    future.cancel(true);
+                }
+            });
+        }
+
+        try {
+            final Flight flight = join(key, future);
+            if (flight == null) {
+                coalescedCount.incrementAndGet();
+            } else {
+                startedCount.incrementAndGet();
+                try {
+                    flight.complete(call.execute(flight.signal), null);
+                } catch (IOException | RuntimeException e) {
+                    flight.complete(null, e);
+                }
+            }
+
+            return future.await();
+        } finally {
+            if (signal != null) {
+                signal.setOnCancelListener(null);
+            }
+        }
+    }
+
+    /**
+     * @return the number of requests actually made
+     */
+    public long getStartedCount() {
+        return startedCount.get();
+    }
+
+    /**
+     * @return the number of requests that joined a request in flight instead of being made
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return the new flight the caller must start, or null if the future joined one in flight
+     */
+    @Nullable
+    private Flight join(@NonNull final String key, @NonNull final PlacesFuture<T> future) {
+        while (true) {
+            final Flight current = flights.get(key);
+            if (current != null && current.add(future)) {
+                return null;
+            }
+
+            final Flight flight = new Flight(key);
+            flight.add(future);
+            final boolean started = current == null
+                    ? flights.putIfAbsent(key, flight) == null
+                    : flights.replace(key, current, flight);
+            if (started) {
+                return flight;
+            }
+        }
+    }
+
+    /**
+     * A request in flight and the futures waiting on it
+     */
+    private final class Flight {
+        final String key;
+
+        final CancellationSignal signal = new CancellationSignal();
+
+        private final List<PlacesFuture<T>> waiters = new ArrayList<>(2);
+
+        // completed or abandoned, no future can join anymore
+        private boolean closed;
+
+        Flight(@NonNull final String key) {
+            this.key = key;
+        }
+
+        boolean add(@NonNull final PlacesFuture<T> future) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                waiters.add(future);
+            }
+
+            // called right away if the future is already canceled
+            future.getCancellationSignal().setOnCancelListener(new CancellationSignal.OnCancelListener() {
+                @Override
+                public void onCancel() {
+                    leave(future);
+                }
+            });
+            return true;
+        }
+
+        private void leave(@NonNull final PlacesFuture<T> future) {
+            synchronized (this) {
+                if (closed || !waiters.remove(future) || !waiters.isEmpty()) {
+                    return;
+                }
+                closed = true;
+            }
+
+            flights.remove(key, this);
+            signal.cancel();
+        }
+
+        void complete(@Nullable final T response, @Nullable final Throwable error) {
+            final List<PlacesFuture<T>> toComplete;
+            synchronized (this) {
+                closed = true;
+                toComplete = new ArrayList<>(waiters);
+                waiters.clear();
+            }
+
+            flights.remove(key, this);
+            for (PlacesFuture<T> future : toComplete) {
+                if (error != null) {
+                    future.setException(error);
+                } else {
+                    future.set(response);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.AutocompleteResultType;
+
+import java.util.Locale;
+
+/**
+ * Identifies an autocomplete request by the parameters that influence its result. The input is
+ * normalized so that requests differing only in letter case or repeated whitespace share an entry.
+ */
+public final class AutocompleteCacheKey {
+
+    @NonNull
+    public final String input;
+
+    @NonNull
+    public final AutocompleteResultType type;
+
+    /**
+     * the "lat,lng" location used for biasing, or null if none was sent
+     */
+    @Nullable
+    public final String location;
+
+    @Nullable
+    public final Long radiusM;
+
+    @Nullable
+    public final String languageCode;
+
+    public AutocompleteCacheKey(@NonNull final String input,
+                                @NonNull final AutocompleteResultType type,
+                                @Nullable final String location,
+                                @Nullable final Long radiusM,
+                                @Nullable final String languageCode) {
+        this.input = normalizeInput(input);
+        this.type = type;
+        this.location = location;
+        this.radiusM = radiusM;
+        this.languageCode = languageCode;
+    }
+
+    /**
+     * Lower cases the input and collapses runs of whitespace into a single space. Leading
+     * whitespace is dropped, a single trailing space is kept as it changes the results of the API.
+     */
+    @NonNull
+    public static String normalizeInput(@NonNull final String input) {
+        final StringBuilder builder = new StringBuilder(input.length());
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    builder.append(' ');
+                    pendingSpace = false;
+                }
+                builder.append(c);
+            }
+        }
+
+        if (pendingSpace) {
+            builder.append(' ');
+        }
+
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AutocompleteCacheKey)) return false;
+
+        AutocompleteCacheKey that = (AutocompleteCacheKey) o;
+
+        if (!input.equals(that.input)) return false;
+        if (type != that.type) return false;
+        if (location != null ? !location.equals(that.location) : that.location != null) return false;
+        if (radiusM != null ? !radiusM.equals(that.radiusM) : that.radiusM != null) return false;
+        if (languageCode != null ? !languageCode.equals(that.languageCode) : that.languageCode != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = input.hashCode();
+        result = 31 * result + type.hashCode();
+        result = 31 * result + (location != null ? location.hashCode() : 0);
+        result = 31 * result + (radiusM != null ? radiusM.hashCode() : 0);
+        result = 31 * result + (languageCode != null ? languageCode.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "AutocompleteCacheKey{" +
+                "input='" + input + '\'' +
+                ", type=" + type +
+                ", location='" + location + '\'' +
+                ", radiusM=" + radiusM +
+                ", languageCode='" + languageCode + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Identifies a details request by the parameters that influence its result
+ */
+public final class DetailsCacheKey {
+
+    @NonNull
+    public final String placeId;
+
+    @Nullable
+    public final String languageCode;
+
+    /**
+     * The value of the fields parameter the request was limited to, or null for all fields
+     */
+    @Nullable
+    public final String fields;
+
+    public DetailsCacheKey(@NonNull final String placeId, @Nullable final String languageCode) {
+        this(placeId, languageCode, null);
+    }
+
+    public DetailsCacheKey(@NonNull final String placeId, @Nullable final String languageCode, @Nullable final String fields) {
+        this.placeId = placeId;
+        this.languageCode = languageCode;
+        this.fields = fields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DetailsCacheKey)) return false;
+
+        DetailsCacheKey that = (DetailsCacheKey) o;
+
+        if (!placeId.equals(that.placeId)) return false;
+        if (languageCode != null ? !languageCode.equals(that.languageCode) : that.languageCode != null) return false;
+        if (fields != null ? !fields.equals(that.fields) : that.fields != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = placeId.hashCode();
+        result = 31 * result + (languageCode != null ? languageCode.hashCode() : 0);
+        result = 31 * result + (fields != null ? fields.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DetailsCacheKey{" +
+                "placeId='" + placeId + '\'' +
+                ", languageCode='" + languageCode + '\'' +
+                ", fields='" + fields + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,202 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-memory {@link ResponseCache} that evicts the least recently used entries once the estimated
+ * size of the cached values exceeds {@code maxBytes}. Entries older than {@code ttlMillis} are
+ * treated as absent and dropped when they are next looked up.
+ */
+public class LruResponseCache<K, V> implements ResponseCache<K, V> {
+
+    /**
+     * Default bound for the autocomplete response cache
+     */
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024L;
+
+    /**
+     * Default time a response stays valid in the cache
+     */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final long maxBytes;
+
+    private final long ttlMillis;
+
+    @NonNull
+    private final SizeEstimator<V> sizeEstimator;
+
+    // access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long sizeBytes;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expiredCount;
+
+    /**
+     * @param maxBytes the maximum estimated size of all cached values combined
+     * @param ttlMillis how long a cached value may be served after it was stored
+     * @param sizeEstimator the estimator used to weigh the cached values
+     */
+    public LruResponseCache(final long maxBytes, final long ttlMillis, @NonNull final SizeEstimator<V> sizeEstimator) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be positive");
+        }
+
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    @Override
+    @Nullable
+    public synchronized V get(@NonNull final K key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+
+        if (entry.expiresAtMillis <= now()) {
+            entries.remove(key);
+            sizeBytes -= entry.bytes;
+            expiredCount++;
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return entry.value;
+    }
+
+    @Override
+    public synchronized void put(@NonNull final K key, @NonNull final V value) {
+        final long bytes = sizeEstimator.estimateBytes(value);
+
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            sizeBytes -= previous.bytes;
+        }
+
+        if (bytes > maxBytes) {
+            // would evict everything else and still not fit
+            return;
+        }
+
+        entries.put(key, new Entry<>(value, bytes, now() + ttlMillis));
+        sizeBytes += bytes;
+
+        trimToSize(maxBytes);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        sizeBytes = 0L;
+    }
+
+    private void trimToSize(final long targetBytes) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > targetBytes && iterator.hasNext()) {
+            Entry<V> eldest = iterator.next().getValue();
+            iterator.remove();
+            sizeBytes -= eldest.bytes;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * @return the current time in milliseconds, used for expiring entries
+     */
+    protected long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * @return the estimated size in bytes of all values currently in the cache
+     */
+    public synchronized long sizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * @return the maximum estimated size in bytes of the cache
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the number of entries currently in the cache, including ones that have expired but
+     * were not looked up since
+     */
+    public synchronized int entryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of times {@link #get} returned a cached value
+     */
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of times {@link #get} returned null
+     */
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of entries dropped to keep the cache within {@link #maxBytes()}
+     */
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of entries dropped because they outlived the ttl
+     */
+    public synchronized long expiredCount() {
+        return expiredCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LruResponseCache{" +
+                "sizeBytes=" + sizeBytes +
+                ", maxBytes=" + maxBytes +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                ", expired=" + expiredCount +
+                '}';
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long bytes;
+        final long expiresAtMillis;
+
+        Entry(final V value, final long bytes, final long expiresAtMillis) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.AddressComponent;
+import com.irshad.placesautocomplete.model.AddressComponentType;
+import com.irshad.placesautocomplete.model.AlternativePlaceId;
+import com.irshad.placesautocomplete.model.DateTimePair;
+import com.irshad.placesautocomplete.model.OpenHours;
+import com.irshad.placesautocomplete.model.OpenPeriod;
+import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceGeometry;
+import com.irshad.placesautocomplete.model.PlaceLocation;
+import com.irshad.placesautocomplete.model.PlacePhoto;
+import com.irshad.placesautocomplete.model.PlaceReview;
+import com.irshad.placesautocomplete.model.PlaceScope;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.RatingAspect;
+import com.irshad.placesautocomplete.model.Status;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact binary encoding of {@link PlacesDetailsResponse}s for the disk cache. Nullable values
+ * are prefixed with a presence flag, lists with their size (-1 for null) and enums are stored by
+ * ordinal, so {@link #FORMAT_VERSION} must be bumped whenever a model or enum changes.
+ */
+public final class PlaceDetailsCodec {
+    public static final int FORMAT_VERSION = 1;
+
+    public static void write(@NonNull final DataOutput out, @NonNull final PlacesDetailsResponse response) throws IOException {
+        writeEnum(out, response.status);
+        writeString(out, response.error_message);
+
+        final PlaceDetails details = response.result;
+        out.writeBoolean(details != null);
+        if (details == null) {
+            return;
+        }
+
+        writeAddressComponents(out, details.address_components);
+        writeString(out, details.formatted_address);
+        writeString(out, details.formatted_phone_number);
+        writeString(out, details.international_phone_number);
+
+        final PlaceLocation location = details.geometry != null ? details.geometry.location : null;
+        out.writeBoolean(details.geometry != null);
+        if (details.geometry != null) {
+            out.writeBoolean(location != null);
+            if (location != null) {
+                out.writeDouble(location.lat);
+                out.writeDouble(location.lng);
+            }
+        }
+
+        writeString(out, details.icon);
+        writeString(out, details.name);
+        writeString(out, details.place_id);
+        writeOpenHours(out, details.opening_hours);
+        out.writeBoolean(details.permanently_closed);
+        writePhotos(out, details.photos);
+        writeEnum(out, details.scope);
+        writeAlternativeIds(out, details.alt_ids);
+        out.writeInt(details.price_level);
+        out.writeDouble(details.rating);
+        writeReviews(out, details.reviews);
+        writeStrings(out, details.types);
+        writeString(out, details.url);
+        writeString(out, details.vicinity);
+    }
+
+    @NonNull
+    public static PlacesDetailsResponse read(@NonNull final DataInput in) throws IOException {
+        final Status status = readEnum(in, Status.values());
+        final String errorMessage = readString(in);
+
+        if (!in.readBoolean()) {
+            return new PlacesDetailsResponse(status, errorMessage, null);
+        }
+
+        final List<AddressComponent> addressComponents = readAddressComponents(in);
+        final String formattedAddress = readString(in);
+        final String formattedPhoneNumber = readString(in);
+        final String internationalPhoneNumber = readString(in);
+
+        PlaceGeometry geometry = null;
+        if (in.readBoolean()) {
+            final PlaceLocation location = in.readBoolean() ? new PlaceLocation(in.readDouble(), in.readDouble()) : null;
+            geometry = new PlaceGeometry(location);
+        }
+
+        final String icon = readString(in);
+        final String name = readString(in);
+        final String placeId = readString(in);
+        final OpenHours openHours = readOpenHours(in);
+        final boolean permanentlyClosed = in.readBoolean();
+        final List<PlacePhoto> photos = readPhotos(in);
+        final PlaceScope scope = readEnum(in, PlaceScope.values());
+        final List<AlternativePlaceId> altIds = readAlternativeIds(in);
+        final int priceLevel = in.readInt();
+        final double rating = in.readDouble();
+        final List<PlaceReview> reviews = readReviews(in);
+        final List<String> types = readStrings(in);
+        final String url = readString(in);
+        final String vicinity = readString(in);
+
+        return new PlacesDetailsResponse(status, errorMessage, new PlaceDetails(addressComponents,
+                formattedAddress,
+                formattedPhoneNumber,
+                internationalPhoneNumber,
+                geometry,
+                icon,
+                name,
+                placeId,
+                openHours,
+                permanentlyClosed,
+                photos,
+                scope,
+                altIds,
+                priceLevel,
+                rating,
+                reviews,
+                types,
+                url,
+                vicinity));
+    }
+
+    private static void writeAddressComponents(final DataOutput out, @Nullable final List<AddressComponent> components) throws IOException {
+        writeSize(out, components);
+        if (components != null) {
+            for (AddressComponent component : components) {
+                writeString(out, component.long_name);
+                writeString(out, component.short_name);
+                writeSize(out, component.types);
+                if (component.types != null) {
+                    for (AddressComponentType type : component.types) {
+                        writeEnum(out, type);
+                    }
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static List<AddressComponent> readAddressComponents(final DataInput in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final AddressComponentType[] typeValues = AddressComponentType.values();
+        final List<AddressComponent> components = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final String longName = readString(in);
+            final String shortName = readString(in);
+            final int typeCount = in.readInt();
+            List<AddressComponentType> types = null;
+            if (typeCount >= 0) {
+                types = new ArrayList<>(typeCount);
+                for (int j = 0; j < typeCount; j++) {
+                    types.add(readEnum(in, typeValues));
+                }
+            }
+            components.add(new AddressComponent(longName, shortName, types));
+        }
+        return components;
+    }
+
+    private static void writeOpenHours(final DataOutput out, @Nullable final OpenHours openHours) throws IOException {
+        out.writeBoolean(openHours != null);
+        if (openHours == null) {
+            return;
+        }
+
+        out.writeBoolean(openHours.open_now);
+        writeSize(out, openHours.periods);
+        if (openHours.periods != null) {
+            for (OpenPeriod period : openHours.periods) {
+                writeDateTimePair(out, period.open);
+                writeDateTimePair(out, period.close);
+            }
+        }
+    }
+
+    @Nullable
+    private static OpenHours readOpenHours(final DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        final boolean openNow = in.readBoolean();
+        final int size = in.readInt();
+        List<OpenPeriod> periods = null;
+        if (size >= 0) {
+            periods = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                periods.add(new OpenPeriod(readDateTimePair(in), readDateTimePair(in)));
+            }
+        }
+        return new OpenHours(openNow, periods);
+    }
+
+    private static void writeDateTimePair(final DataOutput out, @Nullable final DateTimePair pair) throws IOException {
+        out.writeBoolean(pair != null);
+        if (pair != null) {
+            writeString(out, pair.day);
+            writeString(out, pair.time);
+        }
+    }
+
+    @Nullable
+    private static DateTimePair readDateTimePair(final DataInput in) throws IOException {
+        return in.readBoolean() ? new DateTimePair(readString(in), readString(in)) : null;
+    }
+
+    private static void writePhotos(final DataOutput out, @Nullable final List<PlacePhoto> photos) throws IOException {
+        writeSize(out, photos);
+        if (photos != null) {
+            for (PlacePhoto photo : photos) {
+                out.writeInt(photo.height);
+                out.writeInt(photo.width);
+                writeString(out, photo.photo_reference);
+            }
+        }
+    }
+
+    @Nullable
+    private static List<PlacePhoto> readPhotos(final DataInput in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final List<PlacePhoto> photos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            photos.add(new PlacePhoto(in.readInt(), in.readInt(), readString(in)));
+        }
+        return photos;
+    }
+
+    private static void writeAlternativeIds(final DataOutput out, @Nullable final List<AlternativePlaceId> altIds) throws IOException {
+        writeSize(out, altIds);
+        if (altIds != null) {
+            for (AlternativePlaceId altId : altIds) {
+                writeString(out, altId.place_id);
+                writeEnum(out, altId.scope);
+            }
+        }
+    }
+
+    @Nullable
+    private static List<AlternativePlaceId> readAlternativeIds(final DataInput in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final PlaceScope[] scopeValues = PlaceScope.values();
+        final List<AlternativePlaceId> altIds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            altIds.add(new AlternativePlaceId(readString(in), readEnum(in, scopeValues)));
+        }
+        return altIds;
+    }
+
+    private static void writeReviews(final DataOutput out, @Nullable final List<PlaceReview> reviews) throws IOException {
+        writeSize(out, reviews);
+        if (reviews != null) {
+            for (PlaceReview review : reviews) {
+                writeSize(out, review.aspects);
+                if (review.aspects != null) {
+                    for (RatingAspect aspect : review.aspects) {
+                        out.writeInt(aspect.rating);
+                        writeString(out, aspect.type);
+                    }
+                }
+                writeString(out, review.author_name);
+                writeString(out, review.author_url);
+                writeString(out, review.language);
+                out.writeInt(review.rating);
+                writeString(out, review.text);
+                out.writeLong(review.time);
+            }
+        }
+    }
+
+    @Nullable
+    private static List<PlaceReview> readReviews(final DataInput in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final List<PlaceReview> reviews = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int aspectCount = in.readInt();
+            List<RatingAspect> aspects = null;
+            if (aspectCount >= 0) {
+                aspects = new ArrayList<>(aspectCount);
+                for (int j = 0; j < aspectCount; j++) {
+                    aspects.add(new RatingAspect(in.readInt(), readString(in)));
+                }
+            }
+            final String authorName = readString(in);
+            final String authorUrl = readString(in);
+            final String language = readString(in);
+            final int rating = in.readInt();
+            final String text = readString(in);
+            final long time = in.readLong();
+            reviews.add(new PlaceReview(aspects, authorName, authorUrl, language, rating, text, time));
+        }
+        return reviews;
+    }
+
+    private static void writeStrings(final DataOutput out, @Nullable final List<String> strings) throws IOException {
+        writeSize(out, strings);
+        if (strings != null) {
+            for (String string : strings) {
+                writeString(out, string);
+            }
+        }
+    }
+
+    @Nullable
+    private static List<String> readStrings(final DataInput in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(in));
+        }
+        return strings;
+    }
+
+    private static void writeSize(final DataOutput out, @Nullable final List<?> list) throws IOException {
+        out.writeInt(list != null ? list.size() : -1);
+    }
+
+    private static void writeString(final DataOutput out, @Nullable final String string) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) {
+            out.writeUTF(string);
+        }
+    }
+
+    @Nullable
+    private static String readString(final DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeEnum(final DataOutput out, @Nullable final Enum<?> value) throws IOException {
+        out.writeShort(value != null ? value.ordinal() : -1);
+    }
+
+    @Nullable
+    private static <E extends Enum<E>> E readEnum(final DataInput in, final E[] values) throws IOException {
+        final int ordinal = in.readShort();
+        if (ordinal < 0) {
+            return null;
+        }
+        if (ordinal >= values.length) {
+            throw new IOException("Unknown ordinal " + ordinal + " for " + values.getClass().getComponentType().getSimpleName());
+        }
+        return values[ordinal];
+    }
+
+    private PlaceDetailsCodec() {
+    }
+}
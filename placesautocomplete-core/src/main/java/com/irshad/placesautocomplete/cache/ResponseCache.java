@@ -0,0 +1,33 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * A cache that sits in front of the {@link com.irshad.placesautocomplete.network.PlacesHttpClient}
+ * and can serve repeat requests to the Places API from memory. Implementations must be safe to use
+ * from multiple threads, as lookups happen on the filtering thread of the autocomplete adapter.
+ *
+ * @param <K> the type of the key identifying a request
+ * @param <V> the type of the response that is stored for the request
+ */
+public interface ResponseCache<K, V> {
+
+    /**
+     * @param key the key for the request
+     * @return the cached response for the key, or null if there is no fresh response cached
+     */
+    @Nullable
+    V get(@NonNull K key);
+
+    /**
+     * @param key the key for the request
+     * @param value the response that should be served for future requests with the same key
+     */
+    void put(@NonNull K key, @NonNull V value);
+
+    /**
+     * Removes every entry from the cache
+     */
+    void clear();
+}
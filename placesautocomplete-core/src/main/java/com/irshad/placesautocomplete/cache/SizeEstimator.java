@@ -0,0 +1,16 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Estimates the number of bytes retained on the heap by a cached value. Used by
+ * {@link LruResponseCache} to bound the cache by memory rather than by entry count.
+ */
+public interface SizeEstimator<V> {
+
+    /**
+     * @param value the value being cached
+     * @return the approximate number of bytes retained by the value, must be positive
+     */
+    long estimateBytes(@NonNull V value);
+}
@@ -0,0 +1,172 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.AddressComponent;
+import com.irshad.placesautocomplete.model.AlternativePlaceId;
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlacePhoto;
+import com.irshad.placesautocomplete.model.PlaceReview;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.RatingAspect;
+
+import java.util.List;
+
+/**
+ * {@link SizeEstimator}s for the Places API response models. The numbers are rough estimates of
+ * the retained heap size assuming 16 byte object headers and 4 byte references; they only need to
+ * be proportional to the real size for the cache to bound its memory use sensibly.
+ */
+public final class SizeEstimators {
+    private static final long OBJECT_HEADER = 16L;
+    private static final long REFERENCE = 4L;
+    private static final long INT = 4L;
+
+    public static final SizeEstimator<PlacesAutocompleteResponse> AUTOCOMPLETE_RESPONSE = new SizeEstimator<PlacesAutocompleteResponse>() {
+        @Override
+        public long estimateBytes(@NonNull final PlacesAutocompleteResponse value) {
+            long size = OBJECT_HEADER + 3 * REFERENCE + sizeOf(value.error_message);
+
+            if (value.predictions != null) {
+                size += sizeOfList(value.predictions);
+                for (Place place : value.predictions) {
+                    size += sizeOf(place);
+                }
+            }
+
+            return size;
+        }
+    };
+
+    public static final SizeEstimator<PlacesDetailsResponse> DETAILS_RESPONSE = new SizeEstimator<PlacesDetailsResponse>() {
+        @Override
+        public long estimateBytes(@NonNull final PlacesDetailsResponse value) {
+            return OBJECT_HEADER + 3 * REFERENCE + sizeOf(value.error_message) + sizeOf(value.result);
+        }
+    };
+
+    static long sizeOf(@Nullable final PlaceDetails details) {
+        if (details == null) {
+            return 0L;
+        }
+
+        long size = OBJECT_HEADER + 17 * REFERENCE + 2 * INT + 8L
+                + sizeOf(details.formatted_address)
+                + sizeOf(details.formatted_phone_number)
+                + sizeOf(details.international_phone_number)
+                + sizeOf(details.icon)
+                + sizeOf(details.name)
+                + sizeOf(details.place_id)
+                + sizeOf(details.url)
+                + sizeOf(details.vicinity);
+
+        if (details.geometry != null) {
+            // PlaceGeometry + PlaceLocation
+            size += OBJECT_HEADER + REFERENCE + OBJECT_HEADER + 2 * 8L;
+        }
+
+        if (details.address_components != null) {
+            size += sizeOfList(details.address_components);
+            for (AddressComponent component : details.address_components) {
+                size += OBJECT_HEADER + 3 * REFERENCE + sizeOf(component.long_name) + sizeOf(component.short_name);
+                if (component.types != null) {
+                    size += sizeOfList(component.types);
+                }
+            }
+        }
+
+        if (details.opening_hours != null && details.opening_hours.periods != null) {
+            // OpenHours, and per period an OpenPeriod with two DateTimePairs of short strings
+            size += OBJECT_HEADER + 2 * REFERENCE + sizeOfList(details.opening_hours.periods)
+                    + details.opening_hours.periods.size() * (3 * OBJECT_HEADER + 6 * REFERENCE + 4 * sizeOf("0000"));
+        }
+
+        if (details.photos != null) {
+            size += sizeOfList(details.photos);
+            for (PlacePhoto photo : details.photos) {
+                size += OBJECT_HEADER + 2 * INT + REFERENCE + sizeOf(photo.photo_reference);
+            }
+        }
+
+        if (details.alt_ids != null) {
+            size += sizeOfList(details.alt_ids);
+            for (AlternativePlaceId altId : details.alt_ids) {
+                size += OBJECT_HEADER + 2 * REFERENCE + sizeOf(altId.place_id);
+            }
+        }
+
+        if (details.reviews != null) {
+            size += sizeOfList(details.reviews);
+            for (PlaceReview review : details.reviews) {
+                size += OBJECT_HEADER + 5 * REFERENCE + INT + 8L
+                        + sizeOf(review.author_name)
+                        + sizeOf(review.author_url)
+                        + sizeOf(review.language)
+                        + sizeOf(review.text);
+                if (review.aspects != null) {
+                    size += sizeOfList(review.aspects);
+                    for (RatingAspect aspect : review.aspects) {
+                        size += OBJECT_HEADER + INT + REFERENCE + sizeOf(aspect.type);
+                    }
+                }
+            }
+        }
+
+        if (details.types != null) {
+            size += sizeOfList(details.types);
+            for (String type : details.types) {
+                size += sizeOf(type);
+            }
+        }
+
+        return size;
+    }
+
+    static long sizeOf(@Nullable final Place place) {
+        if (place == null) {
+            return 0L;
+        }
+
+        long size = OBJECT_HEADER + 5 * REFERENCE + sizeOf(place.description) + sizeOf(place.place_id);
+
+        if (place.matched_substrings != null) {
+            size += sizeOfList(place.matched_substrings)
+                    + place.matched_substrings.size() * (OBJECT_HEADER + 2 * INT);
+        }
+
+        if (place.terms != null) {
+            size += sizeOfList(place.terms);
+            for (DescriptionTerm term : place.terms) {
+                size += OBJECT_HEADER + INT + REFERENCE + sizeOf(term.value);
+            }
+        }
+
+        if (place.types != null) {
+            // the PlaceType values themselves are shared enum constants
+            size += sizeOfList(place.types);
+        }
+
+        return size;
+    }
+
+    static long sizeOf(@Nullable final String string) {
+        if (string == null) {
+            return 0L;
+        }
+
+        // String object + backing char[]
+        return OBJECT_HEADER + INT + REFERENCE + OBJECT_HEADER + 2L * string.length();
+    }
+
+    static long sizeOfList(@NonNull final List<?> list) {
+        // ArrayList object + backing Object[]
+        return OBJECT_HEADER + 2 * INT + REFERENCE + OBJECT_HEADER + list.size() * REFERENCE;
+    }
+
+    private SizeEstimators() {
+    }
+}
@@ -0,0 +1,57 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Combines a fast cache in front of a slower, larger one, e.g. an {@link LruResponseCache} in front
+ * of a disk cache. Values found only in the second tier are promoted into the first.
+ */
+public class TieredResponseCache<K, V> implements ResponseCache<K, V> {
+
+    @NonNull
+    private final ResponseCache<K, V> firstTier;
+
+    @NonNull
+    private final ResponseCache<K, V> secondTier;
+
+    public TieredResponseCache(@NonNull final ResponseCache<K, V> firstTier, @NonNull final ResponseCache<K, V> secondTier) {
+        this.firstTier = firstTier;
+        this.secondTier = secondTier;
+    }
+
+    @Nullable
+    @Override
+    public V get(@NonNull final K key) {
+        V value = firstTier.get(key);
+        if (value == null) {
+            value = secondTier.get(key);
+            if (value != null) {
+                firstTier.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void put(@NonNull final K key, @NonNull final V value) {
+        firstTier.put(key, value);
+        secondTier.put(key, value);
+    }
+
+    @Override
+    public void clear() {
+        firstTier.clear();
+        secondTier.clear();
+    }
+
+    @NonNull
+    public ResponseCache<K, V> getFirstTier() {
+        return firstTier;
+    }
+
+    @NonNull
+    public ResponseCache<K, V> getSecondTier() {
+        return secondTier;
+    }
+}
@@ -0,0 +1,204 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.json.EnumLookup;
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary history file. Every distinct string, descriptions, terms and place types alike,
+ * is stored once in a table of length prefixed UTF-8 strings at the start of the file, and the
+ * places refer to them by index. All numbers are varints, so a history of a few places is a few
+ * hundred bytes and is read without any parsing.
+ *
+ * References and list sizes are stored plus one, so 0 stands for null. Place types are stored by
+ * their API name rather than ordinal, and unknown types are dropped when read.
+ */
+public final class BinaryHistoryCodec implements HistoryCodec {
+    public static final int MAGIC = 0x50414348;
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @NonNull
+    @Override
+    public List<Place> read(@NonNull final InputStream is) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary history file");
+        }
+
+        final int version = Varints.read(in);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported history format version " + version);
+        }
+
+        final String[] strings = new String[Varints.read(in)];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[Varints.read(in)];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, UTF_8);
+        }
+
+        final int count = Varints.read(in);
+        final List<Place> places = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            places.add(readPlace(in, strings));
+        }
+        return places;
+    }
+
+    @Override
+    public void write(@NonNull final OutputStream os, @NonNull final List<Place> places) throws IOException {
+        final StringTable table = new StringTable();
+        for (Place place : places) {
+            table.add(place.description);
+            table.add(place.place_id);
+            if (place.terms != null) {
+                for (DescriptionTerm term : place.terms) {
+                    table.add(term.value);
+                }
+            }
+            if (place.types != null) {
+                for (PlaceType type : place.types) {
+                    table.add(EnumLookup.PLACE_TYPE.nameOf(type));
+                }
+            }
+        }
+
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        Varints.write(out, FORMAT_VERSION);
+
+        Varints.write(out, table.strings.size());
+        for (String string : table.strings) {
+            final byte[] bytes = string.getBytes(UTF_8);
+            Varints.write(out, bytes.length);
+            out.write(bytes);
+        }
+
+        Varints.write(out, places.size());
+        for (Place place : places) {
+            writePlace(out, place, table);
+        }
+        out.flush();
+    }
+
+    @NonNull
+    private static Place readPlace(final DataInputStream in, final String[] strings) throws IOException {
+        final String description = readReference(in, strings);
+        final String placeId = readReference(in, strings);
+
+        List<MatchedSubstring> matchedSubstrings = null;
+        int size = Varints.read(in);
+        if (size > 0) {
+            matchedSubstrings = new ArrayList<>(size - 1);
+            for (int i = 1; i < size; i++) {
+                final int length = Varints.readSigned(in);
+                final int offset = Varints.readSigned(in);
+                matchedSubstrings.add(new MatchedSubstring(length, offset));
+            }
+        }
+
+        List<DescriptionTerm> terms = null;
+        size = Varints.read(in);
+        if (size > 0) {
+            terms = new ArrayList<>(size - 1);
+            for (int i = 1; i < size; i++) {
+                final int offset = Varints.readSigned(in);
+                terms.add(new DescriptionTerm(offset, readReference(in, strings)));
+            }
+        }
+
+        List<PlaceType> types = null;
+        size = Varints.read(in);
+        if (size > 0) {
+            types = new ArrayList<>(size - 1);
+            for (int i = 1; i < size; i++) {
+                final PlaceType type = EnumLookup.PLACE_TYPE.lookup(readReference(in, strings));
+                if (type != null) {
+                    types.add(type);
+                }
+            }
+        }
+
+        return new Place(description, placeId, matchedSubstrings, terms, types);
+    }
+
+    private static void writePlace(final DataOutputStream out, final Place place, final StringTable table) throws IOException {
+        Varints.write(out, table.reference(place.description));
+        Varints.write(out, table.reference(place.place_id));
+
+        writeSize(out, place.matched_substrings);
+        if (place.matched_substrings != null) {
+            for (MatchedSubstring matchedSubstring : place.matched_substrings) {
+                Varints.writeSigned(out, matchedSubstring.length);
+                Varints.writeSigned(out, matchedSubstring.offset);
+            }
+        }
+
+        writeSize(out, place.terms);
+        if (place.terms != null) {
+            for (DescriptionTerm term : place.terms) {
+                Varints.writeSigned(out, term.offset);
+                Varints.write(out, table.reference(term.value));
+            }
+        }
+
+        writeSize(out, place.types);
+        if (place.types != null) {
+            for (PlaceType type : place.types) {
+                Varints.write(out, table.reference(EnumLookup.PLACE_TYPE.nameOf(type)));
+            }
+        }
+    }
+
+    @Nullable
+    private static String readReference(final DataInputStream in, final String[] strings) throws IOException {
+        final int reference = Varints.read(in);
+        if (reference > strings.length) {
+            throw new IOException("String reference " + reference + " out of bounds");
+        }
+        return reference != 0 ? strings[reference - 1] : null;
+    }
+
+    private static void writeSize(final DataOutputStream out, @Nullable final List<?> list) throws IOException {
+        Varints.write(out, list != null ? list.size() + 1 : 0);
+    }
+
+    private static final class StringTable {
+        final List<String> strings = new ArrayList<>();
+
+        final Map<String, Integer> references = new HashMap<>();
+
+        void add(@Nullable final String string) {
+            if (string != null && !references.containsKey(string)) {
+                strings.add(string);
+                references.put(string, strings.size());
+            }
+        }
+
+        int reference(@Nullable final String string) {
+            return string != null ? references.get(string) : 0;
+        }
+    }
+}
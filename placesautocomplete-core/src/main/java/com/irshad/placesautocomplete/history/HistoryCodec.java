@@ -0,0 +1,24 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+
+import com.irshad.placesautocomplete.model.Place;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Encodes the history file of a history manager
+ */
+public interface HistoryCodec {
+    /**
+     * @return the places in the order they were written
+     * @throws IOException if the stream is not in the format of the codec or is truncated
+     */
+    @NonNull
+    List<Place> read(@NonNull InputStream in) throws IOException;
+
+    void write(@NonNull OutputStream out, @NonNull List<Place> places) throws IOException;
+}
@@ -0,0 +1,250 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+
+import com.irshad.placesautocomplete.model.Place;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The format of an append-only history log. The file starts with a header, followed by records
+ * that each add a place to the front of the history or remove it:
+ *
+ * <pre>
+ *   header: int MAGIC, varint FORMAT_VERSION
+ *   record: byte type, varint payload length, payload, int CRC32 of the type, length and payload
+ * </pre>
+ *
+ * The payload is the place written by a {@link HistoryCodec}. Replaying the log stops at the first
+ * record that is truncated, malformed or fails its checksum, which is where a crash during an
+ * append leaves the file, and reports the length of the valid prefix so the file can be cut back
+ * to it.
+ */
+public final class HistoryJournal {
+    public static final int MAGIC = 0x5041434A;
+
+    public static final int FORMAT_VERSION = 1;
+
+    public static final byte RECORD_ADD = 1;
+
+    public static final byte RECORD_REMOVE = 2;
+
+    // far above any encoded place, a longer length can only be a corrupted one
+    private static final int MAX_PAYLOAD_LENGTH = 64 * 1024;
+
+    private HistoryJournal() {
+    }
+
+    /**
+     * @return the header every journal starts with
+     */
+    @NonNull
+    public static byte[] header() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(8);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            Varints.write(out, FORMAT_VERSION);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param type {@link #RECORD_ADD} or {@link #RECORD_REMOVE}
+     * @return the record, ready to be appended to the journal in a single write
+     */
+    @NonNull
+    public static byte[] record(final byte type, @NonNull final Place place, @NonNull final HistoryCodec codec) throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        codec.write(payload, Collections.singletonList(place));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.size() + 10);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        Varints.write(out, payload.size());
+        payload.writeTo(out);
+
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), 0, bytes.size());
+        out.writeInt((int) crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a compacted journal holding one add record per place
+     * @param places the history, most recent first
+     */
+    public static void writeSnapshot(@NonNull final OutputStream os, @NonNull final List<Place> places, @NonNull final HistoryCodec codec) throws IOException {
+        os.write(header());
+        // replayed oldest first, so each add moves the place in front of the older ones
+        for (int i = places.size() - 1; i >= 0; i--) {
+            os.write(record(RECORD_ADD, places.get(i), codec));
+        }
+        os.flush();
+    }
+
+    /**
+     * Replays a journal into the history it describes
+     * @param capacity the maximum number of places kept, the least recent are dropped
+     * @throws IOException if the header is not the one of a journal or cannot be read. Failures
+     * after the header end the replay at the last valid record instead.
+     */
+    @NonNull
+    public static Replay replay(@NonNull final InputStream is, @NonNull final HistoryCodec codec, final int capacity) throws IOException {
+        // counts the bytes consumed by the replay, not the ones buffered ahead
+        final CountingInputStream counting = new CountingInputStream(new BufferedInputStream(is));
+        final DataInputStream in = new DataInputStream(counting);
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a history journal");
+        }
+        final int version = Varints.read(in);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported history journal version " + version);
+        }
+
+        // least recent first, so moving a place to the front and dropping the least recent are O(1)
+        final LinkedHashMap<Place, Boolean> history = new LinkedHashMap<>();
+        long validLength = counting.count;
+        int records = 0;
+        boolean corrupted = false;
+
+        while (true) {
+            final int type = in.read();
+            if (type == -1) {
+                break;
+            }
+
+            final Place place;
+            try {
+                final ByteArrayOutputStream header = new ByteArrayOutputStream(6);
+                final DataOutputStream headerOut = new DataOutputStream(header);
+                headerOut.writeByte(type);
+                final int length = Varints.read(in);
+                if (length < 0 || length > MAX_PAYLOAD_LENGTH) {
+                    corrupted = true;
+                    break;
+                }
+                Varints.write(headerOut, length);
+
+                final byte[] payload = new byte[length];
+                in.readFully(payload);
+                final int checksum = in.readInt();
+
+                final CRC32 crc = new CRC32();
+                crc.update(header.toByteArray());
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum || (type != RECORD_ADD && type != RECORD_REMOVE)) {
+                    corrupted = true;
+                    break;
+                }
+
+                final List<Place> decoded = codec.read(new ByteArrayInputStream(payload));
+                if (decoded.size() != 1) {
+                    corrupted = true;
+                    break;
+                }
+                place = decoded.get(0);
+            } catch (IOException e) {
+                // a record cut short by a crash during its append, or garbage after the last one
+                corrupted = true;
+                break;
+            }
+
+            history.remove(place);
+            if (type == RECORD_ADD) {
+                history.put(place, Boolean.TRUE);
+                if (history.size() > capacity) {
+                    final Iterator<Place> leastRecent = history.keySet().iterator();
+                    leastRecent.next();
+                    leastRecent.remove();
+                }
+            }
+
+            records++;
+            validLength = counting.count;
+        }
+
+        final List<Place> places = new ArrayList<>(history.keySet());
+        Collections.reverse(places);
+        return new Replay(places, records, validLength, corrupted);
+    }
+
+    public static final class Replay {
+        /**
+         * The history, most recent first
+         */
+        @NonNull
+        public final List<Place> places;
+
+        /**
+         * The number of valid records, including the ones superseded by later records
+         */
+        public final int records;
+
+        /**
+         * The length of the header and the valid records, where the next record must be appended
+         */
+        public final long validLength;
+
+        /**
+         * Whether invalid bytes follow the valid records and should be cut off
+         */
+        public final boolean corrupted;
+
+        Replay(@NonNull final List<Place> places, final int records, final long validLength, final boolean corrupted) {
+            this.places = places;
+            this.records = records;
+            this.validLength = validLength;
+            this.corrupted = corrupted;
+        }
+    }
+
+    private static final class CountingInputStream extends InputStream {
+        private final InputStream delegate;
+
+        long count;
+
+        CountingInputStream(final InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = delegate.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull final byte[] b, final int off, final int len) throws IOException {
+            final int read = delegate.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
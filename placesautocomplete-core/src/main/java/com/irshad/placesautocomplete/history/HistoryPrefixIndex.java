@@ -0,0 +1,280 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.cache.AutocompleteCacheKey;
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.Place;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable prefix index over a snapshot of the history, answering which of the most recent
+ * places have a description or a term starting with a constraint. Descriptions and terms are
+ * normalized like the autocomplete input ({@link AutocompleteCacheKey#normalizeInput(String)}), so
+ * the match ignores letter case and repeated whitespace.
+ *
+ * The normalized values are kept in a sorted array, where the values starting with a prefix form a
+ * range found by binary search. A min tree over the recency of the places in that range then
+ * yields the k most recent of them in O(k log n), whatever the size of the range, so a short
+ * constraint against thousands of places costs the same as a long one.
+ *
+ * The arrays are built on the first query, off the thread that took the snapshot.
+ */
+public final class HistoryPrefixIndex {
+    public static final HistoryPrefixIndex EMPTY = new HistoryPrefixIndex(Collections.<Place>emptyList());
+
+    private static final int NO_RANK = Integer.MAX_VALUE;
+
+    // most recent first, the rank of a place is its index
+    @NonNull
+    private final List<Place> places;
+
+    @Nullable
+    private String[] keys;
+
+    // a min tree over the ranks of the places the keys belong to, the leaves start at index leafCount
+    @Nullable
+    private int[] tree;
+
+    private int leafCount;
+
+    /**
+     * @param places the history, most recent first. The list is copied.
+     */
+    public HistoryPrefixIndex(@NonNull final List<Place> places) {
+        this.places = Collections.unmodifiableList(new ArrayList<>(places));
+    }
+
+    /**
+     * @return the indexed history, most recent first
+     */
+    @NonNull
+    public List<Place> getPlaces() {
+        return places;
+    }
+
+    /**
+     * @param limit the maximum number of places returned
+     * @return the most recent places whose description or a term starts with the constraint, most
+     * recent first. Every place matches an empty constraint.
+     */
+    @NonNull
+    public List<Place> query(@NonNull final String constraint, final int limit) {
+        final String prefix = AutocompleteCacheKey.normalizeInput(constraint);
+        if (prefix.isEmpty()) {
+            return new ArrayList<>(places.subList(0, Math.min(limit, places.size())));
+        }
+
+        ensureBuilt();
+
+        final int from = lowerBound(prefix);
+        final int to = endOfPrefix(prefix, from);
+        final List<Place> matches = new ArrayList<>(Math.min(limit, to - from));
+        if (from == to || limit <= 0) {
+            return matches;
+        }
+
+        // the nodes covering the range, then their children, ordered by the most recent rank below them
+        final NodeHeap heap = new NodeHeap(tree);
+        for (int l = from + leafCount, r = to + leafCount; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) != 0) {
+                heap.push(l++);
+            }
+            if ((r & 1) != 0) {
+                heap.push(--r);
+            }
+        }
+
+        int lastRank = -1;
+        while (!heap.isEmpty() && matches.size() < limit) {
+            final int node = heap.pop();
+            if (node >= leafCount) {
+                // ranks come out in order, a place matching by several keys comes out in a row
+                final int rank = tree[node];
+                if (rank != lastRank) {
+                    matches.add(places.get(rank));
+                    lastRank = rank;
+                }
+            } else {
+                heap.push(node << 1);
+                heap.push((node << 1) + 1);
+            }
+        }
+        return matches;
+    }
+
+    private synchronized void ensureBuilt() {
+        if (tree != null) {
+            return;
+        }
+
+        final List<Key> entries = new ArrayList<>(places.size() * 4);
+        for (int rank = 0; rank < places.size(); rank++) {
+            final Place place = places.get(rank);
+            if (place == null) {
+                continue;
+            }
+            addKey(entries, place.description, rank);
+            if (place.terms != null) {
+                for (DescriptionTerm term : place.terms) {
+                    if (term != null) {
+                        addKey(entries, term.value, rank);
+                    }
+                }
+            }
+        }
+
+        Collections.sort(entries, new Comparator<Key>() {
+            @Override
+            public int compare(final Key lhs, final Key rhs) {
+                return lhs.value.compareTo(rhs.value);
+            }
+        });
+
+        final int size = entries.size();
+        final String[] sortedKeys = new String[size];
+        final int[] keyRanks = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = entries.get(i).value;
+            keyRanks[i] = entries.get(i).rank;
+        }
+
+        int leaves = 1;
+        while (leaves < size) {
+            leaves <<= 1;
+        }
+        final int[] minTree = new int[leaves << 1];
+        Arrays.fill(minTree, NO_RANK);
+        System.arraycopy(keyRanks, 0, minTree, leaves, size);
+        for (int node = leaves - 1; node > 0; node--) {
+            minTree[node] = Math.min(minTree[node << 1], minTree[(node << 1) + 1]);
+        }
+
+        keys = sortedKeys;
+        leafCount = leaves;
+        tree = minTree;
+    }
+
+    private static void addKey(@NonNull final List<Key> entries, @Nullable final String value, final int rank) {
+        if (value != null) {
+            final String key = AutocompleteCacheKey.normalizeInput(value);
+            if (!key.isEmpty()) {
+                entries.add(new Key(key, rank));
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first key not less than the prefix
+     */
+    private int lowerBound(@NonNull final String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the first key from the lower bound on not starting with the prefix, the
+     * keys starting with it are sorted together
+     */
+    private int endOfPrefix(@NonNull final String prefix, final int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Key {
+        final String value;
+
+        final int rank;
+
+        Key(final String value, final int rank) {
+            this.value = value;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * A binary heap of tree nodes, ordered by the rank stored in the node
+     */
+    private static final class NodeHeap {
+        private final int[] tree;
+
+        private int[] nodes = new int[32];
+
+        private int size;
+
+        NodeHeap(final int[] tree) {
+            this.tree = tree;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(final int node) {
+            if (tree[node] == NO_RANK) {
+                return;
+            }
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size << 1);
+            }
+
+            int i = size++;
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (tree[nodes[parent]] <= tree[node]) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+        }
+
+        int pop() {
+            final int top = nodes[0];
+            final int last = nodes[--size];
+
+            int i = 0;
+            while (true) {
+                int child = (i << 1) + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && tree[nodes[child + 1]] < tree[nodes[child]]) {
+                    child++;
+                }
+                if (tree[last] <= tree[nodes[child]]) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            nodes[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+
+import com.irshad.placesautocomplete.model.Place;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders past selections against the current constraint and merges them into the predictions
+ * returned by the api
+ */
+public final class HistoryRanking {
+
+    /**
+     * Sorts the past selections by whether their description starts with the constraint
+     * @param asc if true, matching selections are sorted to the end, otherwise to the front
+     */
+    public static void sortHistory(@NonNull final String constraint, @NonNull final List<Place> pastSelections, final boolean asc) {
+        if (!pastSelections.isEmpty()) {
+            Collections.sort(pastSelections, new Comparator<Place>() {
+                @Override
+                public int compare(final Place lhs, final Place rhs) {
+                    final boolean lhsStarts = lhs.description.startsWith(constraint);
+                    final boolean rhsStarts = rhs.description.startsWith(constraint);
+                    return lhsStarts && rhsStarts ? 0 : lhsStarts ? (asc ? 1 : -1) : (asc ? -1 : 1);
+                }
+            });
+        }
+    }
+
+    /**
+     * Moves the past selections matching the constraint to the top of the predictions, removing any
+     * duplicate the api already returned. Both lists are modified.
+     */
+    public static void mergeHistory(@NonNull final String constraint, @NonNull final List<Place> predictions, @NonNull final List<Place> pastSelections) {
+        if (pastSelections.isEmpty()) {
+            return;
+        }
+
+        sortHistory(constraint, pastSelections, true);
+
+        for (final Place pastSelection : pastSelections) {
+            if (pastSelection.description.startsWith(constraint)) {
+                // remove the item if it was already returned from the api
+                predictions.remove(pastSelection);
+                // insert into top
+                predictions.add(0, pastSelection);
+            }
+        }
+    }
+
+    /**
+     * The indexed counterpart of {@link #sortHistory(String, List, boolean)}, for an empty or history
+     * constraint
+     * @param limit the maximum number of past selections returned
+     * @return the most recent past selections matching the constraint, followed by the most recent
+     * other ones
+     */
+    @NonNull
+    public static List<Place> rankHistory(@NonNull final String constraint, @NonNull final HistoryPrefixIndex index, final int limit) {
+        final List<Place> ranked = index.query(constraint, limit);
+
+        for (final Place pastSelection : index.getPlaces()) {
+            if (ranked.size() >= limit) {
+                break;
+            }
+            if (!ranked.contains(pastSelection)) {
+                ranked.add(pastSelection);
+            }
+        }
+        return ranked;
+    }
+
+    /**
+     * The indexed counterpart of {@link #mergeHistory(String, List, List)}. The predictions are
+     * modified, the most recent matching past selections are moved to their top, most recent first.
+     * @param limit the maximum number of past selections merged
+     */
+    public static void mergeHistory(@NonNull final String constraint, @NonNull final List<Place> predictions, @NonNull final HistoryPrefixIndex index, final int limit) {
+        final List<Place> matches = index.query(constraint, limit);
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        // remove the items already returned from the api
+        predictions.removeAll(matches);
+        predictions.addAll(0, matches);
+    }
+
+    private HistoryRanking() {
+    }
+}
@@ -0,0 +1,34 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.model.Place;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The JSON history file written by earlier versions, read when migrating to another codec
+ */
+public final class JsonHistoryCodec implements HistoryCodec {
+    @NonNull
+    private final PlacesApiJsonParser parser;
+
+    public JsonHistoryCodec(@NonNull final PlacesApiJsonParser parser) {
+        this.parser = parser;
+    }
+
+    @NonNull
+    @Override
+    public List<Place> read(@NonNull final InputStream in) throws IOException {
+        return parser.readHistoryJson(in);
+    }
+
+    @Override
+    public void write(@NonNull final OutputStream out, @NonNull final List<Place> places) throws IOException {
+        parser.writeHistoryJson(out, places);
+    }
+}
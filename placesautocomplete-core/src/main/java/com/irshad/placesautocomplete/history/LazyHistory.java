@@ -0,0 +1,25 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+
+import com.irshad.placesautocomplete.model.Place;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Implemented by history managers reading their past selections on first access rather than when
+ * created. Until the returned future completes, the past selections are empty or only hold the
+ * selections made since.
+ */
+public interface LazyHistory {
+
+    /**
+     * Starts reading the past selections unless already started, without blocking. Safe to call
+     * from any thread.
+     * @return a future completed with the past selections once they are read, or with the failure
+     * to read them. Canceling the future does not stop the read.
+     */
+    @NonNull
+    Future<List<Place>> load();
+}
@@ -0,0 +1,17 @@
+package com.irshad.placesautocomplete.history;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Implemented by history managers keeping a {@link HistoryPrefixIndex} of their past selections,
+ * which the filter then queries instead of scanning and sorting the whole history on every
+ * keystroke
+ */
+public interface PrefixIndexedHistory {
+
+    /**
+     * @return an index of the current past selections, safe to query from any thread
+     */
+    @NonNull
+    HistoryPrefixIndex getPrefixIndex();
+}
@@ -0,0 +1,50 @@
+package com.irshad.placesautocomplete.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Little endian base 128 varints shared by the history formats
+ */
+final class Varints {
+    static void write(final DataOutput out, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    static int read(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b;
+            try {
+                b = in.readUnsignedByte();
+            } catch (EOFException e) {
+                throw new EOFException("Truncated history file");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeSigned(final DataOutput out, final int value) throws IOException {
+        // zigzag, so the -1 defaults of the parsers stay a single byte
+        write(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSigned(final DataInput in) throws IOException {
+        final int value = read(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private Varints() {
+    }
+}
@@ -0,0 +1,13 @@
+package com.irshad.placesautocomplete.json;
+
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+
+import okio.BufferedSource;
+
+/**
+ * A parser that reads autocomplete responses straight from the bytes of an okio source, e.g. the
+ * body of an OkHttp response, instead of from an InputStream
+ */
+public interface BufferedSourceJsonParser extends PlacesApiJsonParser {
+    PlacesAutocompleteResponse autocompleteFromSource(BufferedSource source) throws JsonParsingException;
+}
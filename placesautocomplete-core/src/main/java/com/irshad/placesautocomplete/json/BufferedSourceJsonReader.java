@@ -0,0 +1,462 @@
+package com.irshad.placesautocomplete.json;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Options;
+
+/**
+ * A pull parser reading JSON directly from the UTF-8 bytes of a {@link BufferedSource}. Names and
+ * enum-like values are matched against pre-encoded {@link Options} without decoding them, only the
+ * strings that are kept are decoded. Skipped values are never decoded.
+ *
+ * Not thread safe, an instance is meant to be reset and reused by one thread, so its scratch
+ * buffer and scope stack are only allocated once.
+ */
+final class BufferedSourceJsonReader {
+    private static final ByteString QUOTE_OR_BACKSLASH = ByteString.encodeUtf8("\"\\");
+
+    private static final int SCOPE_EMPTY = 0;
+    private static final int SCOPE_READY = 1;
+    private static final int SCOPE_NEEDS_COMMA = 2;
+
+    // holds strings with escapes while they are decoded
+    private final Buffer scratch = new Buffer();
+
+    private int[] scopes = new int[32];
+
+    private int depth;
+
+    @Nullable
+    private BufferedSource source;
+
+    /**
+     * Encodes names or values for {@link #selectName} and {@link #selectString}. The quotes are part
+     * of the encoded options, so an option never matches a prefix of a longer string.
+     */
+    @NonNull
+    static Options options(@NonNull final String... strings) {
+        final ByteString[] byteStrings = new ByteString[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            byteStrings[i] = ByteString.encodeUtf8('"' + strings[i] + '"');
+        }
+        return Options.of(byteStrings);
+    }
+
+    void reset(@Nullable final BufferedSource source) {
+        this.source = source;
+        this.depth = 0;
+        scratch.clear();
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+        push();
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+        depth--;
+        afterValue();
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+        push();
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+        depth--;
+        afterValue();
+    }
+
+    /**
+     * @return true if the current object or array has another element, consuming the comma before it
+     */
+    boolean hasNext() throws IOException {
+        final byte b = peekByte();
+        if (b == '}' || b == ']') {
+            return false;
+        }
+
+        if (depth > 0) {
+            final int scope = scopes[depth - 1];
+            if (scope == SCOPE_NEEDS_COMMA) {
+                if (b != ',') {
+                    throw syntaxError("Expected ',' but was '" + (char) b + "'");
+                }
+                source.skip(1);
+                scopes[depth - 1] = SCOPE_READY;
+            } else if (scope == SCOPE_EMPTY) {
+                scopes[depth - 1] = SCOPE_READY;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next name of an object and the colon after it
+     * @return the index of the name in the options, or -1 if it is not one of them
+     */
+    int selectName(@NonNull final Options names) throws IOException {
+        final int index = selectQuoted(names);
+        expect(':');
+        return index;
+    }
+
+    /**
+     * Reads the next string value without decoding it
+     * @return the index of the value in the options, or -1 if it is not one of them or null
+     */
+    int selectString(@NonNull final Options values) throws IOException {
+        if (peekByte() == 'n') {
+            nextNull();
+            return -1;
+        }
+
+        final int index = selectQuoted(values);
+        afterValue();
+        return index;
+    }
+
+    @Nullable
+    String nextString() throws IOException {
+        final byte b = peekByte();
+        if (b == 'n') {
+            nextNull();
+            return null;
+        }
+        if (b != '"') {
+            throw syntaxError("Expected a string but was '" + (char) b + "'");
+        }
+
+        source.skip(1);
+        final String value = readQuotedRemainder();
+        afterValue();
+        return value;
+    }
+
+    int nextInt() throws IOException {
+        final long value = nextLong();
+        if ((int) value != value) {
+            throw new NumberFormatException("Expected an int but was " + value);
+        }
+        return (int) value;
+    }
+
+    long nextLong() throws IOException {
+        peekByte();
+        final Buffer buffer = source.buffer();
+
+        long length = 0;
+        boolean integral = true;
+        while (source.request(length + 1) && isNumberByte(buffer.getByte(length))) {
+            final byte b = buffer.getByte(length);
+            integral &= (b >= '0' && b <= '9') || (b == '-' && length == 0);
+            length++;
+        }
+
+        if (length == 0 || (length == 1 && buffer.getByte(0) == '-')) {
+            throw syntaxError("Expected a number");
+        }
+
+        final long value;
+        if (integral && length < 19) {
+            // parsed in place, no string is decoded for the common integer case
+            final boolean negative = buffer.getByte(0) == '-';
+            long parsed = 0;
+            for (long i = negative ? 1 : 0; i < length; i++) {
+                parsed = parsed * 10 + (buffer.getByte(i) - '0');
+            }
+            source.skip(length);
+            value = negative ? -parsed : parsed;
+        } else {
+            // a fraction or exponent, e.g. 5.0, is truncated
+            value = (long) Double.parseDouble(source.readUtf8(length));
+        }
+
+        afterValue();
+        return value;
+    }
+
+    double nextDouble() throws IOException {
+        peekByte();
+        final double value = Double.parseDouble(readNumberBytes());
+        afterValue();
+        return value;
+    }
+
+    boolean nextBoolean() throws IOException {
+        final byte b = peekByte();
+        if (b == 't') {
+            expectLiteral("true");
+            afterValue();
+            return true;
+        } else if (b == 'f') {
+            expectLiteral("false");
+            afterValue();
+            return false;
+        }
+        throw syntaxError("Expected a boolean but was '" + (char) b + "'");
+    }
+
+    void nextNull() throws IOException {
+        expectLiteral("null");
+        afterValue();
+    }
+
+    /**
+     * @return true if the next value is null, without consuming it
+     */
+    boolean peekNull() throws IOException {
+        return peekByte() == 'n';
+    }
+
+    /**
+     * Skips the next value, including all nested values, without decoding any of it
+     */
+    void skipValue() throws IOException {
+        final byte b = peekByte();
+        switch (b) {
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    skipQuoted();
+                    expect(':');
+                    skipValue();
+                }
+                endObject();
+                break;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case '"':
+                skipQuoted();
+                afterValue();
+                break;
+            case 't':
+                expectLiteral("true");
+                afterValue();
+                break;
+            case 'f':
+                expectLiteral("false");
+                afterValue();
+                break;
+            case 'n':
+                expectLiteral("null");
+                afterValue();
+                break;
+            default:
+                if (!isNumberByte(b)) {
+                    throw syntaxError("Unexpected character '" + (char) b + "'");
+                }
+                while (source.request(1) && isNumberByte(source.buffer().getByte(0))) {
+                    source.skip(1);
+                }
+                afterValue();
+                break;
+        }
+    }
+
+    private int selectQuoted(@NonNull final Options options) throws IOException {
+        final byte b = peekByte();
+        if (b != '"') {
+            throw syntaxError("Expected a string but was '" + (char) b + "'");
+        }
+
+        final int index = source.select(options);
+        if (index == -1) {
+            skipQuoted();
+        }
+        return index;
+    }
+
+    private void skipQuoted() throws IOException {
+        expect('"');
+        while (true) {
+            final long index = source.indexOfElement(QUOTE_OR_BACKSLASH);
+            if (index == -1) {
+                throw new EOFException("Unterminated string");
+            }
+
+            if (source.buffer().getByte(index) == '"') {
+                source.skip(index + 1);
+                return;
+            }
+
+            // skip the backslash and the escaped character, \\uXXXX only needs its first byte skipped
+            source.skip(index + 2);
+        }
+    }
+
+    /**
+     * Decodes the rest of a string whose opening quote was consumed
+     */
+    @NonNull
+    private String readQuotedRemainder() throws IOException {
+        long index = source.indexOfElement(QUOTE_OR_BACKSLASH);
+        if (index == -1) {
+            throw new EOFException("Unterminated string");
+        }
+
+        // the common case without escapes is decoded straight from the source
+        if (source.buffer().getByte(index) == '"') {
+            final String value = source.readUtf8(index);
+            source.skip(1);
+            return value;
+        }
+
+        while (true) {
+            source.readFully(scratch, index);
+
+            if (source.readByte() == '"') {
+                return scratch.readUtf8();
+            }
+
+            readEscape();
+
+            index = source.indexOfElement(QUOTE_OR_BACKSLASH);
+            if (index == -1) {
+                scratch.clear();
+                throw new EOFException("Unterminated string");
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        final byte escaped = source.readByte();
+        switch (escaped) {
+            case 'n':
+                scratch.writeByte('\n');
+                break;
+            case 't':
+                scratch.writeByte('\t');
+                break;
+            case 'r':
+                scratch.writeByte('\r');
+                break;
+            case 'b':
+                scratch.writeByte('\b');
+                break;
+            case 'f':
+                scratch.writeByte('\f');
+                break;
+            case 'u':
+                int codePoint = readHexCodeUnit();
+                if (Character.isHighSurrogate((char) codePoint)
+                        && source.request(6)
+                        && source.buffer().getByte(0) == '\\'
+                        && source.buffer().getByte(1) == 'u') {
+                    source.skip(2);
+                    final int low = readHexCodeUnit();
+                    codePoint = Character.isLowSurrogate((char) low)
+                            ? Character.toCodePoint((char) codePoint, (char) low)
+                            : low;
+                }
+                scratch.writeUtf8CodePoint(codePoint);
+                break;
+            default:
+                // \", \\ and \/ stand for themselves
+                scratch.writeByte(escaped);
+                break;
+        }
+    }
+
+    private int readHexCodeUnit() throws IOException {
+        source.require(4);
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            final int digit = Character.digit(source.readByte(), 16);
+            if (digit == -1) {
+                throw syntaxError("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    @NonNull
+    private String readNumberBytes() throws IOException {
+        long length = 0;
+        while (source.request(length + 1) && isNumberByte(source.buffer().getByte(length))) {
+            length++;
+        }
+        if (length == 0) {
+            throw syntaxError("Expected a number");
+        }
+        return source.readUtf8(length);
+    }
+
+    private static boolean isNumberByte(final byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+
+    private void expectLiteral(@NonNull final String literal) throws IOException {
+        peekByte();
+        for (int i = 0; i < literal.length(); i++) {
+            if (source.readByte() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    private void expect(final char c) throws IOException {
+        final byte b = peekByte();
+        if (b != c) {
+            throw syntaxError("Expected '" + c + "' but was '" + (char) b + "'");
+        }
+        source.skip(1);
+    }
+
+    /**
+     * Skips whitespace and returns the next byte without consuming it
+     */
+    private byte peekByte() throws IOException {
+        final Buffer buffer = source.buffer();
+        long i = 0;
+        while (source.request(i + 1)) {
+            final byte b = buffer.getByte(i);
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                i++;
+            } else {
+                // whitespace runs are skipped at once
+                if (i > 0) {
+                    buffer.skip(i);
+                }
+                return b;
+            }
+        }
+        throw new EOFException("End of input");
+    }
+
+    private void push() {
+        if (depth == scopes.length) {
+            final int[] grown = new int[depth * 2];
+            System.arraycopy(scopes, 0, grown, 0, depth);
+            scopes = grown;
+        }
+        scopes[depth++] = SCOPE_EMPTY;
+    }
+
+    private void afterValue() {
+        if (depth > 0) {
+            scopes[depth - 1] = SCOPE_NEEDS_COMMA;
+        }
+    }
+
+    @NonNull
+    private JsonParsingException syntaxError(@NonNull final String message) {
+        return new JsonParsingException(message);
+    }
+}
@@ -0,0 +1,145 @@
+package com.irshad.placesautocomplete.json;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.AddressComponentType;
+import com.irshad.placesautocomplete.model.PlaceScope;
+import com.irshad.placesautocomplete.model.PlaceType;
+import com.irshad.placesautocomplete.model.Status;
+
+import java.util.Locale;
+
+/**
+ * Decodes the values of an enum as the Places API spells them, shared by all parsers. The values
+ * are placed in a collision free hash table when the lookup is built. The hash only reads the
+ * length and three chars of a value, so decoding a value costs a few char reads and a single
+ * comparison against the only candidate, whatever its length, without allocating.
+ */
+public final class EnumLookup<E extends Enum<E>> {
+    public static final EnumLookup<Status> STATUS = new EnumLookup<>(Status.values(), false);
+    public static final EnumLookup<PlaceType> PLACE_TYPE = new EnumLookup<>(PlaceType.values(), true);
+    public static final EnumLookup<AddressComponentType> ADDRESS_COMPONENT_TYPE = new EnumLookup<>(AddressComponentType.values(), true);
+    public static final EnumLookup<PlaceScope> PLACE_SCOPE = new EnumLookup<>(PlaceScope.values(), false);
+
+    private final E[] constants;
+
+    private final String[] names;
+
+    // eighths of the length at which the third char is sampled
+    private final int sample;
+
+    private final int seed;
+
+    private final int mask;
+
+    // index into constants plus one, 0 marks an empty slot. Shorts, so enums of more than 127 constants fit
+    private final short[] slots;
+
+    /**
+     * @param lowerCase whether the API spells the values as the lower cased constant names, the
+     *                  constant names are used as is otherwise
+     * @throws IllegalStateException if no collision free table is found, e.g. for two values only
+     * differing in chars that are not sampled
+     */
+    private EnumLookup(@NonNull final E[] constants, final boolean lowerCase) {
+        this.constants = constants;
+        this.names = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            names[i] = lowerCase ? constants[i].name().toLowerCase(Locale.US) : constants[i].name();
+        }
+
+        final int minSize = Integer.highestOneBit(Math.max(constants.length, 1)) << 2;
+        short[] table = null;
+        int foundSample = 0;
+        int foundSeed = 0;
+        int size = minSize;
+
+        search:
+        for (int candidateSample = 1; candidateSample < 8; candidateSample++) {
+            for (size = minSize; size <= minSize << 2; size <<= 1) {
+                // a few seeds per size are enough for the handful of values of an enum
+                for (int candidateSeed = 31; candidateSeed < 31 + 64; candidateSeed += 2) {
+                    table = fill(candidateSample, candidateSeed, size - 1);
+                    if (table != null) {
+                        foundSample = candidateSample;
+                        foundSeed = candidateSeed;
+                        break search;
+                    }
+                }
+            }
+        }
+
+        if (table == null) {
+            throw new IllegalStateException("No perfect hash for " + constants.getClass().getComponentType());
+        }
+
+        this.sample = foundSample;
+        this.seed = foundSeed;
+        this.mask = size - 1;
+        this.slots = table;
+    }
+
+    /**
+     * @return the constant spelled as the value, null if the value is null or not a known value
+     */
+    @Nullable
+    public E lookup(@Nullable final CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+
+        final int slot = slots[hash(value, sample, seed) & mask];
+        return slot != 0 && names[slot - 1].contentEquals(value) ? constants[slot - 1] : null;
+    }
+
+    /**
+     * @return the constant at the index of {@link #names()}
+     */
+    @NonNull
+    public E constantAt(final int index) {
+        return constants[index];
+    }
+
+    /**
+     * @return the values as the API spells them, in the order of the constants
+     */
+    @NonNull
+    public String[] names() {
+        return names.clone();
+    }
+
+    /**
+     * @return the value the API uses for the constant
+     */
+    @NonNull
+    public String nameOf(@NonNull final E constant) {
+        return names[constant.ordinal()];
+    }
+
+    @Nullable
+    private short[] fill(final int sample, final int seed, final int mask) {
+        final short[] table = new short[mask + 1];
+        for (int i = 0; i < names.length; i++) {
+            final int index = hash(names[i], sample, seed) & mask;
+            if (table[index] != 0) {
+                return null;
+            }
+            table[index] = (short) (i + 1);
+        }
+        return table;
+    }
+
+    private static int hash(@NonNull final CharSequence value, final int sample, final int seed) {
+        final int length = value.length();
+        if (length == 0) {
+            return 0;
+        }
+
+        int h = length;
+        h = h * seed + value.charAt(0);
+        h = h * seed + value.charAt(length - 1);
+        h = h * seed + value.charAt(length * sample >>> 3);
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,22 @@
+package com.irshad.placesautocomplete.json;
+
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * A parser that can skip the parts of a details response that are not needed, instead of
+ * materializing the whole result
+ */
+public interface FieldMaskedJsonParser extends PlacesApiJsonParser {
+    /**
+     * @param fields the fields of the result to read, every other field is skipped and left
+     *               unset. Null to read all fields, empty to skip the result and only read the
+     *               status.
+     */
+    PlacesDetailsResponse detailsFromStream(InputStream is, @Nullable Set<PlaceDetailsField> fields) throws JsonParsingException;
+}
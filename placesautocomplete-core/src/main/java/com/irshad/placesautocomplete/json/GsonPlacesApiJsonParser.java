@@ -1,34 +1,42 @@
 package com.irshad.placesautocomplete.json;
 
+import android.support.annotation.Nullable;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
 import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
 import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
-class GsonPlacesApiJsonParser implements PlacesApiJsonParser {
+/**
+ * Parses with the streaming adapters of {@link PlacesTypeAdapterFactory}, so no model is read or
+ * written through reflection
+ */
+class GsonPlacesApiJsonParser implements FieldMaskedJsonParser {
     private final Gson gson;
 
     public GsonPlacesApiJsonParser() {
         gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new PlacesTypeAdapterFactory())
             .create();
     }
 
     @Override
     public PlacesAutocompleteResponse autocompleteFromStream(final InputStream is)  throws JsonParsingException {
         try {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-            return gson.fromJson(reader, PlacesAutocompleteResponse.class);
+            // JsonReader buffers the chars itself, a BufferedReader would only add another buffer
+            return gson.fromJson(new InputStreamReader(is, "UTF-8"), PlacesAutocompleteResponse.class);
         } catch (Exception e) {
             throw new JsonParsingException(e);
         }
@@ -36,9 +44,14 @@ class GsonPlacesApiJsonParser implements PlacesApiJsonParser {
 
     @Override
     public PlacesDetailsResponse detailsFromStream(final InputStream is) throws JsonParsingException {
+        return detailsFromStream(is, null);
+    }
+
+    @Override
+    public PlacesDetailsResponse detailsFromStream(final InputStream is, @Nullable final Set<PlaceDetailsField> fields) throws JsonParsingException {
         try {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-            return gson.fromJson(reader, PlacesDetailsResponse.class);
+            final JsonReader reader = gson.newJsonReader(new InputStreamReader(is, "UTF-8"));
+            return PlacesTypeAdapterFactory.DETAILS_RESPONSE.read(reader, fields);
         } catch (Exception e) {
             throw new JsonParsingException(e);
         }
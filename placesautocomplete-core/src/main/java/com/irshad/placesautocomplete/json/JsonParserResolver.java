@@ -0,0 +1,53 @@
+package com.irshad.placesautocomplete.json;
+
+import java.lang.reflect.Constructor;
+
+public final class JsonParserResolver {
+    /*
+     * Lives in the Android module, so it is looked up by name when Gson is absent
+     */
+    private static final String ANDROID_PARSER_CLASS = "com.irshad.placesautocomplete.json.AndroidPlacesApiJsonParser";
+
+    public static final PlacesApiJsonParser JSON_PARSER;
+
+    static {
+        boolean hasGson;
+        try {
+            Class.forName("com.google.gson.Gson");
+            hasGson = true;
+        } catch (ClassNotFoundException e) {
+            hasGson = false;
+        }
+
+        JSON_PARSER = hasGson ? new GsonPlacesApiJsonParser() : newAndroidParser();
+    }
+
+    /**
+     * @return a parser reading autocomplete responses from the raw bytes of OkHttp responses,
+     * delegating details and history to {@link #JSON_PARSER}. Use it with
+     * {@link com.irshad.placesautocomplete.PlacesApiBuilder#setJsonParser(PlacesApiJsonParser)}.
+     * @throws IllegalStateException if okio is not on the classpath
+     */
+    public static PlacesApiJsonParser newOkioParser() {
+        try {
+            Class.forName("okio.BufferedSource");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("The okio parser needs okio on the classpath", e);
+        }
+        return new OkioPlacesApiJsonParser(JSON_PARSER);
+    }
+
+    private static PlacesApiJsonParser newAndroidParser() {
+        try {
+            final Constructor<?> constructor = Class.forName(ANDROID_PARSER_CLASS).getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (PlacesApiJsonParser) constructor.newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("No JSON parser available, add Gson to the classpath", e);
+        }
+    }
+
+    private JsonParserResolver() {
+        throw new RuntimeException("No instances");
+    }
+}
@@ -0,0 +1,242 @@
+package com.irshad.placesautocomplete.json;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlaceType;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Options;
+
+/**
+ * Parses autocomplete responses, the requests made on every keystroke, from the UTF-8 bytes of the
+ * response with a {@link BufferedSourceJsonReader}. Names and enum values are matched without
+ * building a String, and the reader with its scratch buffers is reused per thread.
+ *
+ * Details and history parsing are delegated to another parser, field masks only take effect if it
+ * supports them.
+ */
+class OkioPlacesApiJsonParser implements BufferedSourceJsonParser, FieldMaskedJsonParser {
+    private static final Options RESPONSE_NAMES = BufferedSourceJsonReader.options("predictions", "status", "error_message");
+    private static final Options PLACE_NAMES = BufferedSourceJsonReader.options("description", "place_id", "matched_substrings", "terms", "types");
+    private static final Options MATCHED_SUBSTRING_NAMES = BufferedSourceJsonReader.options("length", "offset");
+    private static final Options TERM_NAMES = BufferedSourceJsonReader.options("offset", "value");
+
+    // the option indexes are the indexes of the constants in the lookups
+    private static final Options STATUS_VALUES = BufferedSourceJsonReader.options(EnumLookup.STATUS.names());
+    private static final Options PLACE_TYPE_VALUES = BufferedSourceJsonReader.options(EnumLookup.PLACE_TYPE.names());
+
+    private static final ThreadLocal<BufferedSourceJsonReader> READERS = new ThreadLocal<BufferedSourceJsonReader>() {
+        @Override
+        protected BufferedSourceJsonReader initialValue() {
+            return new BufferedSourceJsonReader();
+        }
+    };
+
+    @NonNull
+    private final PlacesApiJsonParser delegate;
+
+    /**
+     * @param delegate the parser for details and history
+     */
+    OkioPlacesApiJsonParser(@NonNull final PlacesApiJsonParser delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public PlacesAutocompleteResponse autocompleteFromStream(final InputStream is) throws JsonParsingException {
+        return autocompleteFromSource(Okio.buffer(Okio.source(is)));
+    }
+
+    @Override
+    public PlacesAutocompleteResponse autocompleteFromSource(final BufferedSource source) throws JsonParsingException {
+        final BufferedSourceJsonReader reader = READERS.get();
+        reader.reset(source);
+        try {
+            List<Place> predictions = null;
+            Status status = null;
+            String errorMessage = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(RESPONSE_NAMES)) {
+                    case 0:
+                        predictions = readPredictionsArray(reader);
+                        break;
+                    case 1:
+                        final int index = reader.selectString(STATUS_VALUES);
+                        status = index != -1 ? EnumLookup.STATUS.constantAt(index) : null;
+                        break;
+                    case 2:
+                        errorMessage = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            return new PlacesAutocompleteResponse(status, errorMessage, predictions);
+        } catch (JsonParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonParsingException(e);
+        } finally {
+            reader.reset(null);
+        }
+    }
+
+    @Override
+    public PlacesDetailsResponse detailsFromStream(final InputStream is) throws JsonParsingException {
+        return delegate.detailsFromStream(is);
+    }
+
+    @Override
+    public PlacesDetailsResponse detailsFromStream(final InputStream is, @Nullable final Set<PlaceDetailsField> fields) throws JsonParsingException {
+        return delegate instanceof FieldMaskedJsonParser
+                ? ((FieldMaskedJsonParser) delegate).detailsFromStream(is, fields)
+                : delegate.detailsFromStream(is);
+    }
+
+    @Override
+    public List<Place> readHistoryJson(final InputStream in) throws JsonParsingException {
+        return delegate.readHistoryJson(in);
+    }
+
+    @Override
+    public void writeHistoryJson(final OutputStream os, final List<Place> places) throws JsonWritingException {
+        delegate.writeHistoryJson(os, places);
+    }
+
+    private static List<Place> readPredictionsArray(final BufferedSourceJsonReader reader) throws IOException {
+        final List<Place> predictions = new ArrayList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            predictions.add(readPlace(reader));
+        }
+        reader.endArray();
+        return predictions;
+    }
+
+    private static Place readPlace(final BufferedSourceJsonReader reader) throws IOException {
+        String description = null;
+        String placeId = null;
+        List<MatchedSubstring> matchedSubstrings = null;
+        List<DescriptionTerm> terms = null;
+        List<PlaceType> types = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(PLACE_NAMES)) {
+                case 0:
+                    description = reader.nextString();
+                    break;
+                case 1:
+                    placeId = reader.nextString();
+                    break;
+                case 2:
+                    matchedSubstrings = readMatchedSubstringsArray(reader);
+                    break;
+                case 3:
+                    terms = readDescriptionTermsArray(reader);
+                    break;
+                case 4:
+                    types = readPlaceTypesArray(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return new Place(description, placeId, matchedSubstrings, terms, types);
+    }
+
+    private static List<MatchedSubstring> readMatchedSubstringsArray(final BufferedSourceJsonReader reader) throws IOException {
+        final List<MatchedSubstring> matchedSubstrings = new ArrayList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int length = -1;
+            int offset = -1;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(MATCHED_SUBSTRING_NAMES)) {
+                    case 0:
+                        length = reader.nextInt();
+                        break;
+                    case 1:
+                        offset = reader.nextInt();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            matchedSubstrings.add(new MatchedSubstring(length, offset));
+        }
+        reader.endArray();
+        return matchedSubstrings;
+    }
+
+    private static List<DescriptionTerm> readDescriptionTermsArray(final BufferedSourceJsonReader reader) throws IOException {
+        final List<DescriptionTerm> terms = new ArrayList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int offset = -1;
+            String value = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(TERM_NAMES)) {
+                    case 0:
+                        offset = reader.nextInt();
+                        break;
+                    case 1:
+                        value = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            terms.add(new DescriptionTerm(offset, value));
+        }
+        reader.endArray();
+        return terms;
+    }
+
+    private static List<PlaceType> readPlaceTypesArray(final BufferedSourceJsonReader reader) throws IOException {
+        final List<PlaceType> types = new ArrayList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            final int index = reader.selectString(PLACE_TYPE_VALUES);
+            if (index != -1) {
+                types.add(EnumLookup.PLACE_TYPE.constantAt(index));
+            }
+        }
+        reader.endArray();
+        return types;
+    }
+}
@@ -0,0 +1,1077 @@
+package com.irshad.placesautocomplete.json;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.irshad.placesautocomplete.model.AddressComponent;
+import com.irshad.placesautocomplete.model.AddressComponentType;
+import com.irshad.placesautocomplete.model.AlternativePlaceId;
+import com.irshad.placesautocomplete.model.DateTimePair;
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.OpenHours;
+import com.irshad.placesautocomplete.model.OpenPeriod;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlaceGeometry;
+import com.irshad.placesautocomplete.model.PlaceLocation;
+import com.irshad.placesautocomplete.model.PlacePhoto;
+import com.irshad.placesautocomplete.model.PlaceReview;
+import com.irshad.placesautocomplete.model.PlaceScope;
+import com.irshad.placesautocomplete.model.PlaceType;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.RatingAspect;
+import com.irshad.placesautocomplete.model.Status;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming adapters for every model of the Places API, so Gson never falls back to reflection.
+ * Fields are read and written by name with the same defaults the reflective adapters had, missing
+ * numbers are 0 and missing objects are null. Enums are decoded with the shared {@link EnumLookup}
+ * tables instead of reading their {@code SerializedName} annotations.
+ */
+final class PlacesTypeAdapterFactory implements TypeAdapterFactory {
+    static final EnumAdapter<Status> STATUS = new EnumAdapter<>(EnumLookup.STATUS);
+    static final EnumAdapter<PlaceType> PLACE_TYPE = new EnumAdapter<>(EnumLookup.PLACE_TYPE);
+    static final EnumAdapter<AddressComponentType> ADDRESS_COMPONENT_TYPE = new EnumAdapter<>(EnumLookup.ADDRESS_COMPONENT_TYPE);
+    static final EnumAdapter<PlaceScope> PLACE_SCOPE = new EnumAdapter<>(EnumLookup.PLACE_SCOPE);
+
+    static final TypeAdapter<MatchedSubstring> MATCHED_SUBSTRING = new MatchedSubstringAdapter();
+    static final TypeAdapter<DescriptionTerm> DESCRIPTION_TERM = new DescriptionTermAdapter();
+    static final TypeAdapter<Place> PLACE = new PlaceAdapter();
+    static final TypeAdapter<PlacesAutocompleteResponse> AUTOCOMPLETE_RESPONSE = new AutocompleteResponseAdapter();
+
+    static final TypeAdapter<AddressComponent> ADDRESS_COMPONENT = new AddressComponentAdapter();
+    static final TypeAdapter<PlaceLocation> PLACE_LOCATION = new PlaceLocationAdapter();
+    static final TypeAdapter<PlaceGeometry> PLACE_GEOMETRY = new PlaceGeometryAdapter();
+    static final TypeAdapter<DateTimePair> DATE_TIME_PAIR = new DateTimePairAdapter();
+    static final TypeAdapter<OpenPeriod> OPEN_PERIOD = new OpenPeriodAdapter();
+    static final TypeAdapter<OpenHours> OPEN_HOURS = new OpenHoursAdapter();
+    static final TypeAdapter<PlacePhoto> PLACE_PHOTO = new PlacePhotoAdapter();
+    static final TypeAdapter<AlternativePlaceId> ALTERNATIVE_PLACE_ID = new AlternativePlaceIdAdapter();
+    static final TypeAdapter<RatingAspect> RATING_ASPECT = new RatingAspectAdapter();
+    static final TypeAdapter<PlaceReview> PLACE_REVIEW = new PlaceReviewAdapter();
+    static final PlaceDetailsAdapter PLACE_DETAILS = new PlaceDetailsAdapter();
+    static final DetailsResponseAdapter DETAILS_RESPONSE = new DetailsResponseAdapter();
+
+    private static final Map<Class<?>, TypeAdapter<?>> ADAPTERS = new HashMap<>();
+
+    static {
+        ADAPTERS.put(Status.class, STATUS);
+        ADAPTERS.put(PlaceType.class, PLACE_TYPE);
+        ADAPTERS.put(AddressComponentType.class, ADDRESS_COMPONENT_TYPE);
+        ADAPTERS.put(PlaceScope.class, PLACE_SCOPE);
+        ADAPTERS.put(MatchedSubstring.class, MATCHED_SUBSTRING);
+        ADAPTERS.put(DescriptionTerm.class, DESCRIPTION_TERM);
+        ADAPTERS.put(Place.class, PLACE);
+        ADAPTERS.put(PlacesAutocompleteResponse.class, AUTOCOMPLETE_RESPONSE);
+        ADAPTERS.put(AddressComponent.class, ADDRESS_COMPONENT);
+        ADAPTERS.put(PlaceLocation.class, PLACE_LOCATION);
+        ADAPTERS.put(PlaceGeometry.class, PLACE_GEOMETRY);
+        ADAPTERS.put(DateTimePair.class, DATE_TIME_PAIR);
+        ADAPTERS.put(OpenPeriod.class, OPEN_PERIOD);
+        ADAPTERS.put(OpenHours.class, OPEN_HOURS);
+        ADAPTERS.put(PlacePhoto.class, PLACE_PHOTO);
+        ADAPTERS.put(AlternativePlaceId.class, ALTERNATIVE_PLACE_ID);
+        ADAPTERS.put(RatingAspect.class, RATING_ASPECT);
+        ADAPTERS.put(PlaceReview.class, PLACE_REVIEW);
+        ADAPTERS.put(PlaceDetails.class, PLACE_DETAILS);
+        ADAPTERS.put(PlacesDetailsResponse.class, DETAILS_RESPONSE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+        // null lets Gson handle every other type
+        return (TypeAdapter<T>) ADAPTERS.get(type.getRawType());
+    }
+
+    private static boolean readNull(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    private static String readString(final JsonReader in) throws IOException {
+        return readNull(in) ? null : in.nextString();
+    }
+
+    /**
+     * Reads an array, dropping the elements the adapter reads as null, e.g. unknown enum values
+     */
+    @Nullable
+    private static <E> List<E> readList(final JsonReader in, final TypeAdapter<E> adapter) throws IOException {
+        if (readNull(in)) {
+            return null;
+        }
+
+        final List<E> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            final E element = adapter.read(in);
+            if (element != null) {
+                list.add(element);
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    @Nullable
+    private static List<String> readStringList(final JsonReader in) throws IOException {
+        if (readNull(in)) {
+            return null;
+        }
+
+        final List<String> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(readString(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static <E> void writeList(final JsonWriter out, @Nullable final List<E> list, final TypeAdapter<E> adapter) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (E element : list) {
+            adapter.write(out, element);
+        }
+        out.endArray();
+    }
+
+    private static void writeStringList(final JsonWriter out, @Nullable final List<String> list) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (String element : list) {
+            out.value(element);
+        }
+        out.endArray();
+    }
+
+    /**
+     * Reads and writes enum constants as the API spells them, through the shared {@link EnumLookup}
+     */
+    static final class EnumAdapter<E extends Enum<E>> extends TypeAdapter<E> {
+        private final EnumLookup<E> lookup;
+
+        EnumAdapter(@NonNull final EnumLookup<E> lookup) {
+            this.lookup = lookup;
+        }
+
+        @Override
+        public E read(final JsonReader in) throws IOException {
+            return lookup.lookup(readString(in));
+        }
+
+        @Override
+        public void write(final JsonWriter out, final E value) throws IOException {
+            out.value(value != null ? lookup.nameOf(value) : null);
+        }
+    }
+
+    private static final class MatchedSubstringAdapter extends TypeAdapter<MatchedSubstring> {
+        @Override
+        public MatchedSubstring read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            int length = 0;
+            int offset = 0;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "length":
+                        length = in.nextInt();
+                        break;
+                    case "offset":
+                        offset = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new MatchedSubstring(length, offset);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final MatchedSubstring value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("length").value(value.length);
+            out.name("offset").value(value.offset);
+            out.endObject();
+        }
+    }
+
+    private static final class DescriptionTermAdapter extends TypeAdapter<DescriptionTerm> {
+        @Override
+        public DescriptionTerm read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            int offset = 0;
+            String value = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "offset":
+                        offset = in.nextInt();
+                        break;
+                    case "value":
+                        value = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new DescriptionTerm(offset, value);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final DescriptionTerm value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("offset").value(value.offset);
+            out.name("value").value(value.value);
+            out.endObject();
+        }
+    }
+
+    private static final class PlaceAdapter extends TypeAdapter<Place> {
+        @Override
+        public Place read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            String description = null;
+            String placeId = null;
+            List<MatchedSubstring> matchedSubstrings = null;
+            List<DescriptionTerm> terms = null;
+            List<PlaceType> types = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "description":
+                        description = readString(in);
+                        break;
+                    case "place_id":
+                        placeId = readString(in);
+                        break;
+                    case "matched_substrings":
+                        matchedSubstrings = readList(in, MATCHED_SUBSTRING);
+                        break;
+                    case "terms":
+                        terms = readList(in, DESCRIPTION_TERM);
+                        break;
+                    case "types":
+                        types = readList(in, PLACE_TYPE);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new Place(description, placeId, matchedSubstrings, terms, types);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final Place value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("description").value(value.description);
+            out.name("place_id").value(value.place_id);
+            out.name("matched_substrings");
+            writeList(out, value.matched_substrings, MATCHED_SUBSTRING);
+            out.name("terms");
+            writeList(out, value.terms, DESCRIPTION_TERM);
+            out.name("types");
+            writeList(out, value.types, PLACE_TYPE);
+            out.endObject();
+        }
+    }
+
+    private static final class AutocompleteResponseAdapter extends TypeAdapter<PlacesAutocompleteResponse> {
+        @Override
+        public PlacesAutocompleteResponse read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            List<Place> predictions = null;
+            Status status = null;
+            String errorMessage = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "predictions":
+                        predictions = readList(in, PLACE);
+                        break;
+                    case "status":
+                        status = STATUS.read(in);
+                        break;
+                    case "error_message":
+                        errorMessage = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PlacesAutocompleteResponse(status, errorMessage, predictions);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final PlacesAutocompleteResponse value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("predictions");
+            writeList(out, value.predictions, PLACE);
+            out.name("status");
+            STATUS.write(out, value.status);
+            out.name("error_message").value(value.error_message);
+            out.endObject();
+        }
+    }
+
+    private static final class AddressComponentAdapter extends TypeAdapter<AddressComponent> {
+        @Override
+        public AddressComponent read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            String longName = null;
+            String shortName = null;
+            List<AddressComponentType> types = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "long_name":
+                        longName = readString(in);
+                        break;
+                    case "short_name":
+                        shortName = readString(in);
+                        break;
+                    case "types":
+                        types = readList(in, ADDRESS_COMPONENT_TYPE);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new AddressComponent(longName, shortName, types);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final AddressComponent value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("long_name").value(value.long_name);
+            out.name("short_name").value(value.short_name);
+            out.name("types");
+            writeList(out, value.types, ADDRESS_COMPONENT_TYPE);
+            out.endObject();
+        }
+    }
+
+    private static final class PlaceLocationAdapter extends TypeAdapter<PlaceLocation> {
+        @Override
+        public PlaceLocation read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            double lat = 0.0;
+            double lng = 0.0;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "lat":
+                        lat = in.nextDouble();
+                        break;
+                    case "lng":
+                        lng = in.nextDouble();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PlaceLocation(lat, lng);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final PlaceLocation value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("lat").value(value.lat);
+            out.name("lng").value(value.lng);
+            out.endObject();
+        }
+    }
+
+    private static final class PlaceGeometryAdapter extends TypeAdapter<PlaceGeometry> {
+        @Override
+        public PlaceGeometry read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            PlaceLocation location = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "location":
+                        location = PLACE_LOCATION.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PlaceGeometry(location);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final PlaceGeometry value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("location");
+            PLACE_LOCATION.write(out, value.location);
+            out.endObject();
+        }
+    }
+
+    private static final class DateTimePairAdapter extends TypeAdapter<DateTimePair> {
+        @Override
+        public DateTimePair read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            String day = null;
+            String time = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "day":
+                        day = readString(in);
+                        break;
+                    case "time":
+                        time = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new DateTimePair(day, time);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final DateTimePair value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("day").value(value.day);
+            out.name("time").value(value.time);
+            out.endObject();
+        }
+    }
+
+    private static final class OpenPeriodAdapter extends TypeAdapter<OpenPeriod> {
+        @Override
+        public OpenPeriod read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            DateTimePair open = null;
+            DateTimePair close = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "open":
+                        open = DATE_TIME_PAIR.read(in);
+                        break;
+                    case "close":
+                        close = DATE_TIME_PAIR.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new OpenPeriod(open, close);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final OpenPeriod value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("open");
+            DATE_TIME_PAIR.write(out, value.open);
+            out.name("close");
+            DATE_TIME_PAIR.write(out, value.close);
+            out.endObject();
+        }
+    }
+
+    private static final class OpenHoursAdapter extends TypeAdapter<OpenHours> {
+        @Override
+        public OpenHours read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            boolean openNow = false;
+            List<OpenPeriod> periods = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "open_now":
+                        openNow = in.nextBoolean();
+                        break;
+                    case "periods":
+                        periods = readList(in, OPEN_PERIOD);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new OpenHours(openNow, periods);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final OpenHours value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("open_now").value(value.open_now);
+            out.name("periods");
+            writeList(out, value.periods, OPEN_PERIOD);
+            out.endObject();
+        }
+    }
+
+    private static final class PlacePhotoAdapter extends TypeAdapter<PlacePhoto> {
+        @Override
+        public PlacePhoto read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            int height = 0;
+            int width = 0;
+            String photoReference = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "height":
+                        height = in.nextInt();
+                        break;
+                    case "width":
+                        width = in.nextInt();
+                        break;
+                    case "photo_reference":
+                        photoReference = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PlacePhoto(height, width, photoReference);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final PlacePhoto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("height").value(value.height);
+            out.name("width").value(value.width);
+            out.name("photo_reference").value(value.photo_reference);
+            out.endObject();
+        }
+    }
+
+    private static final class AlternativePlaceIdAdapter extends TypeAdapter<AlternativePlaceId> {
+        @Override
+        public AlternativePlaceId read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            String placeId = null;
+            PlaceScope scope = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "place_id":
+                        placeId = readString(in);
+                        break;
+                    case "scope":
+                        scope = PLACE_SCOPE.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new AlternativePlaceId(placeId, scope);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final AlternativePlaceId value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("place_id").value(value.place_id);
+            out.name("scope");
+            PLACE_SCOPE.write(out, value.scope);
+            out.endObject();
+        }
+    }
+
+    private static final class RatingAspectAdapter extends TypeAdapter<RatingAspect> {
+        @Override
+        public RatingAspect read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            int rating = 0;
+            String type = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "rating":
+                        rating = in.nextInt();
+                        break;
+                    case "type":
+                        type = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new RatingAspect(rating, type);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final RatingAspect value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("rating").value(value.rating);
+            out.name("type").value(value.type);
+            out.endObject();
+        }
+    }
+
+    private static final class PlaceReviewAdapter extends TypeAdapter<PlaceReview> {
+        @Override
+        public PlaceReview read(final JsonReader in) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            List<RatingAspect> aspects = null;
+            String authorName = null;
+            String authorUrl = null;
+            String language = null;
+            int rating = 0;
+            String text = null;
+            long time = 0L;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "aspects":
+                        aspects = readList(in, RATING_ASPECT);
+                        break;
+                    case "author_name":
+                        authorName = readString(in);
+                        break;
+                    case "author_url":
+                        authorUrl = readString(in);
+                        break;
+                    case "language":
+                        language = readString(in);
+                        break;
+                    case "rating":
+                        rating = in.nextInt();
+                        break;
+                    case "text":
+                        text = readString(in);
+                        break;
+                    case "time":
+                        time = in.nextLong();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PlaceReview(aspects, authorName, authorUrl, language, rating, text, time);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final PlaceReview value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("aspects");
+            writeList(out, value.aspects, RATING_ASPECT);
+            out.name("author_name").value(value.author_name);
+            out.name("author_url").value(value.author_url);
+            out.name("language").value(value.language);
+            out.name("rating").value(value.rating);
+            out.name("text").value(value.text);
+            out.name("time").value(value.time);
+            out.endObject();
+        }
+    }
+
+    static final class PlaceDetailsAdapter extends TypeAdapter<PlaceDetails> {
+        @Override
+        public PlaceDetails read(final JsonReader in) throws IOException {
+            return read(in, null);
+        }
+
+        /**
+         * @param fields the fields to read, the others are skipped without being materialized. Null
+         *               to read all fields.
+         */
+        PlaceDetails read(final JsonReader in, @Nullable final Set<PlaceDetailsField> fields) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            List<AddressComponent> addressComponents = null;
+            String formattedAddress = null;
+            String formattedPhoneNumber = null;
+            String internationalPhoneNumber = null;
+            PlaceGeometry geometry = null;
+            String icon = null;
+            String name = null;
+            String placeId = null;
+            OpenHours openingHours = null;
+            boolean permanentlyClosed = false;
+            List<PlacePhoto> photos = null;
+            PlaceScope scope = null;
+            List<AlternativePlaceId> altIds = null;
+            int priceLevel = 0;
+            double rating = 0.0;
+            List<PlaceReview> reviews = null;
+            List<String> types = null;
+            String url = null;
+            String vicinity = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                final String fieldName = in.nextName();
+                if (fields != null && !fields.contains(PlaceDetailsField.fromJsonName(fieldName))) {
+                    in.skipValue();
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "address_components":
+                        addressComponents = readList(in, ADDRESS_COMPONENT);
+                        break;
+                    case "formatted_address":
+                        formattedAddress = readString(in);
+                        break;
+                    case "formatted_phone_number":
+                        formattedPhoneNumber = readString(in);
+                        break;
+                    case "international_phone_number":
+                        internationalPhoneNumber = readString(in);
+                        break;
+                    case "geometry":
+                        geometry = PLACE_GEOMETRY.read(in);
+                        break;
+                    case "icon":
+                        icon = readString(in);
+                        break;
+                    case "name":
+                        name = readString(in);
+                        break;
+                    case "place_id":
+                        placeId = readString(in);
+                        break;
+                    case "opening_hours":
+                        openingHours = OPEN_HOURS.read(in);
+                        break;
+                    case "permanently_closed":
+                        permanentlyClosed = in.nextBoolean();
+                        break;
+                    case "photos":
+                        photos = readList(in, PLACE_PHOTO);
+                        break;
+                    case "scope":
+                        scope = PLACE_SCOPE.read(in);
+                        break;
+                    case "alt_ids":
+                        altIds = readList(in, ALTERNATIVE_PLACE_ID);
+                        break;
+                    case "price_level":
+                        priceLevel = in.nextInt();
+                        break;
+                    case "rating":
+                        rating = in.nextDouble();
+                        break;
+                    case "reviews":
+                        reviews = readList(in, PLACE_REVIEW);
+                        break;
+                    case "types":
+                        types = readStringList(in);
+                        break;
+                    case "url":
+                        url = readString(in);
+                        break;
+                    case "vicinity":
+                        vicinity = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PlaceDetails(addressComponents,
+                    formattedAddress,
+                    formattedPhoneNumber,
+                    internationalPhoneNumber,
+                    geometry,
+                    icon,
+                    name,
+                    placeId,
+                    openingHours,
+                    permanentlyClosed,
+                    photos,
+                    scope,
+                    altIds,
+                    priceLevel,
+                    rating,
+                    reviews,
+                    types,
+                    url,
+                    vicinity);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final PlaceDetails value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("address_components");
+            writeList(out, value.address_components, ADDRESS_COMPONENT);
+            out.name("formatted_address").value(value.formatted_address);
+            out.name("formatted_phone_number").value(value.formatted_phone_number);
+            out.name("international_phone_number").value(value.international_phone_number);
+            out.name("geometry");
+            PLACE_GEOMETRY.write(out, value.geometry);
+            out.name("icon").value(value.icon);
+            out.name("name").value(value.name);
+            out.name("place_id").value(value.place_id);
+            out.name("opening_hours");
+            OPEN_HOURS.write(out, value.opening_hours);
+            out.name("permanently_closed").value(value.permanently_closed);
+            out.name("photos");
+            writeList(out, value.photos, PLACE_PHOTO);
+            out.name("scope");
+            PLACE_SCOPE.write(out, value.scope);
+            out.name("alt_ids");
+            writeList(out, value.alt_ids, ALTERNATIVE_PLACE_ID);
+            out.name("price_level").value(value.price_level);
+            out.name("rating").value(value.rating);
+            out.name("reviews");
+            writeList(out, value.reviews, PLACE_REVIEW);
+            out.name("types");
+            writeStringList(out, value.types);
+            out.name("url").value(value.url);
+            out.name("vicinity").value(value.vicinity);
+            out.endObject();
+        }
+    }
+
+    static final class DetailsResponseAdapter extends TypeAdapter<PlacesDetailsResponse> {
+        @Override
+        public PlacesDetailsResponse read(final JsonReader in) throws IOException {
+            return read(in, null);
+        }
+
+        /**
+         * @param fields the fields of the result to read. Null to read all fields, empty to skip the
+         *               result.
+         */
+        PlacesDetailsResponse read(final JsonReader in, @Nullable final Set<PlaceDetailsField> fields) throws IOException {
+            if (readNull(in)) {
+                return null;
+            }
+
+            PlaceDetails result = null;
+            Status status = null;
+            String errorMessage = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "result":
+                        if (fields != null && fields.isEmpty()) {
+                            in.skipValue();
+                        } else {
+                            result = PLACE_DETAILS.read(in, fields);
+                        }
+                        break;
+                    case "status":
+                        status = STATUS.read(in);
+                        break;
+                    case "error_message":
+                        errorMessage = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PlacesDetailsResponse(status, errorMessage, result);
+        }
+
+        @Override
+        public void write(final JsonWriter out, final PlacesDetailsResponse value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("result");
+            PLACE_DETAILS.write(out, value.result);
+            out.name("status");
+            STATUS.write(out, value.status);
+            out.name("error_message").value(value.error_message);
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.irshad.placesautocomplete.metrics;
+
+public enum CacheOutcome {
+    /**
+     * Served from the autocomplete response cache
+     */
+    HIT,
+    /**
+     * Not cached, a network request was made
+     */
+    MISS,
+    /**
+     * Not cached, joined an identical network request already in flight
+     */
+    COALESCED,
+    /**
+     * Served by narrowing the previous predictions locally, without asking PlacesApi
+     */
+    REFINED
+}
@@ -0,0 +1,192 @@
+package com.irshad.placesautocomplete.metrics;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.Status;
+import com.irshad.placesautocomplete.session.SessionEndReason;
+import com.irshad.placesautocomplete.session.SessionListener;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link PlacesMetricsListener} that aggregates the stage timings into histograms, so
+ * percentiles per stage can be read or logged at any time, e.g. {@code getPercentileMillis(Stage.PARSE, 99)}.
+ * Registered as a {@link SessionListener} it also aggregates the keystrokes and requests per
+ * autocomplete session.
+ */
+public class LatencyAggregator implements PlacesMetricsListener, SessionListener {
+    private final Map<Stage, LatencyHistogram> stageHistograms = new EnumMap<>(Stage.class);
+
+    private final Map<CacheOutcome, Long> cacheOutcomes = new EnumMap<>(CacheOutcome.class);
+
+    private final Map<Integer, Long> httpStatusCodes = new TreeMap<>();
+
+    private final LatencyHistogram payloadBytes = new LatencyHistogram();
+
+    private final LatencyHistogram parseAllocatedBytes = new LatencyHistogram();
+
+    private final Map<SessionEndReason, Long> sessionEnds = new EnumMap<>(SessionEndReason.class);
+
+    private final LatencyHistogram sessionKeystrokes = new LatencyHistogram();
+
+    private final LatencyHistogram sessionRequests = new LatencyHistogram();
+
+    public LatencyAggregator() {
+        for (final Stage stage : Stage.values()) {
+            stageHistograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public synchronized void onStageCompleted(@NonNull final Stage stage, final long durationNanos) {
+        stageHistograms.get(stage).record(durationNanos);
+    }
+
+    @Override
+    public synchronized void onCacheLookup(@NonNull final CacheOutcome outcome) {
+        final Long count = cacheOutcomes.get(outcome);
+        cacheOutcomes.put(outcome, count != null ? count + 1 : 1L);
+    }
+
+    @Override
+    public synchronized void onResponse(final int httpStatusCode, final long payloadBytes, final long parseAllocatedBytes, @Nullable final Status status) {
+        final Long count = httpStatusCodes.get(httpStatusCode);
+        httpStatusCodes.put(httpStatusCode, count != null ? count + 1 : 1L);
+
+        this.payloadBytes.record(payloadBytes);
+
+        if (parseAllocatedBytes >= 0) {
+            this.parseAllocatedBytes.record(parseAllocatedBytes);
+        }
+    }
+
+    @Override
+    public void onSessionStarted(@NonNull final String sessionToken) {
+    }
+
+    @Override
+    public synchronized void onSessionEnded(@NonNull final String sessionToken,
+                                            @NonNull final SessionEndReason reason,
+                                            final int keystrokeCount,
+                                            final int requestCount,
+                                            final long durationMillis) {
+        final Long count = sessionEnds.get(reason);
+        sessionEnds.put(reason, count != null ? count + 1 : 1L);
+
+        sessionKeystrokes.record(keystrokeCount);
+        sessionRequests.record(requestCount);
+    }
+
+    /**
+     * @return a copy of the histogram of the durations of the stage in nanoseconds
+     */
+    @NonNull
+    public synchronized LatencyHistogram getHistogram(@NonNull final Stage stage) {
+        return new LatencyHistogram(stageHistograms.get(stage));
+    }
+
+    /**
+     * @param percentile the percentile between 0 and 100, e.g. 50 or 99
+     */
+    public synchronized double getPercentileMillis(@NonNull final Stage stage, final double percentile) {
+        return stageHistograms.get(stage).getValueAtPercentile(percentile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized long getCacheOutcomeCount(@NonNull final CacheOutcome outcome) {
+        final Long count = cacheOutcomes.get(outcome);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * @return the number of responses per http status code
+     */
+    @NonNull
+    public synchronized Map<Integer, Long> getHttpStatusCodes() {
+        return new TreeMap<>(httpStatusCodes);
+    }
+
+    /**
+     * @return a copy of the histogram of response body sizes in bytes
+     */
+    @NonNull
+    public synchronized LatencyHistogram getPayloadBytes() {
+        return new LatencyHistogram(payloadBytes);
+    }
+
+    /**
+     * @return a copy of the histogram of bytes allocated per parse, empty where unsupported
+     */
+    @NonNull
+    public synchronized LatencyHistogram getParseAllocatedBytes() {
+        return new LatencyHistogram(parseAllocatedBytes);
+    }
+
+    public synchronized long getSessionEndCount(@NonNull final SessionEndReason reason) {
+        final Long count = sessionEnds.get(reason);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * @return a copy of the histogram of keystrokes per ended session
+     */
+    @NonNull
+    public synchronized LatencyHistogram getSessionKeystrokes() {
+        return new LatencyHistogram(sessionKeystrokes);
+    }
+
+    /**
+     * @return a copy of the histogram of autocomplete requests per ended session
+     */
+    @NonNull
+    public synchronized LatencyHistogram getSessionRequests() {
+        return new LatencyHistogram(sessionRequests);
+    }
+
+    public synchronized void reset() {
+        for (final LatencyHistogram histogram : stageHistograms.values()) {
+            histogram.reset();
+        }
+        cacheOutcomes.clear();
+        httpStatusCodes.clear();
+        payloadBytes.reset();
+        parseAllocatedBytes.reset();
+        sessionEnds.clear();
+        sessionKeystrokes.reset();
+        sessionRequests.reset();
+    }
+
+    /**
+     * @return a summary with the p50 and p99 of every stage that was recorded
+     */
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder("LatencyAggregator{");
+        boolean first = true;
+        for (final Map.Entry<Stage, LatencyHistogram> entry : stageHistograms.entrySet()) {
+            final LatencyHistogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+
+            sb.append(String.format(Locale.US, "%s n=%d p50=%.2fms p99=%.2fms",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    getPercentileMillis(entry.getKey(), 50),
+                    getPercentileMillis(entry.getKey(), 99)));
+        }
+        sb.append(", cache=").append(cacheOutcomes);
+        sb.append(", http=").append(httpStatusCodes);
+        sb.append(", sessions=").append(sessionEnds);
+        return sb.append('}').toString();
+    }
+}
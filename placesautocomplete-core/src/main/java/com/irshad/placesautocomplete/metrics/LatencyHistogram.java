@@ -0,0 +1,127 @@
+package com.irshad.placesautocomplete.metrics;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * A fixed memory histogram of non-negative long values with log-linear buckets in the style of
+ * HdrHistogram. Values below {@link #SUB_BUCKET_COUNT} are counted exactly, larger values land in
+ * buckets whose width is at most 1/{@link #HALF_SUB_BUCKET_COUNT} of the value, so percentiles are
+ * accurate to about 3%. Not thread safe.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    // highest bit of a positive long is bit 62, which is shifted by 62 - (SUB_BUCKET_BITS - 1)
+    private static final int MAX_SHIFT = 62 - (SUB_BUCKET_BITS - 1);
+
+    private final long[] counts = new long[SUB_BUCKET_COUNT + MAX_SHIFT * HALF_SUB_BUCKET_COUNT];
+
+    private long totalCount;
+
+    private long minValue = Long.MAX_VALUE;
+
+    private long maxValue;
+
+    private long sum;
+
+    public LatencyHistogram() {
+    }
+
+    public LatencyHistogram(@NonNull final LatencyHistogram other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        totalCount = other.totalCount;
+        minValue = other.minValue;
+        maxValue = other.maxValue;
+        sum = other.sum;
+    }
+
+    /**
+     * @param value the value to record, negative values are recorded as 0
+     */
+    public void record(final long value) {
+        final long finalValue = value < 0 ? 0 : value;
+
+        counts[indexOf(finalValue)]++;
+        totalCount++;
+        sum += finalValue;
+
+        if (finalValue < minValue) {
+            minValue = finalValue;
+        }
+
+        if (finalValue > maxValue) {
+            maxValue = finalValue;
+        }
+    }
+
+    /**
+     * @param percentile the percentile between 0 and 100
+     * @return the highest value equivalent to the value at the percentile, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        final double finalPercentile = Math.min(Math.max(percentile, 0.0d), 100.0d);
+        final long target = Math.max(1L, (long) Math.ceil(finalPercentile / 100.0d * totalCount));
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMinValue() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0d : (double) sum / totalCount;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+        sum = 0;
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        final int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (subBucket - HALF_SUB_BUCKET_COUNT);
+    }
+
+    static long highestEquivalentValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        final int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        final long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
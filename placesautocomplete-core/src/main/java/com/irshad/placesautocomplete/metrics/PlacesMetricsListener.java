@@ -0,0 +1,36 @@
+package com.irshad.placesautocomplete.metrics;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.Status;
+
+/**
+ * Receives timings and outcomes of the autocomplete and details pipeline. Registered with
+ * {@link com.irshad.placesautocomplete.PlacesApiBuilder#setMetricsListener(PlacesMetricsListener)}.
+ * Callbacks come from whichever thread did the work and must be cheap and thread safe.
+ *
+ * @see LatencyAggregator
+ */
+public interface PlacesMetricsListener {
+
+    /**
+     * @param stage the stage that completed
+     * @param durationNanos the time spent in the stage
+     */
+    void onStageCompleted(@NonNull Stage stage, long durationNanos);
+
+    /**
+     * @param outcome how an autocomplete request was served
+     */
+    void onCacheLookup(@NonNull CacheOutcome outcome);
+
+    /**
+     * @param httpStatusCode the http status code of the response
+     * @param payloadBytes the number of bytes read from the response body
+     * @param parseAllocatedBytes the bytes allocated while parsing, or -1 if the platform does not
+     *                            expose per-thread allocation counts
+     * @param status the status reported by the Places API, null if the body could not be parsed
+     */
+    void onResponse(int httpStatusCode, long payloadBytes, long parseAllocatedBytes, @Nullable Status status);
+}
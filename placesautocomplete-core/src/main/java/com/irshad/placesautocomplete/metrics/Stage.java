@@ -0,0 +1,40 @@
+package com.irshad.placesautocomplete.metrics;
+
+/**
+ * The stages of the autocomplete pipeline timed by a {@link PlacesMetricsListener}
+ */
+public enum Stage {
+    /**
+     * Building the request url and cache key in PlacesApi
+     */
+    BUILD_REQUEST,
+    /**
+     * Resolving the host, only reported by clients that can tell it apart from connecting
+     */
+    DNS,
+    /**
+     * Opening the connection including the TLS handshake. The OkHttp client skips it for pooled
+     * connections, the HttpURLConnection client reports it close to zero and includes dns
+     */
+    CONNECT,
+    /**
+     * From sending the request until the response headers arrived
+     */
+    TIME_TO_FIRST_BYTE,
+    /**
+     * Reading and parsing the response body
+     */
+    PARSE,
+    /**
+     * The whole request in PlacesApi, from building it until the response is available
+     */
+    REQUEST,
+    /**
+     * Sorting and merging the history into the predictions in the filter
+     */
+    HISTORY_MERGE,
+    /**
+     * Handing the filter results to the adapter on the main thread
+     */
+    PUBLISH_RESULTS
+}
@@ -0,0 +1,48 @@
+package com.irshad.placesautocomplete.metrics;
+
+import java.lang.reflect.Method;
+
+/**
+ * Reads the bytes allocated by the current thread where the VM exposes it, which is HotSpot's
+ * com.sun.management.ThreadMXBean. Android has no equivalent that works without tracing enabled.
+ */
+public final class ThreadAllocations {
+    private static final Object THREAD_MX_BEAN;
+    private static final Method GET_THREAD_ALLOCATED_BYTES;
+
+    static {
+        Object bean = null;
+        Method method = null;
+        try {
+            final Class<?> factory = Class.forName("java.lang.management.ManagementFactory");
+            bean = factory.getMethod("getThreadMXBean").invoke(null);
+            method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+            if (!method.getDeclaringClass().isInstance(bean)) {
+                method = null;
+            }
+        } catch (Throwable t) {
+            method = null;
+        }
+
+        THREAD_MX_BEAN = bean;
+        GET_THREAD_ALLOCATED_BYTES = method;
+    }
+
+    /**
+     * @return the total bytes allocated by the current thread so far, or -1 if unsupported
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1L;
+        }
+
+        try {
+            return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1L;
+        }
+    }
+
+    private ThreadAllocations() {
+    }
+}
@@ -0,0 +1,167 @@
+package com.irshad.placesautocomplete.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.json.FieldMaskedJsonParser;
+import com.irshad.placesautocomplete.json.JsonParsingException;
+
+import java.io.ByteArrayInputStream;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * A {@link PlaceDetails} that keeps the raw response and only decodes a field the first time it is
+ * accessed, skipping everything else. Useful when only a few fields of a response are ever read,
+ * e.g. the address and geometry.
+ *
+ * Decoding a field parses the raw response again, so a caller reading most of the fields should
+ * use {@link #toPlaceDetails()} instead. Thread safe.
+ */
+public final class LazyPlaceDetails {
+
+    @Nullable
+    private final byte[] rawResponse;
+
+    @Nullable
+    private final FieldMaskedJsonParser parser;
+
+    // decoded sections, each holding the field of the same ordinal
+    private final PlaceDetails[] sections = new PlaceDetails[PlaceDetailsField.values().length];
+
+    @Nullable
+    private PlaceDetails all;
+
+    /**
+     * @param rawResponse the body of a successful details response
+     * @param parser the parser used to decode the fields from the body
+     */
+    public LazyPlaceDetails(@NonNull final byte[] rawResponse, @NonNull final FieldMaskedJsonParser parser) {
+        this.rawResponse = rawResponse;
+        this.parser = parser;
+    }
+
+    /**
+     * Wraps details that are already decoded, e.g. from a cache or a parser that cannot skip fields
+     */
+    public LazyPlaceDetails(@NonNull final PlaceDetails details) {
+        this.rawResponse = null;
+        this.parser = null;
+        this.all = details;
+    }
+
+    public List<AddressComponent> getAddressComponents() {
+        return section(PlaceDetailsField.ADDRESS_COMPONENTS).address_components;
+    }
+
+    public String getFormattedAddress() {
+        return section(PlaceDetailsField.FORMATTED_ADDRESS).formatted_address;
+    }
+
+    public String getFormattedPhoneNumber() {
+        return section(PlaceDetailsField.FORMATTED_PHONE_NUMBER).formatted_phone_number;
+    }
+
+    public String getInternationalPhoneNumber() {
+        return section(PlaceDetailsField.INTERNATIONAL_PHONE_NUMBER).international_phone_number;
+    }
+
+    public PlaceGeometry getGeometry() {
+        return section(PlaceDetailsField.GEOMETRY).geometry;
+    }
+
+    public String getIcon() {
+        return section(PlaceDetailsField.ICON).icon;
+    }
+
+    public String getName() {
+        return section(PlaceDetailsField.NAME).name;
+    }
+
+    public String getPlaceId() {
+        return section(PlaceDetailsField.PLACE_ID).place_id;
+    }
+
+    public OpenHours getOpeningHours() {
+        return section(PlaceDetailsField.OPENING_HOURS).opening_hours;
+    }
+
+    public boolean isPermanentlyClosed() {
+        return section(PlaceDetailsField.PERMANENTLY_CLOSED).permanently_closed;
+    }
+
+    public List<PlacePhoto> getPhotos() {
+        return section(PlaceDetailsField.PHOTOS).photos;
+    }
+
+    public PlaceScope getScope() {
+        return section(PlaceDetailsField.SCOPE).scope;
+    }
+
+    public List<AlternativePlaceId> getAltIds() {
+        return section(PlaceDetailsField.ALT_IDS).alt_ids;
+    }
+
+    public int getPriceLevel() {
+        return section(PlaceDetailsField.PRICE_LEVEL).price_level;
+    }
+
+    public double getRating() {
+        return section(PlaceDetailsField.RATING).rating;
+    }
+
+    public List<PlaceReview> getReviews() {
+        return section(PlaceDetailsField.REVIEWS).reviews;
+    }
+
+    public List<String> getTypes() {
+        return section(PlaceDetailsField.TYPES).types;
+    }
+
+    public String getUrl() {
+        return section(PlaceDetailsField.URL).url;
+    }
+
+    public String getVicinity() {
+        return section(PlaceDetailsField.VICINITY).vicinity;
+    }
+
+    /**
+     * @return all the fields, decoded at once
+     */
+    @NonNull
+    public synchronized PlaceDetails toPlaceDetails() {
+        if (all == null) {
+            all = decode(null);
+        }
+        return all;
+    }
+
+    @NonNull
+    private synchronized PlaceDetails section(@NonNull final PlaceDetailsField field) {
+        if (all != null) {
+            return all;
+        }
+
+        PlaceDetails section = sections[field.ordinal()];
+        if (section == null) {
+            section = decode(EnumSet.of(field));
+            sections[field.ordinal()] = section;
+        }
+        return section;
+    }
+
+    @NonNull
+    private PlaceDetails decode(@Nullable final EnumSet<PlaceDetailsField> fields) {
+        try {
+            final PlacesDetailsResponse response = parser.detailsFromStream(new ByteArrayInputStream(rawResponse), fields);
+            if (response.result == null) {
+                throw new JsonParsingException("Details response has no result");
+            }
+            return response.result;
+        } catch (JsonParsingException e) {
+            // the response was parsed once already, so it can only fail here if it was modified
+            throw new IllegalStateException("Unable to decode place details", e);
+        }
+    }
+}
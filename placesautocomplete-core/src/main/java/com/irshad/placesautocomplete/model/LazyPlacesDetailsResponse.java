@@ -0,0 +1,18 @@
+package com.irshad.placesautocomplete.model;
+
+/**
+ * A details response whose result is only decoded as its fields are accessed, see
+ * {@link LazyPlaceDetails}
+ */
+public final class LazyPlacesDetailsResponse extends PlacesApiResponse {
+
+    /**
+     * Null if the request was not successful
+     */
+    public final LazyPlaceDetails result;
+
+    public LazyPlacesDetailsResponse(final Status status, final String error_message, final LazyPlaceDetails result) {
+        super(status, error_message);
+        this.result = result;
+    }
+}
@@ -0,0 +1,107 @@
+package com.irshad.placesautocomplete.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of a {@link PlaceDetails} that a details request can be limited to. See
+ * {@link https://developers.google.com/places/web-service/details#fields} for the fields the api
+ * accepts.
+ */
+public enum PlaceDetailsField {
+    ADDRESS_COMPONENTS("address_component", "address_components"),
+    FORMATTED_ADDRESS("formatted_address", "formatted_address"),
+    FORMATTED_PHONE_NUMBER("formatted_phone_number", "formatted_phone_number"),
+    INTERNATIONAL_PHONE_NUMBER("international_phone_number", "international_phone_number"),
+    GEOMETRY("geometry", "geometry"),
+    ICON("icon", "icon"),
+    NAME("name", "name"),
+    PLACE_ID("place_id", "place_id"),
+    OPENING_HOURS("opening_hours", "opening_hours"),
+    PERMANENTLY_CLOSED("permanently_closed", "permanently_closed"),
+    PHOTOS("photo", "photos"),
+    SCOPE("scope", "scope"),
+    /**
+     * Not a field the api can be limited to, it is only returned when all fields are requested
+     */
+    ALT_IDS(null, "alt_ids"),
+    PRICE_LEVEL("price_level", "price_level"),
+    RATING("rating", "rating"),
+    REVIEWS("review", "reviews"),
+    TYPES("type", "types"),
+    URL("url", "url"),
+    VICINITY("vicinity", "vicinity");
+
+    private static final Map<String, PlaceDetailsField> BY_JSON_NAME = new HashMap<>();
+
+    static {
+        for (PlaceDetailsField field : values()) {
+            BY_JSON_NAME.put(field.jsonName, field);
+        }
+    }
+
+    /**
+     * The fields needed to fill out an address, e.g. at checkout
+     */
+    public static final Set<PlaceDetailsField> ADDRESS = Collections.unmodifiableSet(EnumSet.of(ADDRESS_COMPONENTS, FORMATTED_ADDRESS, GEOMETRY));
+
+    @Nullable
+    private final String queryParam;
+
+    @NonNull
+    private final String jsonName;
+
+    PlaceDetailsField(@Nullable final String queryParam, @NonNull final String jsonName) {
+        this.queryParam = queryParam;
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * @return the name of the field in the fields parameter of a request, or null if the api
+     * cannot be limited to it
+     */
+    @Nullable
+    public String getQueryParam() {
+        return queryParam;
+    }
+
+    /**
+     * @return the name of the field in the result object of a response
+     */
+    @NonNull
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @return the field with the given name in the result object, or null if it is not known
+     */
+    @Nullable
+    public static PlaceDetailsField fromJsonName(@NonNull final String jsonName) {
+        return BY_JSON_NAME.get(jsonName);
+    }
+
+    /**
+     * @return the value of the fields parameter limiting a request to the given fields, in
+     * declaration order so equal sets give equal values
+     */
+    @NonNull
+    public static String toQueryParam(@NonNull final Set<PlaceDetailsField> fields) {
+        final StringBuilder sb = new StringBuilder();
+        for (PlaceDetailsField field : values()) {
+            if (field.queryParam != null && fields.contains(field)) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(field.queryParam);
+            }
+        }
+        return sb.toString();
+    }
+}
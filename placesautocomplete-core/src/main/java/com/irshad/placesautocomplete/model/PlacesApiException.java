@@ -0,0 +1,47 @@
+package com.irshad.placesautocomplete.model;
+
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+
+public class PlacesApiException extends IOException {
+
+    @Nullable
+    private final Status status;
+
+    public PlacesApiException() {
+        this.status = null;
+    }
+
+    public PlacesApiException(final String detailMessage) {
+        super(detailMessage);
+        this.status = null;
+    }
+
+    /**
+     * @param status the unsuccessful status the Places API responded with
+     */
+    public PlacesApiException(final String detailMessage, @Nullable final Status status) {
+        super(detailMessage);
+        this.status = status;
+    }
+
+    public PlacesApiException(final String detailMessage, final Throwable throwable) {
+        super(detailMessage, throwable);
+        this.status = null;
+    }
+
+    public PlacesApiException(final Throwable throwable) {
+        super(throwable);
+        this.status = null;
+    }
+
+    /**
+     * @return the unsuccessful status the Places API responded with, null if the request failed
+     * for another reason
+     */
+    @Nullable
+    public Status getStatus() {
+        return status;
+    }
+}
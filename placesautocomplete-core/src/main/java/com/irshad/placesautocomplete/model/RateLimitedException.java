@@ -0,0 +1,25 @@
+package com.irshad.placesautocomplete.model;
+
+/**
+ * Thrown instead of sending a request when the client side rate limit or quota is exhausted, or
+ * while backing off after the Places API responded with {@link Status#OVER_QUERY_LIMIT}. No
+ * request reached the network.
+ */
+public class RateLimitedException extends PlacesApiException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public RateLimitedException(final String detailMessage, final long retryAfterMillis) {
+        super(detailMessage, Status.OVER_QUERY_LIMIT);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return how long until a request may be sent again
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
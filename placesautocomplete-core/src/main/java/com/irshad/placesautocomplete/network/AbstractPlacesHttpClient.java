@@ -0,0 +1,384 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.DirectExecutor;
+import com.irshad.placesautocomplete.async.LaneExecutor;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.async.PlacesFuture;
+import com.irshad.placesautocomplete.json.FieldMaskedJsonParser;
+import com.irshad.placesautocomplete.json.JsonParsingException;
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.metrics.PlacesMetricsListener;
+import com.irshad.placesautocomplete.metrics.Stage;
+import com.irshad.placesautocomplete.metrics.ThreadAllocations;
+import com.irshad.placesautocomplete.model.LazyPlaceDetails;
+import com.irshad.placesautocomplete.model.LazyPlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlacesApiResponse;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+abstract class AbstractPlacesHttpClient implements PlacesHttpClient {
+
+    /*
+     * The connect and read timeout without a timeout policy
+     */
+    protected static final long DEFAULT_TIMEOUT_MILLIS = 15000L;
+
+    protected final PlacesApiJsonParser placesApiJsonParser;
+
+    /*
+     * Runs the blocking requests of the async calls, for clients without a native async path
+     */
+    @NonNull
+    private final Executor asyncExecutor;
+
+    @Nullable
+    protected final PlacesMetricsListener metricsListener;
+
+    @Nullable
+    protected final AdaptiveTimeoutPolicy timeoutPolicy;
+
+    // set when the client is rate limited, hedges then need a permit of their own
+    @Nullable
+    private volatile PlacesRateLimiter hedgeLimiter;
+
+    protected final ResponseHandler<PlacesAutocompleteResponse> autocompleteHandler = new ResponseHandler<PlacesAutocompleteResponse>() {
+
+        @Override
+        public PlacesAutocompleteResponse handleStreamResult(final InputStream is) throws JsonParsingException {
+            return placesApiJsonParser.autocompleteFromStream(is);
+        }
+    };
+
+    private final ResponseHandler<PlacesDetailsResponse> detailsHandler = new ResponseHandler<PlacesDetailsResponse>() {
+
+        @Override
+        public PlacesDetailsResponse handleStreamResult(final InputStream is) throws JsonParsingException {
+            return placesApiJsonParser.detailsFromStream(is);
+        }
+    };
+
+    private final ResponseHandler<LazyPlacesDetailsResponse> lazyDetailsHandler = new ResponseHandler<LazyPlacesDetailsResponse>() {
+
+        @Override
+        public LazyPlacesDetailsResponse handleStreamResult(final InputStream is) throws JsonParsingException {
+            final byte[] rawResponse;
+            try {
+                rawResponse = readFully(is);
+            } catch (IOException e) {
+                throw new JsonParsingException(e);
+            }
+
+            if (!(placesApiJsonParser instanceof FieldMaskedJsonParser)) {
+                final PlacesDetailsResponse response = placesApiJsonParser.detailsFromStream(new ByteArrayInputStream(rawResponse));
+                return new LazyPlacesDetailsResponse(response.status, response.error_message,
+                        response.result != null ? new LazyPlaceDetails(response.result) : null);
+            }
+
+            // only the status is read now, the result is skipped until its fields are accessed
+            final FieldMaskedJsonParser parser = (FieldMaskedJsonParser) placesApiJsonParser;
+            final PlacesDetailsResponse response = parser.detailsFromStream(new ByteArrayInputStream(rawResponse), EnumSet.noneOf(PlaceDetailsField.class));
+            final boolean successful = response.status != null && response.status.isSuccessful();
+            return new LazyPlacesDetailsResponse(response.status, response.error_message,
+                    successful ? new LazyPlaceDetails(rawResponse, parser) : null);
+        }
+    };
+
+    protected AbstractPlacesHttpClient(PlacesApiJsonParser parser) {
+        this(parser, null);
+    }
+
+    protected AbstractPlacesHttpClient(PlacesApiJsonParser parser, @Nullable PlacesMetricsListener listener) {
+        this(parser, listener, LaneExecutor.getDefault().asExecutor(LaneExecutor.Lane.INTERACTIVE));
+    }
+
+    protected AbstractPlacesHttpClient(PlacesApiJsonParser parser, @Nullable PlacesMetricsListener listener, @NonNull Executor asyncExecutor) {
+        this(parser, listener, asyncExecutor, null);
+    }
+
+    /**
+     * @param timeoutPolicy derives the timeouts from the latencies of the requests and hedges the
+     *                      autocomplete ones, null for fixed timeouts
+     */
+    protected AbstractPlacesHttpClient(PlacesApiJsonParser parser,
+                                       @Nullable PlacesMetricsListener listener,
+                                       @NonNull Executor asyncExecutor,
+                                       @Nullable AdaptiveTimeoutPolicy timeoutPolicy) {
+        placesApiJsonParser = parser;
+        metricsListener = listener;
+        this.asyncExecutor = asyncExecutor;
+        this.timeoutPolicy = timeoutPolicy;
+    }
+
+    @Override
+    public PlacesAutocompleteResponse executeAutocompleteRequest(final String url, @Nullable final CancellationSignal signal) throws IOException {
+        final AdaptiveTimeoutPolicy policy = timeoutPolicy;
+        if (policy == null) {
+            return executeNetworkRequest(url, signal, autocompleteHandler);
+        }
+
+        policy.onRequestStarted();
+        final long hedgeDelay = policy.getHedgeDelayMillis();
+        if (hedgeDelay < 0) {
+            return executeTimedRequest(url, signal, autocompleteHandler, policy);
+        }
+
+        // the attempts run asynchronously, this thread waits for the first response
+        final PlacesFuture<PlacesAutocompleteResponse> future = new PlacesFuture<>(null, DirectExecutor.INSTANCE);
+        new HedgedRequest<>(policy, hedgeLimiter, signal, timedAttempt(url, policy), future.asCallback()).start(hedgeDelay);
+        return future.await();
+    }
+
+    @Override
+    public PlacesDetailsResponse executeDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal) throws IOException {
+        final AdaptiveTimeoutPolicy policy = timeoutPolicy;
+        return policy != null
+                ? executeTimedRequest(url, signal, detailsHandler(fields), policy)
+                : executeNetworkRequest(url, signal, detailsHandler(fields));
+    }
+
+    @Override
+    public LazyPlacesDetailsResponse executeLazyDetailsRequest(final String url, @Nullable final CancellationSignal signal) throws IOException {
+        final AdaptiveTimeoutPolicy policy = timeoutPolicy;
+        return policy != null
+                ? executeTimedRequest(url, signal, lazyDetailsHandler, policy)
+                : executeNetworkRequest(url, signal, lazyDetailsHandler);
+    }
+
+    @Override
+    public void enqueueAutocompleteRequest(final String url, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesAutocompleteResponse> callback) {
+        final AdaptiveTimeoutPolicy policy = timeoutPolicy;
+        if (policy == null) {
+            enqueueNetworkRequest(url, signal, autocompleteHandler, callback);
+            return;
+        }
+
+        policy.onRequestStarted();
+        final long hedgeDelay = policy.getHedgeDelayMillis();
+        if (hedgeDelay < 0) {
+            timedAttempt(url, policy).start(signal, callback);
+        } else {
+            new HedgedRequest<>(policy, hedgeLimiter, signal, timedAttempt(url, policy), callback).start(hedgeDelay);
+        }
+    }
+
+    /**
+     * @param limiter the limiter the requests of this client are sent through, which then also has
+     *                to give a permit for every hedge
+     */
+    void setHedgeLimiter(@Nullable final PlacesRateLimiter limiter) {
+        hedgeLimiter = limiter;
+    }
+
+    /**
+     * @return the connect and read timeout for the next request parsed by the handler
+     */
+    protected long getTimeoutMillis(final ResponseHandler<?> responseHandler) {
+        final AdaptiveTimeoutPolicy policy = timeoutPolicy;
+        return policy != null ? policy.getTimeoutMillis(kindOf(responseHandler)) : DEFAULT_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * @return the kind of the requests parsed by the handler, all but the autocomplete handler parse details
+     */
+    protected AdaptiveTimeoutPolicy.RequestKind kindOf(final ResponseHandler<?> responseHandler) {
+        return responseHandler == autocompleteHandler ? AdaptiveTimeoutPolicy.RequestKind.AUTOCOMPLETE : AdaptiveTimeoutPolicy.RequestKind.DETAILS;
+    }
+
+    private <T extends PlacesApiResponse> T executeTimedRequest(final String url,
+                                                                @Nullable final CancellationSignal signal,
+                                                                final ResponseHandler<T> responseHandler,
+                                                                @NonNull final AdaptiveTimeoutPolicy policy) throws IOException {
+        final AdaptiveTimeoutPolicy.RequestKind kind = kindOf(responseHandler);
+        final long start = System.nanoTime();
+        try {
+            final T response = executeNetworkRequest(url, signal, responseHandler);
+            recordLatency(policy, kind, start);
+            return response;
+        } catch (SocketTimeoutException e) {
+            recordLatency(policy, kind, start);
+            throw e;
+        }
+    }
+
+    /**
+     * @return an attempt of the autocomplete request that records its latency with the policy
+     */
+    private HedgedRequest.Attempt<PlacesAutocompleteResponse> timedAttempt(final String url, @NonNull final AdaptiveTimeoutPolicy policy) {
+        return new HedgedRequest.Attempt<PlacesAutocompleteResponse>() {
+            @Override
+            public void start(@Nullable final CancellationSignal signal, @NonNull final PlacesCallback<PlacesAutocompleteResponse> callback) {
+                enqueueTimedRequest(url, signal, autocompleteHandler, policy, callback);
+            }
+        };
+    }
+
+    private <T extends PlacesApiResponse> void enqueueTimedRequest(final String url,
+                                                                   @Nullable final CancellationSignal signal,
+                                                                   final ResponseHandler<T> responseHandler,
+                                                                   @NonNull final AdaptiveTimeoutPolicy policy,
+                                                                   final PlacesCallback<T> callback) {
+        final AdaptiveTimeoutPolicy.RequestKind kind = kindOf(responseHandler);
+        final long start = System.nanoTime();
+        enqueueNetworkRequest(url, signal, responseHandler, new PlacesCallback<T>() {
+            @Override
+            public void onSuccess(final T response) {
+                recordLatency(policy, kind, start);
+                callback.onSuccess(response);
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                // a timeout says the latency is at least the timeout
+                if (error instanceof SocketTimeoutException) {
+                    recordLatency(policy, kind, start);
+                }
+                callback.onFailure(error);
+            }
+        });
+    }
+
+    private static void recordLatency(@NonNull final AdaptiveTimeoutPolicy policy,
+                                      @NonNull final AdaptiveTimeoutPolicy.RequestKind kind,
+                                      final long startNanos) {
+        policy.recordLatency(kind, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    @Override
+    public void enqueueDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesDetailsResponse> callback) {
+        final AdaptiveTimeoutPolicy policy = timeoutPolicy;
+        if (policy != null) {
+            enqueueTimedRequest(url, signal, detailsHandler(fields), policy, callback);
+        } else {
+            enqueueNetworkRequest(url, signal, detailsHandler(fields), callback);
+        }
+    }
+
+    /**
+     * @return a handler parsing only the given fields of the result if the parser supports it
+     */
+    private ResponseHandler<PlacesDetailsResponse> detailsHandler(@Nullable final Set<PlaceDetailsField> fields) {
+        if (fields == null || !(placesApiJsonParser instanceof FieldMaskedJsonParser)) {
+            return detailsHandler;
+        }
+
+        final FieldMaskedJsonParser parser = (FieldMaskedJsonParser) placesApiJsonParser;
+        return new ResponseHandler<PlacesDetailsResponse>() {
+
+            @Override
+            public PlacesDetailsResponse handleStreamResult(final InputStream is) throws JsonParsingException {
+                return parser.detailsFromStream(is, fields);
+            }
+        };
+    }
+
+    private static byte[] readFully(final InputStream is) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Parses the response body with the handler, reporting the parse time, payload size and
+     * allocations to the metrics listener if there is one
+     */
+    protected <T extends PlacesApiResponse> T parseResponse(final ResponseHandler<T> responseHandler,
+                                                            final InputStream is,
+                                                            final int httpStatusCode) throws IOException {
+        final PlacesMetricsListener listener = metricsListener;
+        if (listener == null) {
+            return responseHandler.handleStreamResult(is);
+        }
+
+        final CountingInputStream countingStream = new CountingInputStream(is);
+        final long allocatedBefore = ThreadAllocations.currentThreadAllocatedBytes();
+        final long start = System.nanoTime();
+
+        T response = null;
+        try {
+            response = responseHandler.handleStreamResult(countingStream);
+            return response;
+        } finally {
+            reportParse(listener, start, allocatedBefore, httpStatusCode, countingStream.getCount(), response);
+        }
+    }
+
+    /**
+     * Reports a finished parse to the listener
+     * @param allocatedBefore the bytes allocated by the thread before parsing, negative if unsupported
+     * @param response the parsed response, null if parsing failed
+     */
+    protected static void reportParse(@NonNull final PlacesMetricsListener listener,
+                                      final long startNanos,
+                                      final long allocatedBefore,
+                                      final int httpStatusCode,
+                                      final long payloadBytes,
+                                      @Nullable final PlacesApiResponse response) {
+        listener.onStageCompleted(Stage.PARSE, System.nanoTime() - startNanos);
+
+        final long allocatedAfter = allocatedBefore >= 0 ? ThreadAllocations.currentThreadAllocatedBytes() : -1L;
+        final long allocated = allocatedAfter >= 0 ? allocatedAfter - allocatedBefore : -1L;
+        listener.onResponse(httpStatusCode, payloadBytes, allocated, response != null ? response.status : null);
+    }
+
+    /**
+     * Reports a stage timing to the metrics listener if there is one
+     */
+    protected void reportStage(final Stage stage, final long startNanos) {
+        final PlacesMetricsListener listener = metricsListener;
+        if (listener != null) {
+            listener.onStageCompleted(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Executes the request, aborting it if the signal is canceled before the response is parsed
+     */
+    protected abstract <T extends PlacesApiResponse> T executeNetworkRequest(String url, @Nullable CancellationSignal signal, ResponseHandler<T> responseHandler) throws IOException;
+
+    /**
+     * Executes the request asynchronously. By default the blocking request is run on the async
+     * executor, clients with a non-blocking transport should override this.
+     */
+    protected <T extends PlacesApiResponse> void enqueueNetworkRequest(final String url,
+                                                                       @Nullable final CancellationSignal signal,
+                                                                       final ResponseHandler<T> responseHandler,
+                                                                       final PlacesCallback<T> callback) {
+        try {
+            asyncExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final T response;
+                    try {
+                        response = executeNetworkRequest(url, signal, responseHandler);
+                    } catch (final Exception e) {
+                        callback.onFailure(e);
+                        return;
+                    }
+                    callback.onSuccess(response);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            callback.onFailure(e);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.NonNull;
+
+import com.irshad.placesautocomplete.metrics.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Derives the timeouts of the http clients from the latencies of recent requests instead of a fixed
+ * 15 seconds, so a request stuck in the tail fails in a few seconds rather than stalling the
+ * dropdown. Optionally hedges: an autocomplete request still running after the recent p95 is
+ * duplicated and the first response wins.
+ *
+ * Latencies are kept per {@link RequestKind}, as details responses are larger and slower than
+ * autocomplete ones, each kind in two windows of {@link #WINDOW_SIZE} requests, the older one answering
+ * until the newer one has enough samples, so the policy follows a change of network within a few
+ * hundred requests. A request that timed out is recorded with the time it took, so repeated
+ * timeouts raise the timeout rather than keep it too short.
+ *
+ * Hedges are paid for from a budget: every request adds a fraction of a hedge to it, every hedge
+ * takes a whole one, so hedging raises the request volume by at most that fraction. Thread safe.
+ */
+public final class AdaptiveTimeoutPolicy {
+    public static final long DEFAULT_MIN_TIMEOUT_MILLIS = 3000L;
+    public static final long DEFAULT_MAX_TIMEOUT_MILLIS = 15000L;
+    public static final double DEFAULT_HEDGE_BUDGET = 0.05d;
+
+    /**
+     * The requests whose latencies are recorded, and whose timeouts are derived, apart
+     */
+    public enum RequestKind {
+        AUTOCOMPLETE,
+        DETAILS
+    }
+
+    static final int WINDOW_SIZE = 256;
+    static final int MIN_SAMPLES = 20;
+
+    // the timeout is this multiple of the p99, with room for a response slower than any seen
+    private static final int TIMEOUT_MULTIPLIER = 3;
+
+    // rounded so the derived timeouts change rarely, and clients configured per timeout are reused
+    private static final long TIMEOUT_GRANULARITY_MILLIS = 250L;
+
+    private static final long MIN_HEDGE_DELAY_MILLIS = 50L;
+
+    // the most hedges saved up by a quiet period, spent in a burst when the network turns bad
+    private static final double MAX_HEDGE_TOKENS = 10.0d;
+
+    @NonNull
+    public static AdaptiveTimeoutPolicy getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private final long minTimeoutMillis;
+
+    private final long maxTimeoutMillis;
+
+    private final boolean hedgingEnabled;
+
+    private final double hedgeBudget;
+
+    private final Map<RequestKind, LatencyWindows> windows = new EnumMap<>(RequestKind.class);
+
+    private double hedgeTokens = 1.0d;
+
+    private final AtomicLong hedgeCount = new AtomicLong();
+
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+
+    private AdaptiveTimeoutPolicy(@NonNull final Builder builder) {
+        this.minTimeoutMillis = builder.minTimeoutMillis;
+        this.maxTimeoutMillis = builder.maxTimeoutMillis;
+        this.hedgingEnabled = builder.hedgingEnabled;
+        this.hedgeBudget = builder.hedgeBudget;
+
+        for (RequestKind kind : RequestKind.values()) {
+            windows.put(kind, new LatencyWindows());
+        }
+    }
+
+    /**
+     * @param latencyMillis the time from starting the request to its parsed response, or to its
+     *                      timeout
+     */
+    public synchronized void recordLatency(@NonNull final RequestKind kind, final long latencyMillis) {
+        windows.get(kind).record(latencyMillis);
+    }
+
+    /**
+     * @return the connect and read timeout for the next request of the kind, the maximum timeout
+     * until enough latencies of the kind were recorded
+     */
+    public long getTimeoutMillis(@NonNull final RequestKind kind) {
+        final long p99 = getLatencyAtPercentile(kind, 99.0d);
+        if (p99 < 0) {
+            return maxTimeoutMillis;
+        }
+
+        final long timeout = roundUp(p99 * TIMEOUT_MULTIPLIER);
+        return Math.min(Math.max(timeout, minTimeoutMillis), maxTimeoutMillis);
+    }
+
+    /**
+     * @return how long an autocomplete request runs before it is hedged, or -1 if it is not hedged,
+     * because hedging is disabled or too few latencies were recorded
+     */
+    public long getHedgeDelayMillis() {
+        if (!hedgingEnabled) {
+            return -1L;
+        }
+
+        final long p95 = getLatencyAtPercentile(RequestKind.AUTOCOMPLETE, 95.0d);
+        return p95 < 0 ? -1L : Math.max(p95, MIN_HEDGE_DELAY_MILLIS);
+    }
+
+    /**
+     * Adds the share of a hedge every request pays into the budget
+     */
+    public synchronized void onRequestStarted() {
+        hedgeTokens = Math.min(hedgeTokens + hedgeBudget, MAX_HEDGE_TOKENS);
+    }
+
+    /**
+     * @return true if the budget allows a hedge, which is then taken from it
+     */
+    public boolean tryAcquireHedge() {
+        synchronized (this) {
+            if (hedgeTokens < 1.0d) {
+                return false;
+            }
+            hedgeTokens -= 1.0d;
+        }
+        hedgeCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gives back a hedge taken with {@link #tryAcquireHedge()} but not sent
+     */
+    synchronized void releaseHedge() {
+        hedgeTokens = Math.min(hedgeTokens + 1.0d, MAX_HEDGE_TOKENS);
+        hedgeCount.decrementAndGet();
+    }
+
+    /**
+     * Records that a hedge returned before the request it duplicated
+     */
+    public void onHedgeWon() {
+        hedgeWinCount.incrementAndGet();
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * @return the number of hedges sent
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * @return the number of hedges that returned first
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    private synchronized long getLatencyAtPercentile(@NonNull final RequestKind kind, final double percentile) {
+        return windows.get(kind).getLatencyAtPercentile(percentile);
+    }
+
+    private static long roundUp(final long millis) {
+        return (millis + TIMEOUT_GRANULARITY_MILLIS - 1) / TIMEOUT_GRANULARITY_MILLIS * TIMEOUT_GRANULARITY_MILLIS;
+    }
+
+    public static final class Builder {
+        private long minTimeoutMillis = DEFAULT_MIN_TIMEOUT_MILLIS;
+
+        private long maxTimeoutMillis = DEFAULT_MAX_TIMEOUT_MILLIS;
+
+        private boolean hedgingEnabled;
+
+        private double hedgeBudget = DEFAULT_HEDGE_BUDGET;
+
+        /**
+         * @param minTimeoutMillis the shortest timeout, however fast the recent requests
+         * @param maxTimeoutMillis the longest timeout, used until enough latencies were recorded
+         */
+        public Builder setTimeoutBounds(final long minTimeoutMillis, final long maxTimeoutMillis) {
+            if (minTimeoutMillis <= 0 || maxTimeoutMillis < minTimeoutMillis) {
+                throw new IllegalArgumentException("The timeout bounds must be positive and ordered");
+            }
+
+            this.minTimeoutMillis = minTimeoutMillis;
+            this.maxTimeoutMillis = maxTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param enabled duplicate autocomplete requests slower than the recent p95. False by default.
+         * @param budget the fraction of requests that may be hedged, e.g. 0.05 for 5%
+         */
+        public Builder setHedging(final boolean enabled, final double budget) {
+            if (budget < 0.0d || budget > 1.0d) {
+                throw new IllegalArgumentException("The hedge budget must be between 0 and 1");
+            }
+
+            this.hedgingEnabled = enabled;
+            this.hedgeBudget = budget;
+            return this;
+        }
+
+        @NonNull
+        public AdaptiveTimeoutPolicy build() {
+            return new AdaptiveTimeoutPolicy(this);
+        }
+    }
+
+    /**
+     * The latencies of the recent requests of one kind. Not thread safe.
+     */
+    private static final class LatencyWindows {
+        private LatencyHistogram current = new LatencyHistogram();
+
+        private LatencyHistogram previous = new LatencyHistogram();
+
+        void record(final long latencyMillis) {
+            if (current.getTotalCount() >= WINDOW_SIZE) {
+                final LatencyHistogram recycled = previous;
+                recycled.reset();
+                previous = current;
+                current = recycled;
+            }
+            current.record(latencyMillis);
+        }
+
+        /**
+         * @return the latency, or -1 if too few latencies were recorded
+         */
+        long getLatencyAtPercentile(final double percentile) {
+            if (current.getTotalCount() >= MIN_SAMPLES) {
+                return current.getValueAtPercentile(percentile);
+            }
+            if (previous.getTotalCount() >= MIN_SAMPLES) {
+                return previous.getValueAtPercentile(percentile);
+            }
+            return -1L;
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final AdaptiveTimeoutPolicy INSTANCE = new Builder().build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.irshad.placesautocomplete.network;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read through it, used to report payload sizes
+ */
+class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    CountingInputStream(final InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int result = super.read();
+        if (result != -1) {
+            count++;
+        }
+        return result;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int result = super.read(b, off, len);
+        if (result != -1) {
+            count += result;
+        }
+        return result;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long result = super.skip(n);
+        count += result;
+        return result;
+    }
+
+    long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,191 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.Constants;
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request that is sent a second time if the first attempt has not returned after the hedge
+ * delay, the {@link AdaptiveTimeoutPolicy} has budget for it and the {@link PlacesRateLimiter}, if
+ * any, a permit. The first response wins and the
+ * other attempt is canceled; the request fails only once every attempt sent has failed, with the
+ * failure of the first attempt.
+ *
+ * @param <T> the type of the response
+ */
+final class HedgedRequest<T> {
+
+    /**
+     * Sends one attempt of the request
+     */
+    interface Attempt<T> {
+        void start(@Nullable CancellationSignal signal, @NonNull PlacesCallback<T> callback);
+    }
+
+    private static final ScheduledExecutorService HEDGE_TIMER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            Thread thread = new Thread(r, Constants.LOG_TAG + "HedgeTimerThread");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    @NonNull
+    private final AdaptiveTimeoutPolicy policy;
+
+    @Nullable
+    private final PlacesRateLimiter limiter;
+
+    @Nullable
+    private final CancellationSignal parentSignal;
+
+    @NonNull
+    private final Attempt<T> attempt;
+
+    @NonNull
+    private final PlacesCallback<T> callback;
+
+    private final CancellationSignal[] signals = {new CancellationSignal(), new CancellationSignal()};
+
+    private int started;
+
+    private int failed;
+
+    @Nullable
+    private Throwable firstFailure;
+
+    private boolean done;
+
+    @Nullable
+    private ScheduledFuture<?> hedgeTimer;
+
+    HedgedRequest(@NonNull final AdaptiveTimeoutPolicy policy,
+                  @Nullable final CancellationSignal parentSignal,
+                  @NonNull final Attempt<T> attempt,
+                  @NonNull final PlacesCallback<T> callback) {
+        this(policy, null, parentSignal, attempt, callback);
+    }
+
+    /**
+     * @param limiter gives the permit for the hedge, the permit of the first attempt was taken by
+     *                whoever sent it. Null if requests are not rate limited.
+     */
+    HedgedRequest(@NonNull final AdaptiveTimeoutPolicy policy,
+                  @Nullable final PlacesRateLimiter limiter,
+                  @Nullable final CancellationSignal parentSignal,
+                  @NonNull final Attempt<T> attempt,
+                  @NonNull final PlacesCallback<T> callback) {
+        this.policy = policy;
+        this.limiter = limiter;
+        this.parentSignal = parentSignal;
+        this.attempt = attempt;
+        this.callback = callback;
+    }
+
+    /**
+     * Sends the first attempt, and schedules the hedge after the delay
+     */
+    void start(final long hedgeDelayMillis) {
+        if (parentSignal != null) {
+            parentSignal.setOnCancelListener(new CancellationSignal.OnCancelListener() {
+                @Override
+                public void onCancel() {
+                    signals[0].cancel();
+                    signals[1].cancel();
+                }
+            });
+        }
+
+        synchronized (this) {
+            started = 1;
+            try {
+                hedgeTimer = HEDGE_TIMER.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        hedge();
+                    }
+                }, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // sent without a hedge
+            }
+        }
+        startAttempt(0);
+    }
+
+    private void hedge() {
+        synchronized (this) {
+            if (done || started > 1 || !policy.tryAcquireHedge()) {
+                return;
+            }
+            // a hedge is a request of its own to the quota
+            if (limiter != null && limiter.tryAcquire() > 0) {
+                policy.releaseHedge();
+                return;
+            }
+            started = 2;
+        }
+        startAttempt(1);
+    }
+
+    private void startAttempt(final int index) {
+        attempt.start(signals[index], new PlacesCallback<T>() {
+            @Override
+            public void onSuccess(final T response) {
+                synchronized (HedgedRequest.this) {
+                    if (done) {
+                        return;
+                    }
+                    finish();
+                }
+
+                signals[1 - index].cancel();
+                if (index == 1) {
+                    policy.onHedgeWon();
+                }
+                callback.onSuccess(response);
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                final Throwable failure;
+                synchronized (HedgedRequest.this) {
+                    if (done) {
+                        return;
+                    }
+                    failed++;
+                    if (index == 0 || firstFailure == null) {
+                        firstFailure = error;
+                    }
+                    // the other attempt may still answer
+                    if (failed < started) {
+                        return;
+                    }
+                    finish();
+                    failure = firstFailure;
+                }
+                callback.onFailure(failure);
+            }
+        });
+    }
+
+    private void finish() {
+        done = true;
+        if (hedgeTimer != null) {
+            hedgeTimer.cancel(false);
+        }
+        if (parentSignal != null) {
+            parentSignal.setOnCancelListener(null);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.CanceledException;
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.metrics.PlacesMetricsListener;
+import com.irshad.placesautocomplete.metrics.Stage;
+import com.irshad.placesautocomplete.model.PlacesApiException;
+import com.irshad.placesautocomplete.model.PlacesApiResponse;
+import com.irshad.placesautocomplete.model.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Executor;
+
+class HttpUrlConnectionMapsHttpClient extends AbstractPlacesHttpClient {
+
+    HttpUrlConnectionMapsHttpClient(final PlacesApiJsonParser parser) {
+        super(parser);
+    }
+
+    HttpUrlConnectionMapsHttpClient(final PlacesApiJsonParser parser, @Nullable final PlacesMetricsListener listener) {
+        super(parser, listener);
+    }
+
+    HttpUrlConnectionMapsHttpClient(final PlacesApiJsonParser parser, @Nullable final PlacesMetricsListener listener, final Executor asyncExecutor) {
+        super(parser, listener, asyncExecutor);
+    }
+
+    HttpUrlConnectionMapsHttpClient(final PlacesApiJsonParser parser,
+                                    @Nullable final PlacesMetricsListener listener,
+                                    final Executor asyncExecutor,
+                                    @Nullable final AdaptiveTimeoutPolicy timeoutPolicy) {
+        super(parser, listener, asyncExecutor, timeoutPolicy);
+    }
+
+    @Override
+    protected <T extends PlacesApiResponse> T executeNetworkRequest(final String url, @Nullable final CancellationSignal signal, final ResponseHandler<T> handler) throws IOException {
+        URL requestUrl = new URL(url);
+
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+
+        T response = null;
+        HttpURLConnection conn = null;
+        InputStream is = null;
+        try {
+            conn = (HttpURLConnection) requestUrl.openConnection();
+            if (conn != null) {
+                final int timeout = (int) getTimeoutMillis(handler);
+                conn.setConnectTimeout(timeout);
+                conn.setReadTimeout(timeout);
+
+                if (signal != null) {
+                    final HttpURLConnection finalConn = conn;
+                    // disconnecting from another thread aborts a blocked connect or read
+                    signal.setOnCancelListener(new CancellationSignal.OnCancelListener() {
+                        @Override
+                        public void onCancel() {
+                            finalConn.disconnect();
+                        }
+                    });
+                }
+
+                // dns and connect can't be told apart here, both are reported as CONNECT
+                final long connectStart = System.nanoTime();
+                conn.connect();
+                reportStage(Stage.CONNECT, connectStart);
+
+                final long requestStart = System.nanoTime();
+                final int responseCode = conn.getResponseCode();
+                reportStage(Stage.TIME_TO_FIRST_BYTE, requestStart);
+
+                if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST && metricsListener != null) {
+                    // getInputStream throws for error codes, so the body is never parsed
+                    metricsListener.onResponse(responseCode, 0L, -1L, null);
+                }
+
+                is = conn.getInputStream();
+
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+
+                response = parseResponse(handler, is, responseCode);
+            }
+        } catch (IOException e) {
+            // the connection is in an unknown state, don't hand it back for reuse
+            if (conn != null) {
+                conn.disconnect();
+            }
+
+            if (signal != null && signal.isCanceled() && !(e instanceof CanceledException)) {
+                throw new CanceledException();
+            }
+            throw e;
+        } finally {
+            if (signal != null) {
+                signal.setOnCancelListener(null);
+            }
+
+            // closing without disconnecting returns the connection to the keep-alive pool
+            if (is != null) {
+                is.close();
+            }
+        }
+
+        Status status = response != null ? response.status : null;
+
+        if (isErrorResponse(response, status)) {
+            String err = response != null ? response.error_message : null;
+            throw new PlacesApiException(err != null ? err : "Unknown Places Api Error", status);
+        } else {
+            return response;
+        }
+    }
+
+    private static <T extends PlacesApiResponse> boolean isErrorResponse(final T response, final Status status) {
+        return response == null || status == null || !status.isSuccessful();
+    }
+}
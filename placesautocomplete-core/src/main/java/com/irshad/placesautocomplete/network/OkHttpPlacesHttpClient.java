@@ -0,0 +1,371 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.Constants;
+import com.irshad.placesautocomplete.async.CanceledException;
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.LaneExecutor;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.json.BufferedSourceJsonParser;
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.metrics.PlacesMetricsListener;
+import com.irshad.placesautocomplete.metrics.Stage;
+import com.irshad.placesautocomplete.metrics.ThreadAllocations;
+import com.irshad.placesautocomplete.model.PlacesApiException;
+import com.irshad.placesautocomplete.model.PlacesApiResponse;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.Status;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+class OkHttpPlacesHttpClient extends AbstractPlacesHttpClient {
+    private static final Logger LOGGER = Logger.getLogger(Constants.LOG_TAG);
+
+    /*
+     * Requests all go to the same host, and with HTTP/2 a single connection carries concurrent
+     * requests, so a small pool kept alive between typing bursts avoids a TLS handshake per keystroke
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 2;
+    private static final long KEEP_ALIVE_MINUTES = 5L;
+
+    private final OkHttpClient okHttpClient;
+
+    // per request kind, the client with the timeouts last derived by the timeout policy
+    private final AtomicReferenceArray<TimedClient> timedClients = new AtomicReferenceArray<>(AdaptiveTimeoutPolicy.RequestKind.values().length);
+
+    OkHttpPlacesHttpClient(PlacesApiJsonParser parser) {
+        this(parser, DefaultClientHolder.CLIENT, null);
+    }
+
+    /**
+     * @param okHttpClient the client executing the requests, its connection pool, dispatcher and
+     *                     cache are shared with any other user of the client
+     * @param listener if not null, receives the dns, connect and time to first byte of every call
+     *                 in addition to the parse metrics. Replaces the event listener of the client.
+     */
+    OkHttpPlacesHttpClient(PlacesApiJsonParser parser, @NonNull OkHttpClient okHttpClient, @Nullable PlacesMetricsListener listener) {
+        this(parser, okHttpClient, listener, null);
+    }
+
+    /**
+     * @param timeoutPolicy replaces the connect and read timeouts of the client with the ones it
+     *                      derives, null to keep the timeouts of the client
+     */
+    OkHttpPlacesHttpClient(PlacesApiJsonParser parser,
+                           @NonNull OkHttpClient okHttpClient,
+                           @Nullable PlacesMetricsListener listener,
+                           @Nullable AdaptiveTimeoutPolicy timeoutPolicy) {
+        super(parser, listener, LaneExecutor.getDefault().asExecutor(LaneExecutor.Lane.INTERACTIVE), timeoutPolicy);
+
+        this.okHttpClient = listener != null
+                ? okHttpClient.newBuilder().eventListenerFactory(new MetricsEventListenerFactory(listener)).build()
+                : okHttpClient;
+    }
+
+    /**
+     * @return a client sharing the connection pool and dispatcher of the default client
+     */
+    @NonNull
+    static OkHttpClient defaultClient() {
+        return DefaultClientHolder.CLIENT;
+    }
+
+    @NonNull
+    private static OkHttpClient newDefaultClient() {
+        return new OkHttpClient.Builder()
+                .connectTimeout(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .readTimeout(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .writeTimeout(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    @Override
+    protected <T extends PlacesApiResponse> T executeNetworkRequest(final String url, @Nullable final CancellationSignal signal, final ResponseHandler<T> responseHandler) throws IOException {
+        final Call call = newCall(url, signal, responseHandler);
+
+        Response response = null;
+
+        try {
+            response = call.execute();
+            return readResponse(response, signal, responseHandler);
+        } catch (IOException e) {
+            throw translateFailure(e, signal);
+        } finally {
+            release(response, signal);
+        }
+    }
+
+    /**
+     * Uses OkHttp's dispatcher, so no thread is blocked while waiting for the response
+     */
+    @Override
+    protected <T extends PlacesApiResponse> void enqueueNetworkRequest(final String url,
+                                                                       @Nullable final CancellationSignal signal,
+                                                                       final ResponseHandler<T> responseHandler,
+                                                                       final PlacesCallback<T> callback) {
+        final Call call;
+        try {
+            call = newCall(url, signal, responseHandler);
+        } catch (CanceledException e) {
+            callback.onFailure(e);
+            return;
+        }
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call call, final IOException e) {
+                release(null, signal);
+                callback.onFailure(translateFailure(e, signal));
+            }
+
+            @Override
+            public void onResponse(final Call call, final Response response) {
+                final T body;
+                try {
+                    body = readResponse(response, signal, responseHandler);
+                } catch (IOException e) {
+                    callback.onFailure(translateFailure(e, signal));
+                    return;
+                } finally {
+                    release(response, signal);
+                }
+                callback.onSuccess(body);
+            }
+        });
+    }
+
+    @NonNull
+    private Call newCall(final String url, @Nullable final CancellationSignal signal, final ResponseHandler<?> responseHandler) throws CanceledException {
+        final Request request = new Request.Builder()
+                .url(url)
+                .build();
+
+        final Call call = client(kindOf(responseHandler)).newCall(request);
+
+        if (signal != null) {
+            signal.throwIfCanceled();
+            signal.setOnCancelListener(new CancellationSignal.OnCancelListener() {
+                @Override
+                public void onCancel() {
+                    call.cancel();
+                }
+            });
+        }
+
+        return call;
+    }
+
+    /**
+     * @return the client with the timeouts of the policy for the kind of request. Sharing the
+     * connection pool and dispatcher, a derived client is cheap, and it is only rebuilt when the
+     * timeout changes.
+     */
+    @NonNull
+    private OkHttpClient client(@NonNull final AdaptiveTimeoutPolicy.RequestKind kind) {
+        if (timeoutPolicy == null) {
+            return okHttpClient;
+        }
+
+        final long timeoutMillis = timeoutPolicy.getTimeoutMillis(kind);
+        TimedClient timed = timedClients.get(kind.ordinal());
+        if (timed == null || timed.timeoutMillis != timeoutMillis) {
+            timed = new TimedClient(timeoutMillis, okHttpClient.newBuilder()
+                    .connectTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .readTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .build());
+            timedClients.set(kind.ordinal(), timed);
+        }
+        return timed.client;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends PlacesApiResponse> T readResponse(final Response response,
+                                                                @Nullable final CancellationSignal signal,
+                                                                final ResponseHandler<T> responseHandler) throws IOException {
+        if (signal != null) {
+            // don't bother parsing a response nobody is waiting for
+            signal.throwIfCanceled();
+        }
+
+        T body = responseHandler == autocompleteHandler && placesApiJsonParser instanceof BufferedSourceJsonParser
+                ? (T) parseAutocompleteSource(response.body().source(), response.code())
+                : parseResponse(responseHandler, response.body().byteStream(), response.code());
+        Status status = body.status;
+        if (status != null && !status.isSuccessful()) {
+            String err = body.error_message;
+            throw new PlacesApiException(err != null ? err : "Unknown Places Api Error", status);
+        } else {
+            return body;
+        }
+    }
+
+    /**
+     * Hands the body's source to the parser as is, so it parses the bytes buffered by OkHttp
+     * without an InputStream and char decoding in between
+     */
+    private PlacesAutocompleteResponse parseAutocompleteSource(final BufferedSource source, final int httpStatusCode) throws IOException {
+        final BufferedSourceJsonParser parser = (BufferedSourceJsonParser) placesApiJsonParser;
+        final PlacesMetricsListener listener = metricsListener;
+        if (listener == null) {
+            return parser.autocompleteFromSource(source);
+        }
+
+        final CountingSource countingSource = new CountingSource(source);
+        final long allocatedBefore = ThreadAllocations.currentThreadAllocatedBytes();
+        final long start = System.nanoTime();
+
+        PlacesAutocompleteResponse response = null;
+        try {
+            response = parser.autocompleteFromSource(Okio.buffer(countingSource));
+            return response;
+        } finally {
+            reportParse(listener, start, allocatedBefore, httpStatusCode, countingSource.count, response);
+        }
+    }
+
+    private static IOException translateFailure(final IOException e, @Nullable final CancellationSignal signal) {
+        if (signal != null && signal.isCanceled() && !(e instanceof CanceledException)) {
+            return new CanceledException();
+        }
+        return e;
+    }
+
+    private static void release(@Nullable final Response response, @Nullable final CancellationSignal signal) {
+        if (signal != null) {
+            signal.setOnCancelListener(null);
+        }
+
+        if (response != null) {
+            try {
+                response.body().close();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Exception Closing Response body..", e);
+            }
+        }
+    }
+
+    private static final class TimedClient {
+        final long timeoutMillis;
+
+        final OkHttpClient client;
+
+        TimedClient(final long timeoutMillis, final OkHttpClient client) {
+            this.timeoutMillis = timeoutMillis;
+            this.client = client;
+        }
+    }
+
+    private static final class CountingSource extends ForwardingSource {
+        long count;
+
+        CountingSource(final Source delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public long read(final Buffer sink, final long byteCount) throws IOException {
+            final long read = super.read(sink, byteCount);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    /*
+     * Created on first use, so apps injecting their own client never build the default one
+     */
+    private static final class DefaultClientHolder {
+        static final OkHttpClient CLIENT = newDefaultClient();
+    }
+
+    private static final class MetricsEventListenerFactory implements EventListener.Factory {
+        private final PlacesMetricsListener listener;
+
+        MetricsEventListenerFactory(final PlacesMetricsListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public EventListener create(final Call call) {
+            return new MetricsEventListener(listener);
+        }
+    }
+
+    /**
+     * Times the network stages of a single call. Events of a call are delivered one after the other.
+     */
+    private static final class MetricsEventListener extends EventListener {
+        private final PlacesMetricsListener listener;
+
+        private long dnsStartNanos;
+
+        private long connectStartNanos;
+
+        private long requestStartNanos;
+
+        MetricsEventListener(final PlacesMetricsListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void dnsStart(final Call call, final String domainName) {
+            dnsStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(final Call call, final String domainName, final List<InetAddress> inetAddressList) {
+            listener.onStageCompleted(Stage.DNS, System.nanoTime() - dnsStartNanos);
+        }
+
+        @Override
+        public void connectStart(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy) {
+            connectStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy, @Nullable final Protocol protocol) {
+            listener.onStageCompleted(Stage.CONNECT, System.nanoTime() - connectStartNanos);
+        }
+
+        @Override
+        public void requestHeadersStart(final Call call) {
+            requestStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(final Call call) {
+            if (requestStartNanos != 0) {
+                listener.onStageCompleted(Stage.TIME_TO_FIRST_BYTE, System.nanoTime() - requestStartNanos);
+            }
+        }
+    }
+}
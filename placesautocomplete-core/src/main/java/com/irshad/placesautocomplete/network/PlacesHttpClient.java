@@ -0,0 +1,53 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.model.LazyPlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+
+import java.io.IOException;
+import java.util.Set;
+
+public interface PlacesHttpClient {
+    /**
+     * @param signal if canceled, the request is aborted and a
+     *               {@link com.irshad.placesautocomplete.async.CanceledException} is thrown
+     */
+    PlacesAutocompleteResponse executeAutocompleteRequest(String url, @Nullable CancellationSignal signal) throws IOException;
+
+    /**
+     * @param fields the fields of the result to parse, the others are skipped. Null to parse all.
+     * @param signal if canceled, the request is aborted and a
+     *               {@link com.irshad.placesautocomplete.async.CanceledException} is thrown
+     */
+    PlacesDetailsResponse executeDetailsRequest(String url, @Nullable Set<PlaceDetailsField> fields, @Nullable CancellationSignal signal) throws IOException;
+
+    /**
+     * Executes a details request, keeping the raw response and only decoding the result as its
+     * fields are accessed
+     * @param signal if canceled, the request is aborted and a
+     *               {@link com.irshad.placesautocomplete.async.CanceledException} is thrown
+     */
+    LazyPlacesDetailsResponse executeLazyDetailsRequest(String url, @Nullable CancellationSignal signal) throws IOException;
+
+    /**
+     * Executes the request without blocking the calling thread
+     * @param signal if canceled, the request is aborted and the callback receives a
+     *               {@link com.irshad.placesautocomplete.async.CanceledException}
+     * @param callback notified on a background thread when the request completes
+     */
+    void enqueueAutocompleteRequest(String url, @Nullable CancellationSignal signal, PlacesCallback<PlacesAutocompleteResponse> callback);
+
+    /**
+     * Executes the request without blocking the calling thread
+     * @param fields the fields of the result to parse, the others are skipped. Null to parse all.
+     * @param signal if canceled, the request is aborted and the callback receives a
+     *               {@link com.irshad.placesautocomplete.async.CanceledException}
+     * @param callback notified on a background thread when the request completes
+     */
+    void enqueueDetailsRequest(String url, @Nullable Set<PlaceDetailsField> fields, @Nullable CancellationSignal signal, PlacesCallback<PlacesDetailsResponse> callback);
+}
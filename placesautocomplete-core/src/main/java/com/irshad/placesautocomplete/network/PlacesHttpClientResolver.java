@@ -0,0 +1,176 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.LaneExecutor;
+import com.irshad.placesautocomplete.json.JsonParserResolver;
+import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
+import com.irshad.placesautocomplete.metrics.PlacesMetricsListener;
+
+import okhttp3.OkHttpClient;
+
+public final class PlacesHttpClientResolver {
+    public static final PlacesHttpClient PLACES_HTTP_CLIENT;
+
+    private static final boolean HAS_OKHTTP;
+
+    static {
+        boolean hasOkHttp;
+
+        try {
+            Class.forName("okhttp3.OkHttpClient");
+            hasOkHttp = true;
+        } catch (ClassNotFoundException e) {
+            hasOkHttp = false;
+        }
+
+        HAS_OKHTTP = hasOkHttp;
+
+        PlacesApiJsonParser parser = JsonParserResolver.JSON_PARSER;
+
+        final AdaptiveTimeoutPolicy policy = AdaptiveTimeoutPolicy.getDefault();
+        PLACES_HTTP_CLIENT = hasOkHttp
+                ? OkHttp.newDefaultClient(parser, null, policy)
+                : new HttpUrlConnectionMapsHttpClient(parser, null, LaneExecutor.getDefault().asExecutor(LaneExecutor.Lane.INTERACTIVE), policy);
+    }
+
+    /**
+     * @param listener receives the network and parse metrics of the client, may be null
+     * @return the shared default client if there is no listener, otherwise a client reporting to
+     * the listener that still shares the connection pool of the default client
+     */
+    @NonNull
+    public static PlacesHttpClient newHttpClient(@Nullable final PlacesMetricsListener listener) {
+        return newHttpClient(JsonParserResolver.JSON_PARSER, listener);
+    }
+
+    /**
+     * @param parser the parser of the responses
+     * @param listener receives the network and parse metrics of the client, may be null
+     * @return a client sharing the connection pool of the default client
+     */
+    @NonNull
+    public static PlacesHttpClient newHttpClient(@NonNull final PlacesApiJsonParser parser, @Nullable final PlacesMetricsListener listener) {
+        return newHttpClient(parser, listener, LaneExecutor.getDefault());
+    }
+
+    /**
+     * @param parser the parser of the responses
+     * @param listener receives the network and parse metrics of the client, may be null
+     * @param executor runs the async requests on its {@link LaneExecutor.Lane#INTERACTIVE} lane.
+     *                 Unused with OkHttp, whose dispatcher runs them.
+     * @return a client sharing the connection pool of the default client
+     */
+    @NonNull
+    public static PlacesHttpClient newHttpClient(@NonNull final PlacesApiJsonParser parser,
+                                                 @Nullable final PlacesMetricsListener listener,
+                                                 @NonNull final LaneExecutor executor) {
+        return newHttpClient(parser, listener, executor, AdaptiveTimeoutPolicy.getDefault());
+    }
+
+    /**
+     * @param parser the parser of the responses
+     * @param listener receives the network and parse metrics of the client, may be null
+     * @param executor runs the async requests on its {@link LaneExecutor.Lane#INTERACTIVE} lane.
+     *                 Unused with OkHttp, whose dispatcher runs them.
+     * @param timeoutPolicy derives the timeouts from recent latencies and hedges slow autocomplete
+     *                      requests, null for fixed 15 second timeouts
+     * @return a client sharing the connection pool of the default client
+     */
+    @NonNull
+    public static PlacesHttpClient newHttpClient(@NonNull final PlacesApiJsonParser parser,
+                                                 @Nullable final PlacesMetricsListener listener,
+                                                 @NonNull final LaneExecutor executor,
+                                                 @Nullable final AdaptiveTimeoutPolicy timeoutPolicy) {
+        if (listener == null && parser == JsonParserResolver.JSON_PARSER && timeoutPolicy == AdaptiveTimeoutPolicy.getDefault()
+                && (HAS_OKHTTP || executor == LaneExecutor.getDefault())) {
+            return PLACES_HTTP_CLIENT;
+        }
+
+        return HAS_OKHTTP
+                ? OkHttp.newDefaultClient(parser, listener, timeoutPolicy)
+                : new HttpUrlConnectionMapsHttpClient(parser, listener, executor.asExecutor(LaneExecutor.Lane.INTERACTIVE), timeoutPolicy);
+    }
+
+    /**
+     * @param okHttpClient an existing client of the app, whose connection pool, dispatcher and cache
+     *                     will be reused for Places API requests. OkHttp is an optional dependency,
+     *                     the app must add it to use this method.
+     * @return a PlacesHttpClient executing requests with the given client
+     */
+    @NonNull
+    public static PlacesHttpClient fromOkHttpClient(@NonNull final OkHttpClient okHttpClient) {
+        return fromOkHttpClient(okHttpClient, null);
+    }
+
+    /**
+     * @param okHttpClient an existing client of the app, whose connection pool, dispatcher and cache
+     *                     will be reused for Places API requests
+     * @param listener receives the network and parse metrics of the client, may be null
+     * @return a PlacesHttpClient executing requests with the given client
+     */
+    @NonNull
+    public static PlacesHttpClient fromOkHttpClient(@NonNull final OkHttpClient okHttpClient, @Nullable final PlacesMetricsListener listener) {
+        return fromOkHttpClient(okHttpClient, JsonParserResolver.JSON_PARSER, listener);
+    }
+
+    /**
+     * @param okHttpClient an existing client of the app, whose connection pool, dispatcher and cache
+     *                     will be reused for Places API requests
+     * @param parser the parser of the responses
+     * @param listener receives the network and parse metrics of the client, may be null
+     * @return a PlacesHttpClient executing requests with the given client
+     */
+    @NonNull
+    public static PlacesHttpClient fromOkHttpClient(@NonNull final OkHttpClient okHttpClient,
+                                                    @NonNull final PlacesApiJsonParser parser,
+                                                    @Nullable final PlacesMetricsListener listener) {
+        return fromOkHttpClient(okHttpClient, parser, listener, null);
+    }
+
+    /**
+     * @param okHttpClient an existing client of the app, whose connection pool, dispatcher and cache
+     *                     will be reused for Places API requests
+     * @param parser the parser of the responses
+     * @param listener receives the network and parse metrics of the client, may be null
+     * @param timeoutPolicy replaces the timeouts of the client with the ones it derives from recent
+     *                      latencies, null to keep the timeouts of the client
+     * @return a PlacesHttpClient executing requests with the given client
+     */
+    @NonNull
+    public static PlacesHttpClient fromOkHttpClient(@NonNull final OkHttpClient okHttpClient,
+                                                    @NonNull final PlacesApiJsonParser parser,
+                                                    @Nullable final PlacesMetricsListener listener,
+                                                    @Nullable final AdaptiveTimeoutPolicy timeoutPolicy) {
+        return new OkHttpPlacesHttpClient(parser, okHttpClient.newBuilder().build(), listener, timeoutPolicy);
+    }
+
+    /**
+     * @param client the client sending the requests
+     * @param limiter decides which requests are sent, the others fail with a
+     *                {@link com.irshad.placesautocomplete.model.RateLimitedException} without
+     *                reaching the network
+     * @return a client sending the requests of the given client within the limits of the limiter
+     */
+    @NonNull
+    public static PlacesHttpClient rateLimited(@NonNull final PlacesHttpClient client, @NonNull final PlacesRateLimiter limiter) {
+        return new RateLimitedPlacesHttpClient(client, limiter);
+    }
+
+    /**
+     * Holds the references to OkHttp, so they are only resolved once OkHttp was found on the classpath
+     */
+    private static final class OkHttp {
+        @NonNull
+        static PlacesHttpClient newDefaultClient(@NonNull final PlacesApiJsonParser parser,
+                                                 @Nullable final PlacesMetricsListener listener,
+                                                 @Nullable final AdaptiveTimeoutPolicy timeoutPolicy) {
+            return new OkHttpPlacesHttpClient(parser, OkHttpPlacesHttpClient.defaultClient(), listener, timeoutPolicy);
+        }
+    }
+
+    private PlacesHttpClientResolver() {
+        throw new RuntimeException("No Instances!");
+    }
+}
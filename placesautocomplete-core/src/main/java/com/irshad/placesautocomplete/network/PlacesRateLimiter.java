@@ -0,0 +1,175 @@
+package com.irshad.placesautocomplete.network;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the requests sent to the Places API on the client, so a runaway UI loop or a heavy user
+ * cannot burn through the quota of the api key. Requests are paid for from a token bucket refilled
+ * at a steady rate per second and from a budget for any 24 hours. The budget is counted per hour,
+ * so a request stops counting against it between 24 and 25 hours after it was sent, never
+ * earlier. When the Places API responds with
+ * {@link com.irshad.placesautocomplete.model.Status#OVER_QUERY_LIMIT}, no request is sent for a
+ * back-off period that doubles with every further such response, up to
+ * {@link #MAX_BACKOFF_MILLIS}, and resets with the first successful response.
+ *
+ * Used through {@link PlacesHttpClientResolver#rateLimited(PlacesHttpClient, PlacesRateLimiter)}.
+ * Thread safe.
+ */
+public class PlacesRateLimiter {
+    public static final double DEFAULT_PERMITS_PER_SECOND = 10.0d;
+    public static final int DEFAULT_BURST = 10;
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    public static final long INITIAL_BACKOFF_MILLIS = 1000L;
+    public static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5L);
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1L);
+
+    // one hour more than a day, so no request is forgotten before it is 24 hours old
+    private static final int DAY_BUCKETS = 25;
+
+    private final double permitsPerMilli;
+
+    private final int burst;
+
+    private final long maxPerDay;
+
+    private double tokens;
+
+    // nanoTime based, so any value, including negative ones, is a valid time
+    private boolean started;
+
+    private long lastRefillMillis;
+
+    private long startMillis;
+
+    // the requests of the last DAY_BUCKETS hours, indexed by the hour since the start modulo DAY_BUCKETS
+    private final long[] hourCounts = new long[DAY_BUCKETS];
+
+    private long currentHour;
+
+    private long dayCount;
+
+    private long backoffMillis;
+
+    private long backoffUntilMillis = Long.MIN_VALUE;
+
+    private long rejectedCount;
+
+    public PlacesRateLimiter() {
+        this(DEFAULT_PERMITS_PER_SECOND, DEFAULT_BURST, UNLIMITED);
+    }
+
+    /**
+     * @param permitsPerSecond the steady rate of requests
+     * @param burst the number of requests that can be sent at once after a quiet period
+     * @param maxPerDay the number of requests in any 24 hours, or {@link #UNLIMITED}
+     */
+    public PlacesRateLimiter(final double permitsPerSecond, final int burst, final long maxPerDay) {
+        if (permitsPerSecond <= 0.0d || burst < 1 || maxPerDay < 1) {
+            throw new IllegalArgumentException("The rate, burst and daily budget must be positive");
+        }
+
+        this.permitsPerMilli = permitsPerSecond / 1000.0d;
+        this.burst = burst;
+        this.maxPerDay = maxPerDay;
+        this.tokens = burst;
+    }
+
+    /**
+     * Takes a permit for a request if one is available
+     * @return 0 if the request may be sent, otherwise how long until one may be
+     */
+    public synchronized long tryAcquire() {
+        final long now = now();
+
+        if (now < backoffUntilMillis) {
+            rejectedCount++;
+            return backoffUntilMillis - now;
+        }
+
+        if (!started) {
+            started = true;
+            lastRefillMillis = now;
+            startMillis = now;
+        }
+        advanceHour((now - startMillis) / HOUR_MILLIS);
+        if (dayCount >= maxPerDay) {
+            rejectedCount++;
+            return untilOldestHourExpires(now);
+        }
+
+        tokens = Math.min(burst, tokens + (now - lastRefillMillis) * permitsPerMilli);
+        lastRefillMillis = now;
+        if (tokens < 1.0d) {
+            rejectedCount++;
+            return Math.max(1L, (long) Math.ceil((1.0d - tokens) / permitsPerMilli));
+        }
+
+        tokens -= 1.0d;
+        dayCount++;
+        hourCounts[(int) (currentHour % DAY_BUCKETS)]++;
+        return 0L;
+    }
+
+    /**
+     * Forgets the requests of the hours that left the window
+     */
+    private void advanceHour(final long hour) {
+        final long elapsed = Math.min(hour - currentHour, DAY_BUCKETS);
+        for (long i = 1; i <= elapsed; i++) {
+            final int bucket = (int) ((currentHour + i) % DAY_BUCKETS);
+            dayCount -= hourCounts[bucket];
+            hourCounts[bucket] = 0;
+        }
+        currentHour = hour;
+    }
+
+    /**
+     * @return how long until the oldest hour with requests leaves the window
+     */
+    private long untilOldestHourExpires(final long now) {
+        for (long hour = Math.max(0, currentHour - DAY_BUCKETS + 1); hour < currentHour; hour++) {
+            if (hourCounts[(int) (hour % DAY_BUCKETS)] > 0) {
+                return startMillis + (hour + DAY_BUCKETS) * HOUR_MILLIS - now;
+            }
+        }
+        return startMillis + (currentHour + DAY_BUCKETS) * HOUR_MILLIS - now;
+    }
+
+    /**
+     * Starts or extends the back-off after an OVER_QUERY_LIMIT response
+     */
+    public synchronized void onOverQueryLimit() {
+        backoffMillis = backoffMillis == 0 ? INITIAL_BACKOFF_MILLIS : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        backoffUntilMillis = now() + backoffMillis;
+    }
+
+    /**
+     * Resets the back-off after a response within the quota
+     */
+    public synchronized void onResponse() {
+        backoffMillis = 0;
+    }
+
+    /**
+     * @return true while no request is sent after an OVER_QUERY_LIMIT response
+     */
+    public synchronized boolean isBackingOff() {
+        return now() < backoffUntilMillis;
+    }
+
+    /**
+     * @return the number of requests refused since the limiter was created
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return the current time in milliseconds, used for refilling the permits
+     */
+    protected long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,135 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.model.LazyPlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlacesApiException;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.RateLimitedException;
+import com.irshad.placesautocomplete.model.Status;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Sends the requests of another client only while the {@link PlacesRateLimiter} has permits for
+ * them, failing the others right away with a {@link RateLimitedException}, and tells the limiter
+ * about OVER_QUERY_LIMIT responses. A built-in client hedging its requests takes a permit for
+ * every hedge, and skips the hedge if there is none.
+ */
+class RateLimitedPlacesHttpClient implements PlacesHttpClient {
+
+    @NonNull
+    private final PlacesHttpClient delegate;
+
+    @NonNull
+    private final PlacesRateLimiter limiter;
+
+    RateLimitedPlacesHttpClient(@NonNull final PlacesHttpClient delegate, @NonNull final PlacesRateLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+
+        if (delegate instanceof AbstractPlacesHttpClient) {
+            ((AbstractPlacesHttpClient) delegate).setHedgeLimiter(limiter);
+        }
+    }
+
+    @Override
+    public PlacesAutocompleteResponse executeAutocompleteRequest(final String url, @Nullable final CancellationSignal signal) throws IOException {
+        acquire();
+        try {
+            final PlacesAutocompleteResponse response = delegate.executeAutocompleteRequest(url, signal);
+            limiter.onResponse();
+            return response;
+        } catch (PlacesApiException e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PlacesDetailsResponse executeDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal) throws IOException {
+        acquire();
+        try {
+            final PlacesDetailsResponse response = delegate.executeDetailsRequest(url, fields, signal);
+            limiter.onResponse();
+            return response;
+        } catch (PlacesApiException e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public LazyPlacesDetailsResponse executeLazyDetailsRequest(final String url, @Nullable final CancellationSignal signal) throws IOException {
+        acquire();
+        try {
+            final LazyPlacesDetailsResponse response = delegate.executeLazyDetailsRequest(url, signal);
+            limiter.onResponse();
+            return response;
+        } catch (PlacesApiException e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void enqueueAutocompleteRequest(final String url, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesAutocompleteResponse> callback) {
+        final long retryAfter = limiter.tryAcquire();
+        if (retryAfter > 0) {
+            callback.onFailure(rateLimited(retryAfter));
+            return;
+        }
+        delegate.enqueueAutocompleteRequest(url, signal, observe(callback));
+    }
+
+    @Override
+    public void enqueueDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesDetailsResponse> callback) {
+        final long retryAfter = limiter.tryAcquire();
+        if (retryAfter > 0) {
+            callback.onFailure(rateLimited(retryAfter));
+            return;
+        }
+        delegate.enqueueDetailsRequest(url, fields, signal, observe(callback));
+    }
+
+    private void acquire() throws RateLimitedException {
+        final long retryAfter = limiter.tryAcquire();
+        if (retryAfter > 0) {
+            throw rateLimited(retryAfter);
+        }
+    }
+
+    private void onFailure(@NonNull final Throwable error) {
+        if (error instanceof PlacesApiException && ((PlacesApiException) error).getStatus() == Status.OVER_QUERY_LIMIT) {
+            limiter.onOverQueryLimit();
+        }
+    }
+
+    @NonNull
+    private <T> PlacesCallback<T> observe(@NonNull final PlacesCallback<T> callback) {
+        return new PlacesCallback<T>() {
+            @Override
+            public void onSuccess(final T response) {
+                limiter.onResponse();
+                callback.onSuccess(response);
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                RateLimitedPlacesHttpClient.this.onFailure(error);
+                callback.onFailure(error);
+            }
+        };
+    }
+
+    @NonNull
+    private static RateLimitedException rateLimited(final long retryAfterMillis) {
+        return new RateLimitedException("Request not sent, the client side rate limit is exhausted", retryAfterMillis);
+    }
+}
@@ -0,0 +1,161 @@
+package com.irshad.placesautocomplete.prefetch;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.Constants;
+import com.irshad.placesautocomplete.PlacesApi;
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.LaneExecutor;
+import com.irshad.placesautocomplete.model.Place;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speculatively fetches the details of the top predictions into the details cache of the
+ * {@link PlacesApi}, so that a selection resolves from memory. The fetch starts once the
+ * predictions have been shown for the dwell time without being replaced, and is canceled as soon
+ * as the input changes.
+ *
+ * The dwell time is measured on a timer thread shared by all instances, the prefetches then run
+ * on the {@link LaneExecutor.Lane#PREFETCH} lane of the executor of the api, where they never
+ * delay interactive requests or history I/O.
+ *
+ * Prefetching adds to the api bill. The prefetches carry no session token, so each is billed as a
+ * standalone details request. A selection served from the cache then sends no session closing
+ * details request, and the autocomplete requests of that session are billed one by one. Enable it
+ * where the latency of a selection matters more than the request count.
+ */
+public class DetailsPrefetcher {
+    public static final int DEFAULT_PREFETCH_COUNT = 2;
+    public static final long DEFAULT_DWELL_MILLIS = 400L;
+
+    private static final ScheduledExecutorService DWELL_TIMER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            Thread thread = new Thread(r, Constants.LOG_TAG + "PrefetchTimerThread");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private final int prefetchCount;
+
+    private final long dwellMillis;
+
+    @Nullable
+    private Future<?> pendingPrefetch;
+
+    @Nullable
+    private CancellationSignal pendingSignal;
+
+    public DetailsPrefetcher() {
+        this(DEFAULT_PREFETCH_COUNT, DEFAULT_DWELL_MILLIS);
+    }
+
+    /**
+     * @param prefetchCount the number of top predictions to fetch details for
+     * @param dwellMillis how long the predictions have to be shown before fetching
+     */
+    public DetailsPrefetcher(final int prefetchCount, final long dwellMillis) {
+        if (prefetchCount < 0 || dwellMillis < 0) {
+            throw new IllegalArgumentException("prefetchCount and dwellMillis cannot be negative");
+        }
+
+        this.prefetchCount = prefetchCount;
+        this.dwellMillis = dwellMillis;
+    }
+
+    /**
+     * Schedules the prefetch for the top predictions, replacing any pending prefetch
+     * @param api the api to fetch through, its details cache receives the results
+     * @param predictions the predictions being shown, in display order
+     */
+    public synchronized void onPredictionsShown(@NonNull final PlacesApi api, @NonNull final List<Place> predictions) {
+        cancel();
+
+        if (api.getDetailsCache() == null) {
+            // nowhere to keep the results
+            return;
+        }
+
+        final List<String> placeIds = new ArrayList<>(prefetchCount);
+        for (int i = 0; i < predictions.size() && placeIds.size() < prefetchCount; i++) {
+            final String placeId = predictions.get(i).place_id;
+            if (placeId != null) {
+                placeIds.add(placeId);
+            }
+        }
+
+        if (placeIds.isEmpty()) {
+            return;
+        }
+
+        final CancellationSignal signal = new CancellationSignal();
+        pendingSignal = signal;
+        final Runnable prefetch = new Runnable() {
+            @Override
+            public void run() {
+                for (final String placeId : placeIds) {
+                    if (signal.isCanceled()) {
+                        return;
+                    }
+
+                    try {
+                        // served from the cache if already fetched
+                        api.details(placeId, signal);
+                    } catch (IOException e) {
+                        // best effort, a selection fetches the details again
+                    }
+                }
+            }
+        };
+
+        pendingPrefetch = DWELL_TIMER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (signal.isCanceled()) {
+                    return;
+                }
+
+                try {
+                    api.getExecutor().execute(LaneExecutor.Lane.PREFETCH, prefetch);
+                } catch (RejectedExecutionException e) {
+                    // the lane is full of prefetches, a selection fetches the details itself
+                }
+            }
+        }, dwellMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the pending or running prefetch, e.g. because the input changed
+     */
+    public synchronized void cancel() {
+        if (pendingPrefetch != null) {
+            pendingPrefetch.cancel(false);
+            pendingPrefetch = null;
+        }
+
+        if (pendingSignal != null) {
+            pendingSignal.cancel();
+            pendingSignal = null;
+        }
+    }
+
+    public int getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    public long getDwellMillis() {
+        return dwellMillis;
+    }
+}
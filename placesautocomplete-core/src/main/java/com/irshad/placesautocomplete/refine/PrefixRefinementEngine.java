@@ -0,0 +1,245 @@
+package com.irshad.placesautocomplete.refine;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.cache.AutocompleteCacheKey;
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.Place;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Narrows the predictions of the last network autocomplete request locally when the user keeps
+ * typing. For instance, after the API returned results for "Park A", the input "Park Av" is
+ * answered by re-filtering and re-ranking those results, without another request. When fewer than
+ * {@code minLocalResults} predictions survive, {@link #refine(String)} returns null and the caller
+ * should go to the network.
+ *
+ * The engine does not know about the location bias or language of the request it was fed, so it
+ * must be {@link #reset()} whenever those change.
+ */
+public class PrefixRefinementEngine {
+
+    public static final int DEFAULT_MIN_LOCAL_RESULTS = 3;
+
+    private static final int SCORE_DESCRIPTION_PREFIX = 4;
+    private static final int SCORE_TERM_START = 2;
+    private static final int SCORE_PREVIOUS_MATCH = 1;
+
+    private final int minLocalResults;
+
+    @Nullable
+    private String baseInput;
+
+    @NonNull
+    private List<Place> basePredictions = Collections.emptyList();
+
+    private long refinedCount;
+
+    public PrefixRefinementEngine() {
+        this(DEFAULT_MIN_LOCAL_RESULTS);
+    }
+
+    /**
+     * @param minLocalResults the minimum number of predictions that must match locally for the
+     *                        local results to be used instead of a network request
+     */
+    public PrefixRefinementEngine(final int minLocalResults) {
+        if (minLocalResults < 1) {
+            throw new IllegalArgumentException("minLocalResults must be at least 1");
+        }
+        this.minLocalResults = minLocalResults;
+    }
+
+    /**
+     * Records the predictions the Places API returned for the given input, to be refined for the
+     * inputs that follow
+     */
+    public synchronized void onNetworkResults(@NonNull final String input, @Nullable final List<Place> predictions) {
+        baseInput = AutocompleteCacheKey.normalizeInput(input);
+        basePredictions = predictions != null ? new ArrayList<>(predictions) : Collections.<Place>emptyList();
+    }
+
+    /**
+     * Forgets the last network results
+     */
+    public synchronized void reset() {
+        baseInput = null;
+        basePredictions = Collections.emptyList();
+    }
+
+    /**
+     * @param input the current input
+     * @return the previous predictions that still match the input, best match first, or null if
+     * the input does not extend the previous one or too few predictions match
+     */
+    @Nullable
+    public synchronized List<Place> refine(@NonNull final String input) {
+        if (baseInput == null || basePredictions.isEmpty()) {
+            return null;
+        }
+
+        final String normalized = AutocompleteCacheKey.normalizeInput(input);
+        if (!normalized.startsWith(baseInput)) {
+            return null;
+        }
+
+        final String[] tokens = tokenize(normalized);
+        if (tokens.length == 0) {
+            return null;
+        }
+
+        final List<Candidate> candidates = new ArrayList<>(basePredictions.size());
+        for (int rank = 0; rank < basePredictions.size(); rank++) {
+            Candidate candidate = match(basePredictions.get(rank), rank, tokens);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+
+        if (candidates.size() < minLocalResults) {
+            return null;
+        }
+
+        Collections.sort(candidates, new Comparator<Candidate>() {
+            @Override
+            public int compare(final Candidate lhs, final Candidate rhs) {
+                if (lhs.score != rhs.score) {
+                    return lhs.score > rhs.score ? -1 : 1;
+                }
+                return lhs.rank < rhs.rank ? -1 : (lhs.rank == rhs.rank ? 0 : 1);
+            }
+        });
+
+        final List<Place> refined = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            refined.add(candidate.place);
+        }
+
+        refinedCount++;
+        return refined;
+    }
+
+    /**
+     * @return the number of times {@link #refine(String)} returned local results
+     */
+    public synchronized long refinedCount() {
+        return refinedCount;
+    }
+
+    /**
+     * Matches every token, in order, against the start of a word in the description. Returns the
+     * place with its matched substrings recomputed for the new input, or null if a token is missing.
+     */
+    @Nullable
+    private static Candidate match(@NonNull final Place place, final int rank, @NonNull final String[] tokens) {
+        if (place.description == null) {
+            return null;
+        }
+
+        final String description = place.description.toLowerCase(Locale.ROOT);
+        if (description.length() != place.description.length()) {
+            // offsets would no longer line up with the original description
+            return null;
+        }
+
+        final List<MatchedSubstring> matches = new ArrayList<>(tokens.length);
+        int score = 0;
+        int from = 0;
+
+        for (String token : tokens) {
+            final int offset = indexOfWordPrefix(description, token, from);
+            if (offset < 0) {
+                return null;
+            }
+
+            if (offset == 0) {
+                score += SCORE_DESCRIPTION_PREFIX;
+            }
+            if (isTermStart(place.terms, offset)) {
+                score += SCORE_TERM_START;
+            }
+            if (isPreviousMatchStart(place.matched_substrings, offset)) {
+                score += SCORE_PREVIOUS_MATCH;
+            }
+
+            matches.add(new MatchedSubstring(token.length(), offset));
+            from = offset + token.length();
+        }
+
+        return new Candidate(new Place(place.description, place.place_id, matches, place.terms, place.types), rank, score);
+    }
+
+    private static int indexOfWordPrefix(@NonNull final String description, @NonNull final String token, final int from) {
+        int index = description.indexOf(token, from);
+        while (index >= 0) {
+            if (index == 0 || !Character.isLetterOrDigit(description.charAt(index - 1))) {
+                return index;
+            }
+            index = description.indexOf(token, index + 1);
+        }
+        return -1;
+    }
+
+    private static boolean isTermStart(@Nullable final List<DescriptionTerm> terms, final int offset) {
+        if (terms != null) {
+            for (DescriptionTerm term : terms) {
+                if (term.offset == offset) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPreviousMatchStart(@Nullable final List<MatchedSubstring> matchedSubstrings, final int offset) {
+        if (matchedSubstrings != null) {
+            for (MatchedSubstring matchedSubstring : matchedSubstrings) {
+                if (matchedSubstring.offset == offset) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @NonNull
+    private static String[] tokenize(@NonNull final String normalizedInput) {
+        final List<String> tokens = new ArrayList<>();
+        int start = -1;
+
+        for (int i = 0; i <= normalizedInput.length(); i++) {
+            final boolean separator = i == normalizedInput.length()
+                    || Character.isWhitespace(normalizedInput.charAt(i))
+                    || normalizedInput.charAt(i) == ',';
+            if (separator) {
+                if (start >= 0) {
+                    tokens.add(normalizedInput.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+
+        return tokens.toArray(new String[tokens.size()]);
+    }
+
+    private static final class Candidate {
+        final Place place;
+        final int rank;
+        final int score;
+
+        Candidate(final Place place, final int rank, final int score) {
+            this.place = place;
+            this.rank = rank;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.irshad.placesautocomplete.session;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups the autocomplete requests typed for one selection into a session, so the api bills them
+ * together with the details request of the selected place instead of per request. See
+ * {@link https://developers.google.com/places/web-service/session-tokens}.
+ *
+ * A session starts with the first keystroke or request, every autocomplete request carries its
+ * token, and it ends when a place is selected, after the timeout without activity, or when it is
+ * canceled. The next activity then starts a new session with a new token. Custom adapters can
+ * drive the lifecycle through the manager of their {@link com.irshad.placesautocomplete.PlacesApi}.
+ */
+public class AutocompleteSessionManager {
+    public static final long DEFAULT_SESSION_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(3);
+
+    private final long timeoutMillis;
+
+    @Nullable
+    private volatile SessionListener listener;
+
+    @Nullable
+    private String token;
+
+    private long startedAtMillis;
+
+    private long lastActivityMillis;
+
+    private int keystrokeCount;
+
+    private int requestCount;
+
+    public AutocompleteSessionManager() {
+        this(DEFAULT_SESSION_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param timeoutMillis the time without activity after which a session ends
+     */
+    public AutocompleteSessionManager(final long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeoutMillis must be positive");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @param listener notified when sessions start and end, may be null
+     */
+    public void setSessionListener(@Nullable final SessionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Records a keystroke of the user, starting a session if there is none
+     */
+    public void onKeystroke() {
+        touch(false);
+    }
+
+    /**
+     * @return the token to attach to an autocomplete request, starting a session if there is none
+     */
+    @NonNull
+    public String acquireToken() {
+        return touch(true);
+    }
+
+    /**
+     * @return the token of the current session, or null if there is none or it timed out
+     */
+    @Nullable
+    public synchronized String getCurrentToken() {
+        return token != null && !isExpired(now()) ? token : null;
+    }
+
+    /**
+     * Ends the current session because a place was selected
+     * @return the token to attach to the details request of the selected place, or null if there
+     * was no session
+     */
+    @Nullable
+    public String completeSession() {
+        final String completed = getCurrentToken();
+        end(completed != null ? SessionEndReason.SELECTED : SessionEndReason.TIMED_OUT);
+        return completed;
+    }
+
+    /**
+     * Ends the current session without a selection
+     */
+    public void cancelSession() {
+        end(SessionEndReason.CANCELED);
+    }
+
+    @NonNull
+    private String touch(final boolean request) {
+        final long now = now();
+        final SessionListener listener = this.listener;
+
+        final String started;
+        final Ended expired;
+        final String current;
+        synchronized (this) {
+            expired = token != null && isExpired(now) ? endLocked(SessionEndReason.TIMED_OUT) : null;
+
+            if (token == null) {
+                token = UUID.randomUUID().toString();
+                startedAtMillis = now;
+                started = token;
+            } else {
+                started = null;
+            }
+
+            lastActivityMillis = now;
+            if (request) {
+                requestCount++;
+            } else {
+                keystrokeCount++;
+            }
+            current = token;
+        }
+
+        if (listener != null) {
+            if (expired != null) {
+                expired.report(listener);
+            }
+            if (started != null) {
+                listener.onSessionStarted(started);
+            }
+        }
+        return current;
+    }
+
+    private void end(@NonNull final SessionEndReason reason) {
+        final Ended ended;
+        synchronized (this) {
+            ended = token != null ? endLocked(reason) : null;
+        }
+
+        final SessionListener listener = this.listener;
+        if (ended != null && listener != null) {
+            ended.report(listener);
+        }
+    }
+
+    @NonNull
+    private Ended endLocked(@NonNull final SessionEndReason reason) {
+        final Ended ended = new Ended(token, reason, keystrokeCount, requestCount, lastActivityMillis - startedAtMillis);
+        token = null;
+        keystrokeCount = 0;
+        requestCount = 0;
+        return ended;
+    }
+
+    private boolean isExpired(final long now) {
+        return now - lastActivityMillis > timeoutMillis;
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * A session that ended, reported to the listener outside the lock
+     */
+    private static final class Ended {
+        final String token;
+        final SessionEndReason reason;
+        final int keystrokeCount;
+        final int requestCount;
+        final long durationMillis;
+
+        Ended(final String token, final SessionEndReason reason, final int keystrokeCount, final int requestCount, final long durationMillis) {
+            this.token = token;
+            this.reason = reason;
+            this.keystrokeCount = keystrokeCount;
+            this.requestCount = requestCount;
+            this.durationMillis = durationMillis;
+        }
+
+        void report(@NonNull final SessionListener listener) {
+            listener.onSessionEnded(token, reason, keystrokeCount, requestCount, durationMillis);
+        }
+    }
+}
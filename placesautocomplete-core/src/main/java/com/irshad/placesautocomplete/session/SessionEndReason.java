@@ -0,0 +1,19 @@
+package com.irshad.placesautocomplete.session;
+
+/**
+ * Why an autocomplete session ended
+ */
+public enum SessionEndReason {
+    /**
+     * A place was selected, its details request closes the session
+     */
+    SELECTED,
+    /**
+     * No activity for longer than the session timeout
+     */
+    TIMED_OUT,
+    /**
+     * Abandoned without a selection, e.g. the api was replaced
+     */
+    CANCELED
+}
@@ -0,0 +1,21 @@
+package com.irshad.placesautocomplete.session;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Notified of the lifecycle of autocomplete sessions, e.g. to measure keystrokes per session
+ */
+public interface SessionListener {
+    void onSessionStarted(@NonNull String sessionToken);
+
+    /**
+     * @param keystrokeCount the keystrokes typed during the session
+     * @param requestCount the autocomplete requests made with the session token
+     * @param durationMillis the time from the first keystroke or request to the end of the session
+     */
+    void onSessionEnded(@NonNull String sessionToken,
+                        @NonNull SessionEndReason reason,
+                        int keystrokeCount,
+                        int requestCount,
+                        long durationMillis);
+}
@@ -0,0 +1,62 @@
+package com.irshad.placesautocomplete.util;
+
+import android.support.annotation.NonNull;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Builds request urls for the Places API. A minimal replacement for android.net.Uri.Builder so the
+ * request building does not depend on the Android framework. Path segments and query parameters
+ * are percent-encoded as UTF-8.
+ */
+public final class UrlBuilder {
+
+    @NonNull
+    private final StringBuilder path;
+
+    @NonNull
+    private final StringBuilder query = new StringBuilder();
+
+    /**
+     * @param baseUrl the scheme, host and leading path of the url, without a trailing slash
+     */
+    public UrlBuilder(@NonNull final String baseUrl) {
+        path = new StringBuilder(baseUrl);
+    }
+
+    @NonNull
+    public UrlBuilder appendPath(@NonNull final String segment) {
+        path.append('/').append(encode(segment));
+        return this;
+    }
+
+    @NonNull
+    public UrlBuilder appendQueryParameter(@NonNull final String name, @NonNull final String value) {
+        query.append(query.length() == 0 ? '?' : '&')
+                .append(encode(name))
+                .append('=')
+                .append(encode(value));
+        return this;
+    }
+
+    @NonNull
+    public String build() {
+        return path.toString() + query;
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+
+    @NonNull
+    private static String encode(@NonNull final String value) {
+        try {
+            // URLEncoder does form encoding, spaces must be %20 in a url
+            return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
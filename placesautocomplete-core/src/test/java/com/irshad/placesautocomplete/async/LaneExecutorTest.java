@@ -0,0 +1,135 @@
+package com.irshad.placesautocomplete.async;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LaneExecutorTest {
+
+    @Test
+    public void lanesDoNotBlockEachOtherTest() throws Exception {
+        final LaneExecutor executor = new LaneExecutor.Builder().build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interactiveRan = new CountDownLatch(1);
+
+        executor.execute(LaneExecutor.Lane.HISTORY_IO, await(release));
+        executor.execute(LaneExecutor.Lane.PREFETCH, await(release));
+        executor.execute(LaneExecutor.Lane.INTERACTIVE, countDown(interactiveRan));
+
+        assertTrue(interactiveRan.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void dropOldestTest() throws Exception {
+        final LaneExecutor executor = new LaneExecutor.Builder()
+                .setLane(LaneExecutor.Lane.PREFETCH, 1, 2, LaneExecutor.OverflowPolicy.DROP_OLDEST)
+                .build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> ran = Collections.synchronizedList(new ArrayList<Integer>());
+        // only the two tasks left after the drops run
+        final CountDownLatch done = new CountDownLatch(2);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(LaneExecutor.Lane.PREFETCH, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                await(release).run();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 4; i++) {
+            executor.execute(LaneExecutor.Lane.PREFETCH, record(ran, i, done));
+        }
+        assertEquals(2, executor.getDroppedCount(LaneExecutor.Lane.PREFETCH));
+
+        // 2 is the oldest waiting task, dropped to put 4 first
+        executor.executeFirst(LaneExecutor.Lane.PREFETCH, record(ran, 4, done));
+        assertEquals(3, executor.getDroppedCount(LaneExecutor.Lane.PREFETCH));
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(4, 3), ran);
+    }
+
+    @Test
+    public void rejectTest() throws Exception {
+        final LaneExecutor executor = new LaneExecutor.Builder()
+                .setLane(LaneExecutor.Lane.INTERACTIVE, 1, 1, LaneExecutor.OverflowPolicy.REJECT)
+                .build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+
+        executor.execute(LaneExecutor.Lane.INTERACTIVE, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                await(release).run();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(LaneExecutor.Lane.INTERACTIVE, await(release));
+
+        try {
+            executor.execute(LaneExecutor.Lane.INTERACTIVE, await(release));
+            fail();
+        } catch (RejectedExecutionException expected) {
+        }
+        try {
+            executor.executeFirst(LaneExecutor.Lane.INTERACTIVE, await(release));
+            fail();
+        } catch (RejectedExecutionException expected) {
+        }
+        assertEquals(2, executor.getRejectedCount(LaneExecutor.Lane.INTERACTIVE));
+        release.countDown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void historyLaneIsSingleThreadedTest() {
+        new LaneExecutor.Builder().setLane(LaneExecutor.Lane.HISTORY_IO, 2, 16, LaneExecutor.OverflowPolicy.REJECT);
+    }
+
+    private static Runnable await(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+
+    private static Runnable record(final List<Integer> ran, final int index, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                ran.add(index);
+                done.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.irshad.placesautocomplete.async;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlacesFutureTest {
+    private final List<Runnable> posted = new ArrayList<>();
+
+    private final Executor postingExecutor = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            posted.add(command);
+        }
+    };
+
+    private final List<String> delivered = new ArrayList<>();
+
+    private final PlacesCallback<String> callback = new PlacesCallback<String>() {
+        @Override
+        public void onSuccess(final String response) {
+            delivered.add(response);
+        }
+
+        @Override
+        public void onFailure(final Throwable error) {
+            delivered.add(error.getMessage());
+        }
+    };
+
+    @Test
+    public void deliversResultTest() {
+        final PlacesFuture<String> future = new PlacesFuture<>(callback, postingExecutor);
+        assertTrue(future.set("result"));
+        runPosted();
+        assertEquals(1, delivered.size());
+        assertEquals("result", delivered.get(0));
+    }
+
+    @Test
+    public void cancelAbortsRequestTest() {
+        final PlacesFuture<String> future = new PlacesFuture<>(callback, postingExecutor);
+        assertTrue(future.cancel(true));
+        assertTrue(future.getCancellationSignal().isCanceled());
+        assertFalse(future.set("result"));
+        runPosted();
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void cancelDropsPostedCallbackTest() {
+        final PlacesFuture<String> future = new PlacesFuture<>(callback, postingExecutor);
+        assertTrue(future.setException(new Exception("failure")));
+
+        // completed, so not canceled, but the callback waiting on the executor is dropped
+        assertFalse(future.cancel(true));
+        assertFalse(future.isCancelled());
+        runPosted();
+        assertTrue(delivered.isEmpty());
+    }
+
+    private void runPosted() {
+        for (Runnable runnable : posted) {
+            runnable.run();
+        }
+        posted.clear();
+    }
+}
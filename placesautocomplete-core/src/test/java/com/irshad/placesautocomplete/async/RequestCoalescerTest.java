@@ -0,0 +1,130 @@
+package com.irshad.placesautocomplete.async;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+    private final RequestCoalescer<String> coalescer = new RequestCoalescer<>();
+
+    private final List<PlacesCallback<String>> started = new ArrayList<>();
+
+    private final List<CancellationSignal> signals = new ArrayList<>();
+
+    private final RequestCoalescer.AsyncCall<String> call = new RequestCoalescer.AsyncCall<String>() {
+        @Override
+        public void enqueue(@NonNull final CancellationSignal signal, @NonNull final PlacesCallback<String> callback) {
+            signals.add(signal);
+            started.add(callback);
+        }
+    };
+
+    @Test
+    public void sharesRequestInFlightTest() throws Exception {
+        final PlacesFuture<String> first = future();
+        final PlacesFuture<String> second = future();
+        final PlacesFuture<String> other = future();
+
+        assertFalse(coalescer.enqueue("a", first, call));
+        assertTrue(coalescer.enqueue("a", second, call));
+        assertFalse(coalescer.enqueue("b", other, call));
+        assertEquals(2, started.size());
+
+        final String response = new String("response");
+        started.get(0).onSuccess(response);
+        assertSame(response, first.get());
+        assertSame(response, second.get());
+        assertFalse(other.isDone());
+
+        // a completed request is not shared anymore
+        assertFalse(coalescer.enqueue("a", future(), call));
+        assertEquals(3, coalescer.getStartedCount());
+        assertEquals(1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void cancelsOnceAllCallersCanceledTest() throws Exception {
+        final PlacesFuture<String> first = future();
+        final PlacesFuture<String> second = future();
+        coalescer.enqueue("a", first, call);
+        coalescer.enqueue("a", second, call);
+
+        first.cancel(true);
+        assertFalse(signals.get(0).isCanceled());
+        second.cancel(true);
+        assertTrue(signals.get(0).isCanceled());
+
+        // a canceled request is not joined
+        final PlacesFuture<String> third = future();
+        assertFalse(coalescer.enqueue("a", third, call));
+        started.get(1).onFailure(new IOException("failure"));
+        try {
+            third.get();
+            fail();
+        } catch (ExecutionException expected) {
+            assertEquals("failure", expected.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void synchronousCallerJoinsTest() throws Exception {
+        coalescer.enqueue("a", future(), call);
+
+        final AtomicReference<String> result = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.set(coalescer.execute("a", null, new RequestCoalescer.SyncCall<String>() {
+                        @Override
+                        public String execute(@NonNull final CancellationSignal signal) {
+                            throw new AssertionError("joined the request in flight");
+                        }
+                    }));
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+                done.countDown();
+            }
+        }).start();
+
+        while (coalescer.getCoalescedCount() == 0) {
+            Thread.sleep(1);
+        }
+        started.get(0).onSuccess("response");
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("response", result.get());
+    }
+
+    @Test(expected = CanceledException.class)
+    public void synchronousCancelTest() throws Exception {
+        final CancellationSignal signal = new CancellationSignal();
+        coalescer.enqueue("a", future(), call);
+        signal.cancel();
+        coalescer.execute("a", signal, new RequestCoalescer.SyncCall<String>() {
+            @Override
+            public String execute(@NonNull final CancellationSignal signal) {
+                throw new AssertionError("joined the request in flight");
+            }
+        });
+    }
+
+    private static PlacesFuture<String> future() {
+        return new PlacesFuture<>(null, DirectExecutor.INSTANCE);
+    }
+}
@@ -0,0 +1,77 @@
+package com.irshad.placesautocomplete.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LruResponseCacheTest {
+    private static final SizeEstimator<String> LENGTH_ESTIMATOR = new SizeEstimator<String>() {
+        @Override
+        public long estimateBytes(final String value) {
+            return value.length();
+        }
+    };
+
+    private long now;
+    private LruResponseCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        now = 0L;
+        cache = new LruResponseCache<String, String>(10L, 1000L, LENGTH_ESTIMATOR) {
+            @Override
+            protected long now() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void getReturnsCachedValueTest() {
+        cache.put("a", "aaaa");
+        assertEquals("aaaa", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1L, cache.hitCount());
+        assertEquals(1L, cache.missCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverMaxBytesTest() {
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.get("a");
+        cache.put("c", "cccc");
+
+        assertNull(cache.get("b"));
+        assertEquals("aaaa", cache.get("a"));
+        assertEquals("cccc", cache.get("c"));
+        assertEquals(8L, cache.sizeBytes());
+        assertEquals(1L, cache.evictionCount());
+    }
+
+    @Test
+    public void doesNotCacheValuesLargerThanMaxBytesTest() {
+        cache.put("a", "aaaaaaaaaaaa");
+        assertNull(cache.get("a"));
+        assertEquals(0L, cache.sizeBytes());
+    }
+
+    @Test
+    public void expiresEntriesAfterTtlTest() {
+        cache.put("a", "aaaa");
+        now = 999L;
+        assertEquals("aaaa", cache.get("a"));
+        now = 1000L;
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.expiredCount());
+        assertEquals(0L, cache.sizeBytes());
+    }
+
+    @Test
+    public void normalizesCacheKeyInputTest() {
+        assertEquals("park av ", AutocompleteCacheKey.normalizeInput("  Park   Av  "));
+        assertEquals("park", AutocompleteCacheKey.normalizeInput("PARK"));
+    }
+}
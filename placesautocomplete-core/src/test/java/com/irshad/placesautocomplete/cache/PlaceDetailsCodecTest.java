@@ -0,0 +1,102 @@
+package com.irshad.placesautocomplete.cache;
+
+import com.irshad.placesautocomplete.model.AddressComponent;
+import com.irshad.placesautocomplete.model.AddressComponentType;
+import com.irshad.placesautocomplete.model.AlternativePlaceId;
+import com.irshad.placesautocomplete.model.DateTimePair;
+import com.irshad.placesautocomplete.model.OpenHours;
+import com.irshad.placesautocomplete.model.OpenPeriod;
+import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceGeometry;
+import com.irshad.placesautocomplete.model.PlaceLocation;
+import com.irshad.placesautocomplete.model.PlacePhoto;
+import com.irshad.placesautocomplete.model.PlaceReview;
+import com.irshad.placesautocomplete.model.PlaceScope;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.RatingAspect;
+import com.irshad.placesautocomplete.model.Status;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class PlaceDetailsCodecTest {
+
+    @Test
+    public void roundTripTest() throws Exception {
+        final PlaceDetails details = new PlaceDetails(
+                Collections.singletonList(new AddressComponent("Main Street", "Main St", Arrays.asList(AddressComponentType.ROUTE, AddressComponentType.POLITICAL))),
+                "1 Main Street, Boston, MA é😀",
+                "(617) 555-0100",
+                "+1 617-555-0100",
+                new PlaceGeometry(new PlaceLocation(42.36, -71.06)),
+                "icon",
+                "Main Street",
+                "abc",
+                new OpenHours(true, Collections.singletonList(new OpenPeriod(new DateTimePair("0", "0900"), new DateTimePair("0", "1700")))),
+                false,
+                Collections.singletonList(new PlacePhoto(100, 200, "ref")),
+                PlaceScope.GOOGLE,
+                Collections.singletonList(new AlternativePlaceId("alt", PlaceScope.APP)),
+                2,
+                4.5,
+                Collections.singletonList(new PlaceReview(Collections.singletonList(new RatingAspect(3, "quality")), "author", "url", "en", 4, "text", 10L)),
+                Arrays.asList("route", "geocode"),
+                "https://maps.google.com/?q=abc",
+                "Boston");
+
+        final PlacesDetailsResponse response = roundTrip(new PlacesDetailsResponse(Status.OK, null, details));
+        assertEquals(Status.OK, response.status);
+        assertNull(response.error_message);
+        assertEquals(details, response.result);
+    }
+
+    @Test
+    public void roundTripUnsetFieldsTest() throws Exception {
+        // as left by a request for a few fields only
+        final PlaceDetails details = new PlaceDetails(null, "addr", null, null, new PlaceGeometry(null), null, null,
+                "abc", null, false, null, null, null, -1, -1.0, null, null, null, null);
+
+        PlacesDetailsResponse response = roundTrip(new PlacesDetailsResponse(Status.OK, null, details));
+        assertEquals(details, response.result);
+
+        response = roundTrip(new PlacesDetailsResponse(Status.INVALID_REQUEST, "error", null));
+        assertEquals(Status.INVALID_REQUEST, response.status);
+        assertEquals("error", response.error_message);
+        assertNull(response.result);
+    }
+
+    @Test
+    public void truncatedRecordTest() throws Exception {
+        final byte[] bytes = write(new PlacesDetailsResponse(Status.OK, null,
+                new PlaceDetails(null, "addr", null, null, null, null, "name", "abc", null, false, null, null, null, -1, -1.0, null, null, null, null)));
+        try {
+            PlaceDetailsCodec.read(new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2))));
+            fail();
+        } catch (EOFException expected) {
+        }
+    }
+
+    private static PlacesDetailsResponse roundTrip(final PlacesDetailsResponse response) throws IOException {
+        return PlaceDetailsCodec.read(new DataInputStream(new ByteArrayInputStream(write(response))));
+    }
+
+    private static byte[] write(final PlacesDetailsResponse response) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        PlaceDetailsCodec.write(out, response);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.irshad.placesautocomplete.history;
+
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceType;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BinaryHistoryCodecTest {
+    private final BinaryHistoryCodec codec = new BinaryHistoryCodec();
+
+    @Test
+    public void roundTripTest() throws Exception {
+        final List<Place> places = Arrays.asList(
+                new Place("Main Street, Boston, MA, United States",
+                        "abc",
+                        Collections.singletonList(new MatchedSubstring(4, 0)),
+                        Arrays.asList(new DescriptionTerm(0, "Main Street"), new DescriptionTerm(13, "Boston"), new DescriptionTerm(21, "MA")),
+                        Arrays.asList(PlaceType.ROUTE, PlaceType.GEOCODE)),
+                new Place("Boston, MA, United States é😀",
+                        "def",
+                        Collections.singletonList(new MatchedSubstring(-1, -1)),
+                        Arrays.asList(new DescriptionTerm(0, "Boston"), new DescriptionTerm(8, "MA")),
+                        Collections.singletonList(PlaceType.GEOCODE)),
+                new Place(null, "ghi", null, null, null));
+
+        assertEquals(places, codec.read(new ByteArrayInputStream(write(places))));
+    }
+
+    @Test
+    public void rejectsOtherFormatsTest() throws Exception {
+        try {
+            codec.read(new ByteArrayInputStream("[\n  {}\n]".getBytes("UTF-8")));
+            fail();
+        } catch (IOException expected) {
+        }
+
+        final byte[] bytes = write(Collections.singletonList(new Place("a", "b", null, null, null)));
+        try {
+            codec.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private byte[] write(final List<Place> places) throws IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        codec.write(os, places);
+        return os.toByteArray();
+    }
+}
@@ -0,0 +1,131 @@
+package com.irshad.placesautocomplete.history;
+
+import com.irshad.placesautocomplete.model.Place;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HistoryJournalTest {
+    private final BinaryHistoryCodec codec = new BinaryHistoryCodec();
+
+    private final Place a = new Place("A Street", "a", null, null, null);
+    private final Place b = new Place("B Street", "b", null, null, null);
+    private final Place c = new Place("C Street", "c", null, null, null);
+
+    @Test
+    public void replayTest() throws Exception {
+        final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.write(HistoryJournal.header());
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_ADD, a, codec));
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_ADD, b, codec));
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_ADD, c, codec));
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_ADD, a, codec));
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_REMOVE, b, codec));
+
+        HistoryJournal.Replay replay = replay(journal.toByteArray(), 10);
+        assertEquals(Arrays.asList(a, c), replay.places);
+        assertEquals(5, replay.records);
+        assertEquals(journal.size(), replay.validLength);
+        assertFalse(replay.corrupted);
+
+        replay = replay(journal.toByteArray(), 1);
+        assertEquals(Collections.singletonList(a), replay.places);
+    }
+
+    @Test
+    public void recoversFromTornRecordTest() throws Exception {
+        final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.write(HistoryJournal.header());
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_ADD, a, codec));
+        final int validLength = journal.size();
+
+        final byte[] torn = HistoryJournal.record(HistoryJournal.RECORD_ADD, b, codec);
+        journal.write(torn, 0, torn.length - 3);
+
+        HistoryJournal.Replay replay = replay(journal.toByteArray(), 10);
+        assertEquals(Collections.singletonList(a), replay.places);
+        assertEquals(validLength, replay.validLength);
+        assertTrue(replay.corrupted);
+
+        final byte[] flipped = Arrays.copyOf(journal.toByteArray(), validLength + torn.length);
+        System.arraycopy(torn, 0, flipped, validLength, torn.length);
+        flipped[validLength + 3] ^= 0x10;
+
+        replay = replay(flipped, 10);
+        assertEquals(Collections.singletonList(a), replay.places);
+        assertEquals(validLength, replay.validLength);
+        assertTrue(replay.corrupted);
+    }
+
+    @Test
+    public void recoversFromGarbageTailTest() throws Exception {
+        final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.write(HistoryJournal.header());
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_ADD, a, codec));
+        journal.write(HistoryJournal.record(HistoryJournal.RECORD_ADD, b, codec));
+        final int validLength = journal.size();
+
+        // a length that is not a varint
+        final ByteArrayOutputStream malformed = new ByteArrayOutputStream();
+        journal.writeTo(malformed);
+        malformed.write(new byte[]{HistoryJournal.RECORD_ADD, -1, -1, -1, -1, -1, -1});
+
+        HistoryJournal.Replay replay = replay(malformed.toByteArray(), 10);
+        assertEquals(Arrays.asList(b, a), replay.places);
+        assertEquals(2, replay.records);
+        assertEquals(validLength, replay.validLength);
+        assertTrue(replay.corrupted);
+
+        // a record passing its checksum with a payload the codec cannot decode
+        final byte[] payload = {-1, -1, -1, -1, -1, -1};
+        final ByteArrayOutputStream record = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(record);
+        out.writeByte(HistoryJournal.RECORD_ADD);
+        out.writeByte(payload.length);
+        out.write(payload);
+        final CRC32 crc = new CRC32();
+        crc.update(record.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        final ByteArrayOutputStream undecodable = new ByteArrayOutputStream();
+        journal.writeTo(undecodable);
+        record.writeTo(undecodable);
+
+        replay = replay(undecodable.toByteArray(), 10);
+        assertEquals(Arrays.asList(b, a), replay.places);
+        assertEquals(validLength, replay.validLength);
+        assertTrue(replay.corrupted);
+    }
+
+    @Test
+    public void snapshotTest() throws Exception {
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        HistoryJournal.writeSnapshot(snapshot, Arrays.asList(c, b, a), codec);
+
+        final HistoryJournal.Replay replay = replay(snapshot.toByteArray(), 10);
+        assertEquals(Arrays.asList(c, b, a), replay.places);
+        assertEquals(3, replay.records);
+
+        try {
+            replay(new byte[]{1, 2, 3, 4, 5}, 10);
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private HistoryJournal.Replay replay(final byte[] bytes, final int capacity) throws IOException {
+        return HistoryJournal.replay(new ByteArrayInputStream(bytes), codec, capacity);
+    }
+}
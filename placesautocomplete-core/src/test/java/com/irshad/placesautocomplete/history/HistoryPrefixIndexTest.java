@@ -0,0 +1,79 @@
+package com.irshad.placesautocomplete.history;
+
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.Place;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryPrefixIndexTest {
+    private final Place mainStreet = place("Main Street, Boston, MA", "Main Street", "Boston", "MA");
+    private final Place marketStreet = place("Market Street, Cambridge, MA", "Market Street", "Cambridge", "MA");
+    private final Place bostonCommon = place("Boston Common, Boston, MA", "Boston Common", "Boston", "MA");
+    private final Place elmStreet = place("Elm Street, Somerville, MA", "Elm Street", "Somerville", "MA");
+
+    // most recent first
+    private final HistoryPrefixIndex index = new HistoryPrefixIndex(Arrays.asList(mainStreet, marketStreet, bostonCommon, elmStreet));
+
+    @Test
+    public void queryTest() {
+        assertEquals(Collections.singletonList(marketStreet), index.query("Mar", 10));
+        assertEquals(Collections.singletonList(mainStreet), index.query("  MAIN   st", 10));
+        // by term, and a place matching by several keys is returned once
+        assertEquals(Arrays.asList(mainStreet, bostonCommon), index.query("bos", 10));
+        assertEquals(Arrays.asList(mainStreet, marketStreet, bostonCommon, elmStreet), index.query("m", 10));
+        assertTrue(index.query("Worcester", 10).isEmpty());
+    }
+
+    @Test
+    public void limitTest() {
+        assertEquals(Arrays.asList(mainStreet, marketStreet), index.query("m", 2));
+        assertEquals(Arrays.asList(mainStreet, marketStreet, bostonCommon), index.query("", 3));
+        assertTrue(index.query("m", 0).isEmpty());
+        assertTrue(HistoryPrefixIndex.EMPTY.query("m", 5).isEmpty());
+    }
+
+    @Test
+    public void matchesLinearScanTest() {
+        final List<Place> places = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            places.add(place("Street " + i + ", City " + (i % 37), "Street " + i, "City " + (i % 37)));
+        }
+        final HistoryPrefixIndex large = new HistoryPrefixIndex(places);
+
+        for (String constraint : Arrays.asList("street 1", "city 3", "street 19", "s", "city 36", "c")) {
+            final List<Place> expected = new ArrayList<>();
+            for (Place place : places) {
+                if (expected.size() < 7 && (place.description.toLowerCase().startsWith(constraint)
+                        || place.terms.get(1).value.toLowerCase().startsWith(constraint))) {
+                    expected.add(place);
+                }
+            }
+            assertEquals(constraint, expected, large.query(constraint, 7));
+        }
+    }
+
+    @Test
+    public void rankHistoryTest() {
+        assertEquals(Arrays.asList(bostonCommon, mainStreet, marketStreet), HistoryRanking.rankHistory("boston c", index, 3));
+
+        final List<Place> predictions = new ArrayList<>(Arrays.asList(elmStreet, bostonCommon));
+        HistoryRanking.mergeHistory("bos", predictions, index, 5);
+        assertEquals(Arrays.asList(mainStreet, bostonCommon, elmStreet), predictions);
+    }
+
+    private static Place place(final String description, final String... terms) {
+        final List<DescriptionTerm> descriptionTerms = new ArrayList<>();
+        for (String term : terms) {
+            descriptionTerms.add(new DescriptionTerm(description.indexOf(term), term));
+        }
+        return new Place(description, description, null, descriptionTerms, null);
+    }
+}
@@ -0,0 +1,41 @@
+package com.irshad.placesautocomplete.json;
+
+import com.irshad.placesautocomplete.model.AddressComponentType;
+import com.irshad.placesautocomplete.model.PlaceType;
+import com.irshad.placesautocomplete.model.Status;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EnumLookupTest {
+    @Test
+    public void decodesEveryValueTest() {
+        for (AddressComponentType type : AddressComponentType.values()) {
+            final String name = EnumLookup.ADDRESS_COMPONENT_TYPE.nameOf(type);
+            assertEquals(type.name().toLowerCase(Locale.US), name);
+            assertEquals(type, EnumLookup.ADDRESS_COMPONENT_TYPE.lookup(name));
+            assertEquals(type, EnumLookup.ADDRESS_COMPONENT_TYPE.lookup(new StringBuilder(name)));
+        }
+
+        for (Status status : Status.values()) {
+            assertEquals(status, EnumLookup.STATUS.lookup(status.name()));
+        }
+
+        assertEquals(PlaceType.GEOCODE, EnumLookup.PLACE_TYPE.lookup("geocode"));
+    }
+
+    @Test
+    public void unknownValuesTest() {
+        assertNull(EnumLookup.STATUS.lookup(null));
+        assertNull(EnumLookup.STATUS.lookup(""));
+        assertNull(EnumLookup.STATUS.lookup("ok"));
+        assertNull(EnumLookup.STATUS.lookup("UNKNOWN_ERROR"));
+        assertNull(EnumLookup.ADDRESS_COMPONENT_TYPE.lookup("sublocality_level_"));
+        assertNull(EnumLookup.ADDRESS_COMPONENT_TYPE.lookup("establishment"));
+        assertNull(EnumLookup.PLACE_TYPE.lookup("ROUTE"));
+    }
+}
@@ -0,0 +1,125 @@
+package com.irshad.placesautocomplete.json;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.irshad.placesautocomplete.model.AddressComponentType;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlaceType;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Status;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class GsonPlacesApiJsonParserTest {
+    // reads the models through reflection, as the parser did before it had type adapters
+    private final Gson reflectiveGson = new Gson();
+
+    private final GsonPlacesApiJsonParser parser = new GsonPlacesApiJsonParser();
+
+    @Test
+    public void autocompleteMatchesReflectionTest() throws Exception {
+        final byte[] json = fixture("autocomplete.json");
+
+        final PlacesAutocompleteResponse expected = reflectiveGson.fromJson(new String(json, "UTF-8"), PlacesAutocompleteResponse.class);
+        final PlacesAutocompleteResponse actual = parser.autocompleteFromStream(new ByteArrayInputStream(json));
+
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.error_message, actual.error_message);
+        assertFalse(actual.predictions.isEmpty());
+        assertEquals(expected.predictions, actual.predictions);
+    }
+
+    @Test
+    public void detailsMatchesReflectionTest() throws Exception {
+        final byte[] json = fixture("details.json");
+
+        final PlacesDetailsResponse expected = reflectiveGson.fromJson(new String(json, "UTF-8"), PlacesDetailsResponse.class);
+        final PlacesDetailsResponse actual = parser.detailsFromStream(new ByteArrayInputStream(json));
+
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.error_message, actual.error_message);
+        assertEquals(expected.result, actual.result);
+    }
+
+    @Test
+    public void fieldMaskedDetailsTest() throws Exception {
+        final byte[] json = fixture("details.json");
+        final PlaceDetails full = parser.detailsFromStream(new ByteArrayInputStream(json)).result;
+
+        final PlacesDetailsResponse masked = parser.detailsFromStream(new ByteArrayInputStream(json),
+                EnumSet.of(PlaceDetailsField.NAME, PlaceDetailsField.PLACE_ID, PlaceDetailsField.GEOMETRY));
+
+        // the other fields are skipped and keep their defaults
+        assertEquals(Status.OK, masked.status);
+        assertEquals(new PlaceDetails(null, null, null, null, full.geometry, null, full.name, full.place_id, null, false,
+                null, null, null, 0, 0.0, null, null, null, null), masked.result);
+
+        // an empty mask skips the whole result
+        final PlacesDetailsResponse empty = parser.detailsFromStream(new ByteArrayInputStream(json), EnumSet.noneOf(PlaceDetailsField.class));
+        assertEquals(Status.OK, empty.status);
+        assertNull(empty.result);
+    }
+
+    @Test
+    public void unknownEnumsAreDroppedTest() throws Exception {
+        final PlacesAutocompleteResponse autocomplete = parser.autocompleteFromStream(stream("{\"predictions\":[{\"description\":\"Main Street\"," +
+                "\"types\":[\"route\",\"not_a_type\",\"geocode\"]}],\"status\":\"NOT_A_STATUS\"}"));
+        assertNull(autocomplete.status);
+        assertEquals(Arrays.asList(PlaceType.ROUTE, PlaceType.GEOCODE), autocomplete.predictions.get(0).types);
+
+        final PlacesDetailsResponse details = parser.detailsFromStream(stream("{\"result\":{\"address_components\":[{\"long_name\":\"Boston\"," +
+                "\"types\":[\"not_a_type\",\"locality\"]}],\"scope\":\"NOT_A_SCOPE\"},\"status\":\"OK\"}"));
+        assertEquals(Collections.singletonList(AddressComponentType.LOCALITY), details.result.address_components.get(0).types);
+        assertNull(details.result.scope);
+    }
+
+    @Test
+    public void historyRoundTripTest() throws Exception {
+        final List<Place> places = parser.autocompleteFromStream(new ByteArrayInputStream(fixture("autocomplete.json"))).predictions;
+
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        parser.writeHistoryJson(written, places);
+        assertEquals(places, parser.readHistoryJson(new ByteArrayInputStream(written.toByteArray())));
+
+        // the file stays readable by the reflective parser of older versions, and the other way around
+        final List<Place> legacyRead = reflectiveGson.fromJson(new String(written.toByteArray(), "UTF-8"), new TypeToken<List<Place>>() {}.getType());
+        assertEquals(places, legacyRead);
+        final byte[] legacyWritten = reflectiveGson.toJson(places).getBytes("UTF-8");
+        assertEquals(places, parser.readHistoryJson(new ByteArrayInputStream(legacyWritten)));
+    }
+
+    private static InputStream stream(final String json) throws IOException {
+        return new ByteArrayInputStream(json.getBytes("UTF-8"));
+    }
+
+    private static byte[] fixture(final String name) throws IOException {
+        final InputStream in = GsonPlacesApiJsonParserTest.class.getResourceAsStream("/" + name);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
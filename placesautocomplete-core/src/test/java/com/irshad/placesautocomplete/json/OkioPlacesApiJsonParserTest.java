@@ -0,0 +1,105 @@
+package com.irshad.placesautocomplete.json;
+
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceType;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Status;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OkioPlacesApiJsonParserTest {
+    private OkioPlacesApiJsonParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new OkioPlacesApiJsonParser(new UnsupportedParser());
+    }
+
+    @Test
+    public void parsesPredictionsTest() throws Exception {
+        final PlacesAutocompleteResponse response = parse("{\n" +
+                "  \"predictions\" : [ {\n" +
+                "    \"description\" : \"Main Street, Boston\",\n" +
+                "    \"id\" : \"ignored\",\n" +
+                "    \"matched_substrings\" : [ { \"length\" : 8, \"offset\" : 0 } ],\n" +
+                "    \"place_id\" : \"abc\",\n" +
+                "    \"structured_formatting\" : { \"main_text\" : \"Main Street\", \"nested\" : [ 1, 2.5e3, true, null ] },\n" +
+                "    \"terms\" : [ { \"offset\" : 0, \"value\" : \"Main Street\" }, { \"offset\" : 13, \"value\" : \"Boston\" } ],\n" +
+                "    \"types\" : [ \"route\", \"establishment\", \"geocode\" ]\n" +
+                "  } ],\n" +
+                "  \"status\" : \"OK\"\n" +
+                "}");
+
+        assertEquals(Status.OK, response.status);
+        assertNull(response.error_message);
+        assertEquals(1, response.predictions.size());
+
+        final Place place = response.predictions.get(0);
+        assertEquals("Main Street, Boston", place.description);
+        assertEquals("abc", place.place_id);
+        assertEquals(Arrays.asList(new MatchedSubstring(8, 0)), place.matched_substrings);
+        assertEquals(Arrays.asList(new DescriptionTerm(0, "Main Street"), new DescriptionTerm(13, "Boston")), place.terms);
+        assertEquals(Arrays.asList(PlaceType.ROUTE, PlaceType.GEOCODE), place.types);
+    }
+
+    @Test
+    public void decodesEscapesTest() throws Exception {
+        final PlacesAutocompleteResponse response = parse("{\"predictions\":[{\"description\":\"Caf\\u00e9 \\\"Le Coin\\\" \\ud83d\\ude00\\n\\\\ Straße\"}],\"status\":\"OK\"}");
+
+        assertEquals("Café \"Le Coin\" 😀\n\\ Straße", response.predictions.get(0).description);
+    }
+
+    @Test
+    public void parsesErrorsTest() throws Exception {
+        final PlacesAutocompleteResponse response = parse("{\"error_message\":\"The provided API key is invalid.\",\"predictions\":[],\"status\":\"REQUEST_DENIED\"}");
+
+        assertEquals(Status.REQUEST_DENIED, response.status);
+        assertEquals("The provided API key is invalid.", response.error_message);
+        assertEquals(0, response.predictions.size());
+    }
+
+    @Test(expected = JsonParsingException.class)
+    public void rejectsTruncatedResponsesTest() throws Exception {
+        parse("{\"predictions\":[{\"description\":\"Main");
+    }
+
+    private PlacesAutocompleteResponse parse(final String json) throws JsonParsingException {
+        return parser.autocompleteFromSource(new Buffer().writeUtf8(json));
+    }
+
+    private static final class UnsupportedParser implements PlacesApiJsonParser {
+        @Override
+        public PlacesAutocompleteResponse autocompleteFromStream(final InputStream is) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PlacesDetailsResponse detailsFromStream(final InputStream is) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Place> readHistoryJson(final InputStream in) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void writeHistoryJson(final OutputStream os, final List<Place> places) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.irshad.placesautocomplete.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void smallValuesAreExactTest() {
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(5L, histogram.getValueAtPercentile(50));
+        assertEquals(10L, histogram.getValueAtPercentile(99));
+        assertEquals(1L, histogram.getMinValue());
+        assertEquals(10L, histogram.getTotalCount());
+    }
+
+    @Test
+    public void largeValuesWithinPrecisionTest() {
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000000L);
+        }
+
+        assertWithinPrecision(500000000L, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(990000000L, histogram.getValueAtPercentile(99));
+        assertEquals(1000000000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void bucketsCoverEveryValueTest() {
+        long value = 1;
+        while (value > 0) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            value = value * 3 + 1;
+        }
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(50));
+    }
+
+    private static void assertWithinPrecision(final long expected, final long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(actual - expected) <= expected / 32);
+    }
+}
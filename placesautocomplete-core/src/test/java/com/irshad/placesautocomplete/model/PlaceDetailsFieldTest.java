@@ -0,0 +1,28 @@
+package com.irshad.placesautocomplete.model;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PlaceDetailsFieldTest {
+
+    @Test
+    public void queryParamIsInDeclarationOrderTest() {
+        assertEquals("address_component,formatted_address,geometry",
+                PlaceDetailsField.toQueryParam(EnumSet.of(PlaceDetailsField.GEOMETRY, PlaceDetailsField.ADDRESS_COMPONENTS, PlaceDetailsField.FORMATTED_ADDRESS)));
+    }
+
+    @Test
+    public void queryParamSkipsFieldsTheApiCannotBeLimitedToTest() {
+        assertEquals("review", PlaceDetailsField.toQueryParam(EnumSet.of(PlaceDetailsField.ALT_IDS, PlaceDetailsField.REVIEWS)));
+    }
+
+    @Test
+    public void fromJsonNameTest() {
+        assertEquals(PlaceDetailsField.PHOTOS, PlaceDetailsField.fromJsonName("photos"));
+        assertNull(PlaceDetailsField.fromJsonName("photo"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.irshad.placesautocomplete.network;
+
+import org.junit.Test;
+
+import static com.irshad.placesautocomplete.network.AdaptiveTimeoutPolicy.RequestKind.AUTOCOMPLETE;
+import static com.irshad.placesautocomplete.network.AdaptiveTimeoutPolicy.RequestKind.DETAILS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveTimeoutPolicyTest {
+
+    @Test
+    public void timeoutFollowsLatencyTest() {
+        final AdaptiveTimeoutPolicy policy = new AdaptiveTimeoutPolicy.Builder()
+                .setTimeoutBounds(1000L, 15000L)
+                .build();
+        assertEquals(15000L, policy.getTimeoutMillis(AUTOCOMPLETE));
+
+        for (int i = 0; i < AdaptiveTimeoutPolicy.MIN_SAMPLES; i++) {
+            policy.recordLatency(AUTOCOMPLETE, 400L + i);
+        }
+        // 3 times the p99 of about 420ms, rounded up to 250ms
+        assertEquals(1500L, policy.getTimeoutMillis(AUTOCOMPLETE));
+
+        for (int i = 0; i < AdaptiveTimeoutPolicy.WINDOW_SIZE * 2; i++) {
+            policy.recordLatency(AUTOCOMPLETE, 10L);
+        }
+        assertEquals(1000L, policy.getTimeoutMillis(AUTOCOMPLETE));
+
+        for (int i = 0; i < AdaptiveTimeoutPolicy.WINDOW_SIZE * 2; i++) {
+            policy.recordLatency(AUTOCOMPLETE, 60000L);
+        }
+        assertEquals(15000L, policy.getTimeoutMillis(AUTOCOMPLETE));
+    }
+
+    @Test
+    public void kindsAreKeptApartTest() {
+        final AdaptiveTimeoutPolicy policy = new AdaptiveTimeoutPolicy.Builder()
+                .setTimeoutBounds(1000L, 15000L)
+                .setHedging(true, 0.05d)
+                .build();
+
+        for (int i = 0; i < AdaptiveTimeoutPolicy.MIN_SAMPLES; i++) {
+            policy.recordLatency(AUTOCOMPLETE, 400L);
+        }
+        assertEquals(1250L, policy.getTimeoutMillis(AUTOCOMPLETE));
+        assertEquals(15000L, policy.getTimeoutMillis(DETAILS));
+
+        // slow details responses don't shorten the patience for autocomplete ones, nor the other way around
+        for (int i = 0; i < AdaptiveTimeoutPolicy.WINDOW_SIZE * 2; i++) {
+            policy.recordLatency(DETAILS, 2000L);
+        }
+        assertEquals(6000L, policy.getTimeoutMillis(DETAILS));
+        assertEquals(1250L, policy.getTimeoutMillis(AUTOCOMPLETE));
+
+        // only autocomplete requests are hedged
+        final long hedgeDelay = policy.getHedgeDelayMillis();
+        assertTrue(hedgeDelay >= 400L && hedgeDelay < 450L);
+    }
+
+    @Test
+    public void hedgeDelayTest() {
+        final AdaptiveTimeoutPolicy disabled = new AdaptiveTimeoutPolicy.Builder().build();
+        final AdaptiveTimeoutPolicy enabled = new AdaptiveTimeoutPolicy.Builder().setHedging(true, 0.05d).build();
+        assertEquals(-1L, enabled.getHedgeDelayMillis());
+
+        for (int i = 1; i <= 100; i++) {
+            disabled.recordLatency(AUTOCOMPLETE, i * 10L);
+            enabled.recordLatency(AUTOCOMPLETE, i * 10L);
+        }
+        assertEquals(-1L, disabled.getHedgeDelayMillis());
+        final long p95 = enabled.getHedgeDelayMillis();
+        assertTrue(String.valueOf(p95), p95 >= 930L && p95 <= 970L);
+    }
+
+    @Test
+    public void hedgeBudgetTest() {
+        final AdaptiveTimeoutPolicy policy = new AdaptiveTimeoutPolicy.Builder().setHedging(true, 0.05d).build();
+
+        // one hedge to start with, then one per 20 requests
+        assertTrue(policy.tryAcquireHedge());
+        assertFalse(policy.tryAcquireHedge());
+
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequestStarted();
+            if (policy.tryAcquireHedge()) {
+                hedges++;
+            }
+        }
+        assertTrue(String.valueOf(hedges), hedges >= 49 && hedges <= 50);
+        assertEquals(hedges + 1, policy.getHedgeCount());
+    }
+}
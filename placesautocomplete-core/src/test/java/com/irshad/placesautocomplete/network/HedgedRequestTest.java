@@ -0,0 +1,125 @@
+package com.irshad.placesautocomplete.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.DirectExecutor;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.async.PlacesFuture;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HedgedRequestTest {
+    private final AdaptiveTimeoutPolicy policy = new AdaptiveTimeoutPolicy.Builder().setHedging(true, 0.05d).build();
+
+    private final List<CancellationSignal> signals = new CopyOnWriteArrayList<>();
+
+    private final List<PlacesCallback<String>> callbacks = new CopyOnWriteArrayList<>();
+
+    private final HedgedRequest.Attempt<String> attempt = new HedgedRequest.Attempt<String>() {
+        @Override
+        public void start(@Nullable final CancellationSignal signal, @NonNull final PlacesCallback<String> callback) {
+            signals.add(signal);
+            callbacks.add(callback);
+        }
+    };
+
+    private final PlacesFuture<String> future = new PlacesFuture<>(null, DirectExecutor.INSTANCE);
+
+    @Test
+    public void hedgeWinsTest() throws Exception {
+        new HedgedRequest<>(policy, null, attempt, future.asCallback()).start(10L);
+        awaitAttempts(2);
+
+        callbacks.get(1).onSuccess("hedge");
+        assertEquals("hedge", future.get(0, TimeUnit.MILLISECONDS));
+        assertTrue(signals.get(0).isCanceled());
+        assertEquals(1, policy.getHedgeWinCount());
+
+        // the canceled attempt reporting its failure changes nothing
+        callbacks.get(0).onFailure(new IOException("canceled"));
+        assertEquals("hedge", future.get());
+    }
+
+    @Test
+    public void failsOnceAllAttemptsFailedTest() throws Exception {
+        new HedgedRequest<>(policy, null, attempt, future.asCallback()).start(10L);
+        awaitAttempts(2);
+
+        callbacks.get(1).onFailure(new IOException("hedge"));
+        assertFalse(future.isDone());
+        callbacks.get(0).onFailure(new IOException("first"));
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("first", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void noHedgeWithoutBudgetTest() throws Exception {
+        assertTrue(policy.tryAcquireHedge());
+
+        new HedgedRequest<>(policy, null, attempt, future.asCallback()).start(10L);
+        Thread.sleep(100L);
+        assertEquals(1, callbacks.size());
+        callbacks.get(0).onSuccess("first");
+        assertEquals("first", future.get());
+    }
+
+    @Test
+    public void hedgeTakesPermitTest() throws Exception {
+        final PlacesRateLimiter limiter = new PlacesRateLimiter(0.001d, 1, PlacesRateLimiter.UNLIMITED);
+
+        new HedgedRequest<>(policy, limiter, null, attempt, future.asCallback()).start(10L);
+        awaitAttempts(2);
+        assertTrue(limiter.tryAcquire() > 0);
+    }
+
+    @Test
+    public void noHedgeWithoutPermitTest() throws Exception {
+        final PlacesRateLimiter limiter = new PlacesRateLimiter(0.001d, 1, PlacesRateLimiter.UNLIMITED);
+        // taken by the first attempt
+        assertEquals(0L, limiter.tryAcquire());
+
+        new HedgedRequest<>(policy, limiter, null, attempt, future.asCallback()).start(10L);
+        Thread.sleep(100L);
+        assertEquals(1, callbacks.size());
+
+        // the budget of the skipped hedge is kept for the next one
+        assertEquals(0L, policy.getHedgeCount());
+        assertTrue(policy.tryAcquireHedge());
+    }
+
+    @Test
+    public void parentCancelsAttemptsTest() throws Exception {
+        final CancellationSignal parent = new CancellationSignal();
+        new HedgedRequest<>(policy, parent, attempt, future.asCallback()).start(10L);
+        awaitAttempts(2);
+
+        parent.cancel();
+        assertTrue(signals.get(0).isCanceled());
+        assertTrue(signals.get(1).isCanceled());
+    }
+
+    private void awaitAttempts(final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (callbacks.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertEquals(count, callbacks.size());
+    }
+}
@@ -0,0 +1,119 @@
+package com.irshad.placesautocomplete.network;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlacesRateLimiterTest {
+
+    @Test
+    public void burstAndRefillTest() {
+        final TestRateLimiter limiter = new TestRateLimiter(2.0d, 3, PlacesRateLimiter.UNLIMITED);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire());
+        }
+        // refilled at one permit per 500ms
+        assertEquals(500L, limiter.tryAcquire());
+
+        limiter.time += 250L;
+        assertEquals(250L, limiter.tryAcquire());
+
+        limiter.time += 250L;
+        assertEquals(0L, limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire() > 0);
+
+        // a quiet period saves up no more than the burst
+        limiter.time += TimeUnit.MINUTES.toMillis(1L);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire());
+        }
+        assertTrue(limiter.tryAcquire() > 0);
+        assertEquals(4L, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void dailyBudgetTest() {
+        final TestRateLimiter limiter = new TestRateLimiter(100.0d, 100, 5L);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, limiter.tryAcquire());
+        }
+        // counted per hour, the requests of the first hour expire once it is 24 hours behind
+        assertEquals(TimeUnit.HOURS.toMillis(25L), limiter.tryAcquire());
+
+        limiter.time += TimeUnit.HOURS.toMillis(23L);
+        assertEquals(TimeUnit.HOURS.toMillis(2L), limiter.tryAcquire());
+
+        limiter.time += TimeUnit.HOURS.toMillis(2L);
+        assertEquals(0L, limiter.tryAcquire());
+    }
+
+    @Test
+    public void dailyBudgetIsRollingTest() {
+        final TestRateLimiter limiter = new TestRateLimiter(100.0d, 100, 5L);
+
+        assertEquals(0L, limiter.tryAcquire());
+        limiter.time += TimeUnit.HOURS.toMillis(23L);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0L, limiter.tryAcquire());
+        }
+
+        // the four recent requests still count after the first one expired
+        limiter.time += TimeUnit.HOURS.toMillis(2L);
+        assertEquals(0L, limiter.tryAcquire());
+        assertEquals(TimeUnit.HOURS.toMillis(23L), limiter.tryAcquire());
+
+        limiter.time += TimeUnit.HOURS.toMillis(23L);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0L, limiter.tryAcquire());
+        }
+        assertTrue(limiter.tryAcquire() > 0);
+    }
+
+    @Test
+    public void backoffTest() {
+        final TestRateLimiter limiter = new TestRateLimiter(100.0d, 100, PlacesRateLimiter.UNLIMITED);
+        assertFalse(limiter.isBackingOff());
+
+        limiter.onOverQueryLimit();
+        assertTrue(limiter.isBackingOff());
+        assertEquals(PlacesRateLimiter.INITIAL_BACKOFF_MILLIS, limiter.tryAcquire());
+
+        limiter.time += PlacesRateLimiter.INITIAL_BACKOFF_MILLIS;
+        assertFalse(limiter.isBackingOff());
+        assertEquals(0L, limiter.tryAcquire());
+
+        // doubles while the api keeps refusing
+        limiter.onOverQueryLimit();
+        assertEquals(PlacesRateLimiter.INITIAL_BACKOFF_MILLIS * 2, limiter.tryAcquire());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onOverQueryLimit();
+        }
+        assertEquals(PlacesRateLimiter.MAX_BACKOFF_MILLIS, limiter.tryAcquire());
+
+        // and starts over after a response within the quota
+        limiter.time += PlacesRateLimiter.MAX_BACKOFF_MILLIS;
+        limiter.onResponse();
+        limiter.onOverQueryLimit();
+        assertEquals(PlacesRateLimiter.INITIAL_BACKOFF_MILLIS, limiter.tryAcquire());
+    }
+
+    private static final class TestRateLimiter extends PlacesRateLimiter {
+        long time = 1000L;
+
+        TestRateLimiter(final double permitsPerSecond, final int burst, final long maxPerDay) {
+            super(permitsPerSecond, burst, maxPerDay);
+        }
+
+        @Override
+        protected long now() {
+            return time;
+        }
+    }
+}
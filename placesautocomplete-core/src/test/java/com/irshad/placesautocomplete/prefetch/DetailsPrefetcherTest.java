@@ -0,0 +1,186 @@
+package com.irshad.placesautocomplete.prefetch;
+
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.PlacesApi;
+import com.irshad.placesautocomplete.PlacesApiBuilder;
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.cache.DetailsCacheKey;
+import com.irshad.placesautocomplete.model.LazyPlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Status;
+import com.irshad.placesautocomplete.network.PlacesHttpClient;
+
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DetailsPrefetcherTest {
+    private static final List<Place> PREDICTIONS = Arrays.asList(place("a"), place("b"), place("c"));
+
+    @Test
+    public void prefetchesTopPredictionsTest() throws Exception {
+        final DetailsClient client = new DetailsClient(2);
+        final PlacesApi api = newApi(client, true);
+
+        new DetailsPrefetcher(2, 0L).onPredictionsShown(api, PREDICTIONS);
+        assertTrue(client.requested.await(5L, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "b"), client.placeIds());
+
+        // a selection of a prefetched place resolves from the cache
+        awaitCached(api, "b");
+        assertEquals("b", api.details("b").result.place_id);
+        assertEquals(2, client.placeIds().size());
+    }
+
+    @Test
+    public void canceledOnInputChangeTest() throws Exception {
+        final DetailsClient client = new DetailsClient(1);
+        final PlacesApi api = newApi(client, true);
+        final DetailsPrefetcher prefetcher = new DetailsPrefetcher(2, 50L);
+
+        // before the dwell time is over
+        prefetcher.onPredictionsShown(api, PREDICTIONS);
+        prefetcher.cancel();
+        Thread.sleep(200L);
+        assertEquals(0, client.placeIds().size());
+
+        // while the first prefetch is in flight
+        client.blocked = new CountDownLatch(1);
+        prefetcher.onPredictionsShown(api, PREDICTIONS);
+        assertTrue(client.requested.await(5L, TimeUnit.SECONDS));
+        prefetcher.cancel();
+        client.blocked.countDown();
+        Thread.sleep(200L);
+        assertEquals(Collections.singletonList("a"), client.placeIds());
+    }
+
+    @Test
+    public void newPredictionsReplacePendingPrefetchTest() throws Exception {
+        final DetailsClient client = new DetailsClient(1);
+        final PlacesApi api = newApi(client, true);
+        final DetailsPrefetcher prefetcher = new DetailsPrefetcher(1, 50L);
+
+        prefetcher.onPredictionsShown(api, PREDICTIONS);
+        prefetcher.onPredictionsShown(api, Collections.singletonList(place("d")));
+        assertTrue(client.requested.await(5L, TimeUnit.SECONDS));
+        Thread.sleep(200L);
+        assertEquals(Collections.singletonList("d"), client.placeIds());
+    }
+
+    @Test
+    public void skippedWithoutDetailsCacheTest() throws Exception {
+        final DetailsClient client = new DetailsClient(1);
+        final PlacesApi api = newApi(client, false);
+
+        new DetailsPrefetcher(2, 0L).onPredictionsShown(api, PREDICTIONS);
+        Thread.sleep(200L);
+        assertEquals(0, client.placeIds().size());
+    }
+
+    private static PlacesApi newApi(final PlacesHttpClient client, final boolean detailsCache) {
+        final PlacesApiBuilder builder = new PlacesApiBuilder()
+                .setApiClient(client)
+                .setGoogleApiKey("key")
+                .setRateLimiter(null);
+        if (!detailsCache) {
+            builder.setDetailsCache(null);
+        }
+        return builder.build();
+    }
+
+    private static void awaitCached(final PlacesApi api, final String placeId) throws InterruptedException {
+        // cached once the client returned it
+        final DetailsCacheKey key = new DetailsCacheKey(placeId, null);
+        for (int i = 0; i < 500 && api.getDetailsCache().get(key) == null; i++) {
+            Thread.sleep(10L);
+        }
+    }
+
+    private static Place place(final String placeId) {
+        return new Place(placeId, placeId, null, null, null);
+    }
+
+    private static final class DetailsClient implements PlacesHttpClient {
+        final CountDownLatch requested;
+
+        final List<String> urls = new ArrayList<>();
+
+        @Nullable
+        volatile CountDownLatch blocked;
+
+        DetailsClient(final int expectedRequests) {
+            this.requested = new CountDownLatch(expectedRequests);
+        }
+
+        synchronized List<String> placeIds() {
+            final List<String> placeIds = new ArrayList<>(urls.size());
+            for (String url : urls) {
+                placeIds.add(placeIdOf(url));
+            }
+            return placeIds;
+        }
+
+        @Override
+        public PlacesDetailsResponse executeDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal) throws InterruptedIOException {
+            synchronized (this) {
+                urls.add(url);
+            }
+            requested.countDown();
+
+            final CountDownLatch latch = blocked;
+            if (latch != null) {
+                try {
+                    latch.await(5L, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+
+            final String placeId = placeIdOf(url);
+            return new PlacesDetailsResponse(Status.OK, null, new PlaceDetails(null, null, null, null, null, null,
+                    null, placeId, null, false, null, null, null, -1, -1.0, null, null, null, null));
+        }
+
+        private static String placeIdOf(final String url) {
+            final int start = url.indexOf("placeid=") + "placeid=".length();
+            final int end = url.indexOf('&', start);
+            return end < 0 ? url.substring(start) : url.substring(start, end);
+        }
+
+        @Override
+        public PlacesAutocompleteResponse executeAutocompleteRequest(final String url, @Nullable final CancellationSignal signal) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public LazyPlacesDetailsResponse executeLazyDetailsRequest(final String url, @Nullable final CancellationSignal signal) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueueAutocompleteRequest(final String url, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesAutocompleteResponse> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueueDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesDetailsResponse> callback) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.irshad.placesautocomplete.refine;
+
+import com.irshad.placesautocomplete.model.DescriptionTerm;
+import com.irshad.placesautocomplete.model.MatchedSubstring;
+import com.irshad.placesautocomplete.model.Place;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PrefixRefinementEngineTest {
+    private final Place centralParkAvenue = new Place("Central Park Avenue, Yonkers, NY, USA", "central", null,
+            Arrays.asList(new DescriptionTerm(0, "Central Park Avenue"), new DescriptionTerm(21, "Yonkers")), null);
+    private final Place parkPlace = new Place("Park Place, Brooklyn, NY, USA", "place",
+            Collections.singletonList(new MatchedSubstring(6, 0)), null, null);
+    private final Place parkAvenue = new Place("Park Avenue, New York, NY, USA", "avenue",
+            Collections.singletonList(new MatchedSubstring(6, 0)), Collections.singletonList(new DescriptionTerm(0, "Park Avenue")), null);
+    private final Place parkAvenueSouth = new Place("Park Avenue South, New York, NY, USA", "south", null, null, null);
+
+    private PrefixRefinementEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new PrefixRefinementEngine();
+        engine.onNetworkResults("Park A", Arrays.asList(centralParkAvenue, parkPlace, parkAvenue, parkAvenueSouth));
+    }
+
+    @Test
+    public void multiWordInputTest() {
+        final List<Place> refined = engine.refine("Park Av");
+
+        // every token must start a word, in order; description prefixes rank first
+        assertEquals(3, refined.size());
+        assertEquals("avenue", refined.get(0).place_id);
+        assertEquals("south", refined.get(1).place_id);
+        assertEquals("central", refined.get(2).place_id);
+        assertEquals(1L, engine.refinedCount());
+    }
+
+    @Test
+    public void matchedSubstringsRecomputedTest() {
+        final List<Place> refined = engine.refine("park av");
+
+        assertEquals(Arrays.asList(new MatchedSubstring(4, 0), new MatchedSubstring(2, 5)), refined.get(0).matched_substrings);
+        assertEquals(Arrays.asList(new MatchedSubstring(4, 8), new MatchedSubstring(2, 13)), refined.get(2).matched_substrings);
+
+        // everything else is kept as returned by the api
+        assertEquals(parkAvenue.description, refined.get(0).description);
+        assertEquals(parkAvenue.terms, refined.get(0).terms);
+    }
+
+    @Test
+    public void normalizedInputTest() {
+        final List<Place> expected = engine.refine("park av");
+
+        assertEquals(expected, engine.refine("PARK   AV"));
+        assertEquals(expected, engine.refine("  Park Av "));
+
+        // the base input is normalized the same way
+        engine.onNetworkResults("  PARK   a", Arrays.asList(centralParkAvenue, parkPlace, parkAvenue, parkAvenueSouth));
+        assertEquals(expected, engine.refine("park av"));
+    }
+
+    @Test
+    public void fallsBackToNetworkTest() {
+        // does not extend the input of the last request
+        assertNull(engine.refine("Park"));
+        assertNull(engine.refine("Main"));
+
+        // fewer than the minimum number of local results
+        assertNull(engine.refine("Park Avenue S"));
+        assertNull(engine.refine("Park Ax"));
+        assertEquals(0L, engine.refinedCount());
+
+        engine.reset();
+        assertNull(engine.refine("Park Av"));
+
+        engine.onNetworkResults("Park A", null);
+        assertNull(engine.refine("Park Av"));
+
+        // a lower minimum accepts a single local result
+        final PrefixRefinementEngine lenient = new PrefixRefinementEngine(1);
+        lenient.onNetworkResults("Park A", Arrays.asList(parkAvenue, parkAvenueSouth));
+        final List<Place> refined = lenient.refine("Park Avenue S");
+        assertEquals(1, refined.size());
+        assertEquals("south", refined.get(0).place_id);
+    }
+}
@@ -0,0 +1,148 @@
+package com.irshad.placesautocomplete.session;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.PlacesApi;
+import com.irshad.placesautocomplete.PlacesApiBuilder;
+import com.irshad.placesautocomplete.async.CancellationSignal;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.model.AutocompleteResultType;
+import com.irshad.placesautocomplete.model.LazyPlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
+import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Status;
+import com.irshad.placesautocomplete.network.PlacesHttpClient;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AutocompleteSessionManagerTest {
+
+    @Test
+    public void requestsShareTheTokenUntilSelectionTest() {
+        final AutocompleteSessionManager manager = new AutocompleteSessionManager();
+        final RecordingListener listener = new RecordingListener();
+        manager.setSessionListener(listener);
+
+        manager.onKeystroke();
+        final String token = manager.acquireToken();
+        manager.onKeystroke();
+        assertEquals(token, manager.acquireToken());
+
+        assertEquals(token, manager.completeSession());
+        assertNull(manager.getCurrentToken());
+        assertEquals(SessionEndReason.SELECTED, listener.reason);
+        assertEquals(2, listener.keystrokeCount);
+        assertEquals(2, listener.requestCount);
+
+        assertNotEquals(token, manager.acquireToken());
+    }
+
+    @Test
+    public void sessionTimesOutTest() throws InterruptedException {
+        final AutocompleteSessionManager manager = new AutocompleteSessionManager(1L);
+        final RecordingListener listener = new RecordingListener();
+        manager.setSessionListener(listener);
+
+        final String token = manager.acquireToken();
+        Thread.sleep(10L);
+
+        assertNull(manager.getCurrentToken());
+        assertNotEquals(token, manager.acquireToken());
+        assertEquals(SessionEndReason.TIMED_OUT, listener.reason);
+        assertEquals(token, listener.token);
+    }
+
+    @Test
+    public void cachedResponsesAreNotSessionRequestsTest() throws IOException {
+        final AutocompleteSessionManager manager = new AutocompleteSessionManager();
+        final RecordingListener listener = new RecordingListener();
+        manager.setSessionListener(listener);
+
+        final List<String> urls = new ArrayList<>();
+        final PlacesApi api = new PlacesApiBuilder()
+                .setApiClient(new AutocompleteOnlyClient(urls))
+                .setGoogleApiKey("key")
+                .setSessionManager(manager)
+                .setRateLimiter(null)
+                .build();
+
+        api.autocomplete("bos", AutocompleteResultType.ADDRESS, null);
+        api.autocomplete("bos", AutocompleteResultType.ADDRESS, null);
+        assertEquals(1, urls.size());
+        assertTrue(urls.get(0).contains("sessiontoken=" + manager.getCurrentToken()));
+
+        manager.completeSession();
+        assertEquals(1, listener.requestCount);
+
+        // served from the cache, no session is started
+        api.autocomplete("bos", AutocompleteResultType.ADDRESS, null);
+        assertNull(manager.getCurrentToken());
+    }
+
+    private static final class AutocompleteOnlyClient implements PlacesHttpClient {
+        private final List<String> urls;
+
+        AutocompleteOnlyClient(final List<String> urls) {
+            this.urls = urls;
+        }
+
+        @Override
+        public PlacesAutocompleteResponse executeAutocompleteRequest(final String url, @Nullable final CancellationSignal signal) {
+            urls.add(url);
+            return new PlacesAutocompleteResponse(Status.OK, null, Collections.<Place>emptyList());
+        }
+
+        @Override
+        public PlacesDetailsResponse executeDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public LazyPlacesDetailsResponse executeLazyDetailsRequest(final String url, @Nullable final CancellationSignal signal) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueueAutocompleteRequest(final String url, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesAutocompleteResponse> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueueDetailsRequest(final String url, @Nullable final Set<PlaceDetailsField> fields, @Nullable final CancellationSignal signal, final PlacesCallback<PlacesDetailsResponse> callback) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class RecordingListener implements SessionListener {
+        String token;
+        SessionEndReason reason;
+        int keystrokeCount;
+        int requestCount;
+
+        @Override
+        public void onSessionStarted(@NonNull final String sessionToken) {
+        }
+
+        @Override
+        public void onSessionEnded(@NonNull final String sessionToken, @NonNull final SessionEndReason reason, final int keystrokeCount, final int requestCount, final long durationMillis) {
+            this.token = sessionToken;
+            this.reason = reason;
+            this.keystrokeCount = keystrokeCount;
+            this.requestCount = requestCount;
+        }
+    }
+}
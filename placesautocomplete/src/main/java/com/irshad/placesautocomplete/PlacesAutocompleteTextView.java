@@ -23,17 +23,30 @@ import android.widget.ListAdapter;
 
 import com.irshad.placesautocomplete.adapter.AbstractPlacesAutocompleteAdapter;
 import com.irshad.placesautocomplete.adapter.DefaultAutocompleteAdapter;
-import com.irshad.placesautocomplete.async.BackgroundExecutorService;
-import com.irshad.placesautocomplete.async.BackgroundJob;
+import com.irshad.placesautocomplete.async.MainThreadExecutor;
+import com.irshad.placesautocomplete.cache.DiskDetailsCache;
+import com.irshad.placesautocomplete.cache.LruResponseCache;
+import com.irshad.placesautocomplete.cache.SizeEstimators;
+import com.irshad.placesautocomplete.cache.TieredResponseCache;
+import com.irshad.placesautocomplete.async.PlacesCallback;
+import com.irshad.placesautocomplete.async.PlacesFuture;
 import com.irshad.placesautocomplete.history.AutocompleteHistoryManager;
+import com.irshad.placesautocomplete.history.BinaryHistoryCodec;
 import com.irshad.placesautocomplete.history.DefaultAutocompleteHistoryManager;
 import com.irshad.placesautocomplete.model.AutocompleteResultType;
 import com.irshad.placesautocomplete.model.Place;
 import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
 import com.irshad.placesautocomplete.network.PlacesHttpClientResolver;
+import com.irshad.placesautocomplete.session.AutocompleteSessionManager;
+import com.irshad.placesautocomplete.util.LocationUtils;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
 
@@ -57,6 +70,18 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
     @Nullable
     private String languageCode;
 
+    // the token of the session closed by the last selection, used by its details request
+    @Nullable
+    private String selectionSessionToken;
+
+    @Nullable
+    private String selectionPlaceId;
+
+    // details requests whose callback has not run yet, canceled when the view is detached
+    @NonNull
+    private final Set<PlacesFuture<PlacesDetailsResponse>> pendingDetails =
+            Collections.newSetFromMap(new ConcurrentHashMap<PlacesFuture<PlacesDetailsResponse>, Boolean>());
+
     private boolean completionEnabled = true;
 
     private boolean clearEnabled;
@@ -122,6 +147,8 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
         String layoutApiKey = typedArray.getString(R.styleable.PlacesAutocompleteTextView_pacv_googleMapsApiKey);
         String layoutAdapterClass = typedArray.getString(R.styleable.PlacesAutocompleteTextView_pacv_adapterClass);
         String layoutHistoryFile = typedArray.getString(R.styleable.PlacesAutocompleteTextView_pacv_historyFile);
+        int historyCapacity = typedArray.getInt(R.styleable.PlacesAutocompleteTextView_pacv_historyCapacity, DefaultAutocompleteHistoryManager.DEFAULT_CAPACITY);
+        String layoutDetailsCacheDir = typedArray.getString(R.styleable.PlacesAutocompleteTextView_pacv_detailsCacheDir);
         languageCode = typedArray.getString(R.styleable.PlacesAutocompleteTextView_pacv_languageCode);
         resultType = AutocompleteResultType.fromEnum(typedArray.getInt(R.styleable.PlacesAutocompleteTextView_pacv_resultType, PlacesApi.DEFAULT_RESULT_TYPE.ordinal()));
         clearEnabled = typedArray.getBoolean(R.styleable.PlacesAutocompleteTextView_pacv_clearEnabled, false);
@@ -130,7 +157,7 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
         final String finalHistoryFileName = historyFileName != null ? historyFileName : layoutHistoryFile;
 
         if (!TextUtils.isEmpty(finalHistoryFileName)) {
-            historyManager = DefaultAutocompleteHistoryManager.fromPath(context, finalHistoryFileName);
+            historyManager = DefaultAutocompleteHistoryManager.fromPath(context, finalHistoryFileName, historyCapacity, new BinaryHistoryCodec());
         }
 
         final String finalApiKey = googleApiKey != null ? googleApiKey : layoutApiKey;
@@ -139,10 +166,18 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
             throw new InflateException("Did not specify googleApiKey!");
         }
 
-        api = new PlacesApiBuilder()
+        final PlacesApiBuilder apiBuilder = new PlacesApiBuilder()
                 .setApiClient(PlacesHttpClientResolver.PLACES_HTTP_CLIENT)
-                .setGoogleApiKey(finalApiKey)
-                .build();
+                .setGoogleApiKey(finalApiKey);
+
+        if (!TextUtils.isEmpty(layoutDetailsCacheDir)) {
+            // keep recently used details in memory, and everything else that fits on disk
+            apiBuilder.setDetailsCache(new TieredResponseCache<>(
+                    new LruResponseCache<>(LruResponseCache.DEFAULT_MAX_BYTES, LruResponseCache.DEFAULT_TTL_MILLIS, SizeEstimators.DETAILS_RESPONSE),
+                    DiskDetailsCache.fromPath(context, layoutDetailsCacheDir)));
+        }
+
+        api = apiBuilder.build();
 
         if (languageCode != null) {
             api.setLanguageCode(languageCode);
@@ -161,6 +196,11 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
             public void onItemClick(final AdapterView<?> parent, final View view, final int position, final long id) {
                 Place place = adapter.getItem(position);
 
+                // the details request of the selected place closes its autocomplete session
+                final AutocompleteSessionManager sessionManager = api.getSessionManager();
+                selectionSessionToken = sessionManager != null ? sessionManager.completeSession() : null;
+                selectionPlaceId = place.place_id;
+
                 if (listener != null) {
                     listener.onPlaceSelected(place);
                 }
@@ -355,7 +395,7 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
      */
     @Nullable
     public Location getCurrentLocation() {
-        return api.getCurrentLocation();
+        return LocationUtils.toLocation(api.getCurrentLocation());
     }
 
     /**
@@ -364,7 +404,8 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
      * @param currentLocation the Location to bias results towards
      */
     public void setCurrentLocation(@Nullable final Location currentLocation) {
-        api.setCurrentLocation(currentLocation);
+        api.setCurrentLocation(LocationUtils.toPlaceLocation(currentLocation));
+        adapter.resetRefinement();
     }
 
     /**
@@ -383,6 +424,7 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
      */
     public void setRadiusMeters(final Long radiusMeters) {
         api.setRadiusMeters(radiusMeters);
+        adapter.resetRefinement();
     }
 
     /**
@@ -391,6 +433,7 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
      */
     public void setLocationBiasEnabled(boolean enabled) {
         api.setLocationBiasEnabled(enabled);
+        adapter.resetRefinement();
     }
 
     /**
@@ -406,18 +449,25 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
      * @param place the place to get details for
      * @param callback a callback that will be invoked on the main thread when the place details
      *                 has been fetched from the Places API
+     * @return the pending request. Canceling it aborts the request and drops the callback, which is
+     * done for all pending requests when the view is detached from its window.
      */
-    public void getDetailsFor(final Place place, final DetailsCallback callback) {
-        BackgroundExecutorService.INSTANCE.enqueue(new BackgroundJob<PlaceDetails>() {
-            @Override
-            public PlaceDetails executeInBackground() throws Exception {
-                return api.details(place.place_id).result;
-            }
+    @NonNull
+    public PlacesFuture<PlacesDetailsResponse> getDetailsFor(final Place place, final DetailsCallback callback) {
+        String sessionToken = null;
+        if (place.place_id != null && place.place_id.equals(selectionPlaceId)) {
+            sessionToken = selectionSessionToken;
+            selectionSessionToken = null;
+            selectionPlaceId = null;
+        }
 
+        final AtomicReference<PlacesFuture<PlacesDetailsResponse>> request = new AtomicReference<>();
+        request.set(api.detailsAsync(place.place_id, null, sessionToken, new PlacesCallback<PlacesDetailsResponse>() {
             @Override
-            public void onSuccess(final PlaceDetails result) {
-                if (result != null) {
-                    callback.onSuccess(result);
+            public void onSuccess(final PlacesDetailsResponse response) {
+                pendingDetails.remove(request.get());
+                if (response.result != null) {
+                    callback.onSuccess(response.result);
                 } else {
                     callback.onFailure(new PlaceDetailsLoadingFailure(place));
                 }
@@ -425,9 +475,26 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
 
             @Override
             public void onFailure(final Throwable error) {
+                pendingDetails.remove(request.get());
                 callback.onFailure(new PlaceDetailsLoadingFailure(place, error));
             }
-        });
+        }, MainThreadExecutor.INSTANCE));
+
+        // the callback is posted to the main thread, so even a cached response is delivered after this
+        pendingDetails.add(request.get());
+        return request.get();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        // nothing is left to show the results of the lookups in flight
+        for (PlacesFuture<PlacesDetailsResponse> request : pendingDetails) {
+            request.cancel(true);
+        }
+        pendingDetails.clear();
+        adapter.cancelPendingRequests();
     }
 
     /**
@@ -445,6 +512,11 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
      * @param api the API to use for autocompletion and place details requests
      */
     public void setApi(@NonNull PlacesApi api) {
+        final AutocompleteSessionManager sessionManager = this.api.getSessionManager();
+        if (sessionManager != null && sessionManager != api.getSessionManager()) {
+            sessionManager.cancelSession();
+        }
+
         this.api = api;
         this.api.setLanguageCode(this.languageCode);
         adapter.setApi(api);
@@ -506,6 +578,7 @@ public class PlacesAutocompleteTextView extends AppCompatAutoCompleteTextView {
     public void setLanguageCode(@Nullable String languageCode) {
         this.languageCode = languageCode;
         api.setLanguageCode(this.languageCode);
+        adapter.resetRefinement();
     }
 
     // Copied from TextInputEditText to ensure extract mode hint works
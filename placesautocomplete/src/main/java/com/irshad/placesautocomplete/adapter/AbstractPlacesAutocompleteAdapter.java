@@ -12,6 +12,8 @@ import com.irshad.placesautocomplete.PlacesApi;
 import com.irshad.placesautocomplete.history.AutocompleteHistoryManager;
 import com.irshad.placesautocomplete.model.AutocompleteResultType;
 import com.irshad.placesautocomplete.model.Place;
+import com.irshad.placesautocomplete.prefetch.DetailsPrefetcher;
+import com.irshad.placesautocomplete.refine.PrefixRefinementEngine;
 import com.irshad.placesautocomplete.util.ArrayAdapterDelegate;
 
 import java.util.Collection;
@@ -115,6 +117,62 @@ public abstract class AbstractPlacesAutocompleteAdapter extends ArrayAdapter<Pla
         mFilter.setResultType(resultType);
     }
 
+    /**
+     * @param refinementEngine the engine used to narrow the previous results locally as the user
+     *                         keeps typing, or null to request new results for every keystroke
+     */
+    public void setRefinementEngine(@Nullable final PrefixRefinementEngine refinementEngine) {
+        mFilter.setRefinementEngine(refinementEngine);
+    }
+
+    /**
+     * @param debouncePolicy the policy deciding how long to wait for further keystrokes before
+     *                       requesting results, or null to request results for every keystroke
+     */
+    public void setDebouncePolicy(@Nullable final DebouncePolicy debouncePolicy) {
+        mFilter.setDebouncePolicy(debouncePolicy);
+    }
+
+    /**
+     * @param detailsPrefetcher fetches the details of the top predictions while the user looks at
+     *                          them, so a selection resolves from memory. Null by default. Adds to
+     *                          the billed requests, see {@link DetailsPrefetcher}.
+     */
+    public void setDetailsPrefetcher(@Nullable final DetailsPrefetcher detailsPrefetcher) {
+        mFilter.setDetailsPrefetcher(detailsPrefetcher);
+    }
+
+    /**
+     * @param maxHistoryResults the maximum number of past selections shown, for history managers
+     *                          keeping a prefix index of their history
+     */
+    public void setMaxHistoryResults(final int maxHistoryResults) {
+        mFilter.setMaxHistoryResults(maxHistoryResults);
+    }
+
+    /**
+     * @param historyLoadTimeoutMillis how long filtering waits for a lazily read history before
+     *                                 going on without it
+     */
+    public void setHistoryLoadTimeoutMillis(final long historyLoadTimeoutMillis) {
+        mFilter.setHistoryLoadTimeoutMillis(historyLoadTimeoutMillis);
+    }
+
+    /**
+     * Aborts the autocomplete request in flight and the details prefetches
+     */
+    public void cancelPendingRequests() {
+        mFilter.cancelPendingRequests();
+    }
+
+    /**
+     * Drops the results kept for local refinement. Must be called when the location bias or
+     * language of the api changes
+     */
+    public void resetRefinement() {
+        mFilter.resetRefinement();
+    }
+
     @NonNull
     public PlacesApi getApi() {
         return mFilter.getApi();
@@ -129,4 +187,27 @@ public abstract class AbstractPlacesAutocompleteAdapter extends ArrayAdapter<Pla
     public AutocompleteResultType getResultType() {
         return mFilter.getResultType();
     }
+
+    @Nullable
+    public PrefixRefinementEngine getRefinementEngine() {
+        return mFilter.getRefinementEngine();
+    }
+
+    @Nullable
+    public DebouncePolicy getDebouncePolicy() {
+        return mFilter.getDebouncePolicy();
+    }
+
+    @Nullable
+    public DetailsPrefetcher getDetailsPrefetcher() {
+        return mFilter.getDetailsPrefetcher();
+    }
+
+    public int getMaxHistoryResults() {
+        return mFilter.getMaxHistoryResults();
+    }
+
+    public long getHistoryLoadTimeoutMillis() {
+        return mFilter.getHistoryLoadTimeoutMillis();
+    }
 }
@@ -0,0 +1,71 @@
+package com.irshad.placesautocomplete.adapter;
+
+/**
+ * A {@link DebouncePolicy} that adapts its window to the typing cadence of the user. It keeps an
+ * exponentially weighted moving average of the time between keystrokes and waits slightly longer
+ * than that, so a request is only sent once the user pauses. Fast typists get a short window.
+ *
+ * The first keystroke after a pause is sent without waiting, as there is no cadence to wait for
+ * yet. Typists slower than {@code maxDelayMillis} get the short window too, since waiting up to
+ * {@code maxDelayMillis} would delay every request without catching their next keystroke.
+ */
+public class AdaptiveDebouncePolicy implements DebouncePolicy {
+
+    public static final long DEFAULT_MIN_DELAY_MILLIS = 50L;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 300L;
+
+    // pauses longer than this are not part of the typing cadence
+    private static final long MAX_TRACKED_INTERVAL_MILLIS = 1000L;
+    private static final double SMOOTHING = 0.3d;
+    private static final double INTERVAL_MULTIPLIER = 1.25d;
+
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+
+    private long lastKeystrokeMillis = -1L;
+    private double averageIntervalMillis = -1d;
+
+    // whether the last keystroke was the first one after a pause
+    private boolean startedBurst = true;
+
+    public AdaptiveDebouncePolicy() {
+        this(DEFAULT_MIN_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * @param minDelayMillis the shortest window, used for very fast typists
+     * @param maxDelayMillis the longest window
+     */
+    public AdaptiveDebouncePolicy(final long minDelayMillis, final long maxDelayMillis) {
+        if (minDelayMillis < 0 || maxDelayMillis < minDelayMillis) {
+            throw new IllegalArgumentException("Require 0 <= minDelayMillis <= maxDelayMillis");
+        }
+        this.minDelayMillis = minDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public synchronized void onKeystroke(final long uptimeMillis) {
+        final long interval = lastKeystrokeMillis >= 0 ? uptimeMillis - lastKeystrokeMillis : -1L;
+        startedBurst = interval < 0 || interval > MAX_TRACKED_INTERVAL_MILLIS;
+        if (!startedBurst) {
+            averageIntervalMillis = averageIntervalMillis < 0
+                    ? interval
+                    : SMOOTHING * interval + (1d - SMOOTHING) * averageIntervalMillis;
+        }
+        lastKeystrokeMillis = uptimeMillis;
+    }
+
+    @Override
+    public synchronized long getDelayMillis() {
+        if (startedBurst) {
+            return 0L;
+        }
+
+        final long delay = Math.round(averageIntervalMillis * INTERVAL_MULTIPLIER);
+        if (delay > maxDelayMillis) {
+            return minDelayMillis;
+        }
+        return Math.max(minDelayMillis, delay);
+    }
+}
@@ -0,0 +1,21 @@
+package com.irshad.placesautocomplete.adapter;
+
+/**
+ * Decides how long the {@link PlacesApiFilter} waits after a keystroke before requesting results
+ * from the Places API. If another keystroke arrives within that window, the pending request is
+ * dropped and only the latest input is sent.
+ */
+public interface DebouncePolicy {
+
+    /**
+     * Called on the main thread for every new constraint handed to the filter
+     * @param uptimeMillis the time of the keystroke
+     */
+    void onKeystroke(long uptimeMillis);
+
+    /**
+     * Called on the filtering thread before a network request
+     * @return the number of milliseconds to wait for further keystrokes, 0 for no wait
+     */
+    long getDelayMillis();
+}
@@ -0,0 +1,28 @@
+package com.irshad.placesautocomplete.adapter;
+
+/**
+ * A {@link DebouncePolicy} that always waits for the same window
+ */
+public class FixedDebouncePolicy implements DebouncePolicy {
+
+    private final long delayMillis;
+
+    /**
+     * @param delayMillis the time to wait for further keystrokes before issuing a request
+     */
+    public FixedDebouncePolicy(final long delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("delayMillis cannot be negative");
+        }
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public void onKeystroke(final long uptimeMillis) {
+    }
+
+    @Override
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+}
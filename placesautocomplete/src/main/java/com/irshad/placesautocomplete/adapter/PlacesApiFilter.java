@@ -1,5 +1,6 @@
 package com.irshad.placesautocomplete.adapter;
 
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
@@ -9,20 +10,39 @@ import android.widget.Filter;
 import com.irshad.placesautocomplete.Constants;
 import com.irshad.placesautocomplete.PlacesApi;
 import com.irshad.placesautocomplete.PlacesAutocompleteTextView;
+import com.irshad.placesautocomplete.async.CanceledException;
+import com.irshad.placesautocomplete.async.CancellationSignal;
 import com.irshad.placesautocomplete.history.AutocompleteHistoryManager;
+import com.irshad.placesautocomplete.history.HistoryPrefixIndex;
+import com.irshad.placesautocomplete.history.HistoryRanking;
+import com.irshad.placesautocomplete.history.LazyHistory;
+import com.irshad.placesautocomplete.history.PrefixIndexedHistory;
+import com.irshad.placesautocomplete.metrics.CacheOutcome;
+import com.irshad.placesautocomplete.metrics.PlacesMetricsListener;
+import com.irshad.placesautocomplete.metrics.Stage;
 import com.irshad.placesautocomplete.model.AutocompleteResultType;
 import com.irshad.placesautocomplete.model.Place;
 import com.irshad.placesautocomplete.model.PlacesAutocompleteResponse;
+import com.irshad.placesautocomplete.model.RateLimitedException;
+import com.irshad.placesautocomplete.prefetch.DetailsPrefetcher;
+import com.irshad.placesautocomplete.refine.PrefixRefinementEngine;
+import com.irshad.placesautocomplete.session.AutocompleteSessionManager;
 import com.irshad.placesautocomplete.util.ArrayAdapterDelegate;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PlacesApiFilter extends Filter {
+    public static final int DEFAULT_MAX_HISTORY_RESULTS = 5;
+
+    public static final long DEFAULT_HISTORY_LOAD_TIMEOUT_MILLIS = 150L;
+
     @NonNull
     private PlacesApi api;
 
@@ -32,9 +52,30 @@ public class PlacesApiFilter extends Filter {
     @Nullable
     private AutocompleteResultType resultType;
 
+    @Nullable
+    private PrefixRefinementEngine refinementEngine = new PrefixRefinementEngine();
+
+    @Nullable
+    private DebouncePolicy debouncePolicy = new AdaptiveDebouncePolicy();
+
+    @Nullable
+    private DetailsPrefetcher detailsPrefetcher;
+
+    private int maxHistoryResults = DEFAULT_MAX_HISTORY_RESULTS;
+
+    private volatile long historyLoadTimeoutMillis = DEFAULT_HISTORY_LOAD_TIMEOUT_MILLIS;
+
     @NonNull
     private final ArrayAdapterDelegate<Place> adapterDelegate;
 
+    // incremented for every new constraint, so a filtering pass can tell it has been superseded
+    private final AtomicInteger generation = new AtomicInteger();
+
+    @Nullable
+    private volatile CancellationSignal inFlightSignal;
+
+    private volatile int publishedCount;
+
     public PlacesApiFilter(@NonNull final PlacesApi api,
                            @Nullable final AutocompleteResultType resultType,
                            @Nullable final AutocompleteHistoryManager historyManager,
@@ -45,8 +86,36 @@ public class PlacesApiFilter extends Filter {
         this.adapterDelegate = adapterDelegate;
     }
 
+    @Override
+    public void filter(final CharSequence constraint, final FilterListener listener) {
+        generation.incrementAndGet();
+
+        final AutocompleteSessionManager sessionManager = api.getSessionManager();
+        if (sessionManager != null && !TextUtils.isEmpty(constraint)
+                && !constraint.toString().startsWith(Constants.MAGIC_HISTORY_VALUE_PRE)) {
+            sessionManager.onKeystroke();
+        }
+
+        final DebouncePolicy policy = debouncePolicy;
+        if (policy != null) {
+            policy.onKeystroke(SystemClock.uptimeMillis());
+        }
+
+        // the first keystroke starts reading the history, in parallel with the request
+        final AutocompleteHistoryManager manager = historyManager;
+        if (manager instanceof LazyHistory) {
+            ((LazyHistory) manager).load();
+        }
+
+        // the request for the previous constraint is no longer needed, nor the details of its predictions
+        cancelPendingRequests();
+
+        super.filter(constraint, listener);
+    }
+
     @Override
     protected FilterResults performFiltering(final CharSequence constraint) {
+        final int filterGeneration = generation.get();
         final FilterResults filterResults = new FilterResults();
 
         String stringConstraint = constraint != null ? constraint.toString() : "";
@@ -65,64 +134,208 @@ public class PlacesApiFilter extends Filter {
             filterResults.values = new ArrayList<Place>(0);
             filterResults.count = 0;
         } else if ((TextUtils.isEmpty(finalStringConstraint) || history) && historyManager != null) {
-            final List<Place> pastSelections = historyManager.getPastSelections();
+            awaitHistoryLoad(historyManager);
 
-            sortHistory(finalStringConstraint, pastSelections, false);
+            final HistoryPrefixIndex index = prefixIndex(historyManager);
+            final long start = System.nanoTime();
+            final List<Place> pastSelections;
+            if (index != null) {
+                pastSelections = HistoryRanking.rankHistory(finalStringConstraint, index, maxHistoryResults);
+            } else {
+                pastSelections = historyManager.getPastSelections();
+                HistoryRanking.sortHistory(finalStringConstraint, pastSelections, false);
+            }
+            reportStage(Stage.HISTORY_MERGE, start);
 
             filterResults.values = pastSelections;
             filterResults.count = pastSelections.size();
         } else {
-            try {
-                final PlacesAutocompleteResponse response = api.autocomplete(finalStringConstraint, resultType);
-                filterResults.values = response.predictions;
-            } catch (final IOException e) {
-                Log.e(Constants.LOG_TAG, "Unable to fetch autocomplete results from the api", e);
-                filterResults.values = new ArrayList<Place>(0);
-                filterResults.count = 0;
+            final List<Place> predictions = fetchPredictions(finalStringConstraint, filterGeneration);
+
+            if (predictions == null) {
+                return supersededResults();
             }
 
-            final List<Place> pastSelections = historyManager != null ? historyManager.getPastSelections() : null;
-            if (pastSelections != null && !pastSelections.isEmpty()) {
-                sortHistory(finalStringConstraint, pastSelections, true);
-
-                for (final Place pastSelection : pastSelections) {
-                    if (pastSelection.description.startsWith(finalStringConstraint)) {
-                        // remove the item if it was already returned from the api
-                        ((List<Place>) filterResults.values).remove(pastSelection);
-                        // insert into top
-                        ((List<Place>)filterResults.values).add(0, pastSelection);
-                    }
+            final AutocompleteHistoryManager manager = historyManager;
+            if (manager != null) {
+                awaitHistoryLoad(manager);
+
+                final HistoryPrefixIndex index = prefixIndex(manager);
+                final long start = System.nanoTime();
+                if (index != null) {
+                    HistoryRanking.mergeHistory(finalStringConstraint, predictions, index, maxHistoryResults);
+                } else {
+                    HistoryRanking.mergeHistory(finalStringConstraint, predictions, manager.getPastSelections());
                 }
+                reportStage(Stage.HISTORY_MERGE, start);
             }
-            filterResults.count = ((List<Place>) filterResults.values).size();
+
+            filterResults.values = predictions;
+            filterResults.count = predictions.size();
         }
 
         return filterResults;
     }
 
-    private static void sortHistory(final String finalStringConstraint, final List<Place> pastSelections, final boolean asc) {
-        if (!pastSelections.isEmpty()) {
-            Collections.sort(pastSelections, new Comparator<Place>() {
-                @Override
-                public int compare(final Place lhs, final Place rhs) {
-                    final boolean lhsStarts = lhs.description.startsWith(finalStringConstraint);
-                    final boolean rhsStarts = rhs.description.startsWith(finalStringConstraint);
-                    return lhsStarts && rhsStarts ? 0 : lhsStarts ? (asc ? 1 : -1) : (asc ? -1 : 1);
-                }
-            });
+    /**
+     * Waits for a lazily read history, so the first results include it, but no longer than the
+     * history load timeout. If the history is not read by then, the results go without it.
+     */
+    private void awaitHistoryLoad(@NonNull final AutocompleteHistoryManager manager) {
+        if (!(manager instanceof LazyHistory)) {
+            return;
+        }
+
+        try {
+            ((LazyHistory) manager).load().get(historyLoadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final TimeoutException | ExecutionException | CancellationException e) {
+            if (PlacesAutocompleteTextView.DEBUG) {
+                Log.w(Constants.LOG_TAG, "Filtering without the history, it is not loaded", e);
+            }
+        }
+    }
+
+    /**
+     * @return the index of the history, or null if the manager does not keep one and the history
+     * has to be scanned
+     */
+    @Nullable
+    private static HistoryPrefixIndex prefixIndex(@NonNull final AutocompleteHistoryManager manager) {
+        return manager instanceof PrefixIndexedHistory ? ((PrefixIndexedHistory) manager).getPrefixIndex() : null;
+    }
+
+    /**
+     * Narrows the previous results locally if possible, otherwise requests new results from the api
+     * once the debounce window has passed without a newer constraint
+     * @return a mutable list of predictions for the constraint, or null if the constraint was
+     * superseded before the results were available
+     */
+    @Nullable
+    private List<Place> fetchPredictions(@NonNull final String constraint, final int filterGeneration) {
+        final PrefixRefinementEngine engine = refinementEngine;
+        final List<Place> refined = engine != null ? engine.refine(constraint) : null;
+
+        if (refined != null) {
+            final PlacesMetricsListener listener = api.getMetricsListener();
+            if (listener != null) {
+                listener.onCacheLookup(CacheOutcome.REFINED);
+            }
+            return refined;
+        }
+
+        if (!awaitDebounce(filterGeneration)) {
+            return null;
+        }
+
+        final CancellationSignal signal = new CancellationSignal();
+        inFlightSignal = signal;
+
+        // checked after publishing the signal, so a newer constraint either sees it or is seen here
+        if (filterGeneration != generation.get()) {
+            return null;
+        }
+
+        try {
+            final PlacesAutocompleteResponse response = api.autocomplete(constraint, resultType, signal);
+            if (engine != null) {
+                engine.onNetworkResults(constraint, response.predictions);
+            }
+            // copy, the response may be shared with the autocomplete cache
+            return response.predictions != null
+                    ? new ArrayList<>(response.predictions)
+                    : new ArrayList<Place>(0);
+        } catch (final CanceledException e) {
+            return null;
+        } catch (final RateLimitedException e) {
+            // expected while typing fast or backing off, the cache, refinement and history still serve
+            if (PlacesAutocompleteTextView.DEBUG) {
+                Log.w(Constants.LOG_TAG, "Autocomplete not sent, retry in " + e.getRetryAfterMillis() + "ms", e);
+            }
+            return new ArrayList<>(0);
+        } catch (final IOException e) {
+            Log.e(Constants.LOG_TAG, "Unable to fetch autocomplete results from the api", e);
+            return new ArrayList<>(0);
+        } finally {
+            if (inFlightSignal == signal) {
+                inFlightSignal = null;
+            }
         }
     }
 
+    /**
+     * Waits for the debounce window
+     * @return true if no newer constraint arrived in the meantime
+     */
+    private boolean awaitDebounce(final int filterGeneration) {
+        final DebouncePolicy policy = debouncePolicy;
+        final long delayMillis = policy != null ? policy.getDelayMillis() : 0L;
+
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        return filterGeneration == generation.get();
+    }
+
+    /**
+     * Results for a constraint that was superseded by a newer one. They leave the adapter untouched
+     * and report the current item count, so the dropdown does not flicker until the newer results
+     * are published.
+     */
+    @NonNull
+    private FilterResults supersededResults() {
+        final FilterResults filterResults = new FilterResults();
+        filterResults.values = null;
+        filterResults.count = publishedCount;
+        return filterResults;
+    }
+
     @Override
     protected void publishResults(final CharSequence constraint, final FilterResults results) {
+        if (results.values == null) {
+            // superseded, newer results are on their way
+            return;
+        }
+
+        // performFiltering only ever sets a List<Place>
+        @SuppressWarnings("unchecked")
+        final List<Place> places = (List<Place>) results.values;
+
+        final long start = System.nanoTime();
+        publishedCount = results.count;
         adapterDelegate.setNotifyOnChange(false);
         adapterDelegate.clear();
-        adapterDelegate.addAll((Collection<Place>) results.values);
+        adapterDelegate.addAll(places);
         adapterDelegate.notifyDataSetChanged();
+        reportStage(Stage.PUBLISH_RESULTS, start);
+
+        final DetailsPrefetcher prefetcher = detailsPrefetcher;
+        if (prefetcher != null && !places.isEmpty()) {
+            prefetcher.onPredictionsShown(api, places);
+        }
+    }
+
+    private void reportStage(@NonNull final Stage stage, final long startNanos) {
+        final PlacesMetricsListener listener = api.getMetricsListener();
+        if (listener != null) {
+            listener.onStageCompleted(stage, System.nanoTime() - startNanos);
+        }
     }
 
     public void setApi(@NonNull final PlacesApi api) {
         this.api = api;
+        resetRefinement();
+
+        if (detailsPrefetcher != null) {
+            detailsPrefetcher.cancel();
+        }
     }
 
     public void setHistoryManager(@Nullable final AutocompleteHistoryManager historyManager) {
@@ -131,6 +344,85 @@ public class PlacesApiFilter extends Filter {
 
     public void setResultType(@Nullable final AutocompleteResultType resultType) {
         this.resultType = resultType;
+        resetRefinement();
+    }
+
+    /**
+     * @param refinementEngine the engine used to narrow the previous results locally as the user
+     *                         keeps typing, or null to always request new results from the api
+     */
+    public void setRefinementEngine(@Nullable final PrefixRefinementEngine refinementEngine) {
+        this.refinementEngine = refinementEngine;
+    }
+
+    /**
+     * @param debouncePolicy the policy deciding how long to wait for further keystrokes before
+     *                       requesting results, or null to request results immediately
+     */
+    public void setDebouncePolicy(@Nullable final DebouncePolicy debouncePolicy) {
+        this.debouncePolicy = debouncePolicy;
+    }
+
+    /**
+     * @param detailsPrefetcher fetches the details of the top predictions while the user looks at
+     *                          them, or null to only fetch details on selection. Null by default,
+     *                          as prefetches are billed outside of the autocomplete session, see
+     *                          {@link DetailsPrefetcher}.
+     */
+    public void setDetailsPrefetcher(@Nullable final DetailsPrefetcher detailsPrefetcher) {
+        if (this.detailsPrefetcher != null) {
+            this.detailsPrefetcher.cancel();
+        }
+        this.detailsPrefetcher = detailsPrefetcher;
+    }
+
+    /**
+     * @param maxHistoryResults the maximum number of past selections shown, for history managers
+     *                          implementing {@link PrefixIndexedHistory}. Others show their whole
+     *                          history.
+     */
+    public void setMaxHistoryResults(final int maxHistoryResults) {
+        if (maxHistoryResults < 0) {
+            throw new IllegalArgumentException("maxHistoryResults must not be negative");
+        }
+        this.maxHistoryResults = maxHistoryResults;
+    }
+
+    /**
+     * @param historyLoadTimeoutMillis how long filtering waits for a lazily read history before
+     *                                 going on without it
+     */
+    public void setHistoryLoadTimeoutMillis(final long historyLoadTimeoutMillis) {
+        if (historyLoadTimeoutMillis < 0) {
+            throw new IllegalArgumentException("historyLoadTimeoutMillis must not be negative");
+        }
+        this.historyLoadTimeoutMillis = historyLoadTimeoutMillis;
+    }
+
+    /**
+     * Aborts the request in flight and the prefetches of its predictions, e.g. when the view is
+     * detached
+     */
+    public void cancelPendingRequests() {
+        final CancellationSignal signal = inFlightSignal;
+        if (signal != null) {
+            signal.cancel();
+        }
+
+        final DetailsPrefetcher prefetcher = detailsPrefetcher;
+        if (prefetcher != null) {
+            prefetcher.cancel();
+        }
+    }
+
+    /**
+     * Drops the results kept for local refinement, e.g. after the location bias changed
+     */
+    public void resetRefinement() {
+        final PrefixRefinementEngine engine = refinementEngine;
+        if (engine != null) {
+            engine.reset();
+        }
     }
 
     @NonNull
@@ -147,4 +439,27 @@ public class PlacesApiFilter extends Filter {
     public AutocompleteResultType getResultType() {
         return resultType;
     }
+
+    @Nullable
+    public PrefixRefinementEngine getRefinementEngine() {
+        return refinementEngine;
+    }
+
+    @Nullable
+    public DebouncePolicy getDebouncePolicy() {
+        return debouncePolicy;
+    }
+
+    @Nullable
+    public DetailsPrefetcher getDetailsPrefetcher() {
+        return detailsPrefetcher;
+    }
+
+    public int getMaxHistoryResults() {
+        return maxHistoryResults;
+    }
+
+    public long getHistoryLoadTimeoutMillis() {
+        return historyLoadTimeoutMillis;
+    }
 }
@@ -4,56 +4,91 @@ import android.os.Handler;
 import android.os.Looper;
 import android.support.annotation.NonNull;
 
-import com.irshad.placesautocomplete.Constants;
-
-import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Runs history and disk cache jobs on the {@link LaneExecutor.Lane#HISTORY_IO} lane of the default
+ * {@link LaneExecutor}, one after the other, and delivers their results on the main thread. A job
+ * rejected because the lane is full fails with a {@link RejectedExecutionException}. An executor
+ * set with {@code PlacesApiBuilder.setExecutor} is not used here: jobs writing the same file must
+ * run one after the other, whichever api they were made for.
+ *
+ * Every job gets a {@link BackgroundJobHandle}, for dropping the work and its result when whoever
+ * waits on it has gone away.
+ */
 public enum BackgroundExecutorService {
     INSTANCE;
 
-    /*
-     * Max single thread ExecutorService that will spin down thread after use
-     */
-    private final Executor executor;
-    {
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
-                5L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(),
-                new ThreadFactory() {
-                    @Override
-                    public Thread newThread(@NonNull final Runnable r) {
-                        return new Thread(r, Constants.LOG_TAG + "Thread");
-                    }
-                });
-        executor.allowCoreThreadTimeOut(true);
-        this.executor = executor;
-    }
+    private final LaneExecutor executor = LaneExecutor.getDefault();
 
     private final Handler mHandler = new Handler(Looper.getMainLooper());
 
-    public <R> void enqueue(final BackgroundJob<R> job) {
-        executor.execute(new Runnable() {
+    @NonNull
+    public <R> BackgroundJobHandle enqueue(@NonNull final BackgroundJob<R> job) {
+        final BackgroundJobHandle handle = new BackgroundJobHandle();
+        try {
+            executor.execute(LaneExecutor.Lane.HISTORY_IO, wrap(job, handle));
+        } catch (final RejectedExecutionException e) {
+            postFailure(job, handle, e);
+        }
+        return handle;
+    }
+
+    /**
+     * Runs the job before any job already waiting, for work the user is waiting on such as loading
+     * the history, which should not queue behind disk cache writes
+     */
+    @NonNull
+    public <R> BackgroundJobHandle enqueueFirst(@NonNull final BackgroundJob<R> job) {
+        final BackgroundJobHandle handle = new BackgroundJobHandle();
+        try {
+            executor.executeFirst(LaneExecutor.Lane.HISTORY_IO, wrap(job, handle));
+        } catch (final RejectedExecutionException e) {
+            postFailure(job, handle, e);
+        }
+        return handle;
+    }
+
+    private <R> Runnable wrap(final BackgroundJob<R> job, final BackgroundJobHandle handle) {
+        return new Runnable() {
             @Override
             public void run() {
+                if (handle.isCanceled()) {
+                    return;
+                }
+
+                final R result;
                 try {
-                    final R result = job.executeInBackground();
-                    mHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            job.onSuccess(result);
-                        }
-                    });
+                    result = job.executeInBackground();
                 } catch (final Exception e) {
-                    mHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            job.onFailure(e);
+                    postFailure(job, handle, e);
+                    return;
+                }
+
+                if (handle.isCanceled()) {
+                    return;
+                }
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!handle.isCanceled()) {
+                            job.onSuccess(result);
                         }
-                    });
+                    }
+                });
+            }
+        };
+    }
+
+    private <R> void postFailure(final BackgroundJob<R> job, final BackgroundJobHandle handle, final Exception e) {
+        if (handle.isCanceled()) {
+            return;
+        }
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!handle.isCanceled()) {
+                    job.onFailure(e);
                 }
             }
         });
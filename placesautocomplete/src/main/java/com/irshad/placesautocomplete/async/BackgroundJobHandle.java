@@ -0,0 +1,27 @@
+package com.irshad.placesautocomplete.async;
+
+/**
+ * A handle on a {@link BackgroundJob} enqueued on the {@link BackgroundExecutorService}. Canceling
+ * it skips the job if it has not started yet, and otherwise drops its result: neither
+ * {@link BackgroundJob#onSuccess(Object)} nor {@link BackgroundJob#onFailure(Throwable)} is called
+ * once the handle is canceled, even when the result was already posted to the main thread.
+ */
+public final class BackgroundJobHandle {
+
+    private volatile boolean canceled;
+
+    /**
+     * For running {@link BackgroundJob}s elsewhere than on the {@link BackgroundExecutorService},
+     * which then has to check {@link #isCanceled()} itself
+     */
+    public BackgroundJobHandle() {
+    }
+
+    public void cancel() {
+        canceled = true;
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+}
@@ -0,0 +1,21 @@
+package com.irshad.placesautocomplete.async;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An Executor that posts tasks to the main thread
+ */
+public enum MainThreadExecutor implements Executor {
+    INSTANCE;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void execute(@NonNull final Runnable command) {
+        mHandler.post(command);
+    }
+}
@@ -0,0 +1,486 @@
+package com.irshad.placesautocomplete.cache;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.AtomicFile;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.irshad.placesautocomplete.Constants;
+import com.irshad.placesautocomplete.PlacesAutocompleteTextView;
+import com.irshad.placesautocomplete.async.BackgroundExecutorService;
+import com.irshad.placesautocomplete.async.BackgroundJob;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A disk-backed {@link ResponseCache} for place details that survives app restarts. Every response
+ * is stored in its own file using the binary {@link PlaceDetailsCodec} format, written through an
+ * {@link AtomicFile} on the {@link BackgroundExecutorService}, like the autocomplete history.
+ *
+ * The cache is bounded by the total size of its files, evicting the least recently used entries,
+ * and entries older than the ttl are dropped. The index of the files on disk is kept in memory and
+ * loaded in the background, lookups made before it is loaded miss. A lookup of a stored entry
+ * reads its file, which is a few kilobytes, so it should not be made on the main thread.
+ *
+ * Usually placed behind an in-memory cache with a {@link TieredResponseCache}, whose second tier
+ * {@link com.irshad.placesautocomplete.PlacesApi#detailsAsync} looks up in the background.
+ */
+public class DiskDetailsCache implements ResponseCache<DetailsCacheKey, PlacesDetailsResponse> {
+    public static final long DEFAULT_MAX_BYTES = 2L * 1024L * 1024L;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String BASE_AUTOCOMPLETE_CACHE_DIR = "autocomplete";
+    private static final String RECORD_SUFFIX = ".details";
+    private static final int RECORD_MAGIC = 0x50414344;
+
+    public static DiskDetailsCache fromPath(@NonNull Context context, @NonNull String cacheDirName) {
+        return fromPath(context, cacheDirName, DEFAULT_MAX_BYTES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param cacheDirName the directory holding the cache, next to the history files
+     * @param maxBytes the maximum total size of the cached records on disk
+     * @param ttlMillis how long a record is served after it was written
+     */
+    public static DiskDetailsCache fromPath(@NonNull Context context, @NonNull String cacheDirName, long maxBytes, long ttlMillis) {
+        if (TextUtils.isEmpty(cacheDirName)) {
+            throw new IllegalArgumentException("Cannot have an empty cache directory name");
+        }
+
+        File cacheDir = new File(new File(context.getCacheDir(), BASE_AUTOCOMPLETE_CACHE_DIR), cacheDirName);
+
+        return new DiskDetailsCache(cacheDir, maxBytes, ttlMillis);
+    }
+
+    @NonNull
+    private final File directory;
+
+    private final long maxBytes;
+
+    private final long ttlMillis;
+
+    // access ordered, the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    // responses that were put but whose file has not been written yet
+    private final Map<String, PlacesDetailsResponse> pendingWrites = new HashMap<>();
+
+    private long sizeBytes;
+
+    DiskDetailsCache(@NonNull final File directory, final long maxBytes, final long ttlMillis) {
+        if (maxBytes <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxBytes and ttlMillis must be positive");
+        }
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+
+        loadIndex();
+    }
+
+    @Nullable
+    @Override
+    public PlacesDetailsResponse get(@NonNull final DetailsCacheKey key) {
+        final String fileName = fileNameFor(key);
+
+        final Entry entry;
+        synchronized (this) {
+            entry = index.get(fileName);
+            if (entry == null) {
+                return null;
+            }
+
+            if (now() - entry.writtenAtMillis > ttlMillis) {
+                remove(fileName);
+                return null;
+            }
+
+            final PlacesDetailsResponse pending = pendingWrites.get(fileName);
+            if (pending != null) {
+                return pending;
+            }
+        }
+
+        // outside the lock, so puts and lookups of other entries do not wait on the disk
+        try {
+            return readRecord(new AtomicFile(new File(directory, fileName)), key);
+        } catch (IOException e) {
+            if (PlacesAutocompleteTextView.DEBUG) {
+                Log.w(Constants.LOG_TAG, "Dropping unreadable details cache record " + fileName, e);
+            }
+            synchronized (this) {
+                // unless evicted or replaced while it was read
+                if (index.get(fileName) == entry) {
+                    remove(fileName);
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void put(@NonNull final DetailsCacheKey key, @NonNull final PlacesDetailsResponse value) {
+        final byte[] record;
+        try {
+            record = encodeRecord(key, value);
+        } catch (IOException e) {
+            // e.g. a string too long for the format, the response is just not cached
+            return;
+        }
+
+        if (record.length > maxBytes) {
+            return;
+        }
+
+        final String fileName = fileNameFor(key);
+        final Entry previous = index.put(fileName, new Entry(record.length, now()));
+        if (previous != null) {
+            sizeBytes -= previous.sizeBytes;
+        }
+        sizeBytes += record.length;
+        pendingWrites.put(fileName, value);
+
+        writeRecord(fileName, value, record);
+        trimToSize();
+    }
+
+    @Override
+    public synchronized void clear() {
+        index.clear();
+        pendingWrites.clear();
+        sizeBytes = 0;
+
+        enqueue(new BackgroundJob<Void>() {
+            @Override
+            public Void executeInBackground() throws Exception {
+                final File[] files = directory.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        file.delete();
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public void onSuccess(final Void result) {
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.e(Constants.LOG_TAG, "Unable to clear the details cache", error);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the total size of the cached records in bytes
+     */
+    public synchronized long sizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized int entryCount() {
+        return index.size();
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the current wall clock time in milliseconds, compared with the write times of the files
+     */
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Runs a disk job on the {@link BackgroundExecutorService}, after the jobs enqueued before it
+     */
+    <R> void enqueue(@NonNull final BackgroundJob<R> job) {
+        BackgroundExecutorService.INSTANCE.enqueue(job);
+    }
+
+    private void trimToSize() {
+        final Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+        final List<String> evicted = new ArrayList<>();
+        while (sizeBytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            sizeBytes -= eldest.getValue().sizeBytes;
+            pendingWrites.remove(eldest.getKey());
+            evicted.add(eldest.getKey());
+        }
+
+        if (!evicted.isEmpty()) {
+            deleteFiles(evicted);
+        }
+    }
+
+    private void remove(@NonNull final String fileName) {
+        final Entry entry = index.remove(fileName);
+        if (entry != null) {
+            sizeBytes -= entry.sizeBytes;
+        }
+        pendingWrites.remove(fileName);
+        deleteFiles(Collections.singletonList(fileName));
+    }
+
+    private void writeRecord(@NonNull final String fileName, @NonNull final PlacesDetailsResponse value, @NonNull final byte[] record) {
+        // queued behind any pending delete of the same file, so the order of operations is kept
+        enqueue(new BackgroundJob<Void>() {
+            @Override
+            public Void executeInBackground() throws Exception {
+                synchronized (DiskDetailsCache.this) {
+                    if (pendingWrites.get(fileName) != value) {
+                        // evicted or replaced in the meantime
+                        return null;
+                    }
+                }
+
+                if (!directory.exists()) {
+                    directory.mkdirs();
+                }
+
+                final AtomicFile file = new AtomicFile(new File(directory, fileName));
+                FileOutputStream fos = null;
+                try {
+                    fos = file.startWrite();
+                    fos.write(record);
+                    file.finishWrite(fos);
+                } catch (IOException e) {
+                    file.failWrite(fos);
+                    throw new IOException("Failed details cache write", e);
+                }
+                return null;
+            }
+
+            @Override
+            public void onSuccess(final Void result) {
+                synchronized (DiskDetailsCache.this) {
+                    if (pendingWrites.get(fileName) == value) {
+                        pendingWrites.remove(fileName);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                synchronized (DiskDetailsCache.this) {
+                    if (pendingWrites.get(fileName) == value) {
+                        remove(fileName);
+                    }
+                }
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.e(Constants.LOG_TAG, "Unable to write to the details cache", error);
+                }
+            }
+        });
+    }
+
+    private void deleteFiles(@NonNull final List<String> fileNames) {
+        enqueue(new BackgroundJob<Void>() {
+            @Override
+            public Void executeInBackground() throws Exception {
+                for (String fileName : fileNames) {
+                    synchronized (DiskDetailsCache.this) {
+                        if (index.containsKey(fileName)) {
+                            // stored again since, a write for it is queued after this job
+                            continue;
+                        }
+                    }
+                    new AtomicFile(new File(directory, fileName)).delete();
+                }
+                return null;
+            }
+
+            @Override
+            public void onSuccess(final Void result) {
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.e(Constants.LOG_TAG, "Unable to delete from the details cache", error);
+                }
+            }
+        });
+    }
+
+    private void loadIndex() {
+        enqueue(new BackgroundJob<List<File>>() {
+            @Override
+            public List<File> executeInBackground() throws Exception {
+                final File[] files = directory.listFiles();
+                if (files == null) {
+                    return Collections.emptyList();
+                }
+
+                final List<File> records = new ArrayList<>(files.length);
+                for (File file : files) {
+                    if (file.getName().endsWith(RECORD_SUFFIX)) {
+                        records.add(file);
+                    }
+                }
+
+                // the last write time stands in for the last access of the previous session
+                Collections.sort(records, new Comparator<File>() {
+                    @Override
+                    public int compare(final File lhs, final File rhs) {
+                        final long lhsModified = lhs.lastModified();
+                        final long rhsModified = rhs.lastModified();
+                        return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+                    }
+                });
+                return records;
+            }
+
+            @Override
+            public void onSuccess(final List<File> records) {
+                onIndexLoaded(records);
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                onIndexLoaded(Collections.<File>emptyList());
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.e(Constants.LOG_TAG, "Unable to load the details cache index", error);
+                }
+            }
+        });
+    }
+
+    private synchronized void onIndexLoaded(@NonNull final List<File> records) {
+        // entries put while loading are more recent than anything on disk
+        final LinkedHashMap<String, Entry> current = new LinkedHashMap<>(index);
+        index.clear();
+        sizeBytes = 0;
+
+        final long now = now();
+        final List<String> expired = new ArrayList<>();
+        for (File record : records) {
+            final String fileName = record.getName();
+            if (current.containsKey(fileName)) {
+                continue;
+            }
+
+            final long writtenAt = record.lastModified();
+            if (now - writtenAt > ttlMillis) {
+                expired.add(fileName);
+                continue;
+            }
+
+            index.put(fileName, new Entry(record.length(), writtenAt));
+            sizeBytes += record.length();
+        }
+
+        for (Map.Entry<String, Entry> entry : current.entrySet()) {
+            index.put(entry.getKey(), entry.getValue());
+            sizeBytes += entry.getValue().sizeBytes;
+        }
+
+        if (!expired.isEmpty()) {
+            deleteFiles(expired);
+        }
+        trimToSize();
+    }
+
+    @NonNull
+    private static byte[] encodeRecord(@NonNull final DetailsCacheKey key, @NonNull final PlacesDetailsResponse value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(RECORD_MAGIC);
+        out.writeInt(PlaceDetailsCodec.FORMAT_VERSION);
+        out.writeUTF(key.placeId);
+        out.writeUTF(key.languageCode != null ? key.languageCode : "");
+        out.writeUTF(key.fields != null ? key.fields : "");
+        PlaceDetailsCodec.write(out, value);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @NonNull
+    private static PlacesDetailsResponse readRecord(@NonNull final AtomicFile file, @NonNull final DetailsCacheKey key) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()));
+        try {
+            if (in.readInt() != RECORD_MAGIC || in.readInt() != PlaceDetailsCodec.FORMAT_VERSION) {
+                throw new IOException("Unsupported details cache record");
+            }
+
+            final String placeId = in.readUTF();
+            final String languageCode = in.readUTF();
+            final String fields = in.readUTF();
+            if (!placeId.equals(key.placeId)
+                    || !languageCode.equals(key.languageCode != null ? key.languageCode : "")
+                    || !fields.equals(key.fields != null ? key.fields : "")) {
+                throw new IOException("Details cache record belongs to another key");
+            }
+
+            return PlaceDetailsCodec.read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @NonNull
+    private static String fileNameFor(@NonNull final DetailsCacheKey key) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(key.placeId.getBytes("UTF-8"));
+            digest.update((byte) 0);
+            if (key.languageCode != null) {
+                digest.update(key.languageCode.getBytes("UTF-8"));
+            }
+            digest.update((byte) 0);
+            if (key.fields != null) {
+                digest.update(key.fields.getBytes("UTF-8"));
+            }
+
+            final byte[] hash = digest.digest();
+            final StringBuilder sb = new StringBuilder(hash.length * 2 + RECORD_SUFFIX.length());
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.append(RECORD_SUFFIX).toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static final class Entry {
+        final long sizeBytes;
+
+        final long writtenAtMillis;
+
+        Entry(final long sizeBytes, final long writtenAtMillis) {
+            this.sizeBytes = sizeBytes;
+            this.writtenAtMillis = writtenAtMillis;
+        }
+    }
+}
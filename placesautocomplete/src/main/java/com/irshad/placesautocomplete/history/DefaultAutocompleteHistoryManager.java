@@ -1,6 +1,10 @@
 package com.irshad.placesautocomplete.history;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.util.AtomicFile;
@@ -11,8 +15,10 @@ import com.irshad.placesautocomplete.Constants;
 import com.irshad.placesautocomplete.PlacesAutocompleteTextView;
 import com.irshad.placesautocomplete.async.BackgroundExecutorService;
 import com.irshad.placesautocomplete.async.BackgroundJob;
+import com.irshad.placesautocomplete.async.BackgroundJobHandle;
+import com.irshad.placesautocomplete.async.DirectExecutor;
+import com.irshad.placesautocomplete.async.PlacesFuture;
 import com.irshad.placesautocomplete.json.JsonParserResolver;
-import com.irshad.placesautocomplete.json.PlacesApiJsonParser;
 import com.irshad.placesautocomplete.model.Place;
 
 import java.io.File;
@@ -22,16 +28,58 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the history in a single file, rewritten atomically with {@link AtomicFile} on every save.
+ * Changes are saved write-behind: a save is scheduled on the first change and covers every change
+ * made until it runs, after {@link #DEFAULT_WRITE_DELAY_MILLIS} or once
+ * {@link #DEFAULT_MAX_PENDING_CHANGES} changes are pending, whichever comes first. Pending changes
+ * are also saved on {@link #flush()} and when the app goes to the background.
+ *
+ * The file is read on first access to the history, see {@link LazyHistory}.
+ */
+public class DefaultAutocompleteHistoryManager implements AutocompleteHistoryManager, PrefixIndexedHistory, LazyHistory {
+    public static final int DEFAULT_CAPACITY = 5;
+
+    public static final long DEFAULT_WRITE_DELAY_MILLIS = 2000L;
+
+    public static final int DEFAULT_MAX_PENDING_CHANGES = 20;
 
-public class DefaultAutocompleteHistoryManager implements AutocompleteHistoryManager {
     private static final String BASE_AUTOCOMPLETE_HISTORY_DIR = "autocomplete";
-    private static final int MAX_HISTORY_ITEM_COUNT = 5;
+    private static final String BINARY_HISTORY_SUFFIX = ".bin";
 
-    public static AutocompleteHistoryManager fromPath(@NonNull Context context, @NonNull String historyFileName) {
+    /**
+     * @return a history manager storing the history in the {@link BinaryHistoryCodec} format
+     */
+    public static DefaultAutocompleteHistoryManager fromPath(@NonNull Context context, @NonNull String historyFileName) {
+        return fromPath(context, historyFileName, new BinaryHistoryCodec());
+    }
+
+    /**
+     * @param codec the format of the history file. A JSON history file written by earlier versions
+     *              under the same name is migrated to it once, the first time the history is read.
+     */
+    public static DefaultAutocompleteHistoryManager fromPath(@NonNull Context context, @NonNull String historyFileName, @NonNull HistoryCodec codec) {
+        return fromPath(context, historyFileName, DEFAULT_CAPACITY, codec);
+    }
+
+    /**
+     * @param capacity the maximum number of places kept, the least recently selected are dropped.
+     *                 The whole history is rewritten on every selection, see
+     *                 {@link JournaledAutocompleteHistoryManager} for histories of thousands of places.
+     */
+    public static DefaultAutocompleteHistoryManager fromPath(@NonNull Context context, @NonNull String historyFileName, int capacity, @NonNull HistoryCodec codec) {
         if (TextUtils.isEmpty(historyFileName)) {
             throw new IllegalArgumentException("Cannot have an empty historyFile name");
         }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
 
 
         File historyDir = new File(context.getCacheDir(), BASE_AUTOCOMPLETE_HISTORY_DIR);
@@ -40,61 +88,147 @@ public class DefaultAutocompleteHistoryManager implements AutocompleteHistoryMan
             historyDir.mkdirs();
         }
 
-        return new DefaultAutocompleteHistoryManager(new File(historyDir, historyFileName), JsonParserResolver.JSON_PARSER);
+        return new DefaultAutocompleteHistoryManager(context.getApplicationContext(),
+                new File(historyDir, historyFileName + BINARY_HISTORY_SUFFIX),
+                codec,
+                new File(historyDir, historyFileName),
+                capacity);
     }
 
+    @NonNull
+    private final Context appContext;
+
     @NonNull
     private final AtomicFile savedFile;
 
     @NonNull
-    private final PlacesApiJsonParser jsonParser;
+    private final HistoryCodec codec;
+
+    @NonNull
+    private final AtomicFile legacyJsonFile;
+
+    private final int capacity;
 
     @NonNull
     private List<Place> places;
 
+    // replaced on every change, queried by the filter thread
+    @NonNull
+    private volatile HistoryPrefixIndex prefixIndex = HistoryPrefixIndex.EMPTY;
+
     @Nullable
     private OnHistoryUpdatedListener listener;
 
-    private DefaultAutocompleteHistoryManager(@NonNull final File historyFile, @NonNull final PlacesApiJsonParser parser) {
+    // created with the first scheduled save
+    @Nullable
+    private Handler handler;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    // only registered while changes are pending, so the application does not keep the manager alive
+    private final ComponentCallbacks2 backgroundCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(final int level) {
+            if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            flush();
+        }
+
+        @Override
+        public void onConfigurationChanged(final Configuration newConfig) {
+        }
+    };
+
+    private long writeDelayMillis = DEFAULT_WRITE_DELAY_MILLIS;
+
+    private int maxPendingChanges = DEFAULT_MAX_PENDING_CHANGES;
+
+    private int pendingChanges;
+
+    // a save still waiting behind other file jobs is dropped for the next one, which covers it
+    @Nullable
+    private BackgroundJobHandle lastSave;
+
+    // a save before the load would overwrite the file without the places still being read
+    private boolean loaded;
+
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+
+    private final PlacesFuture<List<Place>> loadFuture = new PlacesFuture<>(null, DirectExecutor.INSTANCE);
+
+    DefaultAutocompleteHistoryManager(@NonNull final Context appContext, @NonNull final File historyFile, @NonNull final HistoryCodec codec, @NonNull final File legacyJsonFile, final int capacity) {
+        this.appContext = appContext;
+
         savedFile = new AtomicFile(historyFile);
 
-        jsonParser = parser;
+        this.codec = codec;
+
+        this.legacyJsonFile = new AtomicFile(legacyJsonFile);
+
+        this.capacity = capacity;
 
         places = new ArrayList<>();
+    }
 
-        readPlaces();
+    @Override
+    @NonNull
+    public Future<List<Place>> load() {
+        if (loadStarted.compareAndSet(false, true)) {
+            readPlaces();
+        }
+        return loadFuture;
     }
 
     private void readPlaces() {
-        BackgroundExecutorService.INSTANCE.enqueue(new BackgroundJob<List<Place>>() {
+        // ahead of disk cache writes queued by prefetching, the user is waiting for the history
+        enqueueFirst(new BackgroundJob<List<Place>>() {
             @Override
             public List<Place> executeInBackground() throws Exception {
                 if (!savedFile.getBaseFile().exists()) {
-                    return Collections.emptyList();
+                    return legacyJsonFile.getBaseFile().exists() ? migrateJsonHistory() : Collections.<Place>emptyList();
                 }
 
-                InputStream is = null;
-                try {
-                    is = savedFile.openRead();
-                    return jsonParser.readHistoryJson(is);
-                } finally {
-                    if (is != null) {
-                        is.close();
-                    }
-                }
+                return readFile(savedFile, codec);
             }
 
             @Override
             public void onSuccess(final List<Place> result) {
-                Collections.reverse(result);
+                // places selected while loading are more recent than the file
+                final Set<Place> selected = new HashSet<>(places);
 
                 for (Place place : result) {
-                    internalAddItem(place);
+                    if (places.size() >= capacity) {
+                        break;
+                    }
+                    if (selected.add(place)) {
+                        places.add(place);
+                    }
+                }
+
+                updatePrefixIndex();
+                onLoaded();
+
+                loadFuture.set(prefixIndex.getPlaces());
+                if (listener != null) {
+                    listener.onHistoryUpdated(prefixIndex.getPlaces());
                 }
             }
 
             @Override
             public void onFailure(final Throwable error) {
+                onLoaded();
+
+                loadFuture.setException(error);
                 if (PlacesAutocompleteTextView.DEBUG) {
                     Log.e(Constants.LOG_TAG, "Unable to load history from history file", error);
                 }
@@ -102,47 +236,182 @@ public class DefaultAutocompleteHistoryManager implements AutocompleteHistoryMan
         });
     }
 
+    /**
+     * Rewrites the JSON history of earlier versions with the codec and deletes it once the new
+     * file is written, on the background thread. If the write fails the JSON file is kept and the
+     * migration is retried on the next load.
+     */
+    @NonNull
+    private List<Place> migrateJsonHistory() throws IOException {
+        final List<Place> migrated = readFile(legacyJsonFile, new JsonHistoryCodec(JsonParserResolver.JSON_PARSER));
+
+        try {
+            writeFile(savedFile, codec, migrated);
+            legacyJsonFile.delete();
+
+            if (PlacesAutocompleteTextView.DEBUG) {
+                Log.i(Constants.LOG_TAG, "Migrated " + migrated.size() + " history entries from JSON.");
+            }
+        } catch (IOException e) {
+            if (PlacesAutocompleteTextView.DEBUG) {
+                Log.e(Constants.LOG_TAG, "Unable to migrate the JSON history file", e);
+            }
+        }
+        return migrated;
+    }
+
+    @NonNull
+    private static List<Place> readFile(@NonNull final AtomicFile file, @NonNull final HistoryCodec codec) throws IOException {
+        InputStream is = null;
+        try {
+            is = file.openRead();
+            return codec.read(is);
+        } finally {
+            if (is != null) {
+                is.close();
+            }
+        }
+    }
+
+    private static void writeFile(@NonNull final AtomicFile file, @NonNull final HistoryCodec codec, @NonNull final List<Place> places) throws IOException {
+        FileOutputStream fos = null;
+        try {
+            fos = file.startWrite();
+            codec.write(fos, places);
+        } catch (IOException e) {
+            file.failWrite(fos);
+            throw new IOException("Failed history file write", e);
+        }
+        file.finishWrite(fos);
+    }
+
     @Override
     public void setListener(@Nullable final OnHistoryUpdatedListener listener) {
         this.listener = listener;
     }
 
-    @Override
-    public void addItemToHistory(@NonNull final Place place) {
-        internalAddItem(place);
+    /**
+     * Configures how changes are batched into saves. Must be called on the main thread.
+     * @param writeDelayMillis the longest a change waits for its save, 0 saves every change at once
+     * @param maxPendingChanges the number of changes saved at once without waiting for the delay
+     */
+    public void setWriteBehind(final long writeDelayMillis, final int maxPendingChanges) {
+        if (writeDelayMillis < 0) {
+            throw new IllegalArgumentException("writeDelayMillis must not be negative");
+        }
+        if (maxPendingChanges < 1) {
+            throw new IllegalArgumentException("maxPendingChanges must be at least 1");
+        }
+
+        this.writeDelayMillis = writeDelayMillis;
+        this.maxPendingChanges = maxPendingChanges;
+
+        if (pendingChanges >= maxPendingChanges || (pendingChanges > 0 && writeDelayMillis == 0)) {
+            flush();
+        }
+    }
+
+    /**
+     * Saves the pending changes now, rather than once the write delay has passed. Must be called on
+     * the main thread.
+     */
+    public void flush() {
+        cancelScheduledFlush();
+
+        if (pendingChanges == 0 || !loaded) {
+            return;
+        }
+
+        pendingChanges = 0;
+        appContext.unregisterComponentCallbacks(backgroundCallbacks);
 
         executeSave();
     }
 
-    private void internalAddItem(@NonNull final Place place) {
+    @Override
+    public void addItemToHistory(@NonNull final Place place) {
+        load();
+
         places.remove(place);
         places.add(0, place);
 
         trimPlaces();
+        updatePrefixIndex();
+
+        scheduleSave();
+    }
+
+    private void scheduleSave() {
+        if (pendingChanges++ == 0) {
+            appContext.registerComponentCallbacks(backgroundCallbacks);
+        }
+
+        if (pendingChanges >= maxPendingChanges || writeDelayMillis == 0) {
+            flush();
+        } else if (pendingChanges == 1) {
+            // measured from the first change, so a steady stream of changes cannot defer the save
+            scheduleFlush(writeDelayMillis);
+        }
+    }
+
+    /**
+     * Flushes the pending changes on the main thread once the delay has passed
+     */
+    void scheduleFlush(final long delayMillis) {
+        if (handler == null) {
+            handler = new Handler(Looper.getMainLooper());
+        }
+        handler.postDelayed(flushRunnable, delayMillis);
+    }
+
+    void cancelScheduledFlush() {
+        if (handler != null) {
+            handler.removeCallbacks(flushRunnable);
+        }
+    }
+
+    /**
+     * Runs a file job on the {@link BackgroundExecutorService}, after the jobs enqueued before it
+     */
+    @NonNull
+    <R> BackgroundJobHandle enqueue(@NonNull final BackgroundJob<R> job) {
+        return BackgroundExecutorService.INSTANCE.enqueue(job);
+    }
+
+    /**
+     * Runs a file job on the {@link BackgroundExecutorService}, before the jobs already waiting
+     */
+    <R> void enqueueFirst(@NonNull final BackgroundJob<R> job) {
+        BackgroundExecutorService.INSTANCE.enqueueFirst(job);
+    }
+
+    private void onLoaded() {
+        loaded = true;
+        flush();
     }
 
     private void trimPlaces() {
-        if (places.size() > MAX_HISTORY_ITEM_COUNT) {
-            places = new ArrayList<>(places.subList(0, MAX_HISTORY_ITEM_COUNT));
+        if (places.size() > capacity) {
+            places = new ArrayList<>(places.subList(0, capacity));
         }
     }
 
+    private void updatePrefixIndex() {
+        // the index copies the places here, on the main thread, and is built on the first query
+        prefixIndex = new HistoryPrefixIndex(places);
+    }
+
     private void executeSave() {
+        if (lastSave != null) {
+            lastSave.cancel();
+        }
+
         final List<Place> finalPlaces = new ArrayList<>(places);
 
-        BackgroundExecutorService.INSTANCE.enqueue(new BackgroundJob<Void>() {
+        lastSave = enqueue(new BackgroundJob<Void>() {
             @Override
             public Void executeInBackground() throws Exception {
-                FileOutputStream fos = null;
-                try {
-                    fos = savedFile.startWrite();
-                    jsonParser.writeHistoryJson(fos, finalPlaces);
-                } catch (IOException e) {
-                    savedFile.failWrite(fos);
-                    throw new IOException("Failed history file write", e);
-                } finally {
-                    savedFile.finishWrite(fos);
-                }
+                writeFile(savedFile, codec, finalPlaces);
                 return null;
             }
 
@@ -157,6 +426,7 @@ public class DefaultAutocompleteHistoryManager implements AutocompleteHistoryMan
             @Override
             public void onFailure(final Throwable error) {
                 places = new ArrayList<>();
+                updatePrefixIndex();
                 fireUpdatedListener();
                 if (PlacesAutocompleteTextView.DEBUG) {
                     Log.e(Constants.LOG_TAG, "Failure to save the autocomplete history!", error);
@@ -165,7 +435,7 @@ public class DefaultAutocompleteHistoryManager implements AutocompleteHistoryMan
 
             private void fireUpdatedListener() {
                 if (listener != null) {
-                    listener.onHistoryUpdated(places);
+                    listener.onHistoryUpdated(prefixIndex.getPlaces());
                 }
             }
         });
@@ -174,6 +444,15 @@ public class DefaultAutocompleteHistoryManager implements AutocompleteHistoryMan
     @Override
     @NonNull
     public List<Place> getPastSelections() {
-        return places;
+        load();
+        // the unmodifiable copy taken by the index, places is only touched on the main thread
+        return prefixIndex.getPlaces();
+    }
+
+    @Override
+    @NonNull
+    public HistoryPrefixIndex getPrefixIndex() {
+        load();
+        return prefixIndex;
     }
 }
@@ -0,0 +1,334 @@
+package com.irshad.placesautocomplete.history;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.AtomicFile;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.irshad.placesautocomplete.Constants;
+import com.irshad.placesautocomplete.PlacesAutocompleteTextView;
+import com.irshad.placesautocomplete.async.BackgroundExecutorService;
+import com.irshad.placesautocomplete.async.BackgroundJob;
+import com.irshad.placesautocomplete.async.DirectExecutor;
+import com.irshad.placesautocomplete.async.PlacesFuture;
+import com.irshad.placesautocomplete.model.Place;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A history manager persisting every change as a record appended to a {@link HistoryJournal}, so
+ * a selection costs one small write however long the history is. Once the journal holds about
+ * twice as many records as the history has places, it is compacted in the background by
+ * atomically rewriting it with one record per place. A record cut short by a crash is dropped
+ * and cut off the file on the next load, a journal left half compacted by a crash is replaced by
+ * its backup.
+ *
+ * The journal is read on first access to the history, see {@link LazyHistory}.
+ */
+public class JournaledAutocompleteHistoryManager implements AutocompleteHistoryManager, PrefixIndexedHistory, LazyHistory {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private static final String BASE_AUTOCOMPLETE_HISTORY_DIR = "autocomplete";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    // superseded records tolerated on top of the live ones, so small histories are not compacted constantly
+    private static final int MIN_COMPACTION_SLACK = 64;
+
+    public static JournaledAutocompleteHistoryManager fromPath(@NonNull Context context, @NonNull String historyFileName) {
+        return fromPath(context, historyFileName, DEFAULT_CAPACITY, new BinaryHistoryCodec());
+    }
+
+    /**
+     * @param capacity the maximum number of places kept, the least recently selected are dropped
+     * @param codec encodes the places in the journal records
+     */
+    public static JournaledAutocompleteHistoryManager fromPath(@NonNull Context context,
+                                                               @NonNull String historyFileName,
+                                                               int capacity,
+                                                               @NonNull HistoryCodec codec) {
+        if (TextUtils.isEmpty(historyFileName)) {
+            throw new IllegalArgumentException("Cannot have an empty historyFile name");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+
+        File historyDir = new File(context.getCacheDir(), BASE_AUTOCOMPLETE_HISTORY_DIR);
+
+        if (!historyDir.exists()) {
+            historyDir.mkdirs();
+        }
+
+        return new JournaledAutocompleteHistoryManager(new File(historyDir, historyFileName + JOURNAL_SUFFIX), capacity, codec);
+    }
+
+    @NonNull
+    private final AtomicFile journalFile;
+
+    @NonNull
+    private final HistoryCodec codec;
+
+    private final int capacity;
+
+    @NonNull
+    private List<Place> places;
+
+    // replaced on every change, queried by the filter thread
+    @NonNull
+    private volatile HistoryPrefixIndex prefixIndex = HistoryPrefixIndex.EMPTY;
+
+    @Nullable
+    private OnHistoryUpdatedListener listener;
+
+    // compaction waits for the load, a snapshot without the loaded places would lose them
+    private boolean loaded;
+
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+
+    private final PlacesFuture<List<Place>> loadFuture = new PlacesFuture<>(null, DirectExecutor.INSTANCE);
+
+    // the records in the journal once the enqueued writes are done, live and superseded
+    private int journalRecords;
+
+    private JournaledAutocompleteHistoryManager(@NonNull final File journal, final int capacity, @NonNull final HistoryCodec codec) {
+        this.journalFile = new AtomicFile(journal);
+        this.capacity = capacity;
+        this.codec = codec;
+
+        places = new ArrayList<>();
+    }
+
+    @Override
+    @NonNull
+    public Future<List<Place>> load() {
+        if (loadStarted.compareAndSet(false, true)) {
+            readJournal();
+        }
+        return loadFuture;
+    }
+
+    private void readJournal() {
+        // ahead of disk cache writes queued by prefetching, the user is waiting for the history.
+        // Appends are only enqueued once the load was, so they still come after it.
+        BackgroundExecutorService.INSTANCE.enqueueFirst(new BackgroundJob<HistoryJournal.Replay>() {
+            @Override
+            public HistoryJournal.Replay executeInBackground() throws Exception {
+                final HistoryJournal.Replay replay;
+                final InputStream is;
+                try {
+                    // restores the backup left by a crash during compaction, before any append
+                    is = journalFile.openRead();
+                } catch (FileNotFoundException e) {
+                    return null;
+                }
+                try {
+                    replay = HistoryJournal.replay(is, codec, capacity);
+                } catch (IOException e) {
+                    // not a journal at all, nothing in it can be recovered
+                    journalFile.delete();
+                    throw e;
+                } finally {
+                    is.close();
+                }
+
+                if (replay.corrupted) {
+                    truncate(journalFile.getBaseFile(), replay.validLength);
+                }
+                return replay;
+            }
+
+            @Override
+            public void onSuccess(@Nullable final HistoryJournal.Replay replay) {
+                if (replay != null) {
+                    // places selected while loading are more recent than the journal
+                    final Set<Place> selected = new HashSet<>(places);
+                    for (Place place : replay.places) {
+                        if (places.size() >= capacity) {
+                            break;
+                        }
+                        if (selected.add(place)) {
+                            places.add(place);
+                        }
+                    }
+                    journalRecords += replay.records;
+                    updatePrefixIndex();
+                }
+
+                loaded = true;
+                compactIfNeeded();
+
+                loadFuture.set(prefixIndex.getPlaces());
+                if (listener != null) {
+                    listener.onHistoryUpdated(prefixIndex.getPlaces());
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                loaded = true;
+                loadFuture.setException(error);
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.e(Constants.LOG_TAG, "Unable to load history from the history journal", error);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void setListener(@Nullable final OnHistoryUpdatedListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void addItemToHistory(@NonNull final Place place) {
+        load();
+
+        places.remove(place);
+        places.add(0, place);
+        if (places.size() > capacity) {
+            places.remove(places.size() - 1);
+        }
+        updatePrefixIndex();
+
+        append(HistoryJournal.RECORD_ADD, place);
+    }
+
+    /**
+     * @param place a past selection to forget
+     */
+    public void removeItemFromHistory(@NonNull final Place place) {
+        load();
+
+        if (places.remove(place)) {
+            updatePrefixIndex();
+            append(HistoryJournal.RECORD_REMOVE, place);
+        }
+    }
+
+    @Override
+    @NonNull
+    public List<Place> getPastSelections() {
+        load();
+        // the unmodifiable copy taken by the index, places is only touched on the main thread
+        return prefixIndex.getPlaces();
+    }
+
+    @Override
+    @NonNull
+    public HistoryPrefixIndex getPrefixIndex() {
+        load();
+        return prefixIndex;
+    }
+
+    private void updatePrefixIndex() {
+        // the index copies the places here, on the main thread, and is built on the first query
+        prefixIndex = new HistoryPrefixIndex(places);
+    }
+
+    private void append(final byte type, @NonNull final Place place) {
+        journalRecords++;
+
+        BackgroundExecutorService.INSTANCE.enqueue(new BackgroundJob<Void>() {
+            @Override
+            public Void executeInBackground() throws Exception {
+                final byte[] record = HistoryJournal.record(type, place, codec);
+                final File file = journalFile.getBaseFile();
+                final boolean isNew = !file.exists() || file.length() == 0;
+
+                final FileOutputStream fos = new FileOutputStream(file, true);
+                try {
+                    if (isNew) {
+                        fos.write(HistoryJournal.header());
+                    }
+                    fos.write(record);
+                    fos.getFD().sync();
+                } finally {
+                    fos.close();
+                }
+                return null;
+            }
+
+            @Override
+            public void onSuccess(final Void result) {
+                fireUpdatedListener();
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.e(Constants.LOG_TAG, "Failure to append to the history journal!", error);
+                }
+            }
+        });
+
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (!loaded || journalRecords <= places.size() * 2 + MIN_COMPACTION_SLACK) {
+            return;
+        }
+
+        // jobs run in order, so the snapshot covers exactly the records enqueued before it
+        final List<Place> snapshot = new ArrayList<>(places);
+        journalRecords = snapshot.size();
+
+        BackgroundExecutorService.INSTANCE.enqueue(new BackgroundJob<Void>() {
+            @Override
+            public Void executeInBackground() throws Exception {
+                FileOutputStream fos = null;
+                try {
+                    fos = journalFile.startWrite();
+                    HistoryJournal.writeSnapshot(fos, snapshot, codec);
+                } catch (IOException e) {
+                    journalFile.failWrite(fos);
+                    throw new IOException("Failed history journal compaction", e);
+                }
+                journalFile.finishWrite(fos);
+                return null;
+            }
+
+            @Override
+            public void onSuccess(final Void result) {
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.i(Constants.LOG_TAG, "Compacted the history journal to " + snapshot.size() + " records.");
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable error) {
+                if (PlacesAutocompleteTextView.DEBUG) {
+                    Log.e(Constants.LOG_TAG, "Failure to compact the history journal!", error);
+                }
+            }
+        });
+    }
+
+    private static void truncate(@NonNull final File file, final long length) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void fireUpdatedListener() {
+        if (listener != null) {
+            listener.onHistoryUpdated(prefixIndex.getPlaces());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.irshad.placesautocomplete.json;
 
+import android.support.annotation.Nullable;
 import android.util.JsonReader;
 import android.util.JsonWriter;
 
@@ -13,6 +14,7 @@ import com.irshad.placesautocomplete.model.OpenHours;
 import com.irshad.placesautocomplete.model.OpenPeriod;
 import com.irshad.placesautocomplete.model.Place;
 import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
 import com.irshad.placesautocomplete.model.PlaceGeometry;
 import com.irshad.placesautocomplete.model.PlaceLocation;
 import com.irshad.placesautocomplete.model.PlacePhoto;
@@ -33,8 +35,9 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
-class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
+class AndroidPlacesApiJsonParser implements FieldMaskedJsonParser {
 
     @Override
     public PlacesAutocompleteResponse autocompleteFromStream(final InputStream is) throws JsonParsingException {
@@ -75,6 +78,11 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
 
     @Override
     public PlacesDetailsResponse detailsFromStream(final InputStream is) throws JsonParsingException {
+        return detailsFromStream(is, null);
+    }
+
+    @Override
+    public PlacesDetailsResponse detailsFromStream(final InputStream is, @Nullable final Set<PlaceDetailsField> fields) throws JsonParsingException {
         JsonReader reader = null;
         try {
             BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(is));
@@ -88,7 +96,11 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
             while (reader.hasNext()) {
                 switch (reader.nextName()) {
                     case "result":
-                        result = readPlaceDetails(reader);
+                        if (fields != null && fields.isEmpty()) {
+                            reader.skipValue();
+                        } else {
+                            result = readPlaceDetails(reader, fields);
+                        }
                         break;
                     case "status":
                         status = readStatus(reader);
@@ -187,14 +199,7 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
     void writePlaceTypesArray(JsonWriter writer, List<PlaceType> placeTypes) throws IOException {
         writer.beginArray();
         for (PlaceType type : placeTypes) {
-            switch (type) {
-                case ROUTE:
-                    writer.value("route");
-                    break;
-                case GEOCODE:
-                    writer.value("geocode");
-                    break;
-            }
+            writer.value(EnumLookup.PLACE_TYPE.nameOf(type));
         }
         writer.endArray();
     }
@@ -211,7 +216,7 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
     }
 
     @SuppressWarnings("ConstantConditions")
-    PlaceDetails readPlaceDetails(JsonReader reader) throws IOException {
+    PlaceDetails readPlaceDetails(JsonReader reader, @Nullable Set<PlaceDetailsField> fields) throws IOException {
         List<AddressComponent> addressComponents = null;
         String formattedAddress = null;
         String formattedPhoneNumber = null;
@@ -234,7 +239,14 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
 
         reader.beginObject();
         while (reader.hasNext()) {
-            switch (reader.nextName()) {
+            final String fieldName = reader.nextName();
+            if (fields != null && !fields.contains(PlaceDetailsField.fromJsonName(fieldName))) {
+                // not requested, skipped without materializing the subtree
+                reader.skipValue();
+                continue;
+            }
+
+            switch (fieldName) {
                 case "address_components":
                     addressComponents = readAddressComponentsArray(reader);
                     break;
@@ -357,109 +369,9 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
 
         reader.beginArray();
         while (reader.hasNext()) {
-            switch (reader.nextString()) {
-                case "administrative_area_level_1":
-                    types.add(AddressComponentType.ADMINISTRATIVE_AREA_LEVEL_1);
-                    break;
-                case "administrative_area_level_2":
-                    types.add(AddressComponentType.ADMINISTRATIVE_AREA_LEVEL_2);
-                    break;
-                case "administrative_area_level_3":
-                    types.add(AddressComponentType.ADMINISTRATIVE_AREA_LEVEL_3);
-                    break;
-                case "administrative_area_level_4":
-                    types.add(AddressComponentType.ADMINISTRATIVE_AREA_LEVEL_4);
-                    break;
-                case "administrative_area_level_5":
-                    types.add(AddressComponentType.ADMINISTRATIVE_AREA_LEVEL_5);
-                    break;
-                case "colloquial_area":
-                    types.add(AddressComponentType.COLLOQUIAL_AREA);
-                    break;
-                case "country":
-                    types.add(AddressComponentType.COUNTRY);
-                    break;
-                case "floor":
-                    types.add(AddressComponentType.FLOOR);
-                    break;
-                case "geocode":
-                    types.add(AddressComponentType.GEOCODE);
-                    break;
-                case "intersection":
-                    types.add(AddressComponentType.INTERSECTION);
-                    break;
-                case "locality":
-                    types.add(AddressComponentType.LOCALITY);
-                    break;
-                case "natural_feature":
-                    types.add(AddressComponentType.NATURAL_FEATURE);
-                    break;
-                case "neighborhood":
-                    types.add(AddressComponentType.NEIGHBORHOOD);
-                    break;
-                case "political":
-                    types.add(AddressComponentType.POLITICAL);
-                    break;
-                case "point_of_interest":
-                    types.add(AddressComponentType.POINT_OF_INTEREST);
-                    break;
-                case "post_box":
-                    types.add(AddressComponentType.POST_BOX);
-                    break;
-                case "postal_code":
-                    types.add(AddressComponentType.POSTAL_CODE);
-                    break;
-                case "postal_code_prefix":
-                    types.add(AddressComponentType.POSTAL_CODE_PREFIX);
-                    break;
-                case "postal_code_suffix":
-                    types.add(AddressComponentType.POSTAL_CODE_SUFFIX);
-                    break;
-                case "postal_town":
-                    types.add(AddressComponentType.POSTAL_TOWN);
-                    break;
-                case "premise":
-                    types.add(AddressComponentType.PREMISE);
-                    break;
-                case "room":
-                    types.add(AddressComponentType.ROOM);
-                    break;
-                case "route":
-                    types.add(AddressComponentType.ROUTE);
-                    break;
-                case "street_address":
-                    types.add(AddressComponentType.STREET_ADDRESS);
-                    break;
-                case "street_number":
-                    types.add(AddressComponentType.STREET_NUMBER);
-                    break;
-                case "sublocality":
-                    types.add(AddressComponentType.SUBLOCALITY);
-                    break;
-                case "sublocality_level_1":
-                    types.add(AddressComponentType.SUBLOCALITY_LEVEL_1);
-                    break;
-                case "sublocality_level_2":
-                    types.add(AddressComponentType.SUBLOCALITY_LEVEL_2);
-                    break;
-                case "sublocality_level_3":
-                    types.add(AddressComponentType.SUBLOCALITY_LEVEL_3);
-                    break;
-                case "sublocality_level_4":
-                    types.add(AddressComponentType.SUBLOCALITY_LEVEL_4);
-                    break;
-                case "sublocality_level_5":
-                    types.add(AddressComponentType.SUBLOCALITY_LEVEL_5);
-                    break;
-                case "subpremise":
-                    types.add(AddressComponentType.SUBPREMISE);
-                    break;
-                case "transit_station":
-                    types.add(AddressComponentType.TRANSIT_STATION);
-                    break;
-                default:
-                    reader.skipValue();
-                    break;
+            AddressComponentType type = EnumLookup.ADDRESS_COMPONENT_TYPE.lookup(reader.nextString());
+            if (type != null) {
+                types.add(type);
             }
         }
         reader.endArray();
@@ -595,16 +507,9 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
     }
 
     PlaceScope readScope(JsonReader reader) throws IOException {
-        switch (reader.nextString()) {
-            case "APP":
-                return PlaceScope.APP;
-            case "GOOGLE":
-                return PlaceScope.GOOGLE;
-            default:
-                // not possible based on API spec:
-                // https://developers.google.com/places/web-service/details#PlaceDetailsResults
-                return null;
-        }
+        // null is not possible based on API spec:
+        // https://developers.google.com/places/web-service/details#PlaceDetailsResults
+        return EnumLookup.PLACE_SCOPE.lookup(reader.nextString());
     }
 
     List<AlternativePlaceId> readAltIdsArray(JsonReader reader) throws IOException {
@@ -726,20 +631,7 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
     }
 
     Status readStatus(JsonReader reader) throws IOException {
-        switch (reader.nextString()) {
-            case "OK":
-                return Status.OK;
-            case "ZERO_RESULTS":
-                return Status.ZERO_RESULTS;
-            case "OVER_QUERY_LIMIT":
-                return Status.OVER_QUERY_LIMIT;
-            case "REQUEST_DENIED":
-                return Status.REQUEST_DENIED;
-            case "INVALID_REQUEST":
-                return Status.INVALID_REQUEST;
-            default:
-                return null;
-        }
+        return EnumLookup.STATUS.lookup(reader.nextString());
     }
 
     Place readPlace(JsonReader reader) throws IOException {
@@ -839,16 +731,10 @@ class AndroidPlacesApiJsonParser implements PlacesApiJsonParser {
 
         reader.beginArray();
         while (reader.hasNext()) {
-            switch (reader.nextString()) {
-                case "route":
-                    types.add(PlaceType.ROUTE);
-                    break;
-                case "geocode":
-                    types.add(PlaceType.GEOCODE);
-                    break;
-                default:
-                    reader.skipValue();
-                    break;
+            // unknown types are dropped, the string was already consumed so nothing is skipped
+            PlaceType type = EnumLookup.PLACE_TYPE.lookup(reader.nextString());
+            if (type != null) {
+                types.add(type);
             }
         }
         reader.endArray();
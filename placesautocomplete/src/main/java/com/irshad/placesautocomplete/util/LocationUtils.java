@@ -2,6 +2,9 @@ package com.irshad.placesautocomplete.util;
 
 import android.location.Location;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.irshad.placesautocomplete.model.PlaceLocation;
 
 public final class LocationUtils {
 
@@ -9,6 +12,23 @@ public final class LocationUtils {
         return location.getLatitude() + "," + location.getLongitude();
     }
 
+    @Nullable
+    public static PlaceLocation toPlaceLocation(@Nullable Location location) {
+        return location != null ? new PlaceLocation(location.getLatitude(), location.getLongitude()) : null;
+    }
+
+    @Nullable
+    public static Location toLocation(@Nullable PlaceLocation placeLocation) {
+        if (placeLocation == null) {
+            return null;
+        }
+
+        final Location location = new Location("places");
+        location.setLatitude(placeLocation.lat);
+        location.setLongitude(placeLocation.lng);
+        return location;
+    }
+
     private LocationUtils() {
     }
 }
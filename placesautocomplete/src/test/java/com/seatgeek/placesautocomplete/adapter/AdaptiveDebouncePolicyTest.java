@@ -0,0 +1,58 @@
+package com.irshad.placesautocomplete.adapter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveDebouncePolicyTest {
+
+    @Test
+    public void firstKeystrokeIsNotDelayedTest() {
+        final AdaptiveDebouncePolicy policy = new AdaptiveDebouncePolicy(50L, 300L);
+
+        policy.onKeystroke(1000L);
+        assertEquals(0L, policy.getDelayMillis());
+
+        // nor the first one after a pause, whatever the cadence before it
+        policy.onKeystroke(1100L);
+        policy.onKeystroke(1200L);
+        policy.onKeystroke(5000L);
+        assertEquals(0L, policy.getDelayMillis());
+    }
+
+    @Test
+    public void followsTypingCadenceTest() {
+        final AdaptiveDebouncePolicy policy = new AdaptiveDebouncePolicy(50L, 300L);
+
+        policy.onKeystroke(1000L);
+        policy.onKeystroke(1160L);
+        assertEquals(200L, policy.getDelayMillis());
+
+        // smoothed towards the faster keystrokes
+        policy.onKeystroke(1240L);
+        assertEquals(170L, policy.getDelayMillis());
+
+        for (long time = 1250L; time < 1400L; time += 10L) {
+            policy.onKeystroke(time);
+        }
+        assertEquals(50L, policy.getDelayMillis());
+    }
+
+    @Test
+    public void slowTypistGetsShortWindowTest() {
+        final AdaptiveDebouncePolicy policy = new AdaptiveDebouncePolicy(50L, 300L);
+
+        // no window up to 300ms would catch keystrokes 600ms apart
+        policy.onKeystroke(1000L);
+        policy.onKeystroke(1600L);
+        assertEquals(50L, policy.getDelayMillis());
+
+        policy.onKeystroke(2200L);
+        assertEquals(50L, policy.getDelayMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWindowTest() {
+        new AdaptiveDebouncePolicy(300L, 50L);
+    }
+}
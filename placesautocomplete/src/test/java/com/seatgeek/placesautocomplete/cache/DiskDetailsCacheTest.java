@@ -0,0 +1,120 @@
+package com.irshad.placesautocomplete.cache;
+
+import com.irshad.placesautocomplete.async.BackgroundJob;
+import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceGeometry;
+import com.irshad.placesautocomplete.model.PlaceLocation;
+import com.irshad.placesautocomplete.model.PlacesDetailsResponse;
+import com.irshad.placesautocomplete.model.Status;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DiskDetailsCacheTest {
+    private static final long TTL_MILLIS = 60000L;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final DetailsCacheKey a = new DetailsCacheKey("a", "en");
+    private final DetailsCacheKey b = new DetailsCacheKey("b", "en");
+    private final DetailsCacheKey c = new DetailsCacheKey("c", "en");
+
+    @Test
+    public void roundTripTest() throws Exception {
+        final File directory = folder.newFolder();
+        final TestDiskDetailsCache cache = new TestDiskDetailsCache(directory, DiskDetailsCache.DEFAULT_MAX_BYTES);
+        final PlacesDetailsResponse response = response("a");
+        cache.put(a, response);
+
+        // the write is done, so this reads the record back from its file
+        assertEquals(response.result, cache.get(a).result);
+        assertEquals(Status.OK, cache.get(a).status);
+        assertNull(cache.get(new DetailsCacheKey("a", "fr")));
+
+        // as after an app restart
+        final TestDiskDetailsCache reloaded = new TestDiskDetailsCache(directory, DiskDetailsCache.DEFAULT_MAX_BYTES);
+        assertEquals(1, reloaded.entryCount());
+        assertEquals(cache.sizeBytes(), reloaded.sizeBytes());
+        assertEquals(response.result, reloaded.get(a).result);
+    }
+
+    @Test
+    public void evictionTest() throws Exception {
+        final File directory = folder.newFolder();
+        final TestDiskDetailsCache sizing = new TestDiskDetailsCache(folder.newFolder(), DiskDetailsCache.DEFAULT_MAX_BYTES);
+        sizing.put(a, response("a"));
+        final long recordBytes = sizing.sizeBytes();
+
+        final TestDiskDetailsCache cache = new TestDiskDetailsCache(directory, recordBytes * 2 + recordBytes / 2);
+        cache.put(a, response("a"));
+        cache.put(b, response("b"));
+        cache.get(a);
+        cache.put(c, response("c"));
+
+        // b was the least recently used
+        assertEquals(2, cache.entryCount());
+        assertEquals(recordBytes * 2, cache.sizeBytes());
+        assertNull(cache.get(b));
+        assertEquals("a", cache.get(a).result.place_id);
+        assertEquals("c", cache.get(c).result.place_id);
+        assertEquals(2, directory.listFiles().length);
+    }
+
+    @Test
+    public void ttlTest() throws Exception {
+        final File directory = folder.newFolder();
+        final TestDiskDetailsCache cache = new TestDiskDetailsCache(directory, DiskDetailsCache.DEFAULT_MAX_BYTES);
+        cache.put(a, response("a"));
+
+        cache.offsetMillis = TTL_MILLIS - 5000L;
+        assertEquals("a", cache.get(a).result.place_id);
+
+        cache.offsetMillis = TTL_MILLIS + 1;
+        assertNull(cache.get(a));
+        assertEquals(0, cache.entryCount());
+        assertEquals(0L, cache.sizeBytes());
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    private static PlacesDetailsResponse response(final String placeId) {
+        return new PlacesDetailsResponse(Status.OK, null, new PlaceDetails(null, "1 Main Street", null, null,
+                new PlaceGeometry(new PlaceLocation(1.0, 2.0)), null, "Main Street", placeId, null, false, null, null,
+                null, -1, -1.0, null, Collections.singletonList("route"), null, null));
+    }
+
+    /**
+     * Runs the disk jobs on the calling thread, with a clock that can be moved forward
+     */
+    private static final class TestDiskDetailsCache extends DiskDetailsCache {
+        long offsetMillis;
+
+        TestDiskDetailsCache(final File directory, final long maxBytes) {
+            super(directory, maxBytes, TTL_MILLIS);
+        }
+
+        @Override
+        protected long now() {
+            return System.currentTimeMillis() + offsetMillis;
+        }
+
+        @Override
+        <R> void enqueue(final BackgroundJob<R> job) {
+            final R result;
+            try {
+                result = job.executeInBackground();
+            } catch (Exception e) {
+                job.onFailure(e);
+                return;
+            }
+            job.onSuccess(result);
+        }
+    }
+}
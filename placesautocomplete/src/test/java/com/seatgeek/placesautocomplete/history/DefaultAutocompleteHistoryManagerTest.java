@@ -0,0 +1,262 @@
+package com.irshad.placesautocomplete.history;
+
+import android.content.ComponentCallbacks;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+
+import com.irshad.placesautocomplete.async.BackgroundJob;
+import com.irshad.placesautocomplete.async.BackgroundJobHandle;
+import com.irshad.placesautocomplete.model.Place;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class DefaultAutocompleteHistoryManagerTest {
+    private static final int CAPACITY = 50;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Context context = mock(Context.class);
+
+    private final HistoryCodec codec = new BinaryHistoryCodec();
+
+    private final Place a = place("a");
+    private final Place b = place("b");
+    private final Place c = place("c");
+
+    @Test
+    public void savesAreCoalescedTest() throws Exception {
+        final TestHistoryManager manager = new TestHistoryManager(folder.newFolder());
+        manager.load();
+        manager.runJobs();
+
+        manager.addItemToHistory(a);
+        manager.addItemToHistory(b);
+        manager.addItemToHistory(c);
+
+        // one save, scheduled with the first change
+        assertEquals(0, manager.jobs.size());
+        assertEquals(DefaultAutocompleteHistoryManager.DEFAULT_WRITE_DELAY_MILLIS, manager.scheduledDelayMillis);
+        assertEquals(1, manager.schedules);
+
+        // as the main thread handler does once the delay has passed
+        manager.flush();
+        assertEquals(1, manager.jobs.size());
+        manager.runJobs();
+        assertEquals(Arrays.asList(c, b, a), manager.readFile());
+
+        // enough pending changes are saved without waiting for the delay
+        final List<Place> expected = new ArrayList<>();
+        for (int i = 0; i < DefaultAutocompleteHistoryManager.DEFAULT_MAX_PENDING_CHANGES; i++) {
+            assertEquals(0, manager.jobs.size());
+            final Place place = place("p" + i);
+            manager.addItemToHistory(place);
+            expected.add(0, place);
+        }
+        assertEquals(1, manager.jobs.size());
+        assertEquals(-1L, manager.scheduledDelayMillis);
+        manager.runJobs();
+
+        expected.addAll(Arrays.asList(c, b, a));
+        assertEquals(expected, manager.readFile());
+    }
+
+    @Test
+    public void supersededSaveIsDroppedTest() throws Exception {
+        final TestHistoryManager manager = new TestHistoryManager(folder.newFolder());
+        manager.load();
+        manager.runJobs();
+
+        manager.addItemToHistory(a);
+        manager.flush();
+        final BackgroundJobHandle first = manager.handles.get(0);
+
+        // the first save has not run yet, the second one writes its places too
+        manager.addItemToHistory(b);
+        manager.flush();
+        assertTrue(first.isCanceled());
+        assertFalse(manager.handles.get(1).isCanceled());
+
+        // the load and a single save
+        manager.runJobs();
+        assertEquals(2, manager.jobsRun);
+        assertEquals(Arrays.asList(b, a), manager.readFile());
+    }
+
+    @Test
+    public void flushedInBackgroundTest() throws Exception {
+        final TestHistoryManager manager = new TestHistoryManager(folder.newFolder());
+        manager.load();
+        manager.runJobs();
+
+        manager.addItemToHistory(a);
+        final ArgumentCaptor<ComponentCallbacks> captor = ArgumentCaptor.forClass(ComponentCallbacks.class);
+        verify(context).registerComponentCallbacks(captor.capture());
+        final ComponentCallbacks2 callbacks = (ComponentCallbacks2) captor.getValue();
+
+        // still in the foreground
+        callbacks.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertEquals(0, manager.jobs.size());
+
+        callbacks.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(1, manager.jobs.size());
+        assertEquals(-1L, manager.scheduledDelayMillis);
+        verify(context).unregisterComponentCallbacks(callbacks);
+
+        manager.runJobs();
+        assertEquals(Collections.singletonList(a), manager.readFile());
+    }
+
+    @Test
+    public void loadIsIdempotentTest() throws Exception {
+        final TestHistoryManager manager = new TestHistoryManager(folder.newFolder());
+        manager.writeFile(Arrays.asList(a, b));
+
+        final Future<List<Place>> future = manager.load();
+        assertSame(future, manager.load());
+        assertEquals(Collections.<Place>emptyList(), manager.getPastSelections());
+        manager.getPrefixIndex();
+        assertEquals(1, manager.jobs.size());
+
+        manager.runJobs();
+        assertTrue(future.isDone());
+        assertEquals(Arrays.asList(a, b), future.get());
+        assertEquals(Arrays.asList(a, b), manager.getPastSelections());
+
+        // the file is read once
+        assertSame(future, manager.load());
+        assertEquals(0, manager.jobs.size());
+    }
+
+    @Test
+    public void selectionDuringLoadWinsTest() throws Exception {
+        final TestHistoryManager manager = new TestHistoryManager(folder.newFolder());
+        manager.writeFile(Arrays.asList(a, b, c));
+
+        // starts the load, the save waits for it so the places still being read are not lost
+        manager.addItemToHistory(b);
+        assertEquals(1, manager.jobs.size());
+        assertEquals(Collections.singletonList(b), manager.getPastSelections());
+
+        manager.runJobs();
+        assertEquals(Arrays.asList(b, a, c), manager.getPastSelections());
+        assertEquals(Arrays.asList(b, a, c), manager.readFile());
+    }
+
+    private static Place place(final String placeId) {
+        return new Place(placeId, placeId, null, null, null);
+    }
+
+    /**
+     * Queues the file jobs until the test runs them on its own thread, and records the scheduled
+     * flush instead of posting it
+     */
+    private final class TestHistoryManager extends DefaultAutocompleteHistoryManager {
+        final List<BackgroundJob<?>> jobs = new ArrayList<>();
+
+        final List<BackgroundJobHandle> handles = new ArrayList<>();
+
+        int jobsRun;
+
+        long scheduledDelayMillis = -1L;
+
+        int schedules;
+
+        private final File historyFile;
+
+        TestHistoryManager(final File directory) {
+            this(new File(directory, "history.bin"), new File(directory, "history"));
+        }
+
+        private TestHistoryManager(final File historyFile, final File legacyJsonFile) {
+            super(context, historyFile, codec, legacyJsonFile, CAPACITY);
+            this.historyFile = historyFile;
+        }
+
+        @Override
+        void scheduleFlush(final long delayMillis) {
+            scheduledDelayMillis = delayMillis;
+            schedules++;
+        }
+
+        @Override
+        void cancelScheduledFlush() {
+            scheduledDelayMillis = -1L;
+        }
+
+        @Override
+        <R> BackgroundJobHandle enqueue(final BackgroundJob<R> job) {
+            final BackgroundJobHandle handle = new BackgroundJobHandle();
+            jobs.add(job);
+            handles.add(handle);
+            return handle;
+        }
+
+        @Override
+        <R> void enqueueFirst(final BackgroundJob<R> job) {
+            jobs.add(0, job);
+            handles.add(0, new BackgroundJobHandle());
+        }
+
+        void runJobs() {
+            while (!jobs.isEmpty()) {
+                final BackgroundJob<?> job = jobs.remove(0);
+                if (!handles.remove(0).isCanceled()) {
+                    run(job);
+                }
+            }
+        }
+
+        private <R> void run(final BackgroundJob<R> job) {
+            jobsRun++;
+            final R result;
+            try {
+                result = job.executeInBackground();
+            } catch (Exception e) {
+                job.onFailure(e);
+                return;
+            }
+            job.onSuccess(result);
+        }
+
+        List<Place> readFile() throws IOException {
+            final InputStream in = new FileInputStream(historyFile);
+            try {
+                return codec.read(in);
+            } finally {
+                in.close();
+            }
+        }
+
+        void writeFile(final List<Place> places) throws IOException {
+            final OutputStream out = new FileOutputStream(historyFile);
+            try {
+                codec.write(out, places);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
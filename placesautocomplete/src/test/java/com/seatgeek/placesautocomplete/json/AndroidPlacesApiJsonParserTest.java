@@ -12,6 +12,7 @@ import com.irshad.placesautocomplete.model.OpenHours;
 import com.irshad.placesautocomplete.model.OpenPeriod;
 import com.irshad.placesautocomplete.model.Place;
 import com.irshad.placesautocomplete.model.PlaceDetails;
+import com.irshad.placesautocomplete.model.PlaceDetailsField;
 import com.irshad.placesautocomplete.model.PlaceGeometry;
 import com.irshad.placesautocomplete.model.PlaceLocation;
 import com.irshad.placesautocomplete.model.PlacePhoto;
@@ -28,11 +29,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AndroidPlacesApiJsonParserTest {
@@ -294,7 +300,7 @@ public class AndroidPlacesApiJsonParserTest {
 
     @Test
     public void readPlaceDetailsTest() throws IOException {
-        when(parser.readPlaceDetails(reader)).thenCallRealMethod();
+        when(parser.readPlaceDetails(reader, null)).thenCallRealMethod();
 
         Boolean[] hasNextValues = new Boolean[20];
         Arrays.fill(hasNextValues, 0, 19, Boolean.TRUE);
@@ -356,10 +362,27 @@ public class AndroidPlacesApiJsonParserTest {
                 Collections.singletonList("type"),
                 "url",
                 "vic");
-        PlaceDetails actual = parser.readPlaceDetails(reader);
+        PlaceDetails actual = parser.readPlaceDetails(reader, null);
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void readMaskedPlaceDetailsTest() throws IOException {
+        final Set<PlaceDetailsField> fields = EnumSet.of(PlaceDetailsField.NAME, PlaceDetailsField.PLACE_ID);
+        when(parser.readPlaceDetails(reader, fields)).thenCallRealMethod();
+        when(reader.hasNext()).thenReturn(true, true, true, true, false);
+        when(reader.nextName()).thenReturn("formatted_address", "name", "reviews", "place_id");
+        when(reader.nextString()).thenReturn("name", "id");
+
+        PlaceDetails actual = parser.readPlaceDetails(reader, fields);
+        assertEquals("name", actual.name);
+        assertEquals("id", actual.place_id);
+        assertNull(actual.formatted_address);
+        assertNull(actual.reviews);
+        verify(reader, times(2)).skipValue();
+        verify(parser, never()).readReviewsArray(reader);
+    }
+
     @Test
     public void readPredictionsArrayTest() throws IOException {
         when(parser.readPredictionsArray(reader)).thenCallRealMethod();